@@ -5,7 +5,7 @@ import java.awt.Graphics;
 import java.awt.GridLayout;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Map;
 
 import javax.swing.JPanel;
 
@@ -16,10 +16,10 @@ public class ElevatorButtonPanel extends JPanel{
 	 * 
 	 */
 	private static final long serialVersionUID = 1L;
-	private HashMap<Integer, Boolean> lamps;
+	private Map<Integer, Boolean> lamps;
 	private final int PANEL_COLS = 6;
 	private ArrayList<RoundButton> buttons;
-	public ElevatorButtonPanel(HashMap<Integer, Boolean> lamps) {
+	public ElevatorButtonPanel(Map<Integer, Boolean> lamps) {
 		this.lamps = lamps;
 		initialize();
 	}
@@ -53,7 +53,7 @@ public class ElevatorButtonPanel extends JPanel{
 		}
     }
 	
-	public void refreshStatus(HashMap<Integer, Boolean> lamps2) {
+	public void refreshStatus(Map<Integer, Boolean> lamps2) {
 		this.lamps = lamps2;
 		repaint();
 	}
@@ -4,7 +4,6 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.GridBagLayout;
-import java.util.HashMap;
 
 import javax.swing.BoxLayout;
 import javax.swing.JFrame;
@@ -22,13 +21,13 @@ public class ElevatorFrame extends JFrame{
 	private static final long serialVersionUID = 1L;
 
 	
-	public ElevatorFrame(HashMap<String, ElevatorMonitor> elevatorMonitors) {
+	public ElevatorFrame(ElevatorMonitor[] elevatorMonitors) {
 		super("Elevator GUI Monitor");
 		JPanel panel = new JPanel();
 		panel.setLayout(new GridBagLayout());
 		//this.setLayout(new GridBagLayout());
 		this.getContentPane().setLayout(new BoxLayout(getContentPane(), BoxLayout.PAGE_AXIS));
-		for(ElevatorMonitor monitor : elevatorMonitors.values()) {
+		for(ElevatorMonitor monitor : elevatorMonitors) {
 			ElevatorState state = monitor.getElevatorState();
 			ElevatorMainPanel EMP =new ElevatorMainPanel(state);
 			panel.add(EMP);
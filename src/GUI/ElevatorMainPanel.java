@@ -6,7 +6,7 @@ import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
 
@@ -14,6 +14,7 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
 import main.elevatorSubsystem.ElevatorState;
+import main.elevatorSubsystem.ElevatorStateSnapshot;
 import main.global.Direction;
 import main.global.ElevatorDoorStatus;
 import main.global.ElevatorStatus;
@@ -41,14 +42,15 @@ public class ElevatorMainPanel extends JPanel implements Observer {
 		//this.setSize(60, 1000);
 		this.setPreferredSize(new Dimension(70 *  3, 600));
 		this.setBorder(new EmptyBorder(0, 10, 10, 10));
-		HashMap<Integer, Boolean> lamps = elevator.getLamps();
+		ElevatorStateSnapshot state = elevator.getSnapshot();
+		Map<Integer, Boolean> lamps = state.getLamps();
 		this.setLayout(new BoxLayout(this,BoxLayout.PAGE_AXIS));
 		//JPanel holdPanel = new JPanel();
 		//holdPanel.setLayout(new BoxLayout(holdPanel,BoxLayout.PAGE_AXIS));
-		DP2 = new ElevatorDirectionPanel(elevator.getDirection());
+		DP2 = new ElevatorDirectionPanel(state.getDirection());
 		//DP2.setSize(32, 32);
 		this.add(DP2);
-		DP = new ElevatorDoorsPanel(elevator.getDoorStatus());
+		DP = new ElevatorDoorsPanel(state.getDoorStatus());
 		DP.setSize(60,200);
 		this.add(DP);
 
@@ -95,8 +97,10 @@ public class ElevatorMainPanel extends JPanel implements Observer {
 	}
 
 	private void refresh() {
-		BP.refreshStatus(elevator.getLamps());
-		DP2.refreshStatus(elevator.getDirection(), elevator.getCurrentFloor(), elevator.getCurrentStatus());
+		//Read one snapshot, so the lamps, direction, floor and status shown are all from the same state
+		ElevatorStateSnapshot state = elevator.getSnapshot();
+		BP.refreshStatus(state.getLamps());
+		DP2.refreshStatus(state.getDirection(), state.getCurrentFloor(), state.getCurrentStatus());
 		this.repaint();
 	}
 
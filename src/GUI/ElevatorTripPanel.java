@@ -4,7 +4,6 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.LinkedHashSet;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.ArrayList;
@@ -16,7 +15,8 @@ import java.util.HashSet;
 import javax.swing.*;
 
 import main.scheduler.ElevatorMonitor;
-import main.scheduler.TripRequest;
+import main.scheduler.ElevatorMonitorSnapshot;
+import main.scheduler.TripRequestSnapshot;
 
 public class ElevatorTripPanel extends JPanel implements Observer{
 
@@ -25,17 +25,16 @@ public class ElevatorTripPanel extends JPanel implements Observer{
 	 */
 	private static final long serialVersionUID = 1L;
 	
-	private LinkedHashSet<TripRequest> pending_queue;
-	private ArrayList<TripRequest> completed_trips;
+	private ElevatorMonitor monitor;
 	private String[] columns = {"Pickup, Destination, Start, Complete"};
 	
 	private JTable table;
-	private HashMap<TripRequest, JLabel> requests;
+	private HashMap<Long, JLabel> requests;							//key -> trip request id, value -> its label
+	private HashMap<Long, TripRequestSnapshot> snapshots;			//key -> trip request id, value -> latest snapshot of the TripRequest on this panel
 	private String[][] data;
 	
 	public ElevatorTripPanel(ElevatorMonitor monitor) {
-		this.pending_queue = monitor.getQueue();
-		this.completed_trips = monitor.getCompleted();
+		this.monitor = monitor;
 		monitor.addObserver(this);
 		initialize();
 		this.setLayout(new BoxLayout(this, BoxLayout.PAGE_AXIS));
@@ -48,6 +47,7 @@ public class ElevatorTripPanel extends JPanel implements Observer{
 	private void initialize() 
 	{
 		requests = new HashMap<>();
+		snapshots = new HashMap<>();
 		this.add(new JLabel("Trip Requests"), SwingConstants.CENTER);
 	}
 	
@@ -56,12 +56,17 @@ public class ElevatorTripPanel extends JPanel implements Observer{
 		//this.add(new JLabel("Trip Requests"));
 
 		//Gather all TripRequests that are currently in the pending queue and completed trips list for this Elevator
-		ArrayList<TripRequest> currentTripRequestList = new ArrayList<>(pending_queue.size() + completed_trips.size());
-		for(TripRequest tr : completed_trips) {
+		//They are read from one snapshot of the ElevatorMonitor, so a trip cannot be missed (or shown twice) while it moves from the queue to the completed trips
+		ElevatorMonitorSnapshot monitorSnapshot = monitor.getSnapshot();
+		ArrayList<TripRequestSnapshot> currentTripRequestList = new ArrayList<>(monitorSnapshot.getQueue().size() + monitorSnapshot.getCompleted().size());
+		HashMap<Long, TripRequestSnapshot> currentSnapshots = new HashMap<>();
+		for(TripRequestSnapshot tr : monitorSnapshot.getCompleted()) {
 			currentTripRequestList.add(tr);
+			currentSnapshots.put(tr.getId(), tr);
 		}
-		for(TripRequest tr : pending_queue){
+		for(TripRequestSnapshot tr : monitorSnapshot.getQueue()){
 			currentTripRequestList.add(tr);
+			currentSnapshots.put(tr.getId(), tr);
 		}
 		currentTripRequestList.sort(new TripRequestComparator());
 		
@@ -69,14 +74,12 @@ public class ElevatorTripPanel extends JPanel implements Observer{
 		if (this.countComponents() > currentTripRequestList.size() + 1) {
 			//Determine which TripRequest needs to be removed, traverse each of the tripRequests' labels that are contained within this panel
 			//determine which one is no longer in the queue (or completed) for this elevator
-			ArrayList<TripRequest> tripRequestLabelsToBeRemoved = new ArrayList<TripRequest>();
-			for (TripRequest tripRequestOnPanel : requests.keySet()) {
+			ArrayList<Long> tripRequestLabelsToBeRemoved = new ArrayList<Long>();
+			for (Long tripRequestOnPanel : requests.keySet()) {
 				//If the currentTripRequestList does not contain this tripRequestLabel, then it needs to be removed
-				if (!currentTripRequestList.contains(tripRequestOnPanel)) {
+				if (!currentSnapshots.containsKey(tripRequestOnPanel)) {
 					//Remove this label from this JPanel
 					this.remove(requests.get(tripRequestOnPanel));
-					//Deregister this panel as an observer for this tripRequestLabel
-					tripRequestOnPanel.deleteObserver(this);
 					//Add this to temp collection 'tripRequestsToBeRemoved' to remove from 'requests' collection (outside this foreach loop)
 					tripRequestLabelsToBeRemoved.add(tripRequestOnPanel);
 					//Update GUI
@@ -84,41 +87,41 @@ public class ElevatorTripPanel extends JPanel implements Observer{
 				}
 			}
 			//Remove all tripRequestLabels that have been removed
-			for (TripRequest tripRequest : tripRequestLabelsToBeRemoved) {
+			for (Long tripRequest : tripRequestLabelsToBeRemoved) {
 				this.requests.remove(tripRequest);
+				this.snapshots.remove(tripRequest);
 			}
 		}
 		
 		//Traverse to all tripRequests on the elevators currentTripRequestList, add anything tripRequest that is not currently in 'requests'
-		for(TripRequest tr : currentTripRequestList){
+		//and refresh the label of every tripRequest already on the panel
+		for(TripRequestSnapshot tr : currentTripRequestList){
+			long tripRequest = tr.getId();
+			snapshots.put(tripRequest, tr);
 			//If the requests map does not contain this trip, then it must be added
-			if (!requests.containsKey(tr)) {
+			if (!requests.containsKey(tripRequest)) {
 				JLabel label = new JLabel();
 				label.setOpaque(true);
-				label.setText(tr.toString());
-				if(tr.isCompleted()) {
-					label.setForeground(Color.green);
-				}
 				label.addMouseListener(new MouseAdapter() {
 					public void mouseClicked(MouseEvent e) {
 						if(e.getClickCount() == 2) {
 							JPanel panel = new JPanel();
-							String request_statistics = makeTRString(tr);
+							String request_statistics = makeTRString(snapshots.get(tripRequest));
 							JOptionPane.showMessageDialog(null, request_statistics);
 						}
 					}
 				});
-				requests.put(tr, label);
+				requests.put(tripRequest, label);
 				label.setHorizontalAlignment(JLabel.CENTER);
 				this.add(label);
-				tr.addObserver(this);
 			}
+			refreshRequest(tr);
 		}
 		this.repaint();
 	}
 	
-	public void refreshRequest(TripRequest tr) {
-		JLabel label = requests.get(tr);
+	public void refreshRequest(TripRequestSnapshot tr) {
+		JLabel label = requests.get(tr.getId());
 
 			label.setText(tr.toString());
 		
@@ -136,12 +139,9 @@ public class ElevatorTripPanel extends JPanel implements Observer{
 			//queue = monitor.getQueue();
 			refreshTable();
 		}
-		else if(arg0 instanceof TripRequest){
-			refreshRequest((TripRequest)arg0);
-		}
 	}
 	
-	private String makeTRString(TripRequest tr) {
+	private String makeTRString(TripRequestSnapshot tr) {
 		String ret = "";
 		ret += "Pickup: "+tr.getPickupFloor()+" at "+tr.getStartTime()+" | ";
 		if(tr.isCompleted()) {
@@ -159,10 +159,10 @@ public class ElevatorTripPanel extends JPanel implements Observer{
 	}
 }
 
-class TripRequestComparator implements Comparator<TripRequest> {
+class TripRequestComparator implements Comparator<TripRequestSnapshot> {
 
 	@Override
-	public int compare(TripRequest arg0, TripRequest arg1) {
+	public int compare(TripRequestSnapshot arg0, TripRequestSnapshot arg1) {
 		if(arg0.getStartTimeLong() > arg1.getStartTimeLong()) {
 			return 1;
 		}
@@ -0,0 +1,190 @@
+package main.analytics;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import main.scheduler.TripArchive;
+import main.scheduler.TripArchive.TripBlock;
+
+/**
+ * TripAnalytics answers queries over the completed trips in a TripArchive: the wait and ride times of the trips completed in a period, overall,
+ * by pickup floor and by elevator.
+ *
+ * The archive is read in blocks of BLOCK_SIZE trips, one primitive array per column (see TripArchive.scanBlocks()), and each block is aggregated
+ * by a plain loop over the arrays on the common ForkJoinPool while the next blocks are read. At most MAX_BLOCKS_IN_FLIGHT blocks are held at
+ * once, so the memory used does not grow with the size of the archive. An archive of one block or less is aggregated on the calling thread.
+ *
+ */
+public class TripAnalytics {
+	private static final int BLOCK_SIZE = 65536;
+	private static final int MAX_BLOCKS_IN_FLIGHT = 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+
+	private TripArchive tripArchive;
+
+	public TripAnalytics(TripArchive tripArchive) {
+		this.tripArchive = tripArchive;
+	}
+
+	/**
+	 * Report on the trips completed in a period.
+	 * @param from	- time (milliseconds), inclusive
+	 * @param to	- time (milliseconds), exclusive
+	 * @return
+	 * @throws IOException
+	 */
+	public TripReport report(long from, long to) throws IOException {
+		TripAggregate aggregate = new TripAggregate();
+		if (this.tripArchive.getTripCount() <= BLOCK_SIZE) {
+			this.tripArchive.scanBlocks(BLOCK_SIZE, block -> aggregate.aggregate(block, from, to));
+		} else {
+			ArrayDeque<ForkJoinTask<TripAggregate>> blocksInFlight = new ArrayDeque<ForkJoinTask<TripAggregate>>();
+			this.tripArchive.scanBlocks(BLOCK_SIZE, block -> {
+				blocksInFlight.add(ForkJoinPool.commonPool().submit((Callable<TripAggregate>) () -> {
+					TripAggregate blockAggregate = new TripAggregate();
+					blockAggregate.aggregate(block, from, to);
+					return blockAggregate;
+				}));
+				if (blocksInFlight.size() >= MAX_BLOCKS_IN_FLIGHT) {
+					aggregate.merge(blocksInFlight.poll().join());
+				}
+			});
+			while (!blocksInFlight.isEmpty()) {
+				aggregate.merge(blocksInFlight.poll().join());
+			}
+		}
+		return aggregate.toReport(from, to, this.tripArchive);
+	}
+
+	/**
+	 * Report on the trips completed on a day (local time).
+	 * @param day	- any time (milliseconds) on the day
+	 * @return
+	 * @throws IOException
+	 */
+	public TripReport dailyReport(long day) throws IOException {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(day);
+		calendar.set(Calendar.HOUR_OF_DAY, 0);
+		calendar.set(Calendar.MINUTE, 0);
+		calendar.set(Calendar.SECOND, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+		long from = calendar.getTimeInMillis();
+		calendar.add(Calendar.DAY_OF_MONTH, 1);
+		return this.report(from, calendar.getTimeInMillis());
+	}
+
+	/**
+	 * Statistics of the trips aggregated so far, overall and grouped by pickup floor and by elevator. The groups are arrays indexed by floor and
+	 * by elevator key, grown as floors and elevators are seen, the elevators are named from the archive in the report.
+	 */
+	private static class TripAggregate {
+		private TripStatistics allTrips = new TripStatistics();
+		private TripStatistics[] floors = new TripStatistics[0];
+		private TripStatistics[] elevators = new TripStatistics[0];
+
+		/**
+		 * Record every trip of a block completed in the period.
+		 */
+		void aggregate(TripBlock block, long from, long to) {
+			int[] elevatorKeys = block.elevatorKeys;
+			int[] pickupFloors = block.pickupFloors;
+			long[] creationTimes = block.creationTimes;
+			long[] startTimes = block.startTimes;
+			long[] completionTimes = block.completionTimes;
+			for (int trip = 0; trip < block.size; trip++) {
+				long completionTime = completionTimes[trip];
+				if ((completionTime < from) || (completionTime >= to)) {
+					continue;
+				}
+				long waitTime = Math.max(0, startTimes[trip] - creationTimes[trip]);
+				long rideTime = Math.max(0, completionTime - startTimes[trip]);
+				this.allTrips.record(waitTime, rideTime);
+				this.floors = group(this.floors, pickupFloors[trip]);
+				this.floors[pickupFloors[trip]].record(waitTime, rideTime);
+				this.elevators = group(this.elevators, elevatorKeys[trip]);
+				this.elevators[elevatorKeys[trip]].record(waitTime, rideTime);
+			}
+		}
+
+		void merge(TripAggregate aggregate) {
+			this.allTrips.merge(aggregate.allTrips);
+			this.floors = merge(this.floors, aggregate.floors);
+			this.elevators = merge(this.elevators, aggregate.elevators);
+		}
+
+		TripReport toReport(long from, long to, TripArchive tripArchive) {
+			TreeMap<String, TripStatistics> elevators = new TreeMap<String, TripStatistics>();
+			for (int elevatorKey = 0; elevatorKey < this.elevators.length; elevatorKey++) {
+				if (this.elevators[elevatorKey] != null) {
+					String elevatorName = tripArchive.getElevatorName(elevatorKey);
+					elevators.put((elevatorName == null) ? ("#" + elevatorKey) : elevatorName, this.elevators[elevatorKey]);
+				}
+			}
+			return new TripReport(from, to, this.allTrips, toMap(this.floors), elevators);
+		}
+
+		/**
+		 * Make sure a group has statistics, growing the groups if needed.
+		 * @return the groups
+		 */
+		private static TripStatistics[] group(TripStatistics[] groups, int group) {
+			if (group >= groups.length) {
+				TripStatistics[] grownGroups = new TripStatistics[Math.max(group + 1, groups.length * 2)];
+				System.arraycopy(groups, 0, grownGroups, 0, groups.length);
+				groups = grownGroups;
+			}
+			if (groups[group] == null) {
+				groups[group] = new TripStatistics();
+			}
+			return groups;
+		}
+
+		private static TripStatistics[] merge(TripStatistics[] groups, TripStatistics[] otherGroups) {
+			for (int group = 0; group < otherGroups.length; group++) {
+				if (otherGroups[group] != null) {
+					groups = group(groups, group);
+					groups[group].merge(otherGroups[group]);
+				}
+			}
+			return groups;
+		}
+
+		private static TreeMap<Integer, TripStatistics> toMap(TripStatistics[] groups) {
+			TreeMap<Integer, TripStatistics> map = new TreeMap<Integer, TripStatistics>();
+			for (int group = 0; group < groups.length; group++) {
+				if (groups[group] != null) {
+					map.put(group, groups[group]);
+				}
+			}
+			return map;
+		}
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println("Usage: TripAnalytics <tripArchiveDirectory> [yyyy-MM-dd]");
+			return;
+		}
+
+		try {
+			long day = (args.length > 1) ? new SimpleDateFormat("yyyy-MM-dd").parse(args[1]).getTime() : new Date().getTime();
+			TripArchive tripArchive = TripArchive.openForReading(new File(args[0]));
+			long startTime = System.nanoTime();
+			TripReport report = new TripAnalytics(tripArchive).dailyReport(day);
+			double elapsedTime = (System.nanoTime() - startTime) / 1000000.0;
+			System.out.print(report.format());
+			System.out.printf("(%d archived trips scanned in %.1fms) %n", tripArchive.getTripCount(), elapsedTime);
+		} catch (ParseException | IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package main.analytics;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The result of a TripAnalytics query: the statistics of every trip completed in a period, and broken down by pickup floor and by elevator.
+ *
+ */
+public class TripReport {
+	private long from;
+	private long to;
+	private TripStatistics allTrips;
+	private TreeMap<Integer, TripStatistics> floors;				//key -> pickup floor, value -> statistics of the trips picked up at that floor
+	private TreeMap<String, TripStatistics> elevators;				//key -> elevator name, value -> statistics of the trips completed by that elevator
+
+	TripReport(long from, long to, TripStatistics allTrips, TreeMap<Integer, TripStatistics> floors, TreeMap<String, TripStatistics> elevators) {
+		this.from = from;
+		this.to = to;
+		this.allTrips = allTrips;
+		this.floors = floors;
+		this.elevators = elevators;
+	}
+
+	/**
+	 * @return start of the period (milliseconds), inclusive
+	 */
+	public long getFrom() {
+		return this.from;
+	}
+
+	/**
+	 * @return end of the period (milliseconds), exclusive
+	 */
+	public long getTo() {
+		return this.to;
+	}
+
+	public TripStatistics getAllTrips() {
+		return this.allTrips;
+	}
+
+	/**
+	 * @return pickup floor -> statistics of the trips picked up at that floor, in floor order
+	 */
+	public Map<Integer, TripStatistics> getFloors() {
+		return this.floors;
+	}
+
+	/**
+	 * @return elevator name -> statistics of the trips completed by that elevator, in elevator name order
+	 */
+	public Map<String, TripStatistics> getElevators() {
+		return this.elevators;
+	}
+
+	/**
+	 * Format the report as text tables (all times in seconds).
+	 * @return
+	 */
+	public String format() {
+		SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+		StringBuilder sb = new StringBuilder();
+		sb.append("Trips completed from " + dateFormat.format(new Date(this.from)) + " to " + dateFormat.format(new Date(this.to)) + "\n");
+		sb.append(String.format("%-12s %-10s %-12s %-12s %-12s %-12s %-12s %-12s %n", "", "Trips", "Mean wait", "p50 wait", "p90 wait", "Max wait", "% waits > " + (TripStatistics.LONG_WAIT_TIME / 1000) + "s", "Mean ride"));
+		formatRow(sb, "All", this.allTrips);
+		for (Map.Entry<Integer, TripStatistics> floor : this.floors.entrySet()) {
+			formatRow(sb, "Floor " + floor.getKey(), floor.getValue());
+		}
+		for (Map.Entry<String, TripStatistics> elevator : this.elevators.entrySet()) {
+			formatRow(sb, "Elevator " + elevator.getKey(), elevator.getValue());
+		}
+		sb.append("(all times in seconds)\n");
+		return sb.toString();
+	}
+
+	private static void formatRow(StringBuilder sb, String group, TripStatistics statistics) {
+		sb.append(String.format("%-12s %-10d %-12.1f %-12.1f %-12.1f %-12.1f %-12.1f %-12.1f %n",
+				group,
+				statistics.getTripCount(),
+				statistics.getMeanWaitTime() / 1000.0,
+				statistics.getWaitTimePercentile(50) / 1000.0,
+				statistics.getWaitTimePercentile(90) / 1000.0,
+				statistics.getMaxWaitTime() / 1000.0,
+				statistics.getLongWaitPercentage(),
+				statistics.getMeanRideTime() / 1000.0));
+	}
+
+	public String toString() {
+		return this.format();
+	}
+}
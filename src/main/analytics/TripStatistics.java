@@ -0,0 +1,125 @@
+package main.analytics;
+
+/**
+ * Aggregate wait and ride times of a group of trips (all trips, the trips from one floor, or the trips of one elevator). Times are recorded in
+ * one second buckets up to MAX_HISTOGRAM_TIME, so percentiles are accurate to the second, and two TripStatistics computed over different trips
+ * (ie. on different threads) can be merged.
+ *
+ * Not thread safe, each thread aggregates into its own TripStatistics and they are merged once complete.
+ *
+ */
+public class TripStatistics {
+	public static final long LONG_WAIT_TIME = 60000;				//Waits longer than this (milliseconds) are counted as long waits
+	private static final long BUCKET_SIZE = 1000;					//Time (milliseconds) covered by each histogram bucket
+	private static final int NUMBER_OF_BUCKETS = 601;				//The last bucket holds every time of MAX_HISTOGRAM_TIME or more
+	private static final long MAX_HISTOGRAM_TIME = BUCKET_SIZE * (NUMBER_OF_BUCKETS - 1);
+
+	private long tripCount;
+	private long totalWaitTime;
+	private long totalRideTime;
+	private long longWaitCount;
+	private long maxWaitTime;
+	private long maxRideTime;
+	private long[] waitTimes = new long[NUMBER_OF_BUCKETS];			//index -> bucket, value -> number of trips whose wait time falls in the bucket
+	private long[] rideTimes = new long[NUMBER_OF_BUCKETS];
+
+	/**
+	 * Record a trip.
+	 * @param waitTime	- hall call to pickup (milliseconds)
+	 * @param rideTime	- pickup to arrival at the destination (milliseconds)
+	 */
+	public void record(long waitTime, long rideTime) {
+		this.tripCount++;
+		this.totalWaitTime += waitTime;
+		this.totalRideTime += rideTime;
+		if (waitTime > LONG_WAIT_TIME) {
+			this.longWaitCount++;
+		}
+		this.maxWaitTime = Math.max(this.maxWaitTime, waitTime);
+		this.maxRideTime = Math.max(this.maxRideTime, rideTime);
+		this.waitTimes[(int) (Math.min(waitTime, MAX_HISTOGRAM_TIME) / BUCKET_SIZE)]++;
+		this.rideTimes[(int) (Math.min(rideTime, MAX_HISTOGRAM_TIME) / BUCKET_SIZE)]++;
+	}
+
+	/**
+	 * Add the trips recorded in another TripStatistics to this one.
+	 * @param statistics
+	 */
+	public void merge(TripStatistics statistics) {
+		this.tripCount += statistics.tripCount;
+		this.totalWaitTime += statistics.totalWaitTime;
+		this.totalRideTime += statistics.totalRideTime;
+		this.longWaitCount += statistics.longWaitCount;
+		this.maxWaitTime = Math.max(this.maxWaitTime, statistics.maxWaitTime);
+		this.maxRideTime = Math.max(this.maxRideTime, statistics.maxRideTime);
+		for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++) {
+			this.waitTimes[bucket] += statistics.waitTimes[bucket];
+			this.rideTimes[bucket] += statistics.rideTimes[bucket];
+		}
+	}
+
+	public long getTripCount() {
+		return this.tripCount;
+	}
+
+	/**
+	 * @return mean wait time in milliseconds, 0 if no trip has been recorded
+	 */
+	public double getMeanWaitTime() {
+		return (this.tripCount == 0) ? 0 : (double) this.totalWaitTime / this.tripCount;
+	}
+
+	/**
+	 * @return mean ride time in milliseconds, 0 if no trip has been recorded
+	 */
+	public double getMeanRideTime() {
+		return (this.tripCount == 0) ? 0 : (double) this.totalRideTime / this.tripCount;
+	}
+
+	/**
+	 * @return percentage (0 to 100) of trips which waited longer than LONG_WAIT_TIME
+	 */
+	public double getLongWaitPercentage() {
+		return (this.tripCount == 0) ? 0 : 100.0 * this.longWaitCount / this.tripCount;
+	}
+
+	/**
+	 * @return longest wait time in milliseconds
+	 */
+	public long getMaxWaitTime() {
+		return this.maxWaitTime;
+	}
+
+	/**
+	 * Get a percentile of the wait times.
+	 * @param percentile	- between 0 and 100
+	 * @return wait time in milliseconds (the upper bound of the second it falls in, capped at the longest wait)
+	 */
+	public double getWaitTimePercentile(double percentile) {
+		return getPercentile(this.waitTimes, this.tripCount, this.maxWaitTime, percentile);
+	}
+
+	/**
+	 * Get a percentile of the ride times.
+	 * @param percentile	- between 0 and 100
+	 * @return ride time in milliseconds (the upper bound of the second it falls in, capped at the longest ride)
+	 */
+	public double getRideTimePercentile(double percentile) {
+		return getPercentile(this.rideTimes, this.tripCount, this.maxRideTime, percentile);
+	}
+
+	private static double getPercentile(long[] buckets, long count, long max, double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+		long seen = 0;
+		for (int bucket = 0; bucket < NUMBER_OF_BUCKETS - 1; bucket++) {
+			seen += buckets[bucket];
+			if (seen >= rank) {
+				return Math.min((bucket + 1) * BUCKET_SIZE, max);
+			}
+		}
+		return max;
+	}
+}
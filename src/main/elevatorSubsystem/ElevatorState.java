@@ -20,6 +20,7 @@ public class ElevatorState extends Observable{
 	private Integer timeBetweenFloors;
 	private Integer passengerWaitTime;
 	private Integer doorOperationTime;
+	private volatile ElevatorStateSnapshot snapshot;		//Published after every change, read without locking (see getSnapshot())
 
 	
 	public ElevatorState(Integer defaultFloor, Integer currentFloor, Direction direction, ElevatorStatus status, ElevatorDoorStatus doorStatus,
@@ -38,6 +39,7 @@ public class ElevatorState extends Observable{
 		for (int i = 1; i <= this.maxFloor; i++){
 			this.lamps.put(i,false);
 	}
+		this.publishSnapshot();
 
 }
 
@@ -47,6 +49,7 @@ public class ElevatorState extends Observable{
 
 	public void setStartFloor(Integer floor) {
 		this.startFloor = floor;
+		this.publishSnapshot();
 		this.setChanged();
 		notifyObservers();
 	}
@@ -57,6 +60,7 @@ public class ElevatorState extends Observable{
 
 	public void setCurrentFloor(Integer floor) {
 		this.currentFloor = floor;
+		this.publishSnapshot();
 		this.setChanged();
 		notifyObservers();
 	}
@@ -67,6 +71,7 @@ public class ElevatorState extends Observable{
 
 	public void setDirection(Direction direction) {
 		this.direction = direction;
+		this.publishSnapshot();
 		this.setChanged();
 		notifyObservers();
 	}
@@ -77,6 +82,7 @@ public class ElevatorState extends Observable{
 
 	public void setStatus(ElevatorStatus status) {
 		this.status = status;
+		this.publishSnapshot();
 		this.setChanged();
 		notifyObservers();
 	}
@@ -87,6 +93,7 @@ public class ElevatorState extends Observable{
 
 	public void setDoorStatus(ElevatorDoorStatus doorStatus) {
 		this.doorStatus = doorStatus;
+		this.publishSnapshot();
 		this.setChanged();
 		notifyObservers(this.doorStatus);
 	}
@@ -97,6 +104,7 @@ public class ElevatorState extends Observable{
 
 	public void toggleLamp(Integer floor, Boolean b) {
 		lamps.put(floor, b);
+		this.publishSnapshot();
 		this.setChanged();
 		notifyObservers();
 	}
@@ -130,4 +138,20 @@ public class ElevatorState extends Observable{
 		return this.lamps;
 	}
 
+	/**
+	 * Get the state of this elevator as of its last change. The snapshot is immutable, so it can be read from any thread without locking and
+	 * without seeing a change half made.
+	 * @return
+	 */
+	public ElevatorStateSnapshot getSnapshot() {
+		return this.snapshot;
+	}
+
+	/**
+	 * Publish a new snapshot of this elevator's state, this must be done after every change and before observers are notified.
+	 */
+	private void publishSnapshot() {
+		this.snapshot = new ElevatorStateSnapshot(this.startFloor, this.currentFloor, this.direction, this.status, this.doorStatus, this.maxFloor, this.lamps);
+	}
+
 }
@@ -0,0 +1,66 @@
+package main.elevatorSubsystem;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import main.global.Direction;
+import main.global.ElevatorDoorStatus;
+import main.global.ElevatorStatus;
+
+/**
+ * An ElevatorStateSnapshot is an immutable copy of an ElevatorState. The ElevatorState publishes a new one after every change (see
+ * ElevatorState.getSnapshot()), so a reader on another thread (ie. the GUI) sees a consistent state without locking.
+ *
+ */
+public final class ElevatorStateSnapshot {
+	private final Integer startFloor;
+	private final Integer currentFloor;
+	private final Direction direction;
+	private final ElevatorStatus status;
+	private final ElevatorDoorStatus doorStatus;
+	private final Integer maxFloor;
+	private final Map<Integer, Boolean> lamps;
+
+	ElevatorStateSnapshot(Integer startFloor, Integer currentFloor, Direction direction, ElevatorStatus status, ElevatorDoorStatus doorStatus, Integer maxFloor,
+			Map<Integer, Boolean> lamps) {
+		this.startFloor = startFloor;
+		this.currentFloor = currentFloor;
+		this.direction = direction;
+		this.status = status;
+		this.doorStatus = doorStatus;
+		this.maxFloor = maxFloor;
+		this.lamps = Collections.unmodifiableMap(new HashMap<Integer, Boolean>(lamps));
+	}
+
+	public Integer getStartFloor() {
+		return this.startFloor;
+	}
+
+	public Integer getCurrentFloor() {
+		return this.currentFloor;
+	}
+
+	public Direction getDirection() {
+		return this.direction;
+	}
+
+	public ElevatorStatus getCurrentStatus() {
+		return this.status;
+	}
+
+	public ElevatorDoorStatus getDoorStatus() {
+		return this.doorStatus;
+	}
+
+	public Integer getMaxFloor() {
+		return this.maxFloor;
+	}
+
+	/**
+	 * @return floor -> whether the floor's button lamp is on, the map cannot be modified
+	 */
+	public Map<Integer, Boolean> getLamps() {
+		return this.lamps;
+	}
+}
@@ -6,10 +6,14 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 
 import main.ElevatorSystemComponent;
 import main.global.*;
+import main.jfr.EventQueueWaitEvent;
+import main.metrics.MetricsRegistry;
+import main.metrics.MetricsServer;
 import main.requests.*;
 import main.server.Server;
 
@@ -24,13 +28,15 @@ public class ElevatorSubsystem implements Runnable, ElevatorSystemComponent {
 	private ElevatorState state;
 	private Queue<Request> eventsQueue;
 	private boolean debug = false;
-	private int schedulerPort;
+	private volatile int schedulerPort;
 	private boolean destinationRequestFlag = false;
 	private boolean motorFaultFlag = false;
 	private boolean doorFaultFlag = false;
-	private InetAddress host;
+	private volatile InetAddress host;
+	private RequestDispatcher eventDispatcher;
+	private long schedulerEpoch;			//Highest epoch of the Scheduler seen, requests from a Scheduler with an older epoch are ignored
 	
-	public ElevatorSubsystem(String name, int port, int startFloor, int schedulerPort, int maxFloor, int travelTime, int passengerTime, int doorTime, String host){
+	public ElevatorSubsystem(String name, int port, int startFloor, int schedulerPort, int maxFloor, int travelTime, int passengerTime, int doorTime, String host, int heartbeatInterval){
 		this.name = name;
 		this.travelTime = travelTime;
 		this.passengerTime = passengerTime;
@@ -44,21 +50,49 @@ public class ElevatorSubsystem implements Runnable, ElevatorSystemComponent {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
 		}
+		this.registerEventHandlers();
+		this.registerMetrics();
 
 		//Create a server (bound to this Instance of ElevatorSubsystem) in a new thread.
 		//When this server receives requests, they will be added to the eventsQueue of THIS ElevatorSubsystem instance.
 		server = new Server(this, port, this.debug);
 		serverThread = new Thread(server, name);
 		serverThread.start();
+
+		//send heartbeats to the scheduler so it can tell this elevator is alive, even while it is idle
+		if (heartbeatInterval > 0) {
+			Thread heartbeatThread = new Thread(() -> {
+				while (true) {
+					this.sendToServer(new ElevatorHeartbeatRequest(this.name));
+					try {
+						Thread.sleep(heartbeatInterval);
+					} catch (InterruptedException e) {
+						e.printStackTrace();
+					}
+				}
+			}, name + "_heartbeat");
+			heartbeatThread.setDaemon(true);
+			heartbeatThread.start();
+		}
 	}
 	
 	public synchronized void receiveEvent(Request event) {
+		//ignore a Scheduler which has been replaced by a standby Scheduler (it sends with an older epoch), requests not sent by a Scheduler have no epoch
+		if (event.getEpoch() != 0) {
+			if (event.getEpoch() < this.schedulerEpoch) {
+				this.consoleOutput("[STALE SCHEDULER - Ignored] " + event.getClass().getSimpleName() + " sent with epoch " + event.getEpoch() + ", the Scheduler's epoch is " + this.schedulerEpoch + ".");
+				return;
+			}
+			this.schedulerEpoch = event.getEpoch();
+		}
 		eventsQueue.add(event);
 		this.notifyAll();
 	}
 
 	//goes through event queue till empty then waits till next event received
 	public synchronized Request getNextEvent() {
+		EventQueueWaitEvent waitEvent = new EventQueueWaitEvent();
+		waitEvent.begin();
 		while (eventsQueue.isEmpty()) {
 			try {
 				this.wait();
@@ -66,7 +100,13 @@ public class ElevatorSubsystem implements Runnable, ElevatorSystemComponent {
 				e.printStackTrace();
 			}
 		}
-		return eventsQueue.poll();
+		Request event = eventsQueue.poll();
+		if (waitEvent.shouldCommit()) {
+			waitEvent.component = this.name;
+			waitEvent.queueDepth = eventsQueue.size();
+			waitEvent.commit();
+		}
+		return event;
 	}
 	
 	public String getName() {
@@ -77,49 +117,103 @@ public class ElevatorSubsystem implements Runnable, ElevatorSystemComponent {
 	@Override
 	public void run() {
 		this.consoleOutput(this.name + " is online. Waiting for a command from Scheduler...");
+		//announce where this elevator is, so a scheduler which took it out of service can return it to service after a restart
+		this.announce();
 		while (true) {
 			this.handleEvent(this.getNextEvent());
 		}
 	}
 
-	private void handleEvent(Request event) {
-		//switch statement corresponding to different "event handlers"
-		if (event instanceof ElevatorArrivalRequest) {
-			ElevatorArrivalRequest request = (ElevatorArrivalRequest) event;
-			this.consoleOutput("Sending arrival notice.");
-			this.sendToServer(request);
-		} else if (event instanceof ElevatorDoorRequest) {
-			ElevatorDoorRequest request = (ElevatorDoorRequest) event;
-			if (request.getRequestAction() == ElevatorDoorStatus.OPENED) {
-				this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Open elevator doors.");
-				this.handleElevatorOpenDoor();
-			} else if (request.getRequestAction() == ElevatorDoorStatus.CLOSED) {
-				this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Close elevator doors.");
-				this.handleElevatorCloseDoor();
-			}
-		} else if (event instanceof ElevatorMotorRequest) {
-			ElevatorMotorRequest request = (ElevatorMotorRequest) event;
-			if (request.getRequestAction() == Direction.IDLE) {
-				this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Stop elevator.");
-				this.handleElevatorStop();
-			}
-			else if (request.getRequestAction() == Direction.UP) {
-				this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Move elevator up.");
-				this.handleElevatorMoveUP();
-			}
-			else if (request.getRequestAction() == Direction.DOWN) {
-				this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Move elevator down.");
-				this.handleElevatorMoveDown();
+	//registers the event handler for each type of request received by this elevator
+	private void registerEventHandlers() {
+		this.eventDispatcher = new RequestDispatcher();
+		this.eventDispatcher.register(ElevatorArrivalRequest.getRequestType(), this::handleArrivalRequest);
+		this.eventDispatcher.register(ElevatorDoorRequest.getRequestType(), this::handleDoorRequest);
+		this.eventDispatcher.register(ElevatorMotorRequest.getRequestType(), this::handleMotorRequest);
+		this.eventDispatcher.register(ElevatorDestinationRequest.getRequestType(), this::handleDestinationRequestReceived);
+		this.eventDispatcher.register(ElevatorWaitRequest.getRequestType(), this::handleWaitRequest);
+		this.eventDispatcher.register(SchedulerRedirectRequest.getRequestType(), this::handleSchedulerRedirectRequest);
+		this.eventDispatcher.register(ElevatorAnnounceRequest.getRequestType(), this::handleAnnounceRequest);
+	}
+
+	//records the time spent handling each event, and the number of events waiting, only read when the metrics are scraped
+	private void registerMetrics() {
+		this.eventDispatcher.enableMetrics(MetricsRegistry.getDefault(), this.name);
+		MetricsRegistry.getDefault().gauge("elevator_event_queue_depth", "Events received and waiting to be handled.", () -> {
+			synchronized (this) {
+				return this.eventsQueue.size();
 			}
-		} else if (event instanceof ElevatorDestinationRequest) {
-			ElevatorDestinationRequest request = (ElevatorDestinationRequest) event;
-			this.consoleOutput(RequestEvent.RECEIVED, "Floor " + request.getPickupFloor() , "Destination request to floor " + request.getDestinationFloor());
-			this.handleDestinationRequest(request);
+		}, "component", this.name);
+	}
+
+	//passes the event to the event handler registered for its request type
+	private void handleEvent(Request event) {
+		this.eventDispatcher.dispatch(event);
+	}
+
+	private void handleArrivalRequest(ElevatorArrivalRequest request) {
+		this.consoleOutput("Sending arrival notice.");
+		this.sendToServer(request);
+	}
+
+	private void handleDoorRequest(ElevatorDoorRequest request) {
+		if (request.getRequestAction() == ElevatorDoorStatus.OPENED) {
+			this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Open elevator doors.");
+			this.handleElevatorOpenDoor();
+		} else if (request.getRequestAction() == ElevatorDoorStatus.CLOSED) {
+			this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Close elevator doors.");
+			this.handleElevatorCloseDoor();
 		}
-		else if (event instanceof ElevatorWaitRequest) {
-			this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Waiting For Passengers");
-			this.handleWaitForPassengers();
+	}
+
+	private void handleMotorRequest(ElevatorMotorRequest request) {
+		if (request.getRequestAction() == Direction.IDLE) {
+			this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Stop elevator.");
+			this.handleElevatorStop();
 		}
+		else if (request.getRequestAction() == Direction.UP) {
+			this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Move elevator up.");
+			this.handleElevatorMoveUP();
+		}
+		else if (request.getRequestAction() == Direction.DOWN) {
+			this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Move elevator down.");
+			this.handleElevatorMoveDown();
+		}
+	}
+
+	private void handleDestinationRequestReceived(ElevatorDestinationRequest request) {
+		this.consoleOutput(RequestEvent.RECEIVED, "Floor " + request.getPickupFloor() , "Destination request to floor " + request.getDestinationFloor());
+		this.handleDestinationRequest(request);
+	}
+
+	private void handleWaitRequest(ElevatorWaitRequest request) {
+		this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Waiting For Passengers");
+		this.handleWaitForPassengers();
+	}
+
+	//a standby scheduler has taken over, send all further requests to it
+	private void handleSchedulerRedirectRequest(SchedulerRedirectRequest request) {
+		try {
+			this.host = InetAddress.getByName(request.getSchedulerHost());
+			this.schedulerPort = Integer.parseInt(request.getSchedulerPort());
+			this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Scheduler is now at " + request.getSchedulerHost() + ":" + request.getSchedulerPort() + ".");
+		} catch (UnknownHostException e) {
+			e.printStackTrace();
+		}
+	}
+
+	//the scheduler has this elevator out of service, announce where the elevator is. The elevator's state is left as it is, the motor only
+	//ever moves one floor per command so the elevator is at a floor, and the scheduler sends the next command once it is back in service
+	private void handleAnnounceRequest(ElevatorAnnounceRequest request) {
+		this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Announce floor and door status.");
+		this.announce();
+	}
+
+	//sends this elevator's actual floor and door status to the scheduler
+	private void announce() {
+		ElevatorAnnounceRequest request = new ElevatorAnnounceRequest(this.name, Integer.toString(this.state.getCurrentFloor()), this.state.getDoorStatus());
+		this.consoleOutput(RequestEvent.SENT, "Scheduler", "At floor " + this.state.getCurrentFloor() + " with doors " + this.state.getDoorStatus() + ".");
+		this.sendToServer(request);
 	}
 
 	//toggles lamp state dependent on floor provided
@@ -157,6 +251,9 @@ public class ElevatorSubsystem implements Runnable, ElevatorSystemComponent {
 				ElevatorArrivalRequest request = new ElevatorArrivalRequest(this.name, Integer.toString(this.state.getCurrentFloor()), this.state.getDirection());
 				this.sendToServer(request);
 			}
+			else{
+				this.motorFaultFlag=false;
+			}
 		}
 	}
 
@@ -305,6 +402,12 @@ public class ElevatorSubsystem implements Runnable, ElevatorSystemComponent {
 		//This will return a Map of all attributes for the Scheduler (as per config.xml)
 		HashMap<String, String> schedulerConfiguration = ElevatorSystemConfiguration.getSchedulerConfiguration();
 
+		//Serve the metrics of all the elevators for scraping (if configured)
+		String metricsPort = ElevatorSystemConfiguration.getMetricsConfiguration().get("elevatorSubsystemPort");
+		if (metricsPort != null) {
+			MetricsServer.start(MetricsRegistry.getDefault(), Integer.parseInt(metricsPort));
+		}
+
 		HashMap<String, HashMap<String, String>> floorConfigurations = ElevatorSystemConfiguration
 				.getAllFloorSubsytemConfigurations();
 
@@ -314,16 +417,22 @@ public class ElevatorSubsystem implements Runnable, ElevatorSystemComponent {
 			tempfloor+= tempfloor;
 		}
 
+		//If the elevators are divided into banks, each elevator is scheduled by its bank's Scheduler
+		List<ElevatorBank> banks = ElevatorBank.getConfiguredBanks();
+
 		//Iterate through each elevator and create an instance of an ElevatorSubsystem
 		for (String elevatorName : elevatorConfigurations.keySet()) {
 			//Get the configuration for this particular 'elevatorName'
 			HashMap<String, String> elevatorConfiguration = elevatorConfigurations.get(elevatorName);
+			ElevatorBank bank = ElevatorBank.getBank(banks, elevatorName);
+			HashMap<String, String> elevatorSchedulerConfiguration = (bank == null) ? schedulerConfiguration : bank.getSchedulerConfiguration();
 			
 			//Create an instance of ElevatorSubsystem for this 'elevatorName'
 			ElevatorSubsystem elevatorSubsystem = new ElevatorSubsystem(elevatorName, Integer.parseInt(elevatorConfiguration.get("port")),
-					Integer.parseInt(elevatorConfiguration.get("startFloor")), Integer.parseInt(schedulerConfiguration.get("port")),tempfloor,
+					Integer.parseInt(elevatorConfiguration.get("startFloor")), Integer.parseInt(elevatorSchedulerConfiguration.get("port")),tempfloor,
 					Integer.parseInt(elevatorConfiguration.get("timeBetweenFloors")), Integer.parseInt(elevatorConfiguration.get("passengerWaitTime")),
-					Integer.parseInt(elevatorConfiguration.get("doorOperationTime")), schedulerConfiguration.get("host"));
+					Integer.parseInt(elevatorConfiguration.get("doorOperationTime")), elevatorSchedulerConfiguration.get("host"),
+					(elevatorSchedulerConfiguration.get("elevatorHeartbeatInterval") == null) ? 0 : Integer.parseInt(elevatorSchedulerConfiguration.get("elevatorHeartbeatInterval")));
 			
 			//Spawn and start a new thread for this ElevatorSubsystem instance
 			Thread elevatorSubsystemThread = new Thread(elevatorSubsystem, elevatorName);
@@ -14,6 +14,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -21,6 +22,9 @@ import java.util.Queue;
 
 import main.ElevatorSystemComponent;
 import main.global.*;
+import main.jfr.EventQueueWaitEvent;
+import main.metrics.MetricsRegistry;
+import main.metrics.MetricsServer;
 import main.requests.*;
 import main.server.*;
 
@@ -45,9 +49,12 @@ public class FloorSubsystem implements Runnable, ElevatorSystemComponent {
     private LampStatus buttonLamp_DOWN;                                     //Button lamp for DOWN button
     private Queue<FloorButtonRequest> upQueue;                              //Queue of requests to be sent to elevator taking UP requests
     private Queue<FloorButtonRequest> downQueue;                            //Queue of requests to be sent to elevator taking DOWN requests
+    private HashMap<FloorButtonRequest, String> assignedElevatorNames;      //Elevator each waiting passenger was assigned at the floor terminal (destination dispatch)
     private HashMap<String, Integer> portsByElevatorName;                   //Map of ports for each elevator
     private HashMap<String,String> hostsByElevatorName;
+    private List<ElevatorBank> banks;                                       //Banks the elevators are divided into, empty if they are not
 	private Queue<Request> eventsQueue;
+    private RequestDispatcher eventDispatcher;                              //Routes each received event to its event handler by request type
 	
     /**
      * Constructor for floor
@@ -56,19 +63,24 @@ public class FloorSubsystem implements Runnable, ElevatorSystemComponent {
      * @param port
      * @param schedulerPort
      * @param elevatorConfiguration
+     * @param banks
      */
-    private FloorSubsystem(String name, int port, int schedulerPort, String schedulerHost, HashMap<String, HashMap<String, String>> elevatorConfiguration) {
+    private FloorSubsystem(String name, int port, int schedulerPort, String schedulerHost, HashMap<String, HashMap<String, String>> elevatorConfiguration, List<ElevatorBank> banks) {
         //Set fields
         this.name = name;
         this.upQueue = new LinkedList<FloorButtonRequest>();
         this.downQueue = new LinkedList<FloorButtonRequest>();
+        this.assignedElevatorNames = new HashMap<FloorButtonRequest, String>();
         this.schedulerPort = schedulerPort;
         this.schedulerHost = schedulerHost;
         this.buttonLamp_UP = LampStatus.OFF;
         this.buttonLamp_DOWN = LampStatus.OFF;
         this.portsByElevatorName = new HashMap<String, Integer>();
         this.hostsByElevatorName = new HashMap<String,String>();
+        this.banks = banks;
 		this.eventsQueue = new LinkedList<Request>();
+        this.registerEventHandlers();
+        this.registerMetrics();
 
         // Create a server (bound to this Instance of FloorSubsystem) in a new thread.
         // When this server receives requests, they will be added to the eventsQueue of this FloorSubsystem instance.
@@ -100,6 +112,8 @@ public class FloorSubsystem implements Runnable, ElevatorSystemComponent {
      * @return next request
      */
     public synchronized Request getNextEvent() {
+        EventQueueWaitEvent waitEvent = new EventQueueWaitEvent();
+        waitEvent.begin();
         while (eventsQueue.isEmpty()) {
             try {
                 this.wait();
@@ -107,7 +121,13 @@ public class FloorSubsystem implements Runnable, ElevatorSystemComponent {
                 e.printStackTrace();
             }
         }
-        return eventsQueue.poll();
+        Request event = eventsQueue.poll();
+        if (waitEvent.shouldCommit()) {
+            waitEvent.component = this.name;
+            waitEvent.queueDepth = eventsQueue.size();
+            waitEvent.commit();
+        }
+        return event;
     }
 
     /**
@@ -247,35 +267,97 @@ public class FloorSubsystem implements Runnable, ElevatorSystemComponent {
     }
 
     /**
-     * This method will determine the type of Request and call the appropriate event handler method for this request.
+     * Record the time spent handling each event, and the number of events waiting (only read when the metrics are scraped).
+     */
+    private void registerMetrics() {
+        this.eventDispatcher.enableMetrics(MetricsRegistry.getDefault(), this.name);
+        MetricsRegistry.getDefault().gauge("elevator_event_queue_depth", "Events received and waiting to be handled.", () -> {
+            synchronized (this) {
+                return this.eventsQueue.size();
+            }
+        }, "component", this.name);
+    }
+
+    /**
+     * Register the event handler for each type of request received by this floor.
+     */
+    private void registerEventHandlers() {
+        this.eventDispatcher = new RequestDispatcher();
+        this.eventDispatcher.register(FloorButtonRequest.getRequestType(), this::handleFloorButtonRequest);
+        this.eventDispatcher.register(ElevatorArrivalRequest.getRequestType(), this::handleElevatorArrivalRequest);
+        this.eventDispatcher.register(ElevatorAssignmentRequest.getRequestType(), this::handleElevatorAssignmentRequest);
+        this.eventDispatcher.register(SchedulerRedirectRequest.getRequestType(), this::handleSchedulerRedirectRequest);
+    }
+
+    /**
+     * This method will pass the Request to the event handler registered for this type of request.
      * @param event the received event
      */
     private void handleEvent(Request event) {
-        //switch statement corresponding to different "event handlers"
-        if (event instanceof FloorButtonRequest) {      //If event received is a FloorButtonRequest
-            FloorButtonRequest request = (FloorButtonRequest) event;
-            
-            this.consoleOutput(RequestEvent.RECEIVED, "Simulated Passenger", "Trip request going " + request.getDirection() + " to " + request.getDestinationFloor());
-
-            if (request.getDirection() == Direction.UP){
-                upQueue.add(request);
-            } else if (request.getDirection() == Direction.DOWN){
-                downQueue.add(request);
-            }
-                //Sends request to scheduler
-                this.consoleOutput(RequestEvent.SENT, "Scheduler", "Trip request going " + request.getDirection());
-                this.server.send(request, schedulerHost, schedulerPort);
-                toggleFloorButtonLamp(request.getDirection(), LampStatus.ON);   //Turn button lamp on for direction in request
-        } else if (event instanceof ElevatorArrivalRequest) { //If event received is a ElevatorArrivalRequest
-            ElevatorArrivalRequest request = (ElevatorArrivalRequest) event;
-            this.consoleOutput(RequestEvent.RECEIVED, "Scheduler" , "Elevator " + request.getElevatorName() + " has arrived. Elevator is headed " + request.getDirection() + ".");
-            if (request.getDirection() != Direction.IDLE) {
-            	toggleFloorButtonLamp(request.getDirection(), LampStatus.OFF);  //Turn off button lamp since Elevator has arrived
+        this.eventDispatcher.dispatch(event);
+    }
+
+    /**
+     * Handle a trip request from a (simulated) passenger at this floor.
+     * @param request
+     */
+    private void handleFloorButtonRequest(FloorButtonRequest request) {
+        this.consoleOutput(RequestEvent.RECEIVED, "Simulated Passenger", "Trip request going " + request.getDirection() + " to " + request.getDestinationFloor());
+
+        if (request.getDirection() == Direction.UP){
+            upQueue.add(request);
+        } else if (request.getDirection() == Direction.DOWN){
+            downQueue.add(request);
+        }
+        //Sends request to scheduler
+        this.consoleOutput(RequestEvent.SENT, "Scheduler", "Trip request going " + request.getDirection());
+        this.server.send(request, schedulerHost, schedulerPort);
+        toggleFloorButtonLamp(request.getDirection(), LampStatus.ON);   //Turn button lamp on for direction in request
+    }
+
+    /**
+     * Handle an elevator arrival notice from the scheduler.
+     * @param request
+     */
+    private void handleElevatorArrivalRequest(ElevatorArrivalRequest request) {
+        this.consoleOutput(RequestEvent.RECEIVED, "Scheduler" , "Elevator " + request.getElevatorName() + " has arrived. Elevator is headed " + request.getDirection() + ".");
+        sendRequestsToElevator(request);    //Elevator is arriving, send it trip requests
+        if ((request.getDirection() == Direction.UP) && upQueue.isEmpty()) {
+            toggleFloorButtonLamp(Direction.UP, LampStatus.OFF);    //Turn off button lamp since every passenger going up has boarded
+        } else if ((request.getDirection() == Direction.DOWN) && downQueue.isEmpty()) {
+            toggleFloorButtonLamp(Direction.DOWN, LampStatus.OFF);  //Turn off button lamp since every passenger going down has boarded
+        }
+    }
+
+    /**
+     * Handle an elevator assignment from the scheduler (destination dispatch), the floor terminal shows the waiting passenger which elevator to board.
+     * The passenger is the first one waiting to go to the destination who is assigned the previous elevator (or no elevator, for a first assignment).
+     * @param request
+     */
+    private void handleElevatorAssignmentRequest(ElevatorAssignmentRequest request) {
+        this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Passenger to floor " + request.getDestinationFloor() + " please take elevator " + request.getElevatorName() + ".");
+        Queue<FloorButtonRequest> queue = (request.getDirection() == Direction.UP) ? upQueue : downQueue;
+        String previousElevatorName = request.getPreviousElevatorName().isEmpty() ? null : request.getPreviousElevatorName();
+        for (FloorButtonRequest currFloorButtonRequest : queue) {
+            String assignedElevatorName = this.assignedElevatorNames.get(currFloorButtonRequest);
+            if (currFloorButtonRequest.getDestinationFloor().trim().equals(request.getDestinationFloor())
+                    && ((previousElevatorName == null) ? (assignedElevatorName == null) : previousElevatorName.equals(assignedElevatorName))) {
+                this.assignedElevatorNames.put(currFloorButtonRequest, request.getElevatorName());
+                return;
             }
-            sendRequestsToElevator(request);    //Elevator is arriving, send it trip requests
         }
     }
 
+    /**
+     * Handle a redirect from a standby scheduler which has taken over, all further requests are sent to it.
+     * @param request
+     */
+    private void handleSchedulerRedirectRequest(SchedulerRedirectRequest request) {
+        this.consoleOutput(RequestEvent.RECEIVED, "Scheduler", "Scheduler is now at " + request.getSchedulerHost() + ":" + request.getSchedulerPort() + ".");
+        this.schedulerHost = request.getSchedulerHost();
+        this.schedulerPort = Integer.parseInt(request.getSchedulerPort());
+    }
+
     /**
      * Method to send the arriving elevator all trip requests for the direction it will be travelling
      *
@@ -283,22 +365,74 @@ public class FloorSubsystem implements Runnable, ElevatorSystemComponent {
      */
     private void sendRequestsToElevator (ElevatorArrivalRequest request) {
         if (request.getDirection() == Direction.UP){    //If Elevator will be going up
-            for (FloorButtonRequest currFloorButtonRequest : upQueue){  //Loop through the queue of trip requests going up
-                ElevatorDestinationRequest currER = new ElevatorDestinationRequest(this.getName(), currFloorButtonRequest.getDestinationFloor(), request.getElevatorName(), currFloorButtonRequest.getFault());    //Create elevator destination request based on data from the queue
-                this.consoleOutput(RequestEvent.SENT, request.getElevatorName(), "Destination request to floor " + currFloorButtonRequest.getDestinationFloor());
-                sendToServer(currER, this.hostsByElevatorName.get(request.getElevatorName()), this.portsByElevatorName.get(request.getElevatorName()));    //Send the request to the elevator arriving
-            }
-            upQueue.clear(); //Clear requests from queue, since they've been sent
+            sendRequestsToElevator(request, upQueue);
         } else if (request.getDirection() == Direction.DOWN) {    //If elevator will be going down
-            for (FloorButtonRequest currFloorButtonRequest : downQueue){    //Loop through the queue of trip requests going down
-                ElevatorDestinationRequest currER = new ElevatorDestinationRequest(this.getName(), currFloorButtonRequest.getDestinationFloor(), request.getElevatorName(), currFloorButtonRequest.getFault());    //Create elevator destination request based on data from the queue
-                this.consoleOutput(RequestEvent.SENT, request.getElevatorName(), "Destination request to floor" + currFloorButtonRequest.getDestinationFloor());
-                sendToServer(currER, this.hostsByElevatorName.get(request.getElevatorName()), this.portsByElevatorName.get(request.getElevatorName()));    //Send the request to the elevator arriving
+            sendRequestsToElevator(request, downQueue);
+        }
+    }
+
+    /**
+     * Send the arriving elevator the trip requests of the passengers in a queue who board it. A passenger who was assigned an elevator at the
+     * floor terminal (destination dispatch) only boards that elevator, any other passenger boards the first elevator to arrive which stops at
+     * their destination (see servesDestination()). Passengers board in the order they arrived until the elevator is full, the rest keep waiting
+     * for the next elevator.
+     *
+     * @param request
+     * @param queue
+     */
+    private void sendRequestsToElevator (ElevatorArrivalRequest request, Queue<FloorButtonRequest> queue) {
+        int availableCapacity = request.getAvailableCapacity();
+        Iterator<FloorButtonRequest> iterator = queue.iterator();
+        while (iterator.hasNext() && (availableCapacity > 0)) {    //Loop through the queue of trip requests, until the elevator is full
+            FloorButtonRequest currFloorButtonRequest = iterator.next();
+            String assignedElevatorName = this.assignedElevatorNames.get(currFloorButtonRequest);
+            if ((assignedElevatorName != null) && !assignedElevatorName.equals(request.getElevatorName())) {
+                continue;   //Passenger keeps waiting for the elevator they were assigned
+            }
+            if (!this.servesDestination(request.getElevatorName(), currFloorButtonRequest)) {
+                continue;   //Passenger keeps waiting for an elevator of the bank serving their destination
             }
-            downQueue.clear();   //Clear requests from queue, since they've been sent
+            ElevatorDestinationRequest currER = new ElevatorDestinationRequest(this.getName(), currFloorButtonRequest.getDestinationFloor(), request.getElevatorName(), currFloorButtonRequest.getFault());    //Create elevator destination request based on data from the queue
+            this.consoleOutput(RequestEvent.SENT, request.getElevatorName(), "Destination request to floor " + currFloorButtonRequest.getDestinationFloor());
+            sendToServer(currER, this.hostsByElevatorName.get(request.getElevatorName()), this.portsByElevatorName.get(request.getElevatorName()));    //Send the request to the elevator arriving
+            iterator.remove();  //Remove request from queue, since it's been sent
+            this.assignedElevatorNames.remove(currFloorButtonRequest);
+            availableCapacity--;
         }
     }
 
+    /**
+     * Determine whether an elevator takes a passenger to their destination. If the elevators are divided into banks, a passenger at the lobby
+     * only boards an elevator of the bank serving their destination (or of the first bank, if no bank serves it), as the BankRouter sent their
+     * hall call to that bank's Scheduler. Only one bank serves any other floor, so its passengers board any elevator which arrives.
+     *
+     * @param elevatorName
+     * @param floorButtonRequest
+     * @return
+     */
+    private boolean servesDestination(String elevatorName, FloorButtonRequest floorButtonRequest) {
+        if (this.banks.isEmpty() || !this.name.trim().equals(String.valueOf(this.banks.get(0).getLobbyFloor()))) {
+            return true;
+        }
+        ElevatorBank elevatorBank = ElevatorBank.getBank(this.banks, elevatorName);
+        if (elevatorBank == null) {
+            return true;
+        }
+
+        int destinationFloor;
+        try {
+            destinationFloor = Integer.parseInt(floorButtonRequest.getDestinationFloor().trim());
+        } catch (NumberFormatException e) {
+            return elevatorBank == this.banks.get(0);
+        }
+        for (ElevatorBank bank : this.banks) {
+            if ((destinationFloor != bank.getLobbyFloor()) && bank.servesFloor(destinationFloor)) {
+                return bank == elevatorBank;
+            }
+        }
+        return elevatorBank == this.banks.get(0);
+    }
+
     /**
      * Prints text with preset beginning and given string
      *
@@ -322,6 +456,18 @@ public class FloorSubsystem implements Runnable, ElevatorSystemComponent {
         //This will return a Map of all attributes for the Scheduler (as per config.xml)
         HashMap<String, String> schedulerConfiguration = ElevatorSystemConfiguration.getSchedulerConfiguration();
 
+        //If the elevators are divided into banks, hall calls are sent to the BankRouter, which forwards each to the Scheduler of the bank serving it
+        HashMap<String, String> banksConfiguration = ElevatorSystemConfiguration.getBanksConfiguration();
+        List<ElevatorBank> banks = ElevatorBank.getConfiguredBanks();
+        String schedulerHost = (banksConfiguration.get("routerPort") == null) ? schedulerConfiguration.get("host") : banksConfiguration.get("routerHost");
+        int schedulerPort = Integer.parseInt((banksConfiguration.get("routerPort") == null) ? schedulerConfiguration.get("port") : banksConfiguration.get("routerPort"));
+
+        //Serve the metrics of all the floors for scraping (if configured)
+        String metricsPort = ElevatorSystemConfiguration.getMetricsConfiguration().get("floorSubsystemPort");
+        if (metricsPort != null) {
+            MetricsServer.start(MetricsRegistry.getDefault(), Integer.parseInt(metricsPort));
+        }
+
         //This will return a Map of Maps. First key -> elevator Name, Value -> map of all attributes for that elevator (as per config.xml)
         HashMap<String, HashMap<String, String>> elevatorConfigurations = ElevatorSystemConfiguration.getAllElevatorSubsystemConfigurations();
 
@@ -337,7 +483,7 @@ public class FloorSubsystem implements Runnable, ElevatorSystemComponent {
 
             // Create an instance of floorSubsystem for this 'floorName'
             FloorSubsystem floorSubsystem = new FloorSubsystem(floorName,
-                    Integer.parseInt(floorConfiguration.get("port")), Integer.parseInt(schedulerConfiguration.get("port")), schedulerConfiguration.get("host"), elevatorConfigurations);
+                    Integer.parseInt(floorConfiguration.get("port")), schedulerPort, schedulerHost, elevatorConfigurations, banks);
             floors.add(floorSubsystem);
 
             // Spawn and start a new thread for this floorSubsystem instance
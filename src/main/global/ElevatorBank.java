@@ -0,0 +1,182 @@
+package main.global;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * An ElevatorBank is a group of elevators which serve a range of floors (ie. low-rise, mid-rise, high-rise) and the lobby every bank shares.
+ * Each bank has its own Scheduler, and the BankRouter sends each hall call to the Scheduler of the bank serving it.
+ *
+ * Banks are configured in config.xml:
+ * 	<Banks lobbyFloor="1" routerHost="localhost" routerPort="8020">
+ * 		<Bank name="LowRise" host="localhost" port="8010" floors="2-11" elevators="E1,E2"/>
+ * 		...
+ * 	</Banks>
+ * A bank's Scheduler is configured as the <Scheduler> is, any attribute of the <Bank> (ie. host, port, planningStrategy) replaces the Scheduler's.
+ * The journal and trip archive directories are named after the bank unless the bank sets its own, and a bank is only replicated to a standby
+ * Scheduler if it sets its own replicationPort. A bank's standby Scheduler is configured as the <StandbyScheduler> is, with the bank's
+ * "standby" attributes (ie. standbyPort, standbyMetricsPort) in place of the StandbyScheduler's, and the bank must set its own standbyPort.
+ *
+ */
+public class ElevatorBank {
+	private static final int DEFAULT_LOBBY_FLOOR = 1;
+
+	private String name;
+	private int lowestFloor;
+	private int highestFloor;
+	private int lobbyFloor;
+	private HashSet<String> elevatorNames;
+	private HashMap<String, String> schedulerConfiguration;		//Attributes of this bank's Scheduler (as per config.xml)
+
+	public ElevatorBank(String name, HashMap<String, String> bankConfiguration, HashMap<String, String> schedulerConfiguration, int lobbyFloor) {
+		this.name = name;
+		this.lobbyFloor = lobbyFloor;
+
+		String[] floors = bankConfiguration.get("floors").split("-");
+		this.lowestFloor = Integer.parseInt(floors[0].trim());
+		this.highestFloor = Integer.parseInt(floors[floors.length - 1].trim());
+
+		this.elevatorNames = new HashSet<String>();
+		for (String elevatorName : bankConfiguration.get("elevators").split(",")) {
+			this.elevatorNames.add(elevatorName.trim());
+		}
+
+		//The bank's Scheduler is configured as the Scheduler is, with its own journal and trip archive, and no standby unless it has one of its own
+		this.schedulerConfiguration = new HashMap<String, String>(schedulerConfiguration);
+		this.schedulerConfiguration.remove("replicationPort");
+		for (String directory : Arrays.asList("journalDirectory", "tripArchiveDirectory")) {
+			if (this.schedulerConfiguration.get(directory) != null) {
+				this.schedulerConfiguration.put(directory, this.schedulerConfiguration.get(directory) + "-" + name);
+			}
+		}
+		this.schedulerConfiguration.putAll(bankConfiguration);
+		this.schedulerConfiguration.remove("floors");
+		this.schedulerConfiguration.remove("elevators");
+		this.schedulerConfiguration.put("name", name);
+	}
+
+	/**
+	 * Get the banks configured in config.xml, in order of their lowest floor.
+	 * @return empty if the elevators are not divided into banks
+	 */
+	public static List<ElevatorBank> getConfiguredBanks() {
+		ArrayList<ElevatorBank> banks = new ArrayList<ElevatorBank>();
+		HashMap<String, String> banksConfiguration = ElevatorSystemConfiguration.getBanksConfiguration();
+		int lobbyFloor = (banksConfiguration.get("lobbyFloor") == null) ? DEFAULT_LOBBY_FLOOR : Integer.parseInt(banksConfiguration.get("lobbyFloor"));
+		HashMap<String, String> schedulerConfiguration = ElevatorSystemConfiguration.getSchedulerConfiguration();
+
+		HashMap<String, HashMap<String, String>> bankConfigurations = ElevatorSystemConfiguration.getAllBankConfigurations();
+		for (String bankName : bankConfigurations.keySet()) {
+			banks.add(new ElevatorBank(bankName, bankConfigurations.get(bankName), schedulerConfiguration, lobbyFloor));
+		}
+		Collections.sort(banks, (bank, otherBank) -> Integer.compare(bank.getLowestFloor(), otherBank.getLowestFloor()));
+		return banks;
+	}
+
+	/**
+	 * Get the bank an elevator belongs to.
+	 * @param banks
+	 * @param elevatorName
+	 * @return null if the elevator is not in any of the banks
+	 */
+	public static ElevatorBank getBank(List<ElevatorBank> banks, String elevatorName) {
+		for (ElevatorBank bank : banks) {
+			if (bank.elevatorNames.contains(elevatorName)) {
+				return bank;
+			}
+		}
+		return null;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @return lowest floor of the bank's range, not counting the lobby
+	 */
+	public int getLowestFloor() {
+		return this.lowestFloor;
+	}
+
+	/**
+	 * @return highest floor of the bank's range, not counting the lobby
+	 */
+	public int getHighestFloor() {
+		return this.highestFloor;
+	}
+
+	public int getLobbyFloor() {
+		return this.lobbyFloor;
+	}
+
+	/**
+	 * Determine whether the bank's elevators stop at a floor, ie. it is in the bank's range or it is the lobby.
+	 * @param floor
+	 * @return
+	 */
+	public boolean servesFloor(int floor) {
+		return (floor == this.lobbyFloor) || ((floor >= this.lowestFloor) && (floor <= this.highestFloor));
+	}
+
+	/**
+	 * Get the configurations of the bank's elevators only.
+	 * @param elevatorConfigurations	- key -> elevator name, value -> map of all attributes for that elevator (as per config.xml)
+	 * @return
+	 */
+	public HashMap<String, HashMap<String, String>> getElevatorConfigurations(HashMap<String, HashMap<String, String>> elevatorConfigurations) {
+		HashMap<String, HashMap<String, String>> bankElevatorConfigurations = new HashMap<String, HashMap<String, String>>();
+		for (String elevatorName : elevatorConfigurations.keySet()) {
+			if (this.elevatorNames.contains(elevatorName)) {
+				bankElevatorConfigurations.put(elevatorName, elevatorConfigurations.get(elevatorName));
+			}
+		}
+		return bankElevatorConfigurations;
+	}
+
+	/**
+	 * @return map of all attributes for the bank's Scheduler
+	 */
+	public HashMap<String, String> getSchedulerConfiguration() {
+		return this.schedulerConfiguration;
+	}
+
+	/**
+	 * Get the configuration of the bank's standby Scheduler: the StandbyScheduler's, with its own journal and trip archive, and each of the
+	 * bank's "standby" attributes in place of the StandbyScheduler's attribute of the same name (ie. standbyPort replaces port).
+	 * @return map of all attributes for the bank's standby Scheduler, it has no port unless the bank sets standbyPort
+	 */
+	public HashMap<String, String> getStandbySchedulerConfiguration() {
+		HashMap<String, String> standbyConfiguration = new HashMap<String, String>(ElevatorSystemConfiguration.getStandbySchedulerConfiguration());
+		standbyConfiguration.remove("port");
+		for (String directory : Arrays.asList("journalDirectory", "tripArchiveDirectory")) {
+			if (standbyConfiguration.get(directory) != null) {
+				standbyConfiguration.put(directory, standbyConfiguration.get(directory) + "-" + this.name);
+			}
+		}
+		for (String attribute : this.schedulerConfiguration.keySet()) {
+			if (attribute.startsWith("standby") && (attribute.length() > "standby".length())) {
+				String standbyAttribute = attribute.substring("standby".length());
+				standbyConfiguration.put(Character.toLowerCase(standbyAttribute.charAt(0)) + standbyAttribute.substring(1), this.schedulerConfiguration.get(attribute));
+			}
+		}
+		standbyConfiguration.put("name", this.name + "Standby");
+		return standbyConfiguration;
+	}
+
+	public String getSchedulerHost() {
+		return this.schedulerConfiguration.get("host");
+	}
+
+	public int getSchedulerPort() {
+		return Integer.parseInt(this.schedulerConfiguration.get("port"));
+	}
+
+	public String toString() {
+		return this.name + " (floors " + this.lowestFloor + "-" + this.highestFloor + " and lobby " + this.lobbyFloor + ", elevators " + this.elevatorNames + ")";
+	}
+}
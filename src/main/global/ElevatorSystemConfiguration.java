@@ -106,6 +106,10 @@ public class ElevatorSystemConfiguration {
 		
 		//For each 'element' node get a NamedNodeMap consisting of key value pairs of all of this element's attributes
 		node = nodeList.item(0);
+		if (node == null) {
+			//The element is not configured
+			return attributesMap;
+		}
 		NamedNodeMap nm = node.getAttributes();
 
 		//Iterate through each of the attributes and construct a map of key value pairs for each
@@ -141,4 +145,40 @@ public class ElevatorSystemConfiguration {
 	static public HashMap<String, String> getSchedulerConfiguration(){
 		return getConfiguration("Scheduler");
 	}
+	
+	/**
+	 * Get configuration for the standby Scheduler, which takes over if the Scheduler fails.
+	 * 
+	 * @return
+	 */
+	static public HashMap<String, String> getStandbySchedulerConfiguration(){
+		return getConfiguration("StandbyScheduler");
+	}
+	
+	/**
+	 * Get configuration for the metrics endpoints, the port each process serves its metrics on (see MetricsServer).
+	 * 
+	 * @return - empty if metrics are not configured
+	 */
+	static public HashMap<String, String> getMetricsConfiguration(){
+		return getConfiguration("Metrics");
+	}
+	
+	/**
+	 * Get configuration for all elevator banks (see ElevatorBank).
+	 * 
+	 * @return - HashMap containing an entry for each bank, where the key is the bank name and the value is the bank's attributes, empty if the elevators are not divided into banks
+	 */
+	static public HashMap<String, HashMap<String, String>> getAllBankConfigurations(){
+		return getConfigurations("Bank");
+	}
+	
+	/**
+	 * Get the configuration shared by all elevator banks: the lobby floor and the BankRouter's host and port.
+	 * 
+	 * @return - empty if the elevators are not divided into banks
+	 */
+	static public HashMap<String, String> getBanksConfiguration(){
+		return getConfiguration("Banks");
+	}
 }
@@ -0,0 +1,178 @@
+package main.global;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The ElevatorSystemRegistry assigns every elevator and floor in the configuration a dense integer id when the configuration is loaded.
+ * Elevators are numbered 0..n-1 in order of elevator name, floors are numbered 0..m-1 in order of floor number.
+ *
+ * Per elevator and per floor data (endpoints, names) are stored in arrays indexed by these ids, so that components can refer to
+ * elevators and floors by id on their hot paths. Names are kept for display purposes only. Host names are resolved once, here.
+ *
+ */
+public class ElevatorSystemRegistry {
+	private String[] elevatorNames;									//index -> elevator id, value -> elevator name
+	private InetAddress[] elevatorAddresses;						//index -> elevator id, value -> elevator host address
+	private int[] elevatorPorts;									//index -> elevator id, value -> elevator port
+	private HashMap<String, Integer> elevatorIdByElevatorName;		//key -> elevator name, value -> elevator id. Only used to translate names received in requests.
+	private ArrayList<HashMap<String, String>> elevatorConfigurations;	//index -> elevator id, value -> map of all attributes for that elevator (as per config.xml)
+
+	private String[] floorNames;									//index -> floor id, value -> floor name
+	private int[] floorNumbers;										//index -> floor id, value -> floor number
+	private InetAddress[] floorAddresses;							//index -> floor id, value -> floor host address
+	private int[] floorPorts;										//index -> floor id, value -> floor port
+	private int[] floorIdByFloorNumber;								//index -> floor number - lowest floor number, value -> floor id (-1 if there is no such floor)
+	private int lowestFloorNumber;
+	private int highestFloorNumber;
+
+	public ElevatorSystemRegistry(HashMap<String, HashMap<String, String>> elevatorConfigurations, HashMap<String, HashMap<String, String>> floorConfigurations) {
+		//Assign elevator ids in order of elevator name
+		int numberOfElevators = elevatorConfigurations.size();
+		this.elevatorNames = new String[numberOfElevators];
+		this.elevatorAddresses = new InetAddress[numberOfElevators];
+		this.elevatorPorts = new int[numberOfElevators];
+		this.elevatorIdByElevatorName = new HashMap<String, Integer>();
+		this.elevatorConfigurations = new ArrayList<HashMap<String, String>>(numberOfElevators);
+
+		int elevatorId = 0;
+		for (String elevatorName : new TreeSet<String>(elevatorConfigurations.keySet())) {
+			HashMap<String, String> config = elevatorConfigurations.get(elevatorName);
+			this.elevatorNames[elevatorId] = elevatorName;
+			this.elevatorAddresses[elevatorId] = resolveHost(config.get("host"));
+			this.elevatorPorts[elevatorId] = Integer.parseInt(config.get("port"));
+			this.elevatorIdByElevatorName.put(elevatorName, elevatorId);
+			this.elevatorConfigurations.add(config);
+			elevatorId++;
+		}
+
+		//Assign floor ids in order of floor number
+		TreeMap<Integer, String> floorNamesByFloorNumber = new TreeMap<Integer, String>();
+		for (String floorName : floorConfigurations.keySet()) {
+			floorNamesByFloorNumber.put(Integer.parseInt(floorName), floorName);
+		}
+
+		int numberOfFloors = floorNamesByFloorNumber.size();
+		this.floorNames = new String[numberOfFloors];
+		this.floorNumbers = new int[numberOfFloors];
+		this.floorAddresses = new InetAddress[numberOfFloors];
+		this.floorPorts = new int[numberOfFloors];
+		this.lowestFloorNumber = numberOfFloors > 0 ? floorNamesByFloorNumber.firstKey() : 0;
+		this.highestFloorNumber = numberOfFloors > 0 ? floorNamesByFloorNumber.lastKey() : -1;
+		this.floorIdByFloorNumber = new int[this.highestFloorNumber - this.lowestFloorNumber + 1];
+		for (int i = 0; i < this.floorIdByFloorNumber.length; i++) {
+			this.floorIdByFloorNumber[i] = -1;
+		}
+
+		int floorId = 0;
+		for (Integer floorNumber : floorNamesByFloorNumber.keySet()) {
+			String floorName = floorNamesByFloorNumber.get(floorNumber);
+			HashMap<String, String> config = floorConfigurations.get(floorName);
+			this.floorNames[floorId] = floorName;
+			this.floorNumbers[floorId] = floorNumber;
+			this.floorAddresses[floorId] = resolveHost(config.get("host"));
+			this.floorPorts[floorId] = Integer.parseInt(config.get("port"));
+			this.floorIdByFloorNumber[floorNumber - this.lowestFloorNumber] = floorId;
+			floorId++;
+		}
+	}
+
+	/**
+	 * Resolve a host name from the configuration.
+	 * @param host
+	 * @return
+	 */
+	private static InetAddress resolveHost(String host) {
+		try {
+			return InetAddress.getByName(host);
+		} catch (UnknownHostException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	//------------------------------------------------Elevators-------------------------------------------------------
+	public int getNumberOfElevators() {
+		return this.elevatorNames.length;
+	}
+
+	/**
+	 * Get the id for an elevator name. This is intended to be used once per received request.
+	 * @param elevatorName
+	 * @return - elevator id, or -1 if there is no elevator with this name
+	 */
+	public int getElevatorId(String elevatorName) {
+		Integer elevatorId = this.elevatorIdByElevatorName.get(elevatorName);
+		if (elevatorId == null) {
+			return -1;
+		}
+		return elevatorId;
+	}
+
+	public String getElevatorName(int elevatorId) {
+		return this.elevatorNames[elevatorId];
+	}
+
+	public InetAddress getElevatorAddress(int elevatorId) {
+		return this.elevatorAddresses[elevatorId];
+	}
+
+	public int getElevatorPort(int elevatorId) {
+		return this.elevatorPorts[elevatorId];
+	}
+
+	/**
+	 * Get the value of a configuration attribute for an elevator (as per config.xml).
+	 * @param elevatorId
+	 * @param attributeName
+	 * @return
+	 */
+	public String getElevatorAttribute(int elevatorId, String attributeName) {
+		return this.elevatorConfigurations.get(elevatorId).get(attributeName);
+	}
+
+	//------------------------------------------------Floors----------------------------------------------------------
+	public int getNumberOfFloors() {
+		return this.floorNames.length;
+	}
+
+	/**
+	 * Get the id for a floor number.
+	 * @param floorNumber
+	 * @return - floor id, or -1 if there is no floor with this number
+	 */
+	public int getFloorId(int floorNumber) {
+		if ((floorNumber < this.lowestFloorNumber) || (floorNumber > this.highestFloorNumber)) {
+			return -1;
+		}
+		return this.floorIdByFloorNumber[floorNumber - this.lowestFloorNumber];
+	}
+
+	public int getFloorNumber(int floorId) {
+		return this.floorNumbers[floorId];
+	}
+
+	public String getFloorName(int floorId) {
+		return this.floorNames[floorId];
+	}
+
+	public InetAddress getFloorAddress(int floorId) {
+		return this.floorAddresses[floorId];
+	}
+
+	public int getFloorPort(int floorId) {
+		return this.floorPorts[floorId];
+	}
+
+	public int getLowestFloorNumber() {
+		return this.lowestFloorNumber;
+	}
+
+	public int getHighestFloorNumber() {
+		return this.highestFloorNumber;
+	}
+}
@@ -0,0 +1,29 @@
+package main.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded when the Scheduler handles an event (see Scheduler.handleEvent()), from journaling the event to adding it to the event history.
+ *
+ */
+@Name("elevator.EventDispatch")
+@Label("Event Dispatch")
+@Category({"Elevator System", "Scheduler"})
+@Description("The Scheduler handling a received event")
+public class EventDispatchEvent extends jdk.jfr.Event {
+
+	@Label("Scheduler")
+	public String scheduler;
+
+	@Label("Request Type")
+	public String requestType;
+
+	@Label("Queue Time")
+	@Description("Time the event waited in the event queue before it was handled, 0 if it was not received from the network")
+	@Timespan(Timespan.NANOSECONDS)
+	public long queueTime;
+}
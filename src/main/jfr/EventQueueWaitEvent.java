@@ -0,0 +1,24 @@
+package main.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded when a subsystem takes the next event from its event queue (see getNextEvent()), spanning the time the thread waited for one.
+ *
+ */
+@Name("elevator.EventQueueWait")
+@Label("Event Queue Wait")
+@Category({"Elevator System", "Requests"})
+@Description("A thread waiting for the next event in an event queue")
+public class EventQueueWaitEvent extends jdk.jfr.Event {
+
+	@Label("Component")
+	public String component;
+
+	@Label("Queue Depth")
+	@Description("Events left in the queue once this event was taken")
+	public int queueDepth;
+}
@@ -0,0 +1,35 @@
+package main.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded when a Scheduler's MonitoredEventTimer fires (the elevator missed its deadline) or is cancelled (the elevator responded).
+ * A fired timer's event spans the handling of the missed deadline.
+ *
+ */
+@Name("elevator.MonitoredEventTimer")
+@Label("Monitored Event Timer")
+@Category({"Elevator System", "Scheduler"})
+@Description("A monitored event timer fired or cancelled")
+public class MonitoredEventTimerEvent extends jdk.jfr.Event {
+	public static final String FIRED = "FIRED";
+	public static final String CANCELLED = "CANCELLED";
+
+	@Label("Elevator")
+	public String elevator;
+
+	@Label("Monitored Event")
+	public String monitoredEvent;
+
+	@Label("Outcome")
+	@Description("FIRED or CANCELLED")
+	public String outcome;
+
+	@Label("Deadline")
+	@Timespan(Timespan.MILLISECONDS)
+	public long deadline;
+}
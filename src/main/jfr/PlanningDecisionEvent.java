@@ -0,0 +1,37 @@
+package main.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded when the Scheduler's PlanningStrategy selects the elevator a trip request is assigned to (see Scheduler.planningSystem()).
+ *
+ */
+@Name("elevator.PlanningDecision")
+@Label("Planning Decision")
+@Category({"Elevator System", "Scheduler"})
+@Description("The planning strategy selecting an elevator for a trip request")
+public class PlanningDecisionEvent extends jdk.jfr.Event {
+
+	@Label("Scheduler")
+	public String scheduler;
+
+	@Label("Trip Request")
+	public String tripRequest;
+
+	@Label("Candidates")
+	@Description("Number of elevators which could accommodate the trip request")
+	public int candidateCount;
+
+	@Label("Chosen Elevator")
+	@Description("Elevator the trip request was assigned to, null if it was added to the pending requests")
+	public String chosenElevator;
+
+	@Label("Estimated Pickup Time")
+	@Description("Chosen elevator's estimated pickup time, the cost of the decision")
+	@Timespan(Timespan.MILLISECONDS)
+	public long estimatedPickupTime;
+}
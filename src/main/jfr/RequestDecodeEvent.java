@@ -0,0 +1,26 @@
+package main.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded when a received UDP packet is parsed into a Request (see Helper.ParseRequest()).
+ *
+ */
+@Name("elevator.RequestDecode")
+@Label("Request Decode")
+@Category({"Elevator System", "Requests"})
+@Description("A received packet parsed into a request")
+public class RequestDecodeEvent extends jdk.jfr.Event {
+
+	@Label("Request Type")
+	@Description("Type of request decoded, null if the packet could not be parsed")
+	public String requestType;
+
+	@Label("Packet Length")
+	@DataAmount
+	public int packetLength;
+}
@@ -0,0 +1,29 @@
+package main.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count which only goes up. The count is striped across cells (LongAdder) so threads incrementing it concurrently do not contend,
+ * the cells are only summed when the counter is scraped.
+ *
+ */
+public class Counter implements Metric {
+	private LongAdder count = new LongAdder();
+
+	public void increment() {
+		this.count.increment();
+	}
+
+	public void add(long amount) {
+		this.count.add(amount);
+	}
+
+	public long get() {
+		return this.count.sum();
+	}
+
+	@Override
+	public void write(StringBuilder sb, String name, String labels) {
+		sb.append(name).append(labels).append(' ').append(this.count.sum()).append('\n');
+	}
+}
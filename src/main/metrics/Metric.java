@@ -0,0 +1,16 @@
+package main.metrics;
+
+/**
+ * A metric registered in a MetricsRegistry, written in the Prometheus text exposition format when scraped.
+ *
+ */
+public interface Metric {
+
+	/**
+	 * Write this metric's samples.
+	 * @param sb
+	 * @param name		- metric name
+	 * @param labels	- labels in Prometheus format (ie. {component="E1"}), empty if the metric has no labels
+	 */
+	void write(StringBuilder sb, String name, String labels);
+}
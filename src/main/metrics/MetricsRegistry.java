@@ -0,0 +1,151 @@
+package main.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * The MetricsRegistry holds the metrics of every component running in this process (Scheduler, Server, ElevatorSubsystem, FloorSubsystem),
+ * and writes them in the Prometheus text exposition format when scraped (see MetricsServer).
+ *
+ * Counters and timers are updated as things happen and are cheap to update. Gauges are functions of a component's state, they are only
+ * evaluated when the registry is scraped, so they cost nothing until then.
+ *
+ * Metrics are identified by name and labels. A metric registered again with the same name and labels is the same metric (counters and timers)
+ * or replaces it (gauges).
+ *
+ */
+public class MetricsRegistry {
+	private static final MetricsRegistry defaultRegistry = new MetricsRegistry();
+
+	private ConcurrentSkipListMap<String, MetricFamily> families = new ConcurrentSkipListMap<String, MetricFamily>();		//key -> metric name, value -> all metrics with that name
+
+	/**
+	 * Get the registry shared by every component in this process.
+	 * @return
+	 */
+	public static MetricsRegistry getDefault() {
+		return defaultRegistry;
+	}
+
+	/**
+	 * Get or register a counter.
+	 * @param name
+	 * @param help
+	 * @param labels	- label names and values, alternating (ie. "component", "E1")
+	 * @return
+	 */
+	public Counter counter(String name, String help, String... labels) {
+		return (Counter) this.getFamily(name, help, "counter").metrics.computeIfAbsent(formatLabels(labels), l -> new Counter());
+	}
+
+	/**
+	 * Get or register a timer.
+	 * @param name
+	 * @param help
+	 * @param labels	- label names and values, alternating (ie. "component", "E1")
+	 * @return
+	 */
+	public Timer timer(String name, String help, String... labels) {
+		return (Timer) this.getFamily(name, help, "summary").metrics.computeIfAbsent(formatLabels(labels), l -> new Timer());
+	}
+
+	/**
+	 * Register a gauge, the value is only computed when the registry is scraped.
+	 * @param name
+	 * @param help
+	 * @param value
+	 * @param labels	- label names and values, alternating (ie. "component", "E1")
+	 */
+	public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+		this.getFamily(name, help, "gauge").metrics.put(formatLabels(labels), new FunctionMetric(value));
+	}
+
+	/**
+	 * Register a counter whose value is kept by the component (ie. a total time), the value is only computed when the registry is scraped.
+	 * @param name
+	 * @param help
+	 * @param value
+	 * @param labels	- label names and values, alternating (ie. "component", "E1")
+	 */
+	public void counter(String name, String help, DoubleSupplier value, String... labels) {
+		this.getFamily(name, help, "counter").metrics.put(formatLabels(labels), new FunctionMetric(value));
+	}
+
+	private MetricFamily getFamily(String name, String help, String type) {
+		MetricFamily family = this.families.computeIfAbsent(name, n -> new MetricFamily(help, type));
+		if (!family.type.equals(type)) {
+			throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type + ".");
+		}
+		return family;
+	}
+
+	/**
+	 * Write every metric in the Prometheus text exposition format.
+	 * @return
+	 */
+	public String scrape() {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, MetricFamily> entry : this.families.entrySet()) {
+			String name = entry.getKey();
+			MetricFamily family = entry.getValue();
+			sb.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+			sb.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+			for (Map.Entry<String, Metric> metric : family.metrics.entrySet()) {
+				metric.getValue().write(sb, name, metric.getKey());
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Format labels as {name="value",...}, escaping the values.
+	 * @param labels
+	 * @return
+	 */
+	private static String formatLabels(String... labels) {
+		if (labels.length == 0) {
+			return "";
+		}
+		StringBuilder sb = new StringBuilder("{");
+		for (int i = 0; i + 1 < labels.length; i += 2) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(labels[i]).append("=\"");
+			sb.append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"));
+			sb.append('"');
+		}
+		return sb.append('}').toString();
+	}
+
+	/**
+	 * All metrics with the same name.
+	 */
+	private static class MetricFamily {
+		private String help;
+		private String type;
+		private ConcurrentSkipListMap<String, Metric> metrics = new ConcurrentSkipListMap<String, Metric>();		//key -> labels, value -> metric
+
+		private MetricFamily(String help, String type) {
+			this.help = help;
+			this.type = type;
+		}
+	}
+
+	/**
+	 * A gauge or counter whose value is computed when scraped.
+	 */
+	private static class FunctionMetric implements Metric {
+		private DoubleSupplier value;
+
+		private FunctionMetric(DoubleSupplier value) {
+			this.value = value;
+		}
+
+		@Override
+		public void write(StringBuilder sb, String name, String labels) {
+			sb.append(name).append(labels).append(' ').append(this.value.getAsDouble()).append('\n');
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package main.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * The MetricsServer serves a MetricsRegistry at http://localhost:port/metrics in the Prometheus text exposition format.
+ * It only listens on the loopback address, and does no work until it is scraped.
+ *
+ */
+public class MetricsServer {
+
+	/**
+	 * Start serving a registry.
+	 * @param registry
+	 * @param port
+	 * @return the server, or null if the port could not be bound
+	 */
+	public static HttpServer start(MetricsRegistry registry, int port) {
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+			server.createContext("/metrics", exchange -> {
+				byte[] response = registry.scrape().getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+				exchange.sendResponseHeaders(200, response.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(response);
+				}
+			});
+			server.start();
+			return server;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package main.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events and the total time spent on them, exported as a Prometheus summary (name_count, name_sum in seconds).
+ * Like Counter, both are striped (LongAdder) so recording is contention free.
+ *
+ */
+public class Timer implements Metric {
+	private LongAdder count = new LongAdder();
+	private LongAdder totalTime = new LongAdder();					//nanoseconds
+
+	/**
+	 * Record an event which took some time.
+	 * @param time	- nanoseconds
+	 */
+	public void record(long time) {
+		this.count.increment();
+		this.totalTime.add(time);
+	}
+
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	/**
+	 * @return total time recorded, in nanoseconds
+	 */
+	public long getTotalTime() {
+		return this.totalTime.sum();
+	}
+
+	@Override
+	public void write(StringBuilder sb, String name, String labels) {
+		sb.append(name).append("_count").append(labels).append(' ').append(this.count.sum()).append('\n');
+		sb.append(name).append("_sum").append(labels).append(' ').append(this.totalTime.sum() / 1e9).append('\n');
+	}
+}
@@ -0,0 +1,114 @@
+package main.requests;
+
+import main.global.ElevatorDoorStatus;
+
+public class ElevatorAnnounceRequest extends Request {
+
+	/**
+	 * Name of the elevator announcing itself
+	 */
+	String ElevatorName;
+
+	/**
+	 * Floor the elevator is at, null when the scheduler is asking the elevator to announce itself
+	 */
+	String FloorName;
+
+	/**
+	 * Status of the elevator's doors, null when the scheduler is asking the elevator to announce itself
+	 */
+	ElevatorDoorStatus DoorStatus;
+
+	/**
+	 * Type of request for parsing purposes
+	 */
+	private static byte[] RequestType = new byte[] {1,12};
+
+
+	/**
+	 * Scheduler calls this to ask an elevator to announce itself (ie. an elevator which is OUT_OF_SERVICE but still sending heartbeats)
+	 */
+	public ElevatorAnnounceRequest(String elevatorName){
+		this(elevatorName, null, null);
+	}
+
+	/**
+	 * Elevator calls this to announce its actual floor and door status, so the scheduler can return it to service
+	 */
+	public ElevatorAnnounceRequest(String elevatorName, String floorName, ElevatorDoorStatus doorStatus){
+		this.setRequestType(RequestType);
+		this.setElevatorName(elevatorName);
+		this.setFloorName(floorName);
+		this.setDoorStatus(doorStatus);
+	}
+
+
+
+	/**
+	 * @return true if this is an elevator's announcement, false if it is the scheduler asking for one
+	 */
+	public boolean isAnnouncement() {
+		return (FloorName != null) && !FloorName.isEmpty() && (DoorStatus != null);
+	}
+
+
+
+	/**
+	 * @return the elevatorName
+	 */
+	public String getElevatorName() {
+		return ElevatorName;
+	}
+
+
+
+	/**
+	 * @param elevatorName the elevatorName to set
+	 */
+	public void setElevatorName(String elevatorName) {
+		ElevatorName = elevatorName;
+	}
+
+
+
+	/**
+	 * @return the floorName
+	 */
+	public String getFloorName() {
+		return FloorName;
+	}
+
+
+
+	/**
+	 * @param floorName the floorName to set
+	 */
+	public void setFloorName(String floorName) {
+		FloorName = floorName;
+	}
+
+
+
+	/**
+	 * @return the doorStatus
+	 */
+	public ElevatorDoorStatus getDoorStatus() {
+		return DoorStatus;
+	}
+
+
+
+	/**
+	 * @param doorStatus the doorStatus to set
+	 */
+	public void setDoorStatus(ElevatorDoorStatus doorStatus) {
+		DoorStatus = doorStatus;
+	}
+
+
+
+	public static byte[] getRequestType() {
+		return RequestType;
+	}
+
+}
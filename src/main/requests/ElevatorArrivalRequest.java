@@ -18,6 +18,11 @@ public class ElevatorArrivalRequest extends Request {
 	 */
 	private Direction Direction;
 	
+	/**
+	 * Number of passengers who can board the elevator, Integer.MAX_VALUE if its capacity is not limited
+	 */
+	private int AvailableCapacity;
+	
 	/**
 	 * Type of request for parsing purposes
 	 */
@@ -29,10 +34,21 @@ public class ElevatorArrivalRequest extends Request {
 	 * @param floor {@link ElevatorArrivalRequest#FloorName}
 	 */
 	public ElevatorArrivalRequest(String elevator, String floor, Direction direction){
+		this(elevator, floor, direction, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Create a request for an elevator's arrival at a floor, which only has room for some of the passengers waiting there
+	 * @param elevator {@link ElevatorArrivalRequest#ElevatorName}
+	 * @param floor {@link ElevatorArrivalRequest#FloorName}
+	 * @param availableCapacity {@link ElevatorArrivalRequest#AvailableCapacity}
+	 */
+	public ElevatorArrivalRequest(String elevator, String floor, Direction direction, int availableCapacity){
 		this.setRequestType(RequestType);
 		this.setElevatorName(elevator);
 		this.setFloorName(floor); 
 		this.setDirection(direction);
+		this.setAvailableCapacity(availableCapacity);
 	}
 	
 	/**
@@ -83,5 +99,19 @@ public class ElevatorArrivalRequest extends Request {
 	public void setDirection(Direction direction) {
 		Direction = direction;
 	}
+	
+	/**
+	 * {@link ElevatorArrivalRequest#AvailableCapacity}
+	 */
+	public int getAvailableCapacity() {
+		return AvailableCapacity;
+	}
+	
+	/**
+	 * {@link ElevatorArrivalRequest#AvailableCapacity}
+	 */
+	public void setAvailableCapacity(int availableCapacity) {
+		AvailableCapacity = availableCapacity;
+	}
 
 }
@@ -0,0 +1,146 @@
+package main.requests;
+
+import main.global.Direction;
+
+public class ElevatorAssignmentRequest extends Request {
+
+	/**
+	 * Name of the elevator assigned to the passenger
+	 */
+	String ElevatorName;
+
+	/**
+	 * Floor the passenger is waiting at
+	 */
+	String FloorName;
+
+	/**
+	 * Direction the passenger is travelling
+	 */
+	Direction Direction;
+
+	/**
+	 * Floor the passenger entered at the floor terminal
+	 */
+	String DestinationFloor;
+
+	/**
+	 * Name of the elevator the passenger was previously assigned to, null (empty once parsed) for a passenger's first assignment
+	 */
+	String PreviousElevatorName;
+
+	/**
+	 * Type of request for parsing purposes
+	 */
+	private static byte[] RequestType = new byte[] {1,13};
+
+
+	/**
+	 * Scheduler calls this (in destination dispatch mode) to tell the floor terminal which elevator a waiting passenger should board
+	 */
+	public ElevatorAssignmentRequest(String elevatorName, String floorName, Direction direction, String destinationFloor, String previousElevatorName){
+		this.setRequestType(RequestType);
+		this.setElevatorName(elevatorName);
+		this.setFloorName(floorName);
+		this.setDirection(direction);
+		this.setDestinationFloor(destinationFloor);
+		this.setPreviousElevatorName(previousElevatorName);
+	}
+
+
+
+	/**
+	 * @return the elevatorName
+	 */
+	public String getElevatorName() {
+		return ElevatorName;
+	}
+
+
+
+	/**
+	 * @param elevatorName the elevatorName to set
+	 */
+	public void setElevatorName(String elevatorName) {
+		ElevatorName = elevatorName;
+	}
+
+
+
+	/**
+	 * @return the floorName
+	 */
+	public String getFloorName() {
+		return FloorName;
+	}
+
+
+
+	/**
+	 * @param floorName the floorName to set
+	 */
+	public void setFloorName(String floorName) {
+		FloorName = floorName;
+	}
+
+
+
+	/**
+	 * @return the direction
+	 */
+	public Direction getDirection() {
+		return Direction;
+	}
+
+
+
+	/**
+	 * @param direction the direction to set
+	 */
+	public void setDirection(Direction direction) {
+		Direction = direction;
+	}
+
+
+
+	/**
+	 * @return the destinationFloor
+	 */
+	public String getDestinationFloor() {
+		return DestinationFloor;
+	}
+
+
+
+	/**
+	 * @param destinationFloor the destinationFloor to set
+	 */
+	public void setDestinationFloor(String destinationFloor) {
+		DestinationFloor = destinationFloor;
+	}
+
+
+
+	/**
+	 * @return the previousElevatorName
+	 */
+	public String getPreviousElevatorName() {
+		return PreviousElevatorName;
+	}
+
+
+
+	/**
+	 * @param previousElevatorName the previousElevatorName to set
+	 */
+	public void setPreviousElevatorName(String previousElevatorName) {
+		PreviousElevatorName = previousElevatorName;
+	}
+
+
+
+	public static byte[] getRequestType() {
+		return RequestType;
+	}
+
+}
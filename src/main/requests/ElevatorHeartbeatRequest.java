@@ -0,0 +1,48 @@
+package main.requests;
+
+public class ElevatorHeartbeatRequest extends Request {
+
+	/**
+	 * Name of the elevator sending the heartbeat
+	 */
+	String ElevatorName;
+
+	/**
+	 * Type of request for parsing purposes
+	 */
+	private static byte[] RequestType = new byte[] {1,11};
+
+
+	/**
+	 * Elevator sends this to the scheduler periodically, to show it is still alive
+	 */
+	public ElevatorHeartbeatRequest(String elevatorName){
+		this.setRequestType(RequestType);
+		this.setElevatorName(elevatorName);
+	}
+
+
+
+	/**
+	 * @return the elevatorName
+	 */
+	public String getElevatorName() {
+		return ElevatorName;
+	}
+
+
+
+	/**
+	 * @param elevatorName the elevatorName to set
+	 */
+	public void setElevatorName(String elevatorName) {
+		ElevatorName = elevatorName;
+	}
+
+
+
+	public static byte[] getRequestType() {
+		return RequestType;
+	}
+
+}
@@ -2,6 +2,8 @@ package main.requests;
 
 import java.net.DatagramPacket;
 
+import main.jfr.RequestDecodeEvent;
+
 
 public final class Helper {
 	private static Populater populater = new Populater();
@@ -26,6 +28,18 @@ public final class Helper {
 	 * @throws InvalidRequestException The data in the array was corrupt and could not fit parse criteria
 	 */
 	public static synchronized Request ParseRequest(DatagramPacket packet) throws InvalidRequestException{
-		return parser.ParseRequest(packet);
+		RequestDecodeEvent decodeEvent = new RequestDecodeEvent();
+		decodeEvent.begin();
+		Request request = null;
+		try {
+			request = parser.ParseRequest(packet);
+			return request;
+		} finally {
+			if (decodeEvent.shouldCommit()) {
+				decodeEvent.requestType = (request != null) ? request.getClass().getSimpleName() : null;
+				decodeEvent.packetLength = packet.getLength();
+				decodeEvent.commit();
+			}
+		}
 	}
 }
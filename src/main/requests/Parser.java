@@ -30,11 +30,13 @@ public class Parser {
 		}
 
 		String[] SrcDests = ParseSrcDest();
+		long Epoch = ParseEpoch();
 
 
 		byte[] RequestType = ParseType();
 		Request request = ParseOnType(RequestType);
 		IncludeParams(SrcDests, request);
+		request.Epoch = Epoch;
 		Clear();
 		return request;
 	}
@@ -72,6 +74,14 @@ public class Parser {
 		return res;
 	}
 
+	private long ParseEpoch() throws InvalidRequestException {
+		try {
+			return Long.parseLong(ParseString());
+		} catch (NumberFormatException e) {
+			throw Invalid("Could not parse the epoch of the request.");
+		}
+	}
+
 	private Request ParseOnType(byte[] rt) throws InvalidRequestException {
 		Request request = null;
 		if(Arrays.equals(rt, DirectionLampRequest.getRequestType())){
@@ -86,7 +96,13 @@ public class Parser {
 			String ElevatorName = ParseString();
 			String FloorName = ParseString();
 			Direction dir = (Direction) ParseEnum(Direction.class);
-			request = new ElevatorArrivalRequest(ElevatorName, FloorName, dir);
+			int availableCapacity;
+			try {
+				availableCapacity = Integer.parseInt(ParseString());
+			} catch (NumberFormatException e) {
+				throw Invalid("Could not parse the available capacity of an Elevator Arrival Request.");
+			}
+			request = new ElevatorArrivalRequest(ElevatorName, FloorName, dir, availableCapacity);
 		} else if(Arrays.equals(rt, ElevatorDoorRequest.getRequestType())){
 			/* Parse based on Elevator Door Request */
 			String ElevatorName = ParseString();
@@ -129,7 +145,31 @@ public class Parser {
 			/* Parse based on Elevator Wait Request */
 			String elevatorName = ParseString();
 			request = new ElevatorWaitRequest(elevatorName);
-		} 
+		} else if(Arrays.equals(rt, SchedulerRedirectRequest.getRequestType())){
+			/* Parse based on Scheduler Redirect Request */
+			String schedulerName = ParseString();
+			String schedulerHost = ParseString();
+			String schedulerPort = ParseString();
+			request = new SchedulerRedirectRequest(schedulerName, schedulerHost, schedulerPort);
+		} else if(Arrays.equals(rt, ElevatorHeartbeatRequest.getRequestType())){
+			/* Parse based on Elevator Heartbeat Request */
+			String elevatorName = ParseString();
+			request = new ElevatorHeartbeatRequest(elevatorName);
+		} else if(Arrays.equals(rt, ElevatorAnnounceRequest.getRequestType())){
+			/* Parse based on Elevator Announce Request */
+			String elevatorName = ParseString();
+			String floorName = ParseString();
+			ElevatorDoorStatus doorStatus = (ElevatorDoorStatus) ParseOptionalEnum(ElevatorDoorStatus.class);
+			request = new ElevatorAnnounceRequest(elevatorName, floorName, doorStatus);
+		} else if(Arrays.equals(rt, ElevatorAssignmentRequest.getRequestType())){
+			/* Parse based on Elevator Assignment Request */
+			String elevatorName = ParseString();
+			String floorName = ParseString();
+			Direction direction = (Direction) ParseEnum(Direction.class);
+			String destinationFloor = ParseString();
+			String previousElevatorName = ParseString();
+			request = new ElevatorAssignmentRequest(elevatorName, floorName, direction, destinationFloor, previousElevatorName);
+		}
 		return request;
 	}
 
@@ -30,6 +30,8 @@ public class Populater {
 		data [counter.getAndIncrement()] = 0;
 		// populate optional params
 		PopulateSourceDest();
+		// Populate the epoch of the sending Scheduler
+		Populate(Long.toString(request.Epoch));
 		// Populate type
 		PopulateType();
 		// Populate based on Type
@@ -86,11 +88,12 @@ public class Populater {
 			PopulateEnum(req.getCurrentStatus());
 
 		} else if(request instanceof ElevatorArrivalRequest){
-			/* Elevator Arrival Request is of form 0E_NAME0FLOOR_NAME0 */
+			/* Elevator Arrival Request is of form 0E_NAME0FLOOR_NAME0DIRECTION0AVAILABLE_CAPACITY0 */
 			ElevatorArrivalRequest req = (ElevatorArrivalRequest) request;
 			Populate(req.getElevatorName());
 			Populate(req.getFloorName());
 			PopulateEnum(req.getDirection());
+			Populate(String.valueOf(req.getAvailableCapacity()));
 
 		} else if(request instanceof ElevatorDoorRequest){
 			/* Elevator Door Request is of form 0E_NAME0ACTION0*/
@@ -134,6 +137,30 @@ public class Populater {
 			/* Floor Button Request is of the form 0DIRECTION0ACTION0 */
 			ElevatorWaitRequest req = (ElevatorWaitRequest) request;
 			Populate(req.getElevatorName());
+		} else if(request instanceof SchedulerRedirectRequest){
+			/* Scheduler Redirect Request is of the form 0NAME0HOST0PORT0 */
+			SchedulerRedirectRequest req = (SchedulerRedirectRequest) request;
+			Populate(req.getSchedulerName());
+			Populate(req.getSchedulerHost());
+			Populate(req.getSchedulerPort());
+		} else if(request instanceof ElevatorHeartbeatRequest){
+			/* Elevator Heartbeat Request is of the form 0E_NAME0 */
+			ElevatorHeartbeatRequest req = (ElevatorHeartbeatRequest) request;
+			Populate(req.getElevatorName());
+		} else if(request instanceof ElevatorAnnounceRequest){
+			/* Elevator Announce Request is of the form 0E_NAME0FLOOR0[DOOR_STATUS]0 */
+			ElevatorAnnounceRequest req = (ElevatorAnnounceRequest) request;
+			Populate(req.getElevatorName());
+			Populate(req.getFloorName());
+			PopulateOptionalEnum(req.getDoorStatus());
+		} else if(request instanceof ElevatorAssignmentRequest){
+			/* Elevator Assignment Request is of the form 0E_NAME0FLOOR0DIRECTION0DEST_FLOOR0PREV_E_NAME0 */
+			ElevatorAssignmentRequest req = (ElevatorAssignmentRequest) request;
+			Populate(req.getElevatorName());
+			Populate(req.getFloorName());
+			PopulateEnum(req.getDirection());
+			Populate(req.getDestinationFloor());
+			Populate(req.getPreviousElevatorName());
 		}
 	}
 
@@ -11,6 +11,11 @@ public class Request {
 	 */
 	String Sender;
 	
+	/**
+	 * Epoch of the Scheduler which sent the request, 0 if it was not sent by a Scheduler
+	 */
+	long Epoch;
+	
 	/**
 	 * Type of request for parsing purposes
 	 */
@@ -59,6 +64,21 @@ public class Request {
 		Sender = destinationName;
 	}
 	
+	/**
+	 * {@link Request#Epoch}
+	 */
+	public long getEpoch() {
+		return Epoch;
+	}
+	
+	/**
+	 * A standby Scheduler which takes over sends with a higher epoch than the primary it replaced, so the elevators and floors can ignore
+	 * requests from a primary which does not know it has been replaced. {@link Request#Epoch}
+	 */
+	public void setEpoch(long epoch) {
+		Epoch = epoch;
+	}
+	
 	/**
 	 * Sets this class's request type to the given request type
 	 * @param RequestType
@@ -91,6 +111,14 @@ public class Request {
 		this.elapsedTime = this.endTime - this.startTime;
 	}
 	
+	/**
+	 * Returns the start time for this Request (the value of System.nanoTime() when it was received), 0 if it was not set
+	 * @return
+	 */
+	public long getStartTime() {
+		return this.startTime;
+	}
+	
 	/**
 	 * Returns the elapsed time for this Request in milliseconds
 	 * @return
@@ -0,0 +1,104 @@
+package main.requests;
+
+import main.metrics.MetricsRegistry;
+import main.metrics.Timer;
+
+/**
+ * The purpose of the RequestDispatcher is to route a received Request to the event handler registered for its request type.
+ * Handlers are kept in a table indexed directly by the two bytes of the request type code (see {@link Request#IGetRequestType()}),
+ * so finding the handler for a request takes constant time regardless of how many request types have been registered.
+ *
+ * If metrics are enabled, the time spent in each handler is recorded, per request type, in a Timer (see enableMetrics()).
+ *
+ */
+public class RequestDispatcher {
+	private static final int TYPE_CODE_RANGE = 256;					//Each byte of the request type code can take 256 values
+	private RequestHandler<?>[][] handlersByRequestType;			//first index -> request type byte 0, second index -> request type byte 1, value -> handler
+	private Timer[][] timersByRequestType;							//first index -> request type byte 0, second index -> request type byte 1, value -> handling time, null until the first request of the type
+	private MetricsRegistry metricsRegistry;						//null if metrics are not enabled
+	private String componentName;
+
+	public RequestDispatcher() {
+		this.handlersByRequestType = new RequestHandler<?>[TYPE_CODE_RANGE][];
+	}
+
+	/**
+	 * Record the time spent handling each request type in a registry, labelled with the name of the component handling the requests.
+	 *
+	 * @param metricsRegistry
+	 * @param componentName
+	 */
+	public void enableMetrics(MetricsRegistry metricsRegistry, String componentName) {
+		this.metricsRegistry = metricsRegistry;
+		this.componentName = componentName;
+		this.timersByRequestType = new Timer[TYPE_CODE_RANGE][];
+	}
+
+	/**
+	 * Register the handler for a request type. Any handler previously registered for this request type is replaced.
+	 *
+	 * @param requestType	- request type code (ie. FloorButtonRequest.getRequestType())
+	 * @param handler		- handler for requests of this type
+	 */
+	public <T extends Request> void register(byte[] requestType, RequestHandler<T> handler) {
+		int category = requestType[0] & 0xFF;
+		if (this.handlersByRequestType[category] == null) {
+			this.handlersByRequestType[category] = new RequestHandler<?>[TYPE_CODE_RANGE];
+		}
+		this.handlersByRequestType[category][requestType[1] & 0xFF] = handler;
+	}
+
+	/**
+	 * Pass the request to the handler registered for its request type.
+	 *
+	 * @param request
+	 * @return true if a handler was registered for this request type, otherwise false
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean dispatch(Request request) {
+		byte[] requestType = request.IGetRequestType();
+		if (requestType == null) {
+			return false;
+		}
+
+		RequestHandler<?>[] handlers = this.handlersByRequestType[requestType[0] & 0xFF];
+		if (handlers == null) {
+			return false;
+		}
+
+		RequestHandler<Request> handler = (RequestHandler<Request>) handlers[requestType[1] & 0xFF];
+		if (handler == null) {
+			return false;
+		}
+
+		if (this.metricsRegistry == null) {
+			handler.handle(request);
+			return true;
+		}
+
+		long startTime = System.nanoTime();
+		handler.handle(request);
+		this.getTimer(request).record(System.nanoTime() - startTime);
+		return true;
+	}
+
+	/**
+	 * Get the timer for a request's type, registering it the first time a request of the type is handled.
+	 * @param request
+	 * @return
+	 */
+	private Timer getTimer(Request request) {
+		byte[] requestType = request.IGetRequestType();
+		Timer[] timers = this.timersByRequestType[requestType[0] & 0xFF];
+		if (timers == null) {
+			timers = new Timer[TYPE_CODE_RANGE];
+			this.timersByRequestType[requestType[0] & 0xFF] = timers;
+		}
+		Timer timer = timers[requestType[1] & 0xFF];
+		if (timer == null) {
+			timer = this.metricsRegistry.timer("elevator_event_handling_seconds", "Time spent handling received events.", "component", this.componentName, "type", request.getClass().getSimpleName());
+			timers[requestType[1] & 0xFF] = timer;
+		}
+		return timer;
+	}
+}
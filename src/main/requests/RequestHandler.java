@@ -0,0 +1,16 @@
+package main.requests;
+
+/**
+ * A RequestHandler is an event handler for a single type of Request. Handlers are registered with a {@link RequestDispatcher}
+ * against the request type code of the Request they handle.
+ *
+ * @param <T> the type of Request handled
+ */
+public interface RequestHandler<T extends Request> {
+
+	/**
+	 * Handle a received request.
+	 * @param request
+	 */
+	public void handle(T request);
+}
@@ -0,0 +1,97 @@
+package main.requests;
+
+public class SchedulerRedirectRequest extends Request {
+
+	/**
+	 * Name of the Scheduler which has moved (the elevator bank's name, for the Scheduler of a bank)
+	 */
+	String SchedulerName;
+
+	/**
+	 * Host the Scheduler is now reachable at
+	 */
+	String SchedulerHost;
+
+	/**
+	 * Port the Scheduler is now listening on
+	 */
+	String SchedulerPort;
+
+	/**
+	 * Type of request for parsing purposes
+	 */
+	private static byte[] RequestType = new byte[] {1,10};
+
+
+	/**
+	 * A standby Scheduler which has taken over from the primary sends this to every elevator and floor (or the BankRouter, for the Scheduler
+	 * of a bank), so they send their requests to the new Scheduler.
+	 */
+	public SchedulerRedirectRequest(String schedulerName, String schedulerHost, String schedulerPort){
+		this.setRequestType(RequestType);
+		this.setSchedulerName(schedulerName);
+		this.setSchedulerHost(schedulerHost);
+		this.setSchedulerPort(schedulerPort);
+	}
+
+
+
+	/**
+	 * @return the schedulerName
+	 */
+	public String getSchedulerName() {
+		return SchedulerName;
+	}
+
+
+
+	/**
+	 * @param schedulerName the schedulerName to set
+	 */
+	public void setSchedulerName(String schedulerName) {
+		SchedulerName = schedulerName;
+	}
+
+
+
+	/**
+	 * @return the schedulerHost
+	 */
+	public String getSchedulerHost() {
+		return SchedulerHost;
+	}
+
+
+
+	/**
+	 * @param schedulerHost the schedulerHost to set
+	 */
+	public void setSchedulerHost(String schedulerHost) {
+		SchedulerHost = schedulerHost;
+	}
+
+
+
+	/**
+	 * @return the schedulerPort
+	 */
+	public String getSchedulerPort() {
+		return SchedulerPort;
+	}
+
+
+
+	/**
+	 * @param schedulerPort the schedulerPort to set
+	 */
+	public void setSchedulerPort(String schedulerPort) {
+		SchedulerPort = schedulerPort;
+	}
+
+
+
+	public static byte[] getRequestType() {
+		return RequestType;
+	}
+
+}
@@ -0,0 +1,206 @@
+package main.scheduler;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+
+import main.ElevatorSystemComponent;
+import main.global.ElevatorBank;
+import main.global.ElevatorSystemConfiguration;
+import main.metrics.Counter;
+import main.metrics.MetricsRegistry;
+import main.metrics.MetricsServer;
+import main.requests.FloorButtonRequest;
+import main.requests.Request;
+import main.requests.SchedulerRedirectRequest;
+import main.server.Server;
+
+/**
+ * The BankRouter is the front of a building whose elevators are divided into banks (see ElevatorBank). The floors send their hall calls
+ * (FloorButtonRequests) to the router, which forwards each one to the Scheduler of the bank serving the floor. Each bank's Scheduler plans,
+ * and talks to its elevators and floors, on its own, so adding a bank adds a Scheduler rather than load on one Scheduler.
+ *
+ * A hall call at the lobby, which every bank serves, is sent to the bank serving the passenger's destination.
+ * The router keeps no state of its own: the bank is looked up by floor in an array, and the hall call is forwarded on the server's thread.
+ * When a bank's standby Scheduler takes over, it redirects the router, which sends the bank's hall calls to the standby from then on.
+ *
+ */
+public class BankRouter implements ElevatorSystemComponent {
+	private String name;
+	private Server server;
+	private ElevatorBank[] banks;
+	private InetAddress[] schedulerAddresses;		//index -> bank, value -> host address of the bank's Scheduler
+	private int[] schedulerPorts;					//index -> bank, value -> port of the bank's Scheduler
+	private long[] schedulerEpochs;					//index -> bank, value -> epoch of the bank's Scheduler's last redirect, an older redirect is ignored
+	private int[] bankByFloor;						//index -> floor, value -> index of the bank serving the floor, -1 for the lobby and floors no bank serves
+	private Counter[] routedHallCalls;				//index -> bank, value -> hall calls sent to the bank's Scheduler
+	private Counter unroutedHallCalls;
+
+	public BankRouter(String name, int port, List<ElevatorBank> banks) {
+		this.name = name;
+		this.banks = banks.toArray(new ElevatorBank[banks.size()]);
+		this.schedulerAddresses = new InetAddress[this.banks.length];
+		this.schedulerPorts = new int[this.banks.length];
+		this.schedulerEpochs = new long[this.banks.length];
+		this.routedHallCalls = new Counter[this.banks.length];
+
+		int highestFloor = 0;
+		for (ElevatorBank bank : this.banks) {
+			highestFloor = Math.max(highestFloor, bank.getHighestFloor());
+		}
+		this.bankByFloor = new int[highestFloor + 1];
+		for (int floor = 0; floor <= highestFloor; floor++) {
+			this.bankByFloor[floor] = -1;
+		}
+
+		MetricsRegistry metricsRegistry = MetricsRegistry.getDefault();
+		for (int bank = 0; bank < this.banks.length; bank++) {
+			for (int floor = this.banks[bank].getLowestFloor(); floor <= this.banks[bank].getHighestFloor(); floor++) {
+				if (floor != this.banks[bank].getLobbyFloor()) {
+					this.bankByFloor[floor] = bank;
+				}
+			}
+			try {
+				this.schedulerAddresses[bank] = InetAddress.getByName(this.banks[bank].getSchedulerHost());
+			} catch (UnknownHostException e) {
+				e.printStackTrace();
+			}
+			this.schedulerPorts[bank] = this.banks[bank].getSchedulerPort();
+			this.routedHallCalls[bank] = metricsRegistry.counter("router_hall_calls_routed_total", "Hall calls sent to the Scheduler of an elevator bank.", "component", name, "bank", this.banks[bank].getName());
+		}
+		this.unroutedHallCalls = metricsRegistry.counter("router_hall_calls_unrouted_total", "Hall calls at a floor no elevator bank serves.", "component", name);
+
+		//Create a server (bound to this BankRouter), hall calls are forwarded as they are received
+		this.server = new Server(this, port, false);
+	}
+
+	/**
+	 * Forward a hall call to the Scheduler of the bank serving it.
+	 */
+	@Override
+	public void receiveEvent(Request request) {
+		if (request instanceof SchedulerRedirectRequest) {
+			this.redirect((SchedulerRedirectRequest) request);
+			return;
+		}
+		if (!(request instanceof FloorButtonRequest)) {
+			this.consoleOutput("Ignored " + request.getClass().getSimpleName() + ", only hall calls are routed.");
+			return;
+		}
+		FloorButtonRequest floorButtonRequest = (FloorButtonRequest) request;
+		int bank = this.getBank(floorButtonRequest);
+		if (bank < 0) {
+			this.unroutedHallCalls.increment();
+			this.consoleOutput("No elevator bank serves the hall call at floor " + floorButtonRequest.getFloorName() + " to floor " + floorButtonRequest.getDestinationFloor() + ".");
+			return;
+		}
+		this.routedHallCalls[bank].increment();
+		this.server.send(floorButtonRequest, this.schedulerAddresses[bank], this.schedulerPorts[bank]);
+	}
+
+	/**
+	 * Send a bank's hall calls to the standby Scheduler which has taken over from the bank's Scheduler.
+	 * @param request
+	 */
+	private void redirect(SchedulerRedirectRequest request) {
+		for (int bank = 0; bank < this.banks.length; bank++) {
+			if (!this.banks[bank].getName().equals(request.getSchedulerName())) {
+				continue;
+			}
+			if (request.getEpoch() < this.schedulerEpochs[bank]) {
+				this.consoleOutput("Ignored redirect of bank " + request.getSchedulerName() + " from an earlier epoch " + request.getEpoch() + ".");
+				return;
+			}
+			try {
+				this.schedulerAddresses[bank] = InetAddress.getByName(request.getSchedulerHost());
+			} catch (UnknownHostException e) {
+				e.printStackTrace();
+				return;
+			}
+			this.schedulerPorts[bank] = Integer.parseInt(request.getSchedulerPort());
+			this.schedulerEpochs[bank] = request.getEpoch();
+			this.consoleOutput("Routing hall calls for " + this.banks[bank] + " to " + request.getSchedulerHost() + ":" + request.getSchedulerPort() + ".");
+			return;
+		}
+		this.consoleOutput("Ignored redirect of " + request.getSchedulerName() + ", it is not an elevator bank.");
+	}
+
+	/**
+	 * Get the bank serving a hall call: the bank serving its floor or, at the lobby, the bank serving its destination.
+	 * A hall call at the lobby whose destination no bank serves is sent to the first bank.
+	 * @param floorButtonRequest
+	 * @return index of the bank, -1 if no bank serves the floor
+	 */
+	private int getBank(FloorButtonRequest floorButtonRequest) {
+		int floor = parseFloor(floorButtonRequest.getFloorName());
+		int bank = this.getBank(floor);
+		if ((bank >= 0) || (this.banks.length == 0) || (floor != this.banks[0].getLobbyFloor())) {
+			return bank;
+		}
+		bank = this.getBank(parseFloor(floorButtonRequest.getDestinationFloor()));
+		return (bank >= 0) ? bank : 0;
+	}
+
+	private int getBank(int floor) {
+		if ((floor < 0) || (floor >= this.bankByFloor.length)) {
+			return -1;
+		}
+		return this.bankByFloor[floor];
+	}
+
+	private static int parseFloor(String floor) {
+		try {
+			return Integer.parseInt(floor.trim());
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * The router has no event queue, hall calls are forwarded as they are received (see receiveEvent()).
+	 */
+	@Override
+	public Request getNextEvent() {
+		return null;
+	}
+
+	@Override
+	public String getName() {
+		return this.name;
+	}
+
+	public void start() {
+		Thread serverThread = new Thread(this.server, this.name);
+		serverThread.start();
+		for (ElevatorBank bank : this.banks) {
+			this.consoleOutput("Routing hall calls for " + bank + " to " + bank.getSchedulerHost() + ":" + bank.getSchedulerPort() + ".");
+		}
+	}
+
+	private void consoleOutput(String output) {
+		System.out.println("[" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("hh:mm:ss.S")) + "] " + this.name + " : " + output);
+	}
+
+	public static void main(String[] args) {
+		List<ElevatorBank> banks = ElevatorBank.getConfiguredBanks();
+		if (banks.isEmpty()) {
+			System.out.println("No elevator banks are configured in config.xml, the floors send their hall calls to the Scheduler.");
+			return;
+		}
+
+		//This will return a Map of the router's host and port, and the lobby floor (as per config.xml)
+		HashMap<String, String> banksConfiguration = ElevatorSystemConfiguration.getBanksConfiguration();
+
+		//Serve the metrics for scraping (if configured)
+		String metricsPort = ElevatorSystemConfiguration.getMetricsConfiguration().get("bankRouterPort");
+		if (metricsPort != null) {
+			MetricsServer.start(MetricsRegistry.getDefault(), Integer.parseInt(metricsPort));
+		}
+
+		BankRouter router = new BankRouter("BankRouter", Integer.parseInt(banksConfiguration.get("routerPort")), banks);
+		router.start();
+	}
+}
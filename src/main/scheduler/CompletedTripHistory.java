@@ -0,0 +1,119 @@
+package main.scheduler;
+
+import java.util.ArrayList;
+
+/**
+ * The CompletedTripHistory keeps an elevator's most recently completed trips in a ring, in the order they were completed. A trip is evicted
+ * once the ring is full or once it was completed more than the retention time ago, and is then appended to the TripArchive (if there is one),
+ * so the history's memory stays bounded however long the Scheduler runs.
+ *
+ * The ring starts small and doubles until it reaches its capacity, so a large capacity only costs memory once it is used.
+ *
+ */
+public class CompletedTripHistory {
+	private static final int INITIAL_SIZE = 16;
+
+	private int elevatorKey;						//Key of the elevator the trips were completed by in the archive (see TripArchive.getElevatorKey())
+	private int capacity;							//Maximum number of trips kept
+	private long retention;							//Time (milliseconds) a trip is kept after it was completed
+	private TripArchive tripArchive;				//Evicted trips are appended to this archive, null if they are discarded
+	private TripRequest[] trips;					//Ring of completed trips, the oldest at head
+	private int head;
+	private int size;
+
+	/**
+	 * @param elevatorKey	- key of the elevator the trips were completed by in the archive, unused if there is no archive
+	 * @param capacity		- at least 1
+	 * @param retention		- time (milliseconds)
+	 * @param tripArchive	- null to discard evicted trips
+	 */
+	public CompletedTripHistory(int elevatorKey, int capacity, long retention, TripArchive tripArchive) {
+		this.elevatorKey = elevatorKey;
+		this.capacity = Math.max(1, capacity);
+		this.retention = retention;
+		this.tripArchive = tripArchive;
+		this.trips = new TripRequest[Math.min(INITIAL_SIZE, this.capacity)];
+	}
+
+	/**
+	 * Add a completed trip, evicting the oldest trip if the history is full.
+	 * @param tripRequest
+	 */
+	public void add(TripRequest tripRequest) {
+		if (this.size == this.capacity) {
+			this.evictOldest();
+		} else if (this.size == this.trips.length) {
+			this.grow();
+		}
+		this.trips[(this.head + this.size) % this.trips.length] = tripRequest;
+		this.size++;
+	}
+
+	/**
+	 * Evict every trip completed more than the retention time before now.
+	 * @param now	- time (milliseconds)
+	 * @return true if any trip was evicted
+	 */
+	public boolean evictExpired(long now) {
+		boolean evicted = false;
+		while ((this.size > 0) && (now - this.trips[this.head].getCompletionTimeLong() > this.retention)) {
+			this.evictOldest();
+			evicted = true;
+		}
+		return evicted;
+	}
+
+	/**
+	 * Remove every trip from the history, without archiving them.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.size; i++) {
+			this.trips[(this.head + i) % this.trips.length] = null;
+		}
+		this.head = 0;
+		this.size = 0;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Get a trip from the history.
+	 * @param index	- 0 for the oldest trip
+	 * @return
+	 */
+	public TripRequest get(int index) {
+		return this.trips[(this.head + index) % this.trips.length];
+	}
+
+	/**
+	 * @return the trips in the history, oldest first
+	 */
+	public ArrayList<TripRequest> toList() {
+		ArrayList<TripRequest> trips = new ArrayList<TripRequest>(this.size);
+		for (int i = 0; i < this.size; i++) {
+			trips.add(this.get(i));
+		}
+		return trips;
+	}
+
+	private void evictOldest() {
+		TripRequest tripRequest = this.trips[this.head];
+		this.trips[this.head] = null;
+		this.head = (this.head + 1) % this.trips.length;
+		this.size--;
+		if (this.tripArchive != null) {
+			this.tripArchive.append(this.elevatorKey, tripRequest);
+		}
+	}
+
+	private void grow() {
+		TripRequest[] trips = new TripRequest[(int) Math.min((long) this.trips.length * 2, this.capacity)];
+		for (int i = 0; i < this.size; i++) {
+			trips[i] = this.get(i);
+		}
+		this.trips = trips;
+		this.head = 0;
+	}
+}
@@ -0,0 +1,51 @@
+package main.scheduler;
+
+/**
+ * Destination dispatch: each passenger enters their destination at the floor terminal, and is assigned to the elevator with the lowest cost,
+ * where the cost is the estimated pickup time plus the time of every stop the trip would add to the elevator's route. A stop is only added
+ * if the elevator does not already plan to stop there (see ElevatorMonitor.isStopPlanned()), so passengers going to the same floor are grouped
+ * into the same elevator. Each added stop is charged once for the new passenger and once for every passenger already assigned to the elevator,
+ * as it delays all of them.
+ *
+ * A trip request without a destination (the passenger did not enter a valid one) is only charged for its pickup stop.
+ *
+ */
+public class DestinationDispatchPlanningStrategy implements PlanningStrategy {
+
+	@Override
+	public ElevatorMonitor selectElevator(TripRequest tripRequest, ElevatorMonitor[] elevatorMonitors) {
+		ElevatorMonitor lowestCostElevatorMonitor = null;
+		long lowestCost = Long.MAX_VALUE;
+
+		for (ElevatorMonitor elevatorMonitor : elevatorMonitors) {
+			Integer estimatedElevatorPickupTime = elevatorMonitor.estimatePickupTime(tripRequest);
+
+			//This elevator cannot accommodate this tripRequest at this time
+			if (estimatedElevatorPickupTime == null) {
+				continue;
+			}
+
+			//Count the stops this trip would add to the elevator's route, the pickup floor is already reached if the elevator is there
+			int addedStops = 0;
+			if ((estimatedElevatorPickupTime > 0) && !elevatorMonitor.isStopPlanned(tripRequest.getPickupFloor())) {
+				addedStops++;
+			}
+			if (tripRequest.hasDestination() && !elevatorMonitor.isStopPlanned(tripRequest.getDestinationFloor())) {
+				addedStops++;
+			}
+
+			long cost = estimatedElevatorPickupTime + ((long) addedStops * elevatorMonitor.getExpectedStopTime() * (1 + elevatorMonitor.getQueueLength()));
+			if (cost < lowestCost) {
+				lowestCostElevatorMonitor = elevatorMonitor;
+				lowestCost = cost;
+			}
+		}
+
+		return lowestCostElevatorMonitor;
+	}
+
+	@Override
+	public boolean usesHallCallDestinations() {
+		return true;
+	}
+}
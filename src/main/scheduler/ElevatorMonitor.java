@@ -1,9 +1,15 @@
 package main.scheduler;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Observable;
 
 import main.elevatorSubsystem.ElevatorState;
@@ -16,21 +22,36 @@ import main.global.*;
  *
  */
 public class ElevatorMonitor extends Observable{
+	public static final int DEFAULT_COMPLETED_TRIP_CAPACITY = 256;		//Completed trips kept in memory, unless the Scheduler configures otherwise
+	public static final long DEFAULT_COMPLETED_TRIP_RETENTION = 3600000;	//Time (milliseconds) completed trips are kept in memory, unless the Scheduler configures otherwise
+	public static final int UNLIMITED_CAPACITY = Integer.MAX_VALUE;			//Capacity of an elevator whose passengers are not limited
 	private String elevatorName;
-	private LinkedHashSet<TripRequest> queue;
+	private int elevatorId;							//Dense integer id of this elevator as assigned by the Scheduler (index of this ElevatorMonitor)
+	private LinkedHashMap<Long, TripRequest> queue;	//key -> trip request id, value -> trip request, in the order the trips were assigned
 	private HashSet<Integer> destinationFloors;
 	private HashSet<Integer> pickupFloors;
 	private Direction queueDirection;
-	private ArrayList<TripRequest> successfullyCompletedTripRequests;
+	private CompletedTripHistory successfullyCompletedTripRequests;
 	private ElevatorState elevatorState;
+	private TravelTimeModel travelTimeModel;		//Travel, door and dwell times learned from the elevator's responses
+	private EtaTable etaTable;						//Estimated time of arrival at each floor, rebuilt on the first estimate after the elevator's state, queue or learned times change
+	private boolean etaTableValid;
+	private int etaTableObservationCount;			//TravelTimeModel observation count when the EtaTable was built
+	private int parkingFloor;						//Floor the elevator waits at when it has no trips, its starting floor unless the Scheduler parks it elsewhere
+	private volatile ElevatorMonitorSnapshot snapshot;			//Published after every change, read without locking (see getSnapshot())
+	private List<TripRequestSnapshot> completedTripSnapshots;	//Completed trips of the last snapshot, null once a trip has been completed since
+	private TripEventBus tripEventBus;							//Changes to the trips in the queue are posted here, null if they are not published
+	private int capacity;										//Passengers the elevator can carry at once, UNLIMITED_CAPACITY if it is not limited
+	private SchedulerClock clock;								//Times the trips in the queue are started and completed at
 	
-	public ElevatorMonitor(String elevatorName, Integer elevatorStartFloorLocation, Integer currentElevatorFloorLocation, Direction currentElevatorDirection, ElevatorStatus currentElevatorStatus, 
+	public ElevatorMonitor(String elevatorName, int elevatorId, Integer elevatorStartFloorLocation, Integer currentElevatorFloorLocation, Direction currentElevatorDirection, ElevatorStatus currentElevatorStatus, 
 			ElevatorDoorStatus currentElevatorDoorStatus, Integer totalNumberOfFloors, Integer timeBetweenFloors, Integer passengerWaitTime, Integer doorOperationTime) {
 		this.elevatorName = elevatorName;
-		this.queue = new LinkedHashSet<TripRequest>();
+		this.elevatorId = elevatorId;
+		this.queue = new LinkedHashMap<Long, TripRequest>();
 		this.destinationFloors = new HashSet<Integer>();
 		this.pickupFloors = new HashSet<Integer>();
-		this.successfullyCompletedTripRequests = new ArrayList<TripRequest>();
+		this.successfullyCompletedTripRequests = new CompletedTripHistory(elevatorId, DEFAULT_COMPLETED_TRIP_CAPACITY, DEFAULT_COMPLETED_TRIP_RETENTION, null);
 		this.queueDirection = Direction.IDLE;
 		this.elevatorState = new ElevatorState(
 				elevatorStartFloorLocation,
@@ -42,6 +63,12 @@ public class ElevatorMonitor extends Observable{
 				timeBetweenFloors, 
 				passengerWaitTime, 
 				doorOperationTime);
+		this.travelTimeModel = new TravelTimeModel(totalNumberOfFloors, timeBetweenFloors, passengerWaitTime, doorOperationTime);
+		this.etaTable = new EtaTable(totalNumberOfFloors, this.travelTimeModel);
+		this.parkingFloor = elevatorStartFloorLocation;
+		this.capacity = UNLIMITED_CAPACITY;
+		this.clock = new SchedulerClock();
+		this.publishSnapshot();
 	}
 	
 //------------------------------------------------Mutators----------------------------------------------------------
@@ -51,6 +78,8 @@ public class ElevatorMonitor extends Observable{
 	 */
 	public void updateElevatorDirection(Direction direction) {
 		this.elevatorState.setDirection(direction);
+		this.etaTableValid = false;
+		this.publishSnapshot();
 	}
 	
 	/**
@@ -59,6 +88,8 @@ public class ElevatorMonitor extends Observable{
 	 */
 	public void updateElevatorDoorStatus(ElevatorDoorStatus doorStatus) {
 		this.elevatorState.setDoorStatus(doorStatus);
+		this.etaTableValid = false;
+		this.publishSnapshot();
 	}
 	
 	/**
@@ -67,6 +98,8 @@ public class ElevatorMonitor extends Observable{
 	 */
 	public void updateElevatorFloorLocation(Integer floor) {
 		this.elevatorState.setCurrentFloor(floor);
+		this.etaTableValid = false;
+		this.publishSnapshot();
 	}
 
 	
@@ -76,6 +109,17 @@ public class ElevatorMonitor extends Observable{
 	 */
 	public void updateElevatorStatus(ElevatorStatus status) {
 		this.elevatorState.setStatus(status);
+		this.etaTableValid = false;
+		this.publishSnapshot();
+	}
+	
+	/**
+	 * Update the floor the elevator waits at when it has no trips.
+	 * @param floor
+	 */
+	public void updateElevatorParkingFloor(int floor) {
+		this.parkingFloor = floor;
+		this.publishSnapshot();
 	}
 
 	//------------------------------------------------Accessors-------------------------------------------------------
@@ -104,6 +148,14 @@ public class ElevatorMonitor extends Observable{
 		return this.elevatorName;
 	}
 	
+	/**
+	 * Get the elevator's id. This is the index of this ElevatorMonitor in the Scheduler.
+	 * @return
+	 */
+	public int getElevatorId() {
+		return this.elevatorId;
+	}
+	
 	/**
 	 * Get the elevator's current floor location.
 	 * @return
@@ -128,17 +180,81 @@ public class ElevatorMonitor extends Observable{
 		return this.elevatorState.getStartFloor();
 	}
 	
+	/**
+	 * Get the floor the elevator waits at when it has no trips.
+	 * @return
+	 */
+	public int getElevatorParkingFloorLocation() {
+		return this.parkingFloor;
+	}
+	
 	
 	
 	/**
 	 * @return the queue
 	 */
-	public LinkedHashSet<TripRequest> getQueue() {
-		return queue;
+	public Collection<TripRequest> getQueue() {
+		return queue.values();
 	}
 	
+	/**
+	 * Get the completed trips still held in memory, oldest first. Older trips have been evicted to the TripArchive (if configured).
+	 * @return
+	 */
 	public ArrayList<TripRequest> getCompleted(){
-		return this.successfullyCompletedTripRequests;
+		return this.successfullyCompletedTripRequests.toList();
+	}
+	
+	/**
+	 * Set the bus changes to the trips in the queue (destination set, started, completed) are posted to.
+	 * @param tripEventBus
+	 */
+	public void setTripEventBus(TripEventBus tripEventBus) {
+		this.tripEventBus = tripEventBus;
+	}
+	
+	/**
+	 * Set the clock the trips in the queue are started and completed by, the Scheduler's own clock so replayed trips carry their original times.
+	 * @param clock
+	 */
+	public void setClock(SchedulerClock clock) {
+		this.clock = clock;
+	}
+	
+	/**
+	 * Set the number of passengers the elevator can carry at once.
+	 * @param capacity	- UNLIMITED_CAPACITY if the passengers are not limited
+	 */
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+		this.etaTableValid = false;
+	}
+	
+	/**
+	 * Get the number of passengers the elevator can carry at once.
+	 * @return UNLIMITED_CAPACITY if the passengers are not limited
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+	
+	private void postTripEvent(TripRequest tripRequest, TripEventType type) {
+		if (this.tripEventBus != null) {
+			this.tripEventBus.post(tripRequest, type);
+		}
+	}
+	
+	/**
+	 * Replace the history which holds this elevator's completed trips, the trips already completed are moved to the new history.
+	 * @param completedTripHistory
+	 */
+	public void setCompletedTripHistory(CompletedTripHistory completedTripHistory) {
+		for (TripRequest tripRequest : this.successfullyCompletedTripRequests.toList()) {
+			completedTripHistory.add(tripRequest);
+		}
+		this.successfullyCompletedTripRequests = completedTripHistory;
+		this.completedTripSnapshots = null;
+		this.publishSnapshot();
 	}
 
 	public Integer getPassengerWaitTime() {
@@ -152,55 +268,87 @@ public class ElevatorMonitor extends Observable{
 	public Integer getTimeBetweenFloors() {
 		return this.elevatorState.getTimeBetweenFloors();
 	}
+	
+	/**
+	 * Get the model of the travel, door and dwell times learned for this elevator.
+	 * @return
+	 */
+	public TravelTimeModel getTravelTimeModel() {
+		return this.travelTimeModel;
+	}
+	
+	/**
+	 * Get the learned time for the elevator to travel from its current floor to the next floor in a direction.
+	 * @param direction
+	 * @return
+	 */
+	public int getExpectedTravelTime(Direction direction) {
+		int nextFloor = this.elevatorState.getCurrentFloor() + ((direction == Direction.DOWN) ? -1 : 1);
+		return this.travelTimeModel.getTravelTime(nextFloor, direction);
+	}
+	
+	/**
+	 * Get the learned time for the elevator to open or close its door.
+	 * @return
+	 */
+	public int getExpectedDoorOperationTime() {
+		return this.travelTimeModel.getDoorOperationTime();
+	}
+	
+	/**
+	 * Get the learned time the elevator spends at a stop (door opens, passengers get on/off, door closes).
+	 * @return
+	 */
+	public int getExpectedStopTime() {
+		return this.travelTimeModel.getStopTime();
+	}
 //------------------------------------------------Queries-----------------------------------------------------------
 //Queries that require some analysis of the ElevatorMonitor state. No internal values are modified by these methods.
 	/**
-	 * Returns a relative estimation of the amount of time required to pickup this request.
-	 * If the elevator is Idle:
-	 *     = (# of floors) x (average travel time between floors)
-	 * If this is an en route trip:
-	 *     =  [(# of floors) x (average travel time between floors)] + [(# of stops) x (average time per stop)]
-	 * If this elevator cannot accommodate this trip, return is 0
+	 * Returns the estimated time (milliseconds) for this elevator to arrive at the pickup floor of this request, travelling in the request's direction.
+	 * This is a lookup in the elevator's EtaTable, which accounts for the time between floors and the time spent at every stop before the pickup.
+	 * If this elevator cannot accommodate this trip, return is null
 	 * @param tripRequest
 	 * @return
 	 */
 	public Integer estimatePickupTime(TripRequest tripRequest) {
-		int averageTravelTimePerFloor = 5;
-		int averageTimePerStop = 9;
-		
-		//Ensure that if the elevator is out of service, that it can not have any trips assigned to it
-		if (this.elevatorState.getCurrentStatus() == ElevatorStatus.OUT_OF_SERVICE) {
+		if (!this.hasCapacityFor(tripRequest)) {
 			return null;
 		}
-
-		if (this.isTripQueueEmpty()) {
-			return (Math.abs(this.elevatorState.getCurrentFloor() - tripRequest.getPickupFloor()) * averageTravelTimePerFloor);
-		} else if (this.isTripEnRoute(tripRequest)){
-			int interimStops = 0;
-			HashSet<Integer> allFloors = new HashSet<Integer>();
-			allFloors.addAll(this.pickupFloors);
-			allFloors.addAll(this.destinationFloors);
-			switch (this.queueDirection) {
-				case UP:
-					//Check if any of the scheduled floor stops are in between the elevator's current floor and the tripRequests floor, if so this is an interim stop
-					for (Integer floor : allFloors) {
-						if ((this.elevatorState.getCurrentFloor() < floor) && (floor < tripRequest.getPickupFloor())) {
-							interimStops++;
-						}
-					}
-					break;
-				case DOWN:
-					//Check if any of the scheduled floor stops are in between the elevator's current floor and the tripRequests floor, if so this is an interim stop
-					for (Integer floor : allFloors) {
-						if ((this.elevatorState.getCurrentFloor() > floor) && (floor < tripRequest.getPickupFloor())) {
-							interimStops++;
-						}
+		if (!this.etaTableValid || (this.etaTableObservationCount != this.travelTimeModel.getObservationCount())) {
+			this.updateEtaTable();
+		}
+		return this.etaTable.getEta(tripRequest.getPickupFloor(), tripRequest.getDirection());
+	}
+	
+	/**
+	 * Rebuild the EtaTable from the elevator's current state and queue. Only the floors and directions this elevator could accept a trip request for
+	 * (see isTripEnRoute()) are kept.
+	 */
+	private void updateEtaTable() {
+		//Ensure that if the elevator is out of service, that it can not have any trips assigned to it
+		if (this.elevatorState.getCurrentStatus() == ElevatorStatus.OUT_OF_SERVICE) {
+			this.etaTable.clear();
+		} else if (this.isTripQueueEmpty()) {
+			this.etaTable.buildIdle(this.elevatorState.getCurrentFloor(), 
+					this.elevatorState.getCurrentStatus() == ElevatorStatus.STOPPED,
+					(this.elevatorState.getCurrentStatus() == ElevatorStatus.STOPPED) && (this.elevatorState.getDoorStatus() == ElevatorDoorStatus.OPENED));
+		} else {
+			Direction nextDirection = this.getNextElevatorDirection();
+			this.etaTable.buildRoute(this.elevatorState.getCurrentFloor(), 
+					this.elevatorState.getCurrentStatus() == ElevatorStatus.STOPPED,
+					(this.elevatorState.getCurrentStatus() == ElevatorStatus.STOPPED) && (this.elevatorState.getDoorStatus() == ElevatorDoorStatus.OPENED),
+					this.queueDirection, nextDirection, this.pickupFloors, this.destinationFloors);
+			for (int floor = 1; floor <= this.elevatorState.getMaxFloor(); floor++) {
+				for (Direction direction : new Direction[] {Direction.UP, Direction.DOWN}) {
+					if (!this.isTripEnRoute(floor, direction, nextDirection)) {
+						this.etaTable.exclude(floor, direction);
 					}
-					break;
+				}
 			}
-			return ( (Math.abs(this.elevatorState.getCurrentFloor() - tripRequest.getPickupFloor()) * averageTravelTimePerFloor) + (interimStops * averageTimePerStop));
 		}
-		return null;
+		this.etaTableValid = true;
+		this.etaTableObservationCount = this.travelTimeModel.getObservationCount();
 	}
 	
 	/**
@@ -215,6 +363,75 @@ public class ElevatorMonitor extends Observable{
 		return false;
 	}
 	
+	/**
+	 * Get the number of passengers on board: the passengers of the trips which have been picked up and whose destination is known.
+	 * The passengers of a hall call boarding at the current floor are not counted until their destination requests arrive.
+	 * @return
+	 */
+	public int getLoad() {
+		return this.getLoad(true);
+	}
+	
+	/**
+	 * @param includeBoarding	- whether to count the passengers picked up at the floor the elevator is stopped at
+	 */
+	private int getLoad(boolean includeBoarding) {
+		int load = 0;
+		for (TripRequest tripRequest : this.queue.values()) {
+			if (tripRequest.isStarted() && tripRequest.hasDestination() && (includeBoarding || !this.isBoarding(tripRequest))) {
+				load += tripRequest.getPassengerCount();
+			}
+		}
+		return load;
+	}
+	
+	/**
+	 * Determine whether the passengers of a trip request are boarding, ie. it is picked up at the floor the elevator is stopped at.
+	 * @param tripRequest
+	 * @return
+	 */
+	private boolean isBoarding(TripRequest tripRequest) {
+		return (this.elevatorState.getCurrentStatus() == ElevatorStatus.STOPPED) && (tripRequest.getPickupFloor() == this.elevatorState.getCurrentFloor());
+	}
+	
+	/**
+	 * Get the number of passengers the elevator has committed to, whether they are on board or still waiting to be picked up.
+	 * @return
+	 */
+	public int getCommittedLoad() {
+		int committedLoad = 0;
+		for (TripRequest tripRequest : this.queue.values()) {
+			committedLoad += tripRequest.getPassengerCount();
+		}
+		return committedLoad;
+	}
+	
+	/**
+	 * Get the number of passengers who can board the elevator at the floor it is stopped at: its capacity less the passengers who were 
+	 * already on board when it stopped.
+	 * @return UNLIMITED_CAPACITY if the passengers are not limited
+	 */
+	public int getAvailableCapacity() {
+		if (this.capacity == UNLIMITED_CAPACITY) {
+			return UNLIMITED_CAPACITY;
+		}
+		return Math.max(0, this.capacity - this.getLoad(false));
+	}
+	
+	/**
+	 * Determine whether the passengers of a trip request fit in the elevator with every passenger it has already committed to. The committed
+	 * passengers are counted as if they were all on board at once, so an elevator is never sent to a floor it could not pick up at. An elevator 
+	 * with an empty queue takes any trip request, so the passengers of a hall call larger than its capacity are still picked up (some are left behind).
+	 * @param tripRequest
+	 * @return
+	 */
+	public boolean hasCapacityFor(TripRequest tripRequest) {
+		if ((this.capacity == UNLIMITED_CAPACITY) || this.isTripQueueEmpty() || this.queue.containsKey(tripRequest.getId())) {
+			return true;
+		}
+		return this.getCommittedLoad() + tripRequest.getPassengerCount() <= this.capacity;
+	}
+	
 	/**
 	 * Return the size of the queue.
 	 * @return
@@ -226,17 +443,17 @@ public class ElevatorMonitor extends Observable{
 	/**
 	 * Determine whether a stop is required at this floor. 
 	 * If the floor is a registered, destination stop and the queue is in service, then a stop is necessary.
-	 * OR the queue is IDLE (not in service) and the elevator is at it's starting floor, then a stop is necessary.
+	 * OR the queue is IDLE (not in service) and the elevator is at it's parking floor, then a stop is necessary.
 	 * OR if the floor is a pickup floor, then regardless of the direction of the elevator, a stop is necessary.
 	 * @param floor
 	 * @return
 	 */
 	public boolean isStopRequired(int floor) {
 		//If either, the floor is a destination stop AND the queue is in service (the elevator direction matches the queue direction)
-		//OR, if the queue is not in service (idle), and the elevator is at it's starting floor.
+		//OR, if the queue is not in service (idle), and the elevator is at it's parking floor.
 		//OR, if the floor is a pickup floor and the elevator's 
 		if ((this.isDestinationFloor(floor) && (this.elevatorState.getDirection() == this.queueDirection)) 
-				|| ((this.queueDirection ==  Direction.IDLE) && (this.elevatorState.getCurrentFloor() == this.elevatorState.getStartFloor()))
+				|| ((this.queueDirection ==  Direction.IDLE) && (this.elevatorState.getCurrentFloor() == this.parkingFloor))
 				|| (this.isPickupFloor(floor))) {
 			return true;
 		}
@@ -244,6 +461,24 @@ public class ElevatorMonitor extends Observable{
 		return false;
 	}
 	
+	/**
+	 * Determine whether the elevator already plans to stop at this floor, for a pickup, a registered destination, or the destination of a trip
+	 * request which has not been picked up yet (known when the passenger entered it at the floor terminal, see Scheduler destination dispatch).
+	 * @param floor
+	 * @return
+	 */
+	public boolean isStopPlanned(int floor) {
+		if (this.isPickupFloor(floor) || this.isDestinationFloor(floor)) {
+			return true;
+		}
+		for (TripRequest tripRequest : this.queue.values()) {
+			if (tripRequest.hasDestination() && (tripRequest.getDestinationFloor() == floor)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	/**
 	 * Returns whether this ElevatorMonitor is waiting for a floor destination request from the elevator. This would return true in the case where
 	 * the elevator is not IDLE, however has no destination requests, this would indicate that a trip has been assigned to the queue for this elevator however
@@ -252,7 +487,7 @@ public class ElevatorMonitor extends Observable{
 	 */
 	public boolean isWaitingForDestinationRequest() {
 		if (this.queueDirection != Direction.IDLE) {
-			for (TripRequest tripRequest : this.queue) {
+			for (TripRequest tripRequest : this.queue.values()) {
 				if (tripRequest.getPickupFloor() == this.elevatorState.getCurrentFloor()) {
 					if (tripRequest.hasDestination() == false) {
 						return true;
@@ -271,11 +506,11 @@ public class ElevatorMonitor extends Observable{
 		Direction nextDirection = null;
 		
 		//If there are no more trips left, the elevator's next direction is IDLE (as far as the tripRequestQueue is concerned)
-		//If there are no more trip requests in the queue, then determine whether the elevator needs to move to get back to its starting floor.
+		//If there are no more trip requests in the queue, then determine whether the elevator needs to move to get to its parking floor.
 		if (this.isTripQueueEmpty()) {
-			if (this.elevatorState.getCurrentFloor() > this.elevatorState.getStartFloor()) {
+			if (this.elevatorState.getCurrentFloor() > this.parkingFloor) {
 				nextDirection = Direction.DOWN;
-			} else if (this.elevatorState.getCurrentFloor() < this.elevatorState.getStartFloor()){
+			} else if (this.elevatorState.getCurrentFloor() < this.parkingFloor){
 				nextDirection = Direction.UP;
 			} else {
 				nextDirection = Direction.IDLE;
@@ -391,27 +626,50 @@ public class ElevatorMonitor extends Observable{
 
 		//If the destination floor is valid, add it to the destination floors queue and add it to its corresponding tripRequest
 		if (destinationFloorValid) {
-			this.destinationFloors.add(destinationFloor);
-			this.elevatorState.toggleLamp(destinationFloor, true);
+			this.addDestinationFloor(destinationFloor);
 			this.addDestinationToTripRequest(pickupFloor, destinationFloor);
+			this.etaTableValid = false;
+			this.publishSnapshot();
+			this.setChanged();
+			this.notifyObservers();
 			return true;
 		} else {
 			return false;
 		}
 	}
 	
+	/**
+	 * Register a destination floor and turn on its lamp.
+	 * @param destinationFloor
+	 */
+	private void addDestinationFloor(int destinationFloor) {
+		this.destinationFloors.add(destinationFloor);
+		this.elevatorState.toggleLamp(destinationFloor, true);
+	}
+	
 	/**
 	 * This method assumes that for every destination request there will be a corresponding trip request (that does not have a destination value)
 	 * @param pickupFloor
 	 * @param destinationFloor
 	 */
 	private void addDestinationToTripRequest(Integer pickupFloor, Integer destinationFloor) {
-		for (TripRequest tripRequest : queue) {
+		TripRequest passengerTripRequest = null;
+		for (TripRequest tripRequest : queue.values()) {
 			if ((tripRequest.getPickupFloor() == pickupFloor) && (!tripRequest.hasDestination())) {
+				//A coalesced hall call waits for the destinations of the rest of its passengers, this passenger's trip is split off it
+				if (tripRequest.getPassengerCount() > 1) {
+					passengerTripRequest = tripRequest.splitPassenger(destinationFloor);
+					break;
+				}
 				tripRequest.setDestinationFloor(destinationFloor);
+				this.postTripEvent(tripRequest, TripEventType.DESTINATION_SET);
 				return;
 			}
 		}
+		if (passengerTripRequest != null) {
+			this.queue.put(passengerTripRequest.getId(), passengerTripRequest);
+			this.postTripEvent(passengerTripRequest, TripEventType.DESTINATION_SET);
+		}
 	}
 	
 	/**
@@ -426,6 +684,11 @@ public class ElevatorMonitor extends Observable{
 		if (this.elevatorState.getCurrentStatus() == ElevatorStatus.OUT_OF_SERVICE) {
 			return false;
 		}
+		
+		//A full elevator can not take on more passengers
+		if (!this.hasCapacityFor(tripRequest)) {
+			return false;
+		}
 
 		//If the trip queue is empty, then follow process to add first trip, otherwise add enroute trip
 		if (this.isTripQueueEmpty()) {
@@ -436,6 +699,8 @@ public class ElevatorMonitor extends Observable{
 		
 		//If the trip was successfully added, update any observers
 		if (tripAdded) {
+			this.etaTableValid = false;
+			this.publishSnapshot();
 			this.setChanged();
 			this.notifyObservers();
 		}
@@ -448,7 +713,7 @@ public class ElevatorMonitor extends Observable{
 	/**
 	 * Unassigns all pending trip requests from this Elevator. 
 	 * By definition a pending trip request has not been started yet, so it's pickup floor 
-	 * will still be in the pickupFloors collection. Also the TripRequest will not have a destination yet.
+	 * will still be in the pickupFloors collection. Also the TripRequest's destination floor will not be registered yet.
 	 * This will remove all of the pending TripRequests from the queue and all the pending Trip's pickup floors
 	 * from the pickupFloors collection.
 	 * 
@@ -459,36 +724,276 @@ public class ElevatorMonitor extends Observable{
 		
 		//For each TripRequest in the queue, if the pickup has not yet been completed
 		//remove this TripRequest from the queue, add to pendingTripRequests (to be returned)
-		for (TripRequest tripRequest : new ArrayList<TripRequest>(this.queue)) {
+		for (TripRequest tripRequest : new ArrayList<TripRequest>(this.queue.values())) {
 			if (this.pickupFloors.contains(tripRequest.getPickupFloor())){
 				pendingTripRequests.add(tripRequest);
-				this.queue.remove(tripRequest);
+				this.queue.remove(tripRequest.getId());
 			}
 		}
 		
-		//Now remove all pendingTripRequests from pickupFloors collection, (pendingTripRequests will not have a destination)
+		//Now remove all pendingTripRequests from pickupFloors collection, (pendingTripRequests will not have a registered destination)
 		for (TripRequest tripRequest : pendingTripRequests) {
 			this.pickupFloors.remove(tripRequest.getPickupFloor());
 		}
+		this.etaTableValid = false;
 		
 		//Update any observers
+		this.publishSnapshot();
 		this.setChanged();
 		this.notifyObservers();
 		
 		return pendingTripRequests;
 	}
 	
+	/**
+	 * Get the trip requests assigned to this elevator which have not been started (the pickup has not occurred yet).
+	 * @return
+	 */
+	public ArrayList<TripRequest> getUnstartedTripRequests() {
+		ArrayList<TripRequest> unstartedTripRequests = new ArrayList<TripRequest>();
+		for (TripRequest tripRequest : this.queue.values()) {
+			if (this.pickupFloors.contains(tripRequest.getPickupFloor())) {
+				unstartedTripRequests.add(tripRequest);
+			}
+		}
+		return unstartedTripRequests;
+	}
+	
+	/**
+	 * Get a hall call assigned to this elevator which has not been picked up yet, at the same floor and in the same direction as a trip request.
+	 * @param tripRequest
+	 * @return the hall call, or null if there is none
+	 */
+	public TripRequest getUnstartedHallCall(TripRequest tripRequest) {
+		if (!this.pickupFloors.contains(tripRequest.getPickupFloor())) {
+			return null;
+		}
+		
+		//The passenger is only coalesced if they fit in the elevator, otherwise their hall call is planned on its own
+		if ((this.capacity != UNLIMITED_CAPACITY) && (this.getCommittedLoad() + tripRequest.getPassengerCount() > this.capacity)) {
+			return null;
+		}
+		for (TripRequest queuedTripRequest : this.queue.values()) {
+			if (queuedTripRequest.isSameHallCall(tripRequest)) {
+				return queuedTripRequest;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Unassign a single trip request which has not been started from this Elevator, so it can be assigned to another elevator.
+	 * The pickup floor is only removed if no other trip request in the queue is picked up at the same floor.
+	 * 
+	 * @param tripRequest
+	 * @return false if the trip request is not in the queue or has already been started
+	 */
+	public boolean unassignTripRequest(TripRequest tripRequest) {
+		if (!this.queue.containsKey(tripRequest.getId()) || !this.pickupFloors.contains(tripRequest.getPickupFloor())) {
+			return false;
+		}
+		this.queue.remove(tripRequest.getId());
+		
+		boolean pickupFloorShared = false;
+		for (TripRequest queuedTripRequest : this.queue.values()) {
+			if (queuedTripRequest.getPickupFloor() == tripRequest.getPickupFloor()) {
+				pickupFloorShared = true;
+			}
+		}
+		if (!pickupFloorShared) {
+			this.pickupFloors.remove(tripRequest.getPickupFloor());
+		}
+		this.etaTableValid = false;
+		
+		//Update the queue direction to IDLE if there are no more trips left in the queue
+		if (this.isTripQueueEmpty()) {
+			this.queueDirection = Direction.IDLE;
+		}
+		
+		//Update any observers
+		this.publishSnapshot();
+		this.setChanged();
+		this.notifyObservers();
+		return true;
+	}
+	
+	/**
+	 * Remove the hall calls at a floor in a direction (trip requests without a destination, whether or not this elevator has stopped for them),
+	 * because another elevator has opened its door at the floor in that direction and the passengers waiting on them board it instead.
+	 * The pickup floor is only removed if no other trip request in the queue is picked up at the same floor.
+	 * 
+	 * @param floor
+	 * @param direction
+	 * @return the hall calls removed
+	 */
+	public ArrayList<TripRequest> removeHallCalls(int floor, Direction direction) {
+		ArrayList<TripRequest> hallCalls = new ArrayList<TripRequest>();
+		boolean pickupFloorShared = false;
+		Iterator<TripRequest> iterator = this.queue.values().iterator();
+		while (iterator.hasNext()) {
+			TripRequest tripRequest = iterator.next();
+			if (tripRequest.getPickupFloor() != floor) {
+				continue;
+			}
+			if ((tripRequest.getDirection() == direction) && !tripRequest.hasDestination()) {
+				hallCalls.add(tripRequest);
+				iterator.remove();
+			} else {
+				pickupFloorShared = true;
+			}
+		}
+		if (hallCalls.isEmpty()) {
+			return hallCalls;
+		}
+		if (!pickupFloorShared) {
+			this.pickupFloors.remove(floor);
+		}
+		this.etaTableValid = false;
+		
+		//Update the queue direction to IDLE if there are no more trips left in the queue
+		if (this.isTripQueueEmpty()) {
+			this.queueDirection = Direction.IDLE;
+		}
+		
+		//Update any observers
+		this.publishSnapshot();
+		this.setChanged();
+		this.notifyObservers();
+		return hallCalls;
+	}
+	
+	/**
+	 * Take over a hall call at the floor this elevator has opened its door at (see removeHallCalls()), its passengers are boarding and 
+	 * their destination requests follow.
+	 * 
+	 * @param tripRequest
+	 */
+	public void addBoardingHallCall(TripRequest tripRequest) {
+		if (!tripRequest.isStarted()) {
+			tripRequest.setStarted(this.clock.currentTimeMillis());
+			this.postTripEvent(tripRequest, TripEventType.STARTED);
+		}
+		this.queue.put(tripRequest.getId(), tripRequest);
+		if (this.queueDirection == Direction.IDLE) {
+			this.queueDirection = tripRequest.getDirection();
+		}
+		this.etaTableValid = false;
+		
+		//Update any observers
+		this.publishSnapshot();
+		this.setChanged();
+		this.notifyObservers();
+	}
+	
+	/**
+	 * Limit the passengers boarding at the floor this elevator has opened its door at, in its queue direction, to the passengers who fit in the
+	 * elevator. Passengers whose destination was entered at the floor terminal (destination dispatch) were only assigned if they fit, and board first.
+	 * The hall calls boarding are kept in the order they were made until the elevator is full, the passengers who do not fit are split off
+	 * and returned as hall calls which have not been started, to be assigned to another elevator.
+	 * 
+	 * @return the hall calls of the passengers left behind
+	 */
+	public ArrayList<TripRequest> limitBoardingPassengers() {
+		ArrayList<TripRequest> leftBehindTripRequests = new ArrayList<TripRequest>();
+		if ((this.capacity == UNLIMITED_CAPACITY) || (this.queueDirection == Direction.IDLE)) {
+			return leftBehindTripRequests;
+		}
+		
+		int availableCapacity = this.getAvailableCapacity();
+		for (TripRequest tripRequest : this.queue.values()) {
+			if (this.isBoarding(tripRequest) && tripRequest.hasDestination()) {
+				availableCapacity = Math.max(0, availableCapacity - tripRequest.getPassengerCount());
+			}
+		}
+		Iterator<TripRequest> iterator = this.queue.values().iterator();
+		while (iterator.hasNext()) {
+			TripRequest tripRequest = iterator.next();
+			if (!this.isBoarding(tripRequest) || (tripRequest.getDirection() != this.queueDirection) || tripRequest.hasDestination()) {
+				continue;
+			}
+			if (tripRequest.getPassengerCount() <= availableCapacity) {
+				availableCapacity -= tripRequest.getPassengerCount();
+			} else if (availableCapacity > 0) {
+				leftBehindTripRequests.add(tripRequest.splitPassengers(tripRequest.getPassengerCount() - availableCapacity));
+				availableCapacity = 0;
+			} else {
+				tripRequest.clearStarted();
+				leftBehindTripRequests.add(tripRequest);
+				iterator.remove();
+			}
+		}
+		if (leftBehindTripRequests.isEmpty()) {
+			return leftBehindTripRequests;
+		}
+		
+		//The pickup floor is only kept if a trip request left in the queue is still picked up at the floor
+		boolean pickupFloorShared = false;
+		for (TripRequest tripRequest : this.queue.values()) {
+			if (tripRequest.getPickupFloor() == this.elevatorState.getCurrentFloor()) {
+				pickupFloorShared = true;
+			}
+		}
+		if (!pickupFloorShared) {
+			this.pickupFloors.remove(this.elevatorState.getCurrentFloor());
+		}
+		this.etaTableValid = false;
+		
+		//Update the queue direction to IDLE if there are no more trips left in the queue
+		if (this.isTripQueueEmpty()) {
+			this.queueDirection = Direction.IDLE;
+		}
+		
+		//Update any observers
+		this.publishSnapshot();
+		this.setChanged();
+		this.notifyObservers();
+		return leftBehindTripRequests;
+	}
+	
+	/**
+	 * Return this elevator to service, stopped at the floor and with the door status it announced. Trips already started (passengers on board) are kept.
+	 * 
+	 * @param floor
+	 * @param doorStatus
+	 */
+	public void returnToService(int floor, ElevatorDoorStatus doorStatus) {
+		this.elevatorState.setCurrentFloor(floor);
+		this.elevatorState.setDoorStatus(doorStatus);
+		this.elevatorState.setDirection(Direction.IDLE);
+		this.elevatorState.setStatus(ElevatorStatus.STOPPED);
+		if (this.isTripQueueEmpty()) {
+			this.queueDirection = Direction.IDLE;
+		}
+		this.etaTableValid = false;
+		
+		//Update any observers
+		this.publishSnapshot();
+		this.setChanged();
+		this.notifyObservers();
+	}
+	
 	private boolean isTripEnRoute(TripRequest tripRequest) {
+		return this.isTripEnRoute(tripRequest.getPickupFloor(), tripRequest.getDirection(), this.getNextElevatorDirection());
+	}
+	
+	/**
+	 * Determine whether a trip request from a pickup floor in a direction can be added to the queue en route.
+	 * @param pickupFloor
+	 * @param direction
+	 * @param nextElevatorDirection	- as returned by getNextElevatorDirection(), which does not change between calls
+	 * @return
+	 */
+	private boolean isTripEnRoute(int pickupFloor, Direction direction, Direction nextElevatorDirection) {
 		//Check the following gating criteria first before considering adding this tripRequest to the queue
 		// 1 - If the tripRequest is in the same direction as the queue direction and the elevator is moving in the same direction as the tripRequestQueue 
 		// OR 2 - If the elevator's NEXT direction will be (this will allow an elevator to take any pending requests that start at AT LEAST at the same pickup floor and go the same direction)
 		// OR 3 - If the tripRequest is in the same direction as the queue and it's pickupFloor is already in this elevators pickupFloors queue
-		if ((this.queueDirection == tripRequest.getDirection()) && ((this.elevatorState.getDirection() == this.queueDirection) 
-				|| (this.getNextElevatorDirection() == this.queueDirection)) 
-				|| ((this.queueDirection == tripRequest.getDirection()) && (this.pickupFloors.contains(tripRequest.getPickupFloor())))) {	
+		if ((this.queueDirection == direction) && ((this.elevatorState.getDirection() == this.queueDirection) 
+				|| (nextElevatorDirection == this.queueDirection)) 
+				|| ((this.queueDirection == direction) && (this.pickupFloors.contains(pickupFloor)))) {	
 			
 			//If the pickup floor of the request is where the elevator is, only accept the trip if the elevator is stopped and doors are still open
-			if (this.elevatorState.getCurrentFloor() == tripRequest.getPickupFloor()) {
+			if (this.elevatorState.getCurrentFloor() == pickupFloor) {
 				
 				//If either the elevator is not stopped or the door status is not open then do not accept this trip
 				if ((this.elevatorState.getCurrentStatus() != ElevatorStatus.STOPPED) || (this.elevatorState.getDoorStatus() != ElevatorDoorStatus.OPENED)){
@@ -496,18 +1001,18 @@ public class ElevatorMonitor extends Observable{
 				}
 			} else {
 				//If the elevator is in service of the queue, or next direction is to service the queue, then check if it has passed the tripRequest's pickup floor
-				if (this.queueDirection == this.elevatorState.getDirection() ||  (this.getNextElevatorDirection() == this.queueDirection)) {
+				if (this.queueDirection == this.elevatorState.getDirection() ||  (nextElevatorDirection == this.queueDirection)) {
 					//Depending on the direction of the queue, determine whether the elevator has already passed the pickup floor of the tripRequest 
 					switch(this.queueDirection) {
 						case UP:
 							//If this elevator is already passed the pickup floor then the elevator would have to backtrack to take this tripRequest, do not accept this trip.
-							if (this.elevatorState.getCurrentFloor() > tripRequest.getPickupFloor()) {
+							if (this.elevatorState.getCurrentFloor() > pickupFloor) {
 								return false;
 							}
 							break;
 						case DOWN:
 							//If this elevator is already passed the pickup floor then the elevator would have to backtrack to take this tripRequest, do not accept this trip.
-							if (this.elevatorState.getCurrentFloor() < tripRequest.getPickupFloor()) {
+							if (this.elevatorState.getCurrentFloor() < pickupFloor) {
 								return false;
 							}
 							break;
@@ -527,10 +1032,14 @@ public class ElevatorMonitor extends Observable{
 	 */
 	private boolean addFirstTripRequest(TripRequest tripRequest) {
 		if (this.isTripQueueEmpty()) {
-			queue.add(tripRequest);
+			queue.put(tripRequest.getId(), tripRequest);
 			this.queueDirection = tripRequest.getDirection();
-			if (this.elevatorState.getCurrentFloor() != tripRequest.getPickupFloor()) {
+			//The pickup floor is only already reached if the elevator is stopped there, an elevator moving past it has to come back
+			if ((this.elevatorState.getCurrentFloor() != tripRequest.getPickupFloor()) || (this.elevatorState.getCurrentStatus() != ElevatorStatus.STOPPED)) {
 				this.pickupFloors.add(tripRequest.getPickupFloor());
+			} else if (tripRequest.hasDestination()) {
+				//The passenger boards here, a destination entered at the floor terminal is planned now
+				this.addDestinationFloor(tripRequest.getDestinationFloor());
 			}
 			return true;
 		}
@@ -550,11 +1059,14 @@ public class ElevatorMonitor extends Observable{
 	private boolean addEnRouteTripRequest(TripRequest tripRequest) {
 		if (!this.isTripQueueEmpty() && (this.isTripEnRoute(tripRequest))) {
 			//The trip is accepted.
-			queue.add(tripRequest);
+			queue.put(tripRequest.getId(), tripRequest);
 			
 			//If the elevator is at the pickup floor it does not need to be added to the pickupFloors queue.
 			if (this.elevatorState.getCurrentFloor() != tripRequest.getPickupFloor()) {
 				this.pickupFloors.add(tripRequest.getPickupFloor());
+			} else if (tripRequest.hasDestination()) {
+				//The passenger boards here, a destination entered at the floor terminal is planned now
+				this.addDestinationFloor(tripRequest.getDestinationFloor());
 			}
 			return true;
 		}
@@ -568,6 +1080,7 @@ public class ElevatorMonitor extends Observable{
 	 */
 	public HashSet<TripRequest> stopOccurred() {
 		HashSet<TripRequest> completedTrips = new HashSet<TripRequest>();
+		this.etaTableValid = false;
 		
 		//IS this stop a destination? If so, this destination floor can be removed from the destination queue (this removes the tripRequest as well from the tripRequestQueue, marks as successfully compelted)
 		if (this.isDestinationFloor(this.elevatorState.getCurrentFloor())) {
@@ -577,7 +1090,8 @@ public class ElevatorMonitor extends Observable{
 		
 			//Update each completedTrip to reflect it's current endTime
 			for (TripRequest completedTrip : completedTrips) {
-				completedTrip.setCompleted();
+				completedTrip.setCompleted(this.clock.currentTimeMillis());
+				this.postTripEvent(completedTrip, TripEventType.COMPLETED);
 			}
 			
 			//Update the queue direction to IDLE if there are no more trips left in the queue
@@ -591,13 +1105,28 @@ public class ElevatorMonitor extends Observable{
 			this.removePickupFloor(this.elevatorState.getCurrentFloor());
 			
 			//Update each tripRequest whose pickup floor is this floor (the elevator's current floor location) to reflect it's current pickupTime
-			for (TripRequest tripRequest : this.queue) {
+			//A destination entered at the floor terminal (destination dispatch) is registered now, without waiting for the passenger's destination request
+			for (TripRequest tripRequest : this.queue.values()) {
 				if (tripRequest.getPickupFloor() == this.elevatorState.getCurrentFloor()) {
-					tripRequest.setStarted();
+					tripRequest.setStarted(this.clock.currentTimeMillis());
+					this.postTripEvent(tripRequest, TripEventType.STARTED);
+					if (tripRequest.hasDestination()) {
+						this.addDestinationFloor(tripRequest.getDestinationFloor());
+						this.postTripEvent(tripRequest, TripEventType.DESTINATION_SET);
+					}
 				}
 			}
 		}
 		
+		//Evict the completed trips which have been held for longer than their retention time
+		if (this.successfullyCompletedTripRequests.evictExpired(this.clock.currentTimeMillis())) {
+			this.completedTripSnapshots = null;
+		}
+		
+		//Update any observers
+		this.publishSnapshot();
+		this.setChanged();
+		this.notifyObservers();
 		return completedTrips;
 	}
 	
@@ -663,11 +1192,12 @@ public class ElevatorMonitor extends Observable{
 		HashSet<TripRequest> completedTrips = new HashSet<TripRequest>();
 		
 		//An iterator is used instead of a simple foreach over the set because in a foreach elements cannot be removed from a hashset properly.
-		Iterator<TripRequest> iterator = queue.iterator();
+		Iterator<TripRequest> iterator = queue.values().iterator();
 		while (iterator.hasNext()) {
 			TripRequest tripRequest = iterator.next();
 			if (destination == tripRequest.getDestinationFloor()) {
 				this.successfullyCompletedTripRequests.add(tripRequest);
+				this.completedTripSnapshots = null;
 				completedTrips.add(tripRequest);
 				iterator.remove();
 			}
@@ -675,6 +1205,111 @@ public class ElevatorMonitor extends Observable{
 		return completedTrips;
 	}
 	
+//------------------------------------------------Snapshots---------------------------------------------------------
+	/**
+	 * Get the state of this ElevatorMonitor as of its last change. The snapshot is immutable, so it can be read from any thread (ie. the GUI)
+	 * without locking and without seeing a change half made. It is published before observers are notified, so an observer sees the change
+	 * it was notified of.
+	 * @return
+	 */
+	public ElevatorMonitorSnapshot getSnapshot() {
+		return this.snapshot;
+	}
+	
+	/**
+	 * Publish a new snapshot of this ElevatorMonitor, this must be done at the end of every change. Completed trips do not change, so their
+	 * snapshots are only copied again once another trip is completed.
+	 */
+	private void publishSnapshot() {
+		ArrayList<TripRequestSnapshot> queueSnapshots = new ArrayList<TripRequestSnapshot>(this.queue.size());
+		for (TripRequest tripRequest : this.queue.values()) {
+			queueSnapshots.add(tripRequest.getSnapshot());
+		}
+		if (this.completedTripSnapshots == null) {
+			ArrayList<TripRequestSnapshot> completedTripSnapshots = new ArrayList<TripRequestSnapshot>(this.successfullyCompletedTripRequests.size());
+			for (int i = 0; i < this.successfullyCompletedTripRequests.size(); i++) {
+				completedTripSnapshots.add(this.successfullyCompletedTripRequests.get(i).getSnapshot());
+			}
+			this.completedTripSnapshots = Collections.unmodifiableList(completedTripSnapshots);
+		}
+		this.snapshot = new ElevatorMonitorSnapshot(this.elevatorName, this.elevatorState.getSnapshot(), this.queueDirection, this.parkingFloor,
+				Collections.unmodifiableList(queueSnapshots), this.completedTripSnapshots);
+	}
+	
+	/**
+	 * Write the elevator state, trip queue and completed trips of this ElevatorMonitor to a Scheduler snapshot.
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeSnapshot(DataOutputStream out) throws IOException {
+		out.writeInt(this.elevatorState.getCurrentFloor());
+		out.writeByte(this.elevatorState.getDirection().ordinal());
+		out.writeByte(this.elevatorState.getCurrentStatus().ordinal());
+		out.writeByte(this.elevatorState.getDoorStatus().ordinal());
+		out.writeByte(this.queueDirection.ordinal());
+		
+		out.writeInt(this.queue.size());
+		for (TripRequest tripRequest : this.queue.values()) {
+			tripRequest.writeSnapshot(out);
+		}
+		out.writeInt(this.pickupFloors.size());
+		for (Integer floor : this.pickupFloors) {
+			out.writeInt(floor);
+		}
+		out.writeInt(this.destinationFloors.size());
+		for (Integer floor : this.destinationFloors) {
+			out.writeInt(floor);
+		}
+		out.writeInt(this.successfullyCompletedTripRequests.size());
+		for (TripRequest tripRequest : this.successfullyCompletedTripRequests.toList()) {
+			tripRequest.writeSnapshot(out);
+		}
+		this.travelTimeModel.writeSnapshot(out);
+		out.writeInt(this.parkingFloor);
+	}
+	
+	/**
+	 * Restore the state of this ElevatorMonitor from a Scheduler snapshot (as written by writeSnapshot()).
+	 * @param in
+	 * @throws IOException
+	 */
+	public void readSnapshot(DataInputStream in) throws IOException {
+		this.elevatorState.setCurrentFloor(in.readInt());
+		this.elevatorState.setDirection(Direction.values()[in.readByte()]);
+		this.elevatorState.setStatus(ElevatorStatus.values()[in.readByte()]);
+		this.elevatorState.setDoorStatus(ElevatorDoorStatus.values()[in.readByte()]);
+		this.queueDirection = Direction.values()[in.readByte()];
+		
+		this.queue.clear();
+		int queueLength = in.readInt();
+		for (int i = 0; i < queueLength; i++) {
+			TripRequest tripRequest = TripRequest.readSnapshot(in);
+			this.queue.put(tripRequest.getId(), tripRequest);
+		}
+		this.pickupFloors.clear();
+		int numberOfPickupFloors = in.readInt();
+		for (int i = 0; i < numberOfPickupFloors; i++) {
+			this.pickupFloors.add(in.readInt());
+		}
+		this.destinationFloors.clear();
+		int numberOfDestinationFloors = in.readInt();
+		for (int i = 0; i < numberOfDestinationFloors; i++) {
+			int floor = in.readInt();
+			this.destinationFloors.add(floor);
+			this.elevatorState.toggleLamp(floor, true);
+		}
+		this.successfullyCompletedTripRequests.clear();
+		int numberOfCompletedTrips = in.readInt();
+		for (int i = 0; i < numberOfCompletedTrips; i++) {
+			this.successfullyCompletedTripRequests.add(TripRequest.readSnapshot(in));
+		}
+		this.travelTimeModel.readSnapshot(in);
+		this.parkingFloor = in.readInt();
+		this.etaTableValid = false;
+		this.completedTripSnapshots = null;
+		this.publishSnapshot();
+	}
+	
 	/**
 	 * Create a string output that contains the elevator state and the state of the queue's.
 	 */
@@ -689,7 +1324,7 @@ public class ElevatorMonitor extends Observable{
 		sb.append("Trip request queue: ");
 		
 		sb.append("[");
-		Iterator<TripRequest> queueIterator = this.queue.iterator();
+		Iterator<TripRequest> queueIterator = this.queue.values().iterator();
 		while (queueIterator.hasNext()) {
 			TripRequest tripRequest = queueIterator.next();
 			sb.append(tripRequest.toString());
@@ -704,7 +1339,7 @@ public class ElevatorMonitor extends Observable{
 		
 		sb.append("Completed trips: ");
 		sb.append("[");
-		Iterator<TripRequest> completedTripsIterator = this.successfullyCompletedTripRequests.iterator();
+		Iterator<TripRequest> completedTripsIterator = this.successfullyCompletedTripRequests.toList().iterator();
 		while (completedTripsIterator.hasNext()) {
 			TripRequest tripRequest = completedTripsIterator.next();
 			sb.append(tripRequest.toString());
@@ -729,6 +1364,8 @@ public class ElevatorMonitor extends Observable{
 	 */
 	public void setElevatorState(ElevatorState elevatorState) {
 		this.elevatorState = elevatorState;
+		this.etaTableValid = false;
+		this.publishSnapshot();
 	}
 	
 	
@@ -0,0 +1,69 @@
+package main.scheduler;
+
+import java.util.List;
+
+import main.elevatorSubsystem.ElevatorStateSnapshot;
+import main.global.Direction;
+
+/**
+ * An ElevatorMonitorSnapshot is an immutable copy of an ElevatorMonitor: the elevator's state, its trip queue and its completed trips. The
+ * ElevatorMonitor publishes a new one after every change (see ElevatorMonitor.getSnapshot()), so readers on other threads (ie. the GUI) never
+ * lock the Scheduler and never see a change half made, such as a trip which has left the queue but is not yet in the completed trips.
+ *
+ */
+public final class ElevatorMonitorSnapshot {
+	private final String elevatorName;
+	private final ElevatorStateSnapshot elevatorState;
+	private final Direction queueDirection;
+	private final int parkingFloor;
+	private final List<TripRequestSnapshot> queue;
+	private final List<TripRequestSnapshot> completed;
+
+	/**
+	 * @param elevatorName
+	 * @param elevatorState
+	 * @param queueDirection
+	 * @param parkingFloor
+	 * @param queue			- unmodifiable list of the trip queue, in queue order
+	 * @param completed		- unmodifiable list of the completed trips, in completion order
+	 */
+	ElevatorMonitorSnapshot(String elevatorName, ElevatorStateSnapshot elevatorState, Direction queueDirection, int parkingFloor, List<TripRequestSnapshot> queue,
+			List<TripRequestSnapshot> completed) {
+		this.elevatorName = elevatorName;
+		this.elevatorState = elevatorState;
+		this.queueDirection = queueDirection;
+		this.parkingFloor = parkingFloor;
+		this.queue = queue;
+		this.completed = completed;
+	}
+
+	public String getElevatorName() {
+		return this.elevatorName;
+	}
+
+	public ElevatorStateSnapshot getElevatorState() {
+		return this.elevatorState;
+	}
+
+	public Direction getQueueDirection() {
+		return this.queueDirection;
+	}
+
+	public int getParkingFloor() {
+		return this.parkingFloor;
+	}
+
+	/**
+	 * @return the trip queue, the list cannot be modified
+	 */
+	public List<TripRequestSnapshot> getQueue() {
+		return this.queue;
+	}
+
+	/**
+	 * @return the completed trips, the list cannot be modified
+	 */
+	public List<TripRequestSnapshot> getCompleted() {
+		return this.completed;
+	}
+}
@@ -0,0 +1,146 @@
+package main.scheduler;
+
+import main.global.Direction;
+import main.global.ElevatorDoorStatus;
+import main.global.ElevatorStatus;
+
+/**
+ * An ElevatorSnapshot is an immutable copy of the part of an ElevatorMonitor's state needed to simulate the elevator's plan: where it is, the
+ * direction of its queue, each assigned trip (as compact arrays) and the travel times it has learned. It is taken under the Scheduler's lock, and
+ * can then be read from any thread (see LookAheadPlanningStrategy).
+ *
+ */
+public class ElevatorSnapshot {
+	public static final int UNKNOWN_FLOOR = -1;
+
+	private final ElevatorMonitor elevatorMonitor;
+	private final int numberOfFloors;
+	private final int currentFloor;
+	private final boolean stopped;
+	private final boolean doorOpen;
+	private final Direction queueDirection;
+	private final Direction nextDirection;
+	private final int[] pickupFloors;					//index -> trip, value -> pickup floor
+	private final int[] destinationFloors;				//index -> trip, value -> destination floor, UNKNOWN_FLOOR if the destination is not known yet
+	private final boolean[] started;					//index -> trip, value -> true if the trip has been picked up
+	private final int[] passengerCounts;				//index -> trip, value -> passengers travelling together on the trip
+	private final int[] upTravelTimes;					//index -> floor, value -> time (milliseconds) to travel UP from the floor below
+	private final int[] downTravelTimes;				//index -> floor, value -> time (milliseconds) to travel DOWN from the floor above
+	private final int doorOperationTime;
+	private final int stopTime;
+	private final Integer estimatedPickupTime;			//Estimated pickup time of the trip request being planned, null if the elevator cannot accommodate it
+
+	/**
+	 * Take a snapshot of an elevator, while planning a trip request.
+	 * @param elevatorMonitor
+	 * @param tripRequest		- trip request being planned
+	 */
+	public ElevatorSnapshot(ElevatorMonitor elevatorMonitor, TripRequest tripRequest) {
+		TravelTimeModel travelTimeModel = elevatorMonitor.getTravelTimeModel();
+		int numberOfFloors = travelTimeModel.getNumberOfFloors();
+		this.elevatorMonitor = elevatorMonitor;
+		this.numberOfFloors = numberOfFloors;
+		this.currentFloor = Math.max(1, Math.min(elevatorMonitor.getElevatorFloorLocation(), numberOfFloors));
+		this.stopped = elevatorMonitor.getElevatorStatus() == ElevatorStatus.STOPPED;
+		this.doorOpen = this.stopped && (elevatorMonitor.getElevatorState().getDoorStatus() == ElevatorDoorStatus.OPENED);
+		this.queueDirection = elevatorMonitor.getQueueDirection();
+		this.nextDirection = elevatorMonitor.getNextElevatorDirection();
+		this.estimatedPickupTime = elevatorMonitor.estimatePickupTime(tripRequest);
+
+		int numberOfTrips = elevatorMonitor.getQueueLength();
+		this.pickupFloors = new int[numberOfTrips];
+		this.destinationFloors = new int[numberOfTrips];
+		this.started = new boolean[numberOfTrips];
+		this.passengerCounts = new int[numberOfTrips];
+		int trip = 0;
+		for (TripRequest queuedTripRequest : elevatorMonitor.getQueue()) {
+			this.pickupFloors[trip] = queuedTripRequest.getPickupFloor();
+			this.destinationFloors[trip] = queuedTripRequest.hasDestination() ? queuedTripRequest.getDestinationFloor() : UNKNOWN_FLOOR;
+			this.started[trip] = !elevatorMonitor.isPickupFloor(queuedTripRequest.getPickupFloor());
+			this.passengerCounts[trip] = queuedTripRequest.getPassengerCount();
+			trip++;
+		}
+
+		this.upTravelTimes = new int[numberOfFloors + 1];
+		this.downTravelTimes = new int[numberOfFloors + 1];
+		for (int floor = 1; floor <= numberOfFloors; floor++) {
+			this.upTravelTimes[floor] = travelTimeModel.getTravelTime(floor, Direction.UP);
+			this.downTravelTimes[floor] = travelTimeModel.getTravelTime(floor, Direction.DOWN);
+		}
+		this.doorOperationTime = travelTimeModel.getDoorOperationTime();
+		this.stopTime = travelTimeModel.getStopTime();
+	}
+
+	public ElevatorMonitor getElevatorMonitor() {
+		return this.elevatorMonitor;
+	}
+
+	public int getNumberOfFloors() {
+		return this.numberOfFloors;
+	}
+
+	public int getCurrentFloor() {
+		return this.currentFloor;
+	}
+
+	public boolean isStopped() {
+		return this.stopped;
+	}
+
+	public boolean isDoorOpen() {
+		return this.doorOpen;
+	}
+
+	public Direction getQueueDirection() {
+		return this.queueDirection;
+	}
+
+	public Direction getNextDirection() {
+		return this.nextDirection;
+	}
+
+	public int getNumberOfTrips() {
+		return this.pickupFloors.length;
+	}
+
+	public int getPickupFloor(int trip) {
+		return this.pickupFloors[trip];
+	}
+
+	public int getDestinationFloor(int trip) {
+		return this.destinationFloors[trip];
+	}
+
+	public boolean isStarted(int trip) {
+		return this.started[trip];
+	}
+
+	public int getPassengerCount(int trip) {
+		return this.passengerCounts[trip];
+	}
+
+	/**
+	 * Get the time to travel to a floor from the adjacent floor, in a direction.
+	 * @param floor	- floor arrived at
+	 * @param direction
+	 * @return time (milliseconds)
+	 */
+	public int getTravelTime(int floor, Direction direction) {
+		return (direction == Direction.DOWN) ? this.downTravelTimes[floor] : this.upTravelTimes[floor];
+	}
+
+	public int getDoorOperationTime() {
+		return this.doorOperationTime;
+	}
+
+	public int getStopTime() {
+		return this.stopTime;
+	}
+
+	/**
+	 * @return the estimated pickup time of the trip request being planned, or null if the elevator cannot accommodate it
+	 */
+	public Integer getEstimatedPickupTime() {
+		return this.estimatedPickupTime;
+	}
+}
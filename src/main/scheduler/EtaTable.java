@@ -0,0 +1,178 @@
+package main.scheduler;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import main.global.Direction;
+
+/**
+ * An EtaTable holds an elevator's estimated time of arrival (milliseconds) at every floor, in each direction of travel, given the elevator's
+ * current state and the stops it is committed to. It is rebuilt by the ElevatorMonitor when the elevator's state or queue changes, so the
+ * planning strategies can look up the estimated pickup time of a trip request in constant time (see ElevatorMonitor.estimatePickupTime()).
+ *
+ * The elevator's route is worked out the same way the Scheduler moves the elevator:
+ * 	- If the elevator is travelling away from the start of its queue (ie. moving down to the lowest pickup of an UP queue), it first
+ * 	  travels to the start of the queue, stopping at pickup floors on the way.
+ * 	- It then travels in the queue direction to the last floor, stopping at every pickup and destination floor.
+ * Each floor travelled and each stop (the door opens, passengers get on/off, the door closes) costs the time learned by the elevator's
+ * TravelTimeModel.
+ *
+ */
+public class EtaTable {
+	private static final int NONE = -1;
+
+	private int numberOfFloors;
+	private TravelTimeModel travelTimeModel;
+	private int[] upEtas;									//index -> floor, value -> estimated time to arrive at the floor travelling UP, NONE if the elevator cannot take a pickup there
+	private int[] downEtas;									//index -> floor, value -> estimated time to arrive at the floor travelling DOWN, NONE if the elevator cannot take a pickup there
+
+	public EtaTable(int numberOfFloors, TravelTimeModel travelTimeModel) {
+		this.numberOfFloors = numberOfFloors;
+		this.travelTimeModel = travelTimeModel;
+		this.upEtas = new int[numberOfFloors + 1];
+		this.downEtas = new int[numberOfFloors + 1];
+		this.clear();
+	}
+
+	/**
+	 * Get the estimated time for the elevator to arrive at a floor travelling in a direction.
+	 * @param floor
+	 * @param direction
+	 * @return the estimated time (milliseconds), or null if the elevator cannot take a pickup at this floor in this direction
+	 */
+	public Integer getEta(int floor, Direction direction) {
+		if ((floor < 1) || (floor > this.numberOfFloors)) {
+			return null;
+		}
+		int eta = (direction == Direction.DOWN) ? this.downEtas[floor] : this.upEtas[floor];
+		return (eta == NONE) ? null : eta;
+	}
+
+	/**
+	 * Remove every estimate, ie. when the elevator is OUT_OF_SERVICE.
+	 */
+	public void clear() {
+		Arrays.fill(this.upEtas, NONE);
+		Arrays.fill(this.downEtas, NONE);
+	}
+
+	/**
+	 * Remove the estimate for a floor and direction, the elevator cannot take a pickup there.
+	 * @param floor
+	 * @param direction
+	 */
+	public void exclude(int floor, Direction direction) {
+		this.setEta(floor, direction, NONE);
+	}
+
+	/**
+	 * Rebuild the table for an elevator with no trips assigned to it. The elevator travels straight to any floor.
+	 * @param currentFloor
+	 * @param stopped	- true if the elevator is stopped at the current floor, false if it is moving away from it (it has to come back to the current floor)
+	 * @param doorOpen	- true if the elevator is stopped with its door open, the door is closed before the elevator moves
+	 */
+	public void buildIdle(int currentFloor, boolean stopped, boolean doorOpen) {
+		int startTime = doorOpen ? this.travelTimeModel.getDoorOperationTime() : 0;
+		int eta = startTime;
+		for (int floor = currentFloor + 1; floor <= this.numberOfFloors; floor++) {
+			eta += this.travelTimeModel.getTravelTime(floor, Direction.UP);
+			this.setEta(floor, Direction.UP, eta);
+			this.setEta(floor, Direction.DOWN, eta);
+		}
+		eta = startTime;
+		for (int floor = currentFloor - 1; floor >= 1; floor--) {
+			eta += this.travelTimeModel.getTravelTime(floor, Direction.DOWN);
+			this.setEta(floor, Direction.UP, eta);
+			this.setEta(floor, Direction.DOWN, eta);
+		}
+		if (stopped) {
+			eta = 0;
+		} else {
+			eta = this.travelTimeModel.getTravelTime(currentFloor + 1, Direction.UP) + this.travelTimeModel.getTravelTime(currentFloor, Direction.DOWN);
+		}
+		this.setEta(currentFloor, Direction.UP, eta);
+		this.setEta(currentFloor, Direction.DOWN, eta);
+	}
+
+	/**
+	 * Rebuild the table for an elevator serving a queue.
+	 * @param currentFloor
+	 * @param stopped			- true if the elevator is stopped at the current floor, false if it is moving away from it
+	 * @param doorOpen			- true if the elevator is stopped with its door open
+	 * @param queueDirection
+	 * @param nextDirection		- direction the elevator will travel next (see ElevatorMonitor.getNextElevatorDirection())
+	 * @param pickupFloors
+	 * @param destinationFloors
+	 */
+	public void buildRoute(int currentFloor, boolean stopped, boolean doorOpen, Direction queueDirection, Direction nextDirection, Set<Integer> pickupFloors, Set<Integer> destinationFloors) {
+		this.clear();
+		if (stopped) {
+			this.setEta(currentFloor, Direction.UP, 0);
+			this.setEta(currentFloor, Direction.DOWN, 0);
+		}
+		int time = doorOpen ? this.travelTimeModel.getDoorOperationTime() : 0;
+		int stopTime = this.travelTimeModel.getStopTime();
+		int floor = Math.max(1, Math.min(currentFloor, this.numberOfFloors));
+
+		//Travel to the start of the queue, only pickup floors are stopped at on the way
+		if ((nextDirection != Direction.IDLE) && (nextDirection != queueDirection)) {
+			int queueStartFloor = floor;
+			for (Integer pickupFloor : pickupFloors) {
+				if ((nextDirection == Direction.DOWN) ? (pickupFloor < queueStartFloor) : (pickupFloor > queueStartFloor)) {
+					queueStartFloor = pickupFloor;
+				}
+			}
+			for (Integer destinationFloor : destinationFloors) {
+				if ((nextDirection == Direction.DOWN) ? (destinationFloor < queueStartFloor) : (destinationFloor > queueStartFloor)) {
+					queueStartFloor = destinationFloor;
+				}
+			}
+
+			int step = (nextDirection == Direction.DOWN) ? -1 : 1;
+			while (floor != queueStartFloor) {
+				floor += step;
+				time += this.travelTimeModel.getTravelTime(floor, nextDirection);
+				this.setEtaIfNone(floor, nextDirection, time);
+				if ((floor != queueStartFloor) && pickupFloors.contains(floor)) {
+					time += stopTime;
+				}
+			}
+			//The queue is picked up at the start floor
+			this.setEtaIfNone(floor, queueDirection, time);
+			time += stopTime;
+		}
+
+		//Travel in the queue direction to the last floor, every scheduled floor is stopped at
+		int step = (queueDirection == Direction.DOWN) ? -1 : 1;
+		int lastFloor = (queueDirection == Direction.DOWN) ? 1 : this.numberOfFloors;
+		while (floor != lastFloor) {
+			floor += step;
+			time += this.travelTimeModel.getTravelTime(floor, (step < 0) ? Direction.DOWN : Direction.UP);
+			this.setEtaIfNone(floor, queueDirection, time);
+			if (pickupFloors.contains(floor) || destinationFloors.contains(floor)) {
+				time += stopTime;
+			}
+		}
+	}
+
+	private void setEta(int floor, Direction direction, int eta) {
+		if ((floor < 1) || (floor > this.numberOfFloors)) {
+			return;
+		}
+		if (direction == Direction.DOWN) {
+			this.downEtas[floor] = eta;
+		} else {
+			this.upEtas[floor] = eta;
+		}
+	}
+
+	/**
+	 * Set the estimate for a floor and direction, unless the elevator already passes the floor in that direction earlier in its route.
+	 */
+	private void setEtaIfNone(int floor, Direction direction, int eta) {
+		Integer currentEta = this.getEta(floor, direction);
+		if (currentEta == null) {
+			this.setEta(floor, direction, eta);
+		}
+	}
+}
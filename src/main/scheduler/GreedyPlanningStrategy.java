@@ -0,0 +1,79 @@
+package main.scheduler;
+
+import main.global.Direction;
+
+/**
+ * Assigns a trip request to the elevator with the lowest estimated pickup time, always favouring an in service elevator (one that can
+ * take the trip en route) over an idle elevator. This is the Scheduler's default strategy.
+ *
+ */
+public class GreedyPlanningStrategy implements PlanningStrategy {
+
+	@Override
+	public ElevatorMonitor selectElevator(TripRequest tripRequest, ElevatorMonitor[] elevatorMonitors) {
+		ElevatorMonitor closestElevatorMonitor = null;
+		Integer closestElevatorTime = null;
+
+		//Iterate through all elevators to determine whether there is an eligible elevator to handle this trip request,
+		//and which would be most optimal. 
+		for (ElevatorMonitor elevatorMonitor : elevatorMonitors) {
+			boolean currentElevatorIsMoreFavourable = false;
+			
+			Integer estimatedElevatorPickupTime = elevatorMonitor.estimatePickupTime(tripRequest);
+			
+			//If the estimateElevatorPickupTime for this elevator is null, then this elevator cannot accommodate this tripRequest at this time
+			//skip to next iteration of foreach loop
+			if (estimatedElevatorPickupTime == null) {
+				continue;
+			}
+			
+			//If there is not yet a closest eligible elevator, set the current elevator being evaluated as closestElevator
+			if (closestElevatorTime == null) {
+				currentElevatorIsMoreFavourable = true;
+			} else {
+				//The comparison between the current elevator being evaluated and the closestElevator depends on whether the closestElevator is Idle or in-service
+				if (closestElevatorMonitor.getNextElevatorDirection() == Direction.IDLE) {
+					//The comparison between the current elevator and the closestElevator also depends on whether the current elevator being evaluated is Idle or in-service
+					//In the case where the current elevator being evaluated is in-service
+					if (elevatorMonitor.getNextElevatorDirection() == Direction.IDLE) {
+						//If the current elevator being evaluated is in-service and has a quicker estimated pickup time
+						//then this elevator is more favourable for this trip request than the current closestElevator
+						if (estimatedElevatorPickupTime < closestElevatorTime){
+							currentElevatorIsMoreFavourable = true;
+						}
+					} else {
+						//Always favour an in service elevator if possible. 
+						//if (Math.abs(closestElevatorTime - estimatedElevatorPickupTime) >= closestElevatorTime){
+							currentElevatorIsMoreFavourable = true;
+						//}
+					}
+				//In the case where the closestElevator is IDLE
+				} else {
+					//In the case where the current elevator being evaluated is in-service
+					if (elevatorMonitor.getNextElevatorDirection() == Direction.IDLE) {
+						//Always favour in service elevator
+						/*//If the current elevator being evaluated is in-service and has an estimated pickup time that is less than or equal to the current closest elevator's pickup time
+						//then this elevator is more favourable for this trip request than the current closestElevator
+						if ((estimatedElevatorPickupTime <= closestElevatorTime) && (Math.abs(closestElevatorTime - estimatedElevatorPickupTime) >= estimatedElevatorPickupTime)) {
+							currentElevatorIsMoreFavourable = true;
+						}*/
+					} else {
+						//If the current elevator being evaluated is IDLE and has a quicker estimated pickup time
+						//then this elevator is more favourable for this trip request than the current closestElevator
+						if (estimatedElevatorPickupTime < closestElevatorTime){
+							currentElevatorIsMoreFavourable = true;
+						} 
+					}
+				}
+			}
+			
+			//Replace closest Elevator with current Elevator if any of the conditions above have been met.
+			if (currentElevatorIsMoreFavourable) {
+				closestElevatorMonitor = elevatorMonitor;
+				closestElevatorTime = estimatedElevatorPickupTime;
+			}
+		}
+		
+		return closestElevatorMonitor;
+	}
+}
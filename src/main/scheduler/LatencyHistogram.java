@@ -0,0 +1,73 @@
+package main.scheduler;
+
+/**
+ * A histogram of latencies (nanoseconds), with buckets that double in size so a wide range of latencies (microseconds to minutes) is
+ * recorded in a fixed amount of memory. Bucket i holds latencies in [2^(i-1), 2^i) microseconds, bucket 0 holds latencies under a microsecond.
+ * Percentiles are reported as the upper bound of the bucket they fall in, so they are accurate to within a factor of 2.
+ *
+ */
+public class LatencyHistogram {
+	private static final int NUMBER_OF_BUCKETS = 40;
+
+	private long[] buckets = new long[NUMBER_OF_BUCKETS];
+	private long count;
+	private long sum;										//Sum of all latencies recorded (nanoseconds)
+	private long max;										//Largest latency recorded (nanoseconds)
+
+	/**
+	 * Record a latency.
+	 * @param latency	- nanoseconds
+	 */
+	public synchronized void record(long latency) {
+		if (latency < 0) {
+			latency = 0;
+		}
+		long microseconds = latency / 1000;
+		int bucket = Math.min(64 - Long.numberOfLeadingZeros(microseconds), NUMBER_OF_BUCKETS - 1);
+		this.buckets[bucket]++;
+		this.count++;
+		this.sum += latency;
+		this.max = Math.max(this.max, latency);
+	}
+
+	public synchronized long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * @return mean latency in milliseconds, 0 if nothing has been recorded
+	 */
+	public synchronized double getMean() {
+		if (this.count == 0) {
+			return 0;
+		}
+		return (double) this.sum / this.count / 1000000;
+	}
+
+	/**
+	 * @return largest latency in milliseconds
+	 */
+	public synchronized double getMax() {
+		return (double) this.max / 1000000;
+	}
+
+	/**
+	 * Get a percentile of the recorded latencies.
+	 * @param percentile	- between 0 and 100
+	 * @return latency in milliseconds (the upper bound of the bucket the percentile falls in, capped at the largest latency recorded)
+	 */
+	public synchronized double getPercentile(double percentile) {
+		if (this.count == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(this.count * percentile / 100);
+		long seen = 0;
+		for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++) {
+			seen += this.buckets[bucket];
+			if ((seen >= rank) && (this.buckets[bucket] > 0)) {
+				return Math.min((double) (1L << bucket) / 1000, this.getMax());
+			}
+		}
+		return this.getMax();
+	}
+}
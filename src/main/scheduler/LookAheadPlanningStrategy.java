@@ -0,0 +1,262 @@
+package main.scheduler;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import main.global.Direction;
+
+/**
+ * Assigns a trip request to the elevator whose plan it makes the least worse. For each elevator which can accommodate the trip request, the next
+ * HORIZON of the elevator's plan is simulated with and without the trip request (see simulate()), and the trip request is assigned to the elevator
+ * where it adds the least total expected wait plus ride time, over all the passengers of that elevator. The plans of the other elevators do not
+ * change, so only the candidate elevator is simulated.
+ *
+ * Each decision has a budget of simulated steps (one trip request checked at one floor), shared equally by the candidates. If a candidate's
+ * simulation runs out of its share, the decision of the GreedyPlanningStrategy is used. The budget is counted in steps rather than measured in
+ * time, so the same state always makes the same decision, and the Scheduler makes the same decisions again when its journal is replayed.
+ *
+ * The snapshots are taken on the Scheduler's thread, as the ElevatorMonitors are not thread safe. With PARALLEL_THRESHOLD or more candidates, the
+ * simulations are then split over the common ForkJoinPool, so the decision time stays flat as the number of elevators grows. With fewer candidates
+ * the simulations run on the Scheduler's thread, where they are cheaper than handing them to the pool.
+ *
+ */
+public class LookAheadPlanningStrategy implements PlanningStrategy {
+	private static final long HORIZON = 300000;						//Time (milliseconds) of each elevator's plan simulated
+	private static final long DECISION_STEP_BUDGET = 1000000;		//Steps each decision may simulate before falling back to the greedy decision
+	private static final long OVER_BUDGET = -1;						//Returned by simulate() when the simulation runs out of steps
+	private static final int PARALLEL_THRESHOLD = 32;				//Number of candidates from which the simulations are run in the ForkJoinPool
+	private static final int SEQUENTIAL_THRESHOLD = 8;				//Number of candidates each fork/join task simulates without splitting further
+
+	private PlanningStrategy fallbackStrategy;
+
+	public LookAheadPlanningStrategy() {
+		this.fallbackStrategy = new GreedyPlanningStrategy();
+	}
+
+	@Override
+	public ElevatorMonitor selectElevator(TripRequest tripRequest, ElevatorMonitor[] elevatorMonitors) {
+		ElevatorMonitor fallbackElevatorMonitor = this.fallbackStrategy.selectElevator(tripRequest, elevatorMonitors);
+		if (fallbackElevatorMonitor == null) {
+			return null;
+		}
+
+		//Copy the state of each elevator which can accommodate the trip request
+		ArrayList<ElevatorSnapshot> candidates = new ArrayList<ElevatorSnapshot>();
+		for (ElevatorMonitor elevatorMonitor : elevatorMonitors) {
+			ElevatorSnapshot snapshot = new ElevatorSnapshot(elevatorMonitor, tripRequest);
+			if (snapshot.getEstimatedPickupTime() != null) {
+				candidates.add(snapshot);
+			}
+		}
+
+		//Simulate each candidate, with and without the trip request, each simulation within its share of the budget
+		ElevatorSnapshot[] snapshots = candidates.toArray(new ElevatorSnapshot[candidates.size()]);
+		long[] addedCosts = new long[snapshots.length];
+		long stepBudget = DECISION_STEP_BUDGET / (2 * Math.max(snapshots.length, 1));
+		CandidateSimulation simulation = new CandidateSimulation(snapshots, tripRequest, addedCosts, stepBudget, 0, snapshots.length);
+		if (snapshots.length >= PARALLEL_THRESHOLD) {
+			ForkJoinPool.commonPool().invoke(simulation);
+		} else {
+			simulation.simulateCandidates();
+		}
+		for (long addedCost : addedCosts) {
+			if (addedCost == Long.MAX_VALUE) {
+				return fallbackElevatorMonitor;
+			}
+		}
+
+		//The first candidate with the lowest added cost, so the decision does not depend on how the simulations were split
+		ElevatorMonitor bestElevatorMonitor = null;
+		long bestAddedCost = Long.MAX_VALUE;
+		for (int candidate = 0; candidate < snapshots.length; candidate++) {
+			if (addedCosts[candidate] < bestAddedCost) {
+				bestElevatorMonitor = snapshots[candidate].getElevatorMonitor();
+				bestAddedCost = addedCosts[candidate];
+			}
+		}
+		return bestElevatorMonitor;
+	}
+
+	/**
+	 * Simulates a range of candidates, splitting the range in half until it has at most SEQUENTIAL_THRESHOLD candidates. Each candidate's added cost
+	 * is written to its own index of addedCosts (Long.MAX_VALUE if a simulation ran out of steps), so the tasks share no other state.
+	 *
+	 */
+	private static class CandidateSimulation extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final ElevatorSnapshot[] snapshots;
+		private final TripRequest tripRequest;
+		private final long[] addedCosts;
+		private final long stepBudget;					//Steps each simulation may take
+		private final int start;
+		private final int end;
+
+		CandidateSimulation(ElevatorSnapshot[] snapshots, TripRequest tripRequest, long[] addedCosts, long stepBudget, int start, int end) {
+			this.snapshots = snapshots;
+			this.tripRequest = tripRequest;
+			this.addedCosts = addedCosts;
+			this.stepBudget = stepBudget;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.end - this.start <= SEQUENTIAL_THRESHOLD) {
+				this.simulateCandidates();
+			} else {
+				int middle = (this.start + this.end) >>> 1;
+				invokeAll(new CandidateSimulation(this.snapshots, this.tripRequest, this.addedCosts, this.stepBudget, this.start, middle),
+						new CandidateSimulation(this.snapshots, this.tripRequest, this.addedCosts, this.stepBudget, middle, this.end));
+			}
+		}
+
+		/**
+		 * Simulate every candidate in the range on the current thread.
+		 */
+		void simulateCandidates() {
+			for (int candidate = this.start; candidate < this.end; candidate++) {
+				ElevatorSnapshot snapshot = this.snapshots[candidate];
+				long cost = simulate(snapshot, this.tripRequest, this.stepBudget);
+				long currentCost = simulate(snapshot, null, this.stepBudget);
+				if ((cost == OVER_BUDGET) || (currentCost == OVER_BUDGET)) {
+					this.addedCosts[candidate] = Long.MAX_VALUE;
+				} else {
+					this.addedCosts[candidate] = cost - currentCost;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Simulate an elevator's plan, the same way the Scheduler moves the elevator (see EtaTable): if it is travelling away from the start of its queue it
+	 * first travels there, stopping at pickup floors on the way, then it travels in the queue direction stopping at every pickup and destination floor.
+	 * A passenger whose destination is not known yet is expected to ride half way to the last floor in their direction. Passengers travelling together
+	 * on a trip request (see TripRequest.getPassengerCount()) each count towards the cost.
+	 *
+	 * @param snapshot
+	 * @param tripRequest	- trip request added to the elevator's plan, null to simulate the plan as it is
+	 * @param stepBudget	- steps (one trip request checked at one floor) the simulation may take
+	 * @return the sum, over every passenger of the elevator, of the time (milliseconds) until they arrive at their destination (their remaining wait plus
+	 * ride time). A passenger who does not arrive within the HORIZON counts as arriving at the HORIZON. OVER_BUDGET if the simulation ran out of steps.
+	 */
+	static long simulate(ElevatorSnapshot snapshot, TripRequest tripRequest, long stepBudget) {
+		int numberOfFloors = snapshot.getNumberOfFloors();
+		int numberOfTrips = snapshot.getNumberOfTrips() + ((tripRequest != null) ? 1 : 0);
+		int[] pickupFloors = new int[numberOfTrips];
+		int[] destinationFloors = new int[numberOfTrips];
+		boolean[] started = new boolean[numberOfTrips];
+		boolean[] arrived = new boolean[numberOfTrips];
+		int[] passengerCounts = new int[numberOfTrips];
+		Direction queueDirection = snapshot.getQueueDirection();
+		Direction nextDirection = snapshot.getNextDirection();
+		int floor = snapshot.getCurrentFloor();
+
+		for (int trip = 0; trip < snapshot.getNumberOfTrips(); trip++) {
+			pickupFloors[trip] = snapshot.getPickupFloor(trip);
+			destinationFloors[trip] = snapshot.getDestinationFloor(trip);
+			started[trip] = snapshot.isStarted(trip);
+			passengerCounts[trip] = snapshot.getPassengerCount(trip);
+		}
+		if (tripRequest != null) {
+			int trip = numberOfTrips - 1;
+			pickupFloors[trip] = tripRequest.getPickupFloor();
+			destinationFloors[trip] = tripRequest.hasDestination() ? tripRequest.getDestinationFloor() : ElevatorSnapshot.UNKNOWN_FLOOR;
+			started[trip] = snapshot.isDoorOpen() && (floor == tripRequest.getPickupFloor());
+			passengerCounts[trip] = tripRequest.getPassengerCount();
+
+			//The first trip of an idle elevator sets the queue direction, the elevator travels to the pickup floor
+			if (snapshot.getNumberOfTrips() == 0) {
+				queueDirection = tripRequest.getDirection();
+				if (tripRequest.getPickupFloor() > floor) {
+					nextDirection = Direction.UP;
+				} else if (tripRequest.getPickupFloor() < floor) {
+					nextDirection = Direction.DOWN;
+				} else {
+					nextDirection = queueDirection;
+				}
+			}
+		}
+		for (int trip = 0; trip < numberOfTrips; trip++) {
+			if (destinationFloors[trip] == ElevatorSnapshot.UNKNOWN_FLOOR) {
+				int lastFloor = (queueDirection == Direction.DOWN) ? 1 : numberOfFloors;
+				destinationFloors[trip] = (pickupFloors[trip] + lastFloor + ((queueDirection == Direction.DOWN) ? 0 : 1)) / 2;
+			}
+		}
+		if (numberOfTrips == 0) {
+			return 0;
+		}
+
+		long cost = 0;
+		long steps = 0;
+		int remainingTrips = numberOfTrips;
+		long remainingPassengers = 0;
+		for (int trip = 0; trip < numberOfTrips; trip++) {
+			remainingPassengers += passengerCounts[trip];
+		}
+		long time = snapshot.isDoorOpen() ? snapshot.getDoorOperationTime() : 0;
+		int stopTime = snapshot.getStopTime();
+
+		//Travel to the start of the queue, only pickup floors are stopped at on the way
+		if ((nextDirection != Direction.IDLE) && (nextDirection != queueDirection)) {
+			int queueStartFloor = floor;
+			for (int trip = 0; trip < numberOfTrips; trip++) {
+				if (!started[trip] && ((nextDirection == Direction.DOWN) ? (pickupFloors[trip] < queueStartFloor) : (pickupFloors[trip] > queueStartFloor))) {
+					queueStartFloor = pickupFloors[trip];
+				}
+			}
+			int step = (nextDirection == Direction.DOWN) ? -1 : 1;
+			while ((floor != queueStartFloor) && (time < HORIZON)) {
+				steps += numberOfTrips;
+				if (steps > stepBudget) {
+					return OVER_BUDGET;
+				}
+				floor += step;
+				time += snapshot.getTravelTime(floor, nextDirection);
+				boolean stop = false;
+				for (int trip = 0; trip < numberOfTrips; trip++) {
+					if (!started[trip] && (pickupFloors[trip] == floor)) {
+						started[trip] = true;
+						stop = true;
+					}
+				}
+				if (stop) {
+					time += stopTime;
+				}
+			}
+		}
+
+		//Travel in the queue direction until every passenger has arrived, every scheduled floor is stopped at
+		int step = (queueDirection == Direction.DOWN) ? -1 : 1;
+		while ((remainingTrips > 0) && (time < HORIZON)) {
+			steps += numberOfTrips;
+			if (steps > stepBudget) {
+				return OVER_BUDGET;
+			}
+			boolean stop = false;
+			for (int trip = 0; trip < numberOfTrips; trip++) {
+				if (started[trip] && !arrived[trip] && (destinationFloors[trip] == floor)) {
+					arrived[trip] = true;
+					remainingTrips--;
+					remainingPassengers -= passengerCounts[trip];
+					cost += time * passengerCounts[trip];
+					stop = true;
+				} else if (!started[trip] && (pickupFloors[trip] == floor)) {
+					started[trip] = true;
+					stop = true;
+				}
+			}
+			if (stop) {
+				time += stopTime;
+			}
+			if ((floor + step < 1) || (floor + step > numberOfFloors)) {
+				break;
+			}
+			floor += step;
+			time += snapshot.getTravelTime(floor, queueDirection);
+		}
+		return cost + (remainingPassengers * HORIZON);
+	}
+}
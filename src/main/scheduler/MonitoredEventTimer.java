@@ -3,19 +3,19 @@ package main.scheduler;
 /**
  * The purpose of the MonitoredEventTimer is to provide an alert to the Scheduler when the timer has completed.
  * If the MonitoredEventTimer is cancelled before it is completed, no alert of the Scheduler will be performed.
- * This class encapsulates some data such as the subsystemName and monitoredScheduledEvent it was created for.
+ * This class encapsulates some data such as the elevatorId and monitoredScheduledEvent it was created for.
  *
  */
 public class MonitoredEventTimer implements Runnable{
 	private int duration;
-	private String subsystemName;			//Name of the subsystem to monitor
+	private int elevatorId;					//Id of the elevator to monitor
 	private Scheduler scheduler;			//Reference to scheduler
 	private MonitoredSchedulerEvent monitoredSchedulerEvent;
 	private boolean cancelled;				
 	
-	MonitoredEventTimer(Scheduler scheduler, String subsystemName, MonitoredSchedulerEvent monitoredSchedulerEvent, int duration){
+	MonitoredEventTimer(Scheduler scheduler, int elevatorId, MonitoredSchedulerEvent monitoredSchedulerEvent, int duration){
 		this.scheduler = scheduler;
-		this.subsystemName = subsystemName;
+		this.elevatorId = elevatorId;
 		this.monitoredSchedulerEvent = monitoredSchedulerEvent;
 		this.duration = duration;
 	}
@@ -45,11 +45,19 @@ public class MonitoredEventTimer implements Runnable{
 	}
 	
 	/**
-	 * Get the subsystem name this timer was created for.
+	 * Get the duration of this timer (milliseconds).
 	 * @return
 	 */
-	public String getMonitoredSubsystemName() {
-		return this.subsystemName;
+	public int getDuration() {
+		return this.duration;
+	}
+	
+	/**
+	 * Get the id of the elevator this timer was created for.
+	 * @return
+	 */
+	public int getMonitoredElevatorId() {
+		return this.elevatorId;
 	}
 	
 	@Override
@@ -61,9 +69,16 @@ public class MonitoredEventTimer implements Runnable{
 			e.printStackTrace();
 		}
 		
+		this.expire();
+	}
+	
+	/**
+	 * Called when the duration of this timer has elapsed.
+	 */
+	public void expire() {
 		//If this MonitoredEventTimer has not been cancelled, notify the scheduler that the timer is complete.
 		if (!this.getCancelled()) {
-			scheduler.monitoredEventTimerComplete(subsystemName);
+			scheduler.monitoredEventTimerComplete(elevatorId);
 		}
 	}
 	
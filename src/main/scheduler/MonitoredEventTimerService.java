@@ -0,0 +1,24 @@
+package main.scheduler;
+
+/**
+ * The MonitoredEventTimerService starts the MonitoredEventTimers created by the Scheduler.
+ * Timers are normally run on their own thread against the wall clock (see ThreadMonitoredEventTimerService), the replay tool substitutes a service
+ * which expires timers against a virtual clock.
+ *
+ */
+public interface MonitoredEventTimerService {
+
+	/**
+	 * Start a MonitoredEventTimer. When the timer's duration has elapsed the service must call MonitoredEventTimer.expire().
+	 * @param monitoredEventTimer
+	 */
+	public void start(MonitoredEventTimer monitoredEventTimer);
+
+	/**
+	 * Get the number of MonitoredEventTimers started whose duration has not elapsed yet, including timers which have been cancelled.
+	 * @return 0 if the service does not track its timers
+	 */
+	public default int getBacklog() {
+		return 0;
+	}
+}
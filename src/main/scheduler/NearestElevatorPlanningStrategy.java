@@ -0,0 +1,30 @@
+package main.scheduler;
+
+/**
+ * Assigns a trip request to the elevator with the lowest estimated pickup time, whether it is idle or in service.
+ *
+ */
+public class NearestElevatorPlanningStrategy implements PlanningStrategy {
+
+	@Override
+	public ElevatorMonitor selectElevator(TripRequest tripRequest, ElevatorMonitor[] elevatorMonitors) {
+		ElevatorMonitor nearestElevatorMonitor = null;
+		Integer nearestElevatorTime = null;
+
+		for (ElevatorMonitor elevatorMonitor : elevatorMonitors) {
+			Integer estimatedElevatorPickupTime = elevatorMonitor.estimatePickupTime(tripRequest);
+
+			//This elevator cannot accommodate this tripRequest at this time
+			if (estimatedElevatorPickupTime == null) {
+				continue;
+			}
+
+			if ((nearestElevatorTime == null) || (estimatedElevatorPickupTime < nearestElevatorTime)) {
+				nearestElevatorMonitor = elevatorMonitor;
+				nearestElevatorTime = estimatedElevatorPickupTime;
+			}
+		}
+
+		return nearestElevatorMonitor;
+	}
+}
@@ -0,0 +1,78 @@
+package main.scheduler;
+
+import java.util.List;
+
+/**
+ * The ParkingOptimizer chooses the floor an elevator which has become idle parks at, so the expected distance (and so pickup time) from the nearest
+ * idle elevator to the next hall call is as short as possible.
+ *
+ * The next hall call is expected at each floor in proportion to the recent demand there (see TrafficPatternDetector.getArrivalRates()). The other idle
+ * elevators stay where they are parked, so only the elevator becoming idle is placed: every floor is tried, and the floor minimizing
+ * 	sum over floors f of demand(f) * (distance from f to the nearest idle elevator)
+ * is chosen. As each elevator becomes idle in turn, the idle elevators spread out over the floors with the most demand.
+ *
+ */
+public class ParkingOptimizer {
+	private int numberOfFloors;
+	private int[] parkedDistances;				//index -> floor, value -> distance (floors) to the nearest other idle elevator, scratch space reused by each call
+	private boolean[] servedFloors;				//index -> floor, value -> whether the elevators stop at the floor, null if they stop at every floor
+
+	public ParkingOptimizer(int numberOfFloors) {
+		this.numberOfFloors = numberOfFloors;
+		this.parkedDistances = new int[numberOfFloors + 1];
+	}
+
+	/**
+	 * Only park at the floors the elevators stop at (ie. the floors of an elevator bank and the lobby, not the floors an express zone skips).
+	 * @param servedFloors	- index -> floor, value -> whether the elevators stop at the floor
+	 */
+	public void setServedFloors(boolean[] servedFloors) {
+		this.servedFloors = servedFloors;
+	}
+
+	/**
+	 * Select the floor an elevator which has become idle parks at.
+	 * @param demand			- index -> floor, value -> recent arrival rate of hall calls at the floor
+	 * @param parkedFloors		- floors the other idle elevators are parked at (or on their way to)
+	 * @param currentFloor		- floor the elevator is at, preferred when floors are equally good so the elevator does not move needlessly
+	 * @param defaultFloor		- floor returned if there has been no recent demand
+	 * @return
+	 */
+	public int selectParkingFloor(double[] demand, List<Integer> parkedFloors, int currentFloor, int defaultFloor) {
+		double totalDemand = 0;
+		for (int floor = 1; floor <= this.numberOfFloors; floor++) {
+			totalDemand += demand[floor];
+		}
+		if (totalDemand <= 0) {
+			return defaultFloor;
+		}
+
+		//Distance from each floor to the nearest other idle elevator, a floor with none is as far as a hall call can be
+		for (int floor = 1; floor <= this.numberOfFloors; floor++) {
+			int parkedDistance = this.numberOfFloors;
+			for (Integer parkedFloor : parkedFloors) {
+				parkedDistance = Math.min(parkedDistance, Math.abs(floor - parkedFloor));
+			}
+			this.parkedDistances[floor] = parkedDistance;
+		}
+
+		int bestFloor = defaultFloor;
+		double bestCost = Double.MAX_VALUE;
+		for (int candidateFloor = 1; candidateFloor <= this.numberOfFloors; candidateFloor++) {
+			if ((this.servedFloors != null) && !this.servedFloors[candidateFloor]) {
+				continue;
+			}
+			double cost = 0;
+			for (int floor = 1; floor <= this.numberOfFloors; floor++) {
+				cost += demand[floor] * Math.min(this.parkedDistances[floor], Math.abs(floor - candidateFloor));
+			}
+			//Costs within a rounding error of each other are equal, the floor nearest the elevator is kept
+			if ((cost < bestCost - (totalDemand * 1e-9)) 
+					|| ((cost <= bestCost + (totalDemand * 1e-9)) && (Math.abs(candidateFloor - currentFloor) < Math.abs(bestFloor - currentFloor)))) {
+				bestFloor = candidateFloor;
+				bestCost = cost;
+			}
+		}
+		return bestFloor;
+	}
+}
@@ -0,0 +1,142 @@
+package main.scheduler;
+
+/**
+ * The PhiAccrualFailureDetector decides whether an elevator has failed from the heartbeats it sends (see ElevatorHeartbeatRequest).
+ *
+ * Rather than a fixed timeout, the detector learns the distribution of the time between each elevator's heartbeats (a sliding window of
+ * the most recent intervals), and computes phi: how unlikely it is, given that distribution, that the next heartbeat has still not arrived.
+ * phi = -log10(probability that the heartbeat is this late), so a phi of 8 means a 1 in 10^8 chance the elevator is alive but late.
+ * An elevator whose heartbeats arrive with high jitter (ie. a loaded network) gets a proportionally longer timeout, one with steady
+ * heartbeats is detected faster.
+ *
+ * The normal distribution's tail is approximated with a logistic function, as in Akka's implementation of the detector.
+ *
+ */
+public class PhiAccrualFailureDetector {
+	private static final int WINDOW_SIZE = 100;					//Number of heartbeat intervals remembered for each elevator
+
+	private double threshold;									//phi above which an elevator is suspected to have failed
+	private long acceptableHeartbeatPause;						//Extra time (milliseconds) allowed on top of the learned interval, ie. for GC pauses
+	private long minimumStandardDeviation;						//Lower bound (milliseconds) on the learned standard deviation, so perfectly regular heartbeats do not make the detector hair triggered
+	private long firstHeartbeatEstimate;						//Interval (milliseconds) assumed before any intervals have been measured
+	private long[] lastHeartbeatTimes;							//index -> elevator id, value -> time of the last heartbeat (milliseconds), -1 if none received
+	private long[][] intervals;									//index -> elevator id, value -> ring buffer of the most recent heartbeat intervals (milliseconds)
+	private int[] intervalCounts;								//index -> elevator id, value -> number of intervals in the ring buffer
+	private int[] nextIntervals;								//index -> elevator id, value -> ring buffer index the next interval is written at
+	private double[] intervalSums;								//index -> elevator id, value -> sum of the intervals in the ring buffer
+	private double[] intervalSquaredSums;						//index -> elevator id, value -> sum of the squares of the intervals in the ring buffer
+
+	public PhiAccrualFailureDetector(int numberOfElevators, double threshold, long acceptableHeartbeatPause, long heartbeatInterval) {
+		this.threshold = threshold;
+		this.acceptableHeartbeatPause = acceptableHeartbeatPause;
+		this.firstHeartbeatEstimate = heartbeatInterval;
+		this.minimumStandardDeviation = Math.max(heartbeatInterval / 10, 1);
+		this.lastHeartbeatTimes = new long[numberOfElevators];
+		this.intervals = new long[numberOfElevators][WINDOW_SIZE];
+		this.intervalCounts = new int[numberOfElevators];
+		this.nextIntervals = new int[numberOfElevators];
+		this.intervalSums = new double[numberOfElevators];
+		this.intervalSquaredSums = new double[numberOfElevators];
+		for (int elevatorId = 0; elevatorId < numberOfElevators; elevatorId++) {
+			this.reset(elevatorId);
+		}
+	}
+
+	/**
+	 * Record a heartbeat received from an elevator.
+	 * @param elevatorId
+	 * @param time	- time the heartbeat was received (milliseconds)
+	 */
+	public synchronized void heartbeat(int elevatorId, long time) {
+		long lastHeartbeatTime = this.lastHeartbeatTimes[elevatorId];
+		if (lastHeartbeatTime < 0) {
+			//First heartbeat, seed the distribution with the configured interval (mean of the estimate, standard deviation of a quarter of it)
+			long standardDeviation = this.firstHeartbeatEstimate / 4;
+			this.addInterval(elevatorId, this.firstHeartbeatEstimate - standardDeviation);
+			this.addInterval(elevatorId, this.firstHeartbeatEstimate + standardDeviation);
+		} else {
+			this.addInterval(elevatorId, time - lastHeartbeatTime);
+		}
+		this.lastHeartbeatTimes[elevatorId] = time;
+	}
+
+	/**
+	 * Add an interval to an elevator's ring buffer, replacing the oldest interval once the buffer is full.
+	 * @param elevatorId
+	 * @param interval
+	 */
+	private void addInterval(int elevatorId, long interval) {
+		int index = this.nextIntervals[elevatorId];
+		if (this.intervalCounts[elevatorId] == WINDOW_SIZE) {
+			long oldest = this.intervals[elevatorId][index];
+			this.intervalSums[elevatorId] -= oldest;
+			this.intervalSquaredSums[elevatorId] -= (double) oldest * oldest;
+		} else {
+			this.intervalCounts[elevatorId]++;
+		}
+		this.intervals[elevatorId][index] = interval;
+		this.intervalSums[elevatorId] += interval;
+		this.intervalSquaredSums[elevatorId] += (double) interval * interval;
+		this.nextIntervals[elevatorId] = (index + 1) % WINDOW_SIZE;
+	}
+
+	/**
+	 * Calculate phi for an elevator at a time.
+	 * @param elevatorId
+	 * @param time	- current time (milliseconds)
+	 * @return phi, 0 if no heartbeat has been received from the elevator
+	 */
+	public synchronized double phi(int elevatorId, long time) {
+		long lastHeartbeatTime = this.lastHeartbeatTimes[elevatorId];
+		if (lastHeartbeatTime < 0) {
+			return 0;
+		}
+
+		int count = this.intervalCounts[elevatorId];
+		double mean = this.intervalSums[elevatorId] / count;
+		double variance = Math.max((this.intervalSquaredSums[elevatorId] / count) - (mean * mean), 0);
+		double standardDeviation = Math.max(Math.sqrt(variance), this.minimumStandardDeviation);
+
+		double timeSinceLastHeartbeat = time - lastHeartbeatTime;
+		double y = (timeSinceLastHeartbeat - (mean + this.acceptableHeartbeatPause)) / standardDeviation;
+		double e = Math.exp(-y * (1.5976 + 0.070566 * y * y));
+		if (timeSinceLastHeartbeat > mean + this.acceptableHeartbeatPause) {
+			return -Math.log10(e / (1.0 + e));
+		}
+		return -Math.log10(1.0 - 1.0 / (1.0 + e));
+	}
+
+	/**
+	 * Check if an elevator is suspected to have failed.
+	 * @param elevatorId
+	 * @param time	- current time (milliseconds)
+	 * @return
+	 */
+	public boolean isSuspected(int elevatorId, long time) {
+		return this.phi(elevatorId, time) > this.threshold;
+	}
+
+	/**
+	 * Forget an elevator's heartbeat history, ie. once it has been declared failed. The elevator is not suspected again until it sends a heartbeat.
+	 * @param elevatorId
+	 */
+	public synchronized void reset(int elevatorId) {
+		this.lastHeartbeatTimes[elevatorId] = -1;
+		this.intervalCounts[elevatorId] = 0;
+		this.nextIntervals[elevatorId] = 0;
+		this.intervalSums[elevatorId] = 0;
+		this.intervalSquaredSums[elevatorId] = 0;
+	}
+
+	/**
+	 * Get the mean time (milliseconds) between an elevator's heartbeats, 0 if none have been received.
+	 * @param elevatorId
+	 * @return
+	 */
+	public synchronized double getMeanInterval(int elevatorId) {
+		if (this.intervalCounts[elevatorId] == 0) {
+			return 0;
+		}
+		return this.intervalSums[elevatorId] / this.intervalCounts[elevatorId];
+	}
+}
@@ -0,0 +1,47 @@
+package main.scheduler;
+
+/**
+ * A PlanningStrategy decides which elevator a trip request is assigned to.
+ * The strategy used by the Scheduler is set by the planningStrategy attribute of the Scheduler in config.xml.
+ *
+ */
+public interface PlanningStrategy {
+
+	/**
+	 * Select the elevator to assign a trip request to.
+	 *
+	 * @param tripRequest
+	 * @param elevatorMonitors	- index -> elevator id, value -> elevator monitor
+	 * @return the selected elevator, or null if no elevator can accommodate the trip request at this time (the trip request will be added to the pending requests)
+	 */
+	public ElevatorMonitor selectElevator(TripRequest tripRequest, ElevatorMonitor[] elevatorMonitors);
+
+	/**
+	 * Whether this strategy plans with the destination each passenger enters at the floor terminal (destination dispatch). If so, the Scheduler
+	 * creates each trip request with its destination and advises the floor which elevator the passenger should board.
+	 *
+	 * @return
+	 */
+	public default boolean usesHallCallDestinations() {
+		return false;
+	}
+
+	/**
+	 * Get the PlanningStrategy with this name.
+	 *
+	 * @param name	- as used in config.xml (ie. greedy, nearest, destination, lookahead). If null, the greedy strategy is returned.
+	 * @return
+	 */
+	public static PlanningStrategy forName(String name) {
+		if ((name == null) || name.equalsIgnoreCase("greedy")) {
+			return new GreedyPlanningStrategy();
+		} else if (name.equalsIgnoreCase("nearest")) {
+			return new NearestElevatorPlanningStrategy();
+		} else if (name.equalsIgnoreCase("destination")) {
+			return new DestinationDispatchPlanningStrategy();
+		} else if (name.equalsIgnoreCase("lookahead")) {
+			return new LookAheadPlanningStrategy();
+		}
+		throw new IllegalArgumentException("Unknown planning strategy: " + name);
+	}
+}
@@ -1,17 +1,41 @@
 package main.scheduler;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 
 import GUI.ElevatorFrame;
 import main.ElevatorSystemComponent;
 import main.global.*;
+import main.jfr.EventDispatchEvent;
+import main.jfr.EventQueueWaitEvent;
+import main.jfr.MonitoredEventTimerEvent;
+import main.jfr.PlanningDecisionEvent;
+import main.metrics.MetricsRegistry;
+import main.metrics.MetricsServer;
 import main.requests.*;
 import main.server.Server;
 
@@ -34,34 +58,165 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 	private Queue<Request> eventsQueue;															//This queue contains an ordered list of events as received by the Scheduler from other subsystems		
 	private HashMap<Class<?>, ArrayList<Double>> eventElapsedTimes;								//key -> class type (ie. ElevatorArrivalRequest, FloorButtonRequest, etc.), value -> list containing elapsed times to fully handle the request (milliseconds)
 	private boolean debug = false;
-	private HashMap<String, Integer> portsByElevatorName;										//key -> elevator name, value -> port number
-	private HashMap<String, Integer> portsByFloorName;											//key -> floor number, value -> port number
-	private HashMap<String, ElevatorMonitor> elevatorMonitorByElevatorName;						//key -> elevator name, value -> elevator monitor
+	private ElevatorSystemRegistry registry;													//Dense integer ids and endpoints for all elevators and floors
+	private ElevatorMonitor[] elevatorMonitors;													//index -> elevator id, value -> elevator monitor
+	private RequestDispatcher eventDispatcher;													//Routes each received event to its event handler by request type
 	private ArrayList<TripRequest> pendingTripRequests;
-	private HashMap<String, MonitoredEventTimer> monitoredSchedulerEvents;						//key -> subsystemName, value -> monitoredEventTimer
-	private HashMap<String, String> hostByElevatorName;
-	private HashMap<String, String> hostByFloorName;
+	private MonitoredEventTimer[] monitoredSchedulerEvents;										//index -> elevator id, value -> monitoredEventTimer
+	private static final int SNAPSHOT_MAGIC = 0x53534E51;
+	private static final long FIRST_EPOCH = 1;
+	private static final int LOBBY_FLOOR = 1;
+	static final String JOURNAL_FILE = "scheduler.journal";
+	static final String SNAPSHOT_FILE = "scheduler.snapshot";
+	private SchedulerJournal journal;															//Write-ahead journal of handled events and scheduling decisions, null if journaling is not configured
+	private File journalDirectory;
+	private int snapshotInterval;																//Number of journal records between snapshots
+	private boolean recovering;																	//True while the journal is being replayed, no requests are sent and no timers are started
+	private boolean consoleOutputEnabled = true;
+	private SchedulerTransport transport;														//Delivers requests sent by the Scheduler to elevators and floors
+	private MonitoredEventTimerService monitoredEventTimerService;								//Starts the MonitoredEventTimers
+	private PlanningStrategy planningStrategy;													//Decides which elevator each trip request is assigned to
+	private SchedulerReplicator replicator;														//Streams handled events to a standby Scheduler, null if replication is not configured
+	private PhiAccrualFailureDetector failureDetector;											//Detects failed elevators from their heartbeats, null if heartbeats are not configured
+	private TripTracer tripTracer;																//Traces each trip request through its lifecycle, and aggregates the latency of each stage
+	private TripEventBus tripEventBus;															//Changes to trip requests, published once each event has been handled
+	private TrafficPatternDetector trafficPatternDetector;										//Classifies the hall calls received into a traffic mode, which decides where idle elevators park
+	private TrafficMode trafficMode;
+	private ParkingOptimizer parkingOptimizer;													//Chooses the floor each elevator parks at when it becomes idle
+	private double[] demand;																	//index -> floor, value -> recent arrival rate of hall calls, used when choosing parking floors
+	private Request currentEvent;																//Event being handled, null outside of handleEvent()
+	private long[] elevatorBusyTimes;															//index -> elevator id, value -> time (nanoseconds) the elevator has been busy (moving or with trips assigned), null if metrics are not registered
+	private long[] elevatorBusySince;															//index -> elevator id, value -> System.nanoTime() the elevator became busy, -1 if it is not busy
+	private long metricsStartTime;
+	private long coalescedHallCalls;															//Hall calls added as a passenger to a hall call already waiting at the same floor, in the same direction
+	private long leftBehindPassengers;															//Passengers who could not board a full elevator and waited for another
+	private TripArchive tripArchive;															//Completed trips evicted from each elevator's CompletedTripHistory, null if evicted trips are discarded
+	private SchedulerClock clock;																//Time of this Scheduler's state, the original time of each journal record while it is replayed
+	private long epoch;																			//Sent with every request, raised by a standby Scheduler which takes over so a replaced primary is ignored
+	private volatile boolean steppedDown;														//True once another Scheduler has taken over, no events are handled and no requests are sent
+	private ElevatorBank bank;																	//Elevator bank this Scheduler schedules, null if it schedules every elevator
 	
-	public Scheduler(String name, int port, HashMap<String, HashMap<String, String>> elevatorConfiguration, HashMap<String, HashMap<String, String>> floorConfigurations) {
+	public Scheduler(String name, int port, HashMap<String, HashMap<String, String>> elevatorConfiguration, HashMap<String, HashMap<String, String>> floorConfigurations, HashMap<String, String> schedulerConfiguration) {
+		this(name, port, elevatorConfiguration, floorConfigurations, schedulerConfiguration, null);
+	}
+	
+	/**
+	 * Create the Scheduler of one bank of elevators (see ElevatorBank). It schedules the bank's elevators only, and is configured as the
+	 * Scheduler is, with the bank's own attributes in place of the Scheduler's.
+	 * 
+	 * @param bank
+	 * @param elevatorConfiguration	- every elevator, the bank's elevators are taken from it
+	 * @param floorConfigurations
+	 */
+	public Scheduler(ElevatorBank bank, HashMap<String, HashMap<String, String>> elevatorConfiguration, HashMap<String, HashMap<String, String>> floorConfigurations) {
+		this(bank.getName(), bank.getSchedulerPort(), bank.getElevatorConfigurations(elevatorConfiguration), floorConfigurations, bank.getSchedulerConfiguration(), bank);
+	}
+	
+	private Scheduler(String name, int port, HashMap<String, HashMap<String, String>> elevatorConfiguration, HashMap<String, HashMap<String, String>> floorConfigurations, HashMap<String, String> schedulerConfiguration, ElevatorBank bank) {
+		this(name, elevatorConfiguration, floorConfigurations, PlanningStrategy.forName(schedulerConfiguration.get("planningStrategy")), null, new ThreadMonitoredEventTimerService());
+		if (bank != null) {
+			this.restrictToBank(bank);
+		}
+		this.bank = bank;
+		
+		//Create a server (bound to this Instance of ElevatorSubsystem) in a new thread.
+		//When this server receives requests, they will be added to the eventsQueue of THIS ElevatorSubsystem instance.
+		this.server = new Server(this, port, this.debug);
+		this.transport = new ServerSchedulerTransport(this.server, this.registry);
+		serverThread = new Thread(server, name);
+		serverThread.start();
+		this.registerMetrics();
+		this.startElevatorHealthMonitor(schedulerConfiguration);
+		this.configureCompletedTripHistory(schedulerConfiguration);
+		
+		//Open the journal (if configured) and rebuild any state lost when the Scheduler was last stopped
+		if (schedulerConfiguration.get("journalDirectory") != null) {
+			this.openJournal(schedulerConfiguration);
+			this.recover();
+		}
+		
+		//Replicate to a standby Scheduler (if configured), so it can take over if this Scheduler fails
+		if (schedulerConfiguration.get("replicationPort") != null) {
+			try {
+				this.replicator = new SchedulerReplicator(this, Integer.parseInt(schedulerConfiguration.get("replicationPort")), Integer.parseInt(schedulerConfiguration.get("heartbeatInterval")), Integer.parseInt(schedulerConfiguration.get("failoverTimeout")));
+				Thread replicatorThread = new Thread(this.replicator, name + "_replicator");
+				replicatorThread.setDaemon(true);
+				replicatorThread.start();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * Create a standby Scheduler. A standby has no server, it keeps its state in step with the primary Scheduler from the primary's replication stream,
+	 * and takes over (see takeOver()) if the primary fails.
+	 * 
+	 * @param name
+	 * @param elevatorConfiguration
+	 * @param floorConfigurations
+	 * @param primaryConfiguration
+	 * @param standbyConfiguration
+	 */
+	public Scheduler(String name, HashMap<String, HashMap<String, String>> elevatorConfiguration, HashMap<String, HashMap<String, String>> floorConfigurations, HashMap<String, String> primaryConfiguration, HashMap<String, String> standbyConfiguration) {
+		this(name, elevatorConfiguration, floorConfigurations, primaryConfiguration, standbyConfiguration, null);
+	}
+	
+	/**
+	 * Create the standby Scheduler of one bank of elevators (see ElevatorBank), it replicates the bank's Scheduler.
+	 * 
+	 * @param bank
+	 * @param elevatorConfiguration	- every elevator, the bank's elevators are taken from it
+	 * @param floorConfigurations
+	 * @param standbyConfiguration	- the bank's standby Scheduler (see ElevatorBank.getStandbySchedulerConfiguration())
+	 */
+	public Scheduler(ElevatorBank bank, HashMap<String, HashMap<String, String>> elevatorConfiguration, HashMap<String, HashMap<String, String>> floorConfigurations, HashMap<String, String> standbyConfiguration) {
+		this(standbyConfiguration.get("name"), bank.getElevatorConfigurations(elevatorConfiguration), floorConfigurations, bank.getSchedulerConfiguration(), standbyConfiguration, bank);
+	}
+	
+	private Scheduler(String name, HashMap<String, HashMap<String, String>> elevatorConfiguration, HashMap<String, HashMap<String, String>> floorConfigurations, HashMap<String, String> primaryConfiguration, HashMap<String, String> standbyConfiguration, ElevatorBank bank) {
+		this(name, elevatorConfiguration, floorConfigurations, PlanningStrategy.forName(primaryConfiguration.get("planningStrategy")), null, new ThreadMonitoredEventTimerService());
+		if (bank != null) {
+			this.restrictToBank(bank);
+		}
+		this.bank = bank;
+		this.registerMetrics();
+		this.startElevatorHealthMonitor(primaryConfiguration);
+		this.configureCompletedTripHistory(standbyConfiguration);
+		
+		Thread standbyThread = new Thread(new SchedulerStandby(this, primaryConfiguration, standbyConfiguration), name + "_standby");
+		standbyThread.start();
+	}
+	
+	/**
+	 * Create a Scheduler which sends its requests through transport instead of a Server, and is not journaled.
+	 * This is used to run the Scheduler logic without sockets (see SchedulerReplay).
+	 * 
+	 * @param name
+	 * @param elevatorConfiguration
+	 * @param floorConfigurations
+	 * @param planningStrategy
+	 * @param transport
+	 * @param monitoredEventTimerService
+	 */
+	Scheduler(String name, HashMap<String, HashMap<String, String>> elevatorConfiguration, HashMap<String, HashMap<String, String>> floorConfigurations, PlanningStrategy planningStrategy, SchedulerTransport transport, MonitoredEventTimerService monitoredEventTimerService) {
 		this.name = name;
+		this.planningStrategy = planningStrategy;
+		this.transport = transport;
+		this.monitoredEventTimerService = monitoredEventTimerService;
 		this.eventsQueue = new LinkedList<Request>();
-		this.portsByElevatorName = new HashMap<String, Integer>();
-		this.portsByFloorName = new HashMap<String, Integer>();
-		this.elevatorMonitorByElevatorName = new HashMap<String, ElevatorMonitor>();
 		this.pendingTripRequests = new ArrayList<TripRequest>();
-		this.monitoredSchedulerEvents = new HashMap<String, MonitoredEventTimer>();
-		this.hostByElevatorName = new HashMap<String, String>();
-		this.hostByFloorName = new HashMap<String, String>();
 		this.eventElapsedTimes = new HashMap<Class<?>, ArrayList<Double>>();
+		this.tripTracer = new TripTracer();
+		this.clock = new SchedulerClock();
+		this.epoch = FIRST_EPOCH;
+		this.tripEventBus = new TripEventBus(this.clock);
 		
 		//Initialize infrastructure configurations (elevators/floors)
 		this.init(elevatorConfiguration, floorConfigurations);
 		
-		//Create a server (bound to this Instance of ElevatorSubsystem) in a new thread.
-		//When this server receives requests, they will be added to the eventsQueue of THIS ElevatorSubsystem instance.
-		this.server = new Server(this, port, this.debug);
-		serverThread = new Thread(server, name);
-		serverThread.start();
+		//Register the event handlers for each type of request the Scheduler receives
+		this.registerEventHandlers();
 	}
 	
 	/**
@@ -71,37 +226,56 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 	 * @param floorConfigurations
 	 */
 	public void init(HashMap<String, HashMap<String, String>> elevatorConfiguration, HashMap<String, HashMap<String, String>> floorConfigurations) {
-		//Initialize data structures for elevators
-		for (String elevatorName : elevatorConfiguration.keySet()) {
-			HashMap<String, String> config = elevatorConfiguration.get(elevatorName);
-			
-			this.portsByElevatorName.put(elevatorName, Integer.parseInt(config.get("port")));
-			this.hostByElevatorName.put(elevatorName, config.get("host"));
-			
-			//Initialize elevatorMonitors for each elevator
-			this.elevatorMonitorByElevatorName.put(
-					elevatorName, 
+		//Assign every elevator and floor a dense integer id, all per elevator data structures are indexed by elevator id
+		this.registry = new ElevatorSystemRegistry(elevatorConfiguration, floorConfigurations);
+		this.elevatorMonitors = new ElevatorMonitor[this.registry.getNumberOfElevators()];
+		this.monitoredSchedulerEvents = new MonitoredEventTimer[this.registry.getNumberOfElevators()];
+		
+		this.trafficPatternDetector = new TrafficPatternDetector(this.registry.getNumberOfFloors(), LOBBY_FLOOR);
+		this.trafficMode = TrafficMode.LIGHT;
+		this.parkingOptimizer = new ParkingOptimizer(this.registry.getNumberOfFloors());
+		this.demand = new double[this.registry.getNumberOfFloors() + 1];
+		
+		//Initialize elevatorMonitors for each elevator
+		for (int elevatorId = 0; elevatorId < this.elevatorMonitors.length; elevatorId++) {
+			int startFloor = Integer.parseInt(this.registry.getElevatorAttribute(elevatorId, "startFloor"));
+			this.elevatorMonitors[elevatorId] = 
 					new ElevatorMonitor(
-							elevatorName, 
-							Integer.parseInt(config.get("startFloor")), 
-							Integer.parseInt(config.get("startFloor")), 
+							this.registry.getElevatorName(elevatorId), 
+							elevatorId,
+							startFloor, 
+							startFloor, 
 							Direction.IDLE, 
 							ElevatorStatus.STOPPED, 
 							ElevatorDoorStatus.OPENED,
-							floorConfigurations.size(),
-							Integer.parseInt(config.get("timeBetweenFloors")),
-							Integer.parseInt(config.get("passengerWaitTime")),
-							Integer.parseInt(config.get("doorOperationTime"))));
-
-		}
-		
-		//Initialize data structures for floors
-		for (String floorName : floorConfigurations.keySet()) {
-			HashMap<String, String> config = floorConfigurations.get(floorName);
+							this.registry.getNumberOfFloors(),
+							Integer.parseInt(this.registry.getElevatorAttribute(elevatorId, "timeBetweenFloors")),
+							Integer.parseInt(this.registry.getElevatorAttribute(elevatorId, "passengerWaitTime")),
+							Integer.parseInt(this.registry.getElevatorAttribute(elevatorId, "doorOperationTime")));
+			this.elevatorMonitors[elevatorId].setTripEventBus(this.tripEventBus);
+			this.elevatorMonitors[elevatorId].setClock(this.clock);
 			
-			this.portsByFloorName.put(floorName, Integer.parseInt(config.get("port")));
-			this.hostByFloorName.put(floorName, config.get("host"));
+			//The capacity is optional, an elevator configured without one carries any number of passengers
+			String capacity = this.registry.getElevatorAttribute(elevatorId, "capacity");
+			if (capacity != null) {
+				this.elevatorMonitors[elevatorId].setCapacity(Integer.parseInt(capacity));
+			}
+		}
+	}
+	
+	/**
+	 * Schedule one bank of elevators: idle elevators only park at the floors the bank serves, and the traffic is classified with the bank's lobby.
+	 * Hall calls at the other floors are sent to the other banks' Schedulers (see BankRouter).
+	 * 
+	 * @param bank
+	 */
+	private void restrictToBank(ElevatorBank bank) {
+		this.trafficPatternDetector = new TrafficPatternDetector(this.registry.getNumberOfFloors(), bank.getLobbyFloor());
+		boolean[] servedFloors = new boolean[this.registry.getNumberOfFloors() + 1];
+		for (int floor = 1; floor <= this.registry.getNumberOfFloors(); floor++) {
+			servedFloors[floor] = bank.servesFloor(floor);
 		}
+		this.parkingOptimizer.setServedFloors(servedFloors);
 	}
 	
 	@Override
@@ -109,6 +283,19 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 	 * Add an event to the eventQueue. 
 	 */
 	public synchronized void receiveEvent(Request request) {
+		//Heartbeats are recorded as they arrive rather than queued, so the time between them is not skewed by the events waiting in the queue.
+		//A heartbeat from an elevator which is OUT_OF_SERVICE is queued instead, the scheduler asks the elevator to announce itself (see handleElevatorHeartbeatRequest())
+		if ((request instanceof ElevatorHeartbeatRequest) && this.elevatorHeartbeatReceived((ElevatorHeartbeatRequest) request)) {
+			return;
+		}
+		
+		//A Scheduler which has taken over from this one redirects it too, this Scheduler steps down rather than keep sending requests
+		if (request instanceof SchedulerRedirectRequest) {
+			if (request.getEpoch() > this.epoch) {
+				this.stepDown("Scheduler at " + ((SchedulerRedirectRequest) request).getSchedulerHost() + ":" + ((SchedulerRedirectRequest) request).getSchedulerPort() + " has taken over (epoch " + request.getEpoch() + ").");
+			}
+			return;
+		}
 		eventsQueue.add(request);
 		this.notifyAll();
 	}
@@ -118,6 +305,8 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 	 * Get next event from the eventQueue.
 	 */
 	public synchronized Request getNextEvent() {
+		EventQueueWaitEvent waitEvent = new EventQueueWaitEvent();
+		waitEvent.begin();
 		while (eventsQueue.isEmpty()) {
 			try {
 				this.wait();
@@ -125,7 +314,13 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 				e.printStackTrace();
 			}
 		}
-		return eventsQueue.poll();
+		Request event = eventsQueue.poll();
+		if (waitEvent.shouldCommit()) {
+			waitEvent.component = this.name;
+			waitEvent.queueDepth = eventsQueue.size();
+			waitEvent.commit();
+		}
+		return event;
 	}
 
 	/**
@@ -133,54 +328,314 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 	 * was not cancelled before its deadline was reached. This method will handle the missed deadline 
 	 * for the monitoredSchedulerEvent.
 	 * 
-	 * @param subsystemName
+	 * @param elevatorId
 	 */
-	public synchronized void monitoredEventTimerComplete(String subsystemName) {		
-		//Check to ensure a monitoredEventTimer was created for this subsystemName
-		MonitoredEventTimer monitoredEventTimer = this.monitoredSchedulerEvents.get(subsystemName);
+	public synchronized void monitoredEventTimerComplete(int elevatorId) {		
+		//Check to ensure a monitoredEventTimer was created for this elevator
+		MonitoredEventTimer monitoredEventTimer = this.monitoredSchedulerEvents[elevatorId];
 		if (monitoredEventTimer == null) {
 			return;
 		}
 		
+		MonitoredEventTimerEvent timerEvent = new MonitoredEventTimerEvent();
+		timerEvent.begin();
+		
+		//Journal the timeout before acting on it
+		this.journalRecord(SchedulerJournal.MONITORED_EVENT_TIMEOUT, ByteBuffer.allocate(4).putInt(elevatorId).array());
+		this.handleMonitoredEventTimeout(monitoredEventTimer);
+		this.updateElevatorUtilisation();
+		this.tripEventBus.publish();
+		
+		this.commitMonitoredEventTimerEvent(timerEvent, monitoredEventTimer, MonitoredEventTimerEvent.FIRED);
+	}
+	
+	/**
+	 * Commit a flight recorder event for a MonitoredEventTimer which fired or was cancelled.
+	 * 
+	 * @param timerEvent
+	 * @param monitoredEventTimer
+	 * @param outcome
+	 */
+	private void commitMonitoredEventTimerEvent(MonitoredEventTimerEvent timerEvent, MonitoredEventTimer monitoredEventTimer, String outcome) {
+		if (timerEvent.shouldCommit()) {
+			timerEvent.elevator = this.elevatorMonitors[monitoredEventTimer.getMonitoredElevatorId()].getElevatorName();
+			timerEvent.monitoredEvent = monitoredEventTimer.getMonitoredSchedulerEvent().name();
+			timerEvent.outcome = outcome;
+			timerEvent.deadline = monitoredEventTimer.getDuration();
+			timerEvent.commit();
+		}
+	}
+	
+	/**
+	 * Handle the missed deadline for a monitoredSchedulerEvent.
+	 * 
+	 * @param monitoredEventTimer
+	 */
+	private void handleMonitoredEventTimeout(MonitoredEventTimer monitoredEventTimer) {
+		ElevatorMonitor elevatorMonitor = this.elevatorMonitors[monitoredEventTimer.getMonitoredElevatorId()];
+		String subsystemName = elevatorMonitor.getElevatorName();
+		
+		//This timer has fired, it is no longer outstanding
+		this.monitoredSchedulerEvents[elevatorMonitor.getElevatorId()] = null;
+		
 		MonitoredSchedulerEvent monitoredSchedulerEvent = monitoredEventTimer.getMonitoredSchedulerEvent();
 		switch (monitoredSchedulerEvent) {
 			case ELEVATOR_MOVE:
-				ElevatorMonitor elevatorMonitor = this.elevatorMonitorByElevatorName.get(subsystemName);
-				
 				//If an elevator response has not been received for an ELEVATOR_MOVE monitoredEvent, then set the Elevator as OUT_OF_SERVICE
-				elevatorMonitor.updateElevatorStatus(ElevatorStatus.OUT_OF_SERVICE);
 				this.consoleOutput("[RESPONSE NOT RECEIVED FROM " + subsystemName + "] Expected floor arrival notice. Elevator stuck between floors. " + subsystemName + " is OUT OF SERVICE");
-
-				//Rescheduled any pending trips (that have not yet begun, in other words, pickup hasn't occurred) from this elevator.
-				ArrayList<TripRequest> reassignableTripRequests = elevatorMonitor.unassignPendingTripRequests();
-				for (TripRequest tripRequest : reassignableTripRequests) {
-					this.consoleOutput("Reassigning pending trip request " + tripRequest + " from " + subsystemName + "...");
-					this.eventTripRequestReceived(tripRequest);
-				}
+				this.takeElevatorOutOfService(elevatorMonitor);
 				break;
 			case ELEVATOR_OPEN_DOOR:
 				//Resend elevator door open
 				this.consoleOutput("[RESPONSE NOT RECEIVED FROM " + subsystemName + "] Expected door open confirmation");
 				this.consoleOutput(RequestEvent.SENT, subsystemName, "Open elevator door.");
-				this.sendToServer(new ElevatorDoorRequest(subsystemName, ElevatorDoorStatus.OPENED), this.hostByElevatorName.get(subsystemName), this.portsByElevatorName.get(subsystemName));
+				this.sendToElevator(new ElevatorDoorRequest(subsystemName, ElevatorDoorStatus.OPENED), elevatorMonitor);
 				break;
 			case ELEVATOR_CLOSE_DOOR:
 				//resend elevator door close
 				this.consoleOutput("[RESPONSE NOT RECEIVED FROM " + subsystemName + "] Expected door closed confirmation");
 				this.consoleOutput(RequestEvent.SENT, subsystemName, "Close elevator door.");
-				this.sendToServer(new ElevatorDoorRequest(subsystemName, ElevatorDoorStatus.CLOSED), this.hostByElevatorName.get(subsystemName), this.portsByElevatorName.get(subsystemName));
+				this.sendToElevator(new ElevatorDoorRequest(subsystemName, ElevatorDoorStatus.CLOSED), elevatorMonitor);
 				break;
 		}
 	}
 	
+	/**
+	 * Set an elevator as OUT_OF_SERVICE, and reassign its pending trips (that have not yet begun, in other words, pickup hasn't occurred) to other elevators.
+	 * 
+	 * @param elevatorMonitor
+	 */
+	private void takeElevatorOutOfService(ElevatorMonitor elevatorMonitor) {
+		elevatorMonitor.updateElevatorStatus(ElevatorStatus.OUT_OF_SERVICE);
+		elevatorMonitor.getTravelTimeModel().cancelObservations();
+		
+		ArrayList<TripRequest> reassignableTripRequests = elevatorMonitor.unassignPendingTripRequests();
+		for (TripRequest tripRequest : reassignableTripRequests) {
+			this.consoleOutput("Reassigning pending trip request " + tripRequest + " from " + elevatorMonitor.getElevatorName() + "...");
+			this.eventTripRequestReceived(tripRequest);
+		}
+	}
+	
+	/**
+	 * Register the Scheduler's metrics (see MetricsRegistry). Gauges are read under the Scheduler's lock, only when the metrics are scraped.
+	 */
+	private void registerMetrics() {
+		MetricsRegistry metricsRegistry = MetricsRegistry.getDefault();
+		this.eventDispatcher.enableMetrics(metricsRegistry, this.name);
+		this.elevatorBusyTimes = new long[this.elevatorMonitors.length];
+		this.elevatorBusySince = new long[this.elevatorMonitors.length];
+		Arrays.fill(this.elevatorBusySince, -1);
+		this.metricsStartTime = System.nanoTime();
+		
+		metricsRegistry.gauge("elevator_event_queue_depth", "Events received and waiting to be handled.", () -> {
+			synchronized (this) {
+				return this.eventsQueue.size();
+			}
+		}, "component", this.name);
+		metricsRegistry.gauge("scheduler_pending_trip_requests", "Trip requests which could not be assigned to an elevator yet.", () -> {
+			synchronized (this) {
+				return this.pendingTripRequests.size();
+			}
+		}, "component", this.name);
+		metricsRegistry.gauge("scheduler_elevators_out_of_service", "Elevators which are OUT_OF_SERVICE.", () -> {
+			synchronized (this) {
+				int outOfService = 0;
+				for (ElevatorMonitor elevatorMonitor : this.elevatorMonitors) {
+					if (elevatorMonitor.getElevatorStatus() == ElevatorStatus.OUT_OF_SERVICE) {
+						outOfService++;
+					}
+				}
+				return outOfService;
+			}
+		}, "component", this.name);
+		metricsRegistry.gauge("scheduler_monitored_events_outstanding", "Monitored events waiting for a response from an elevator.", () -> {
+			synchronized (this) {
+				int outstanding = 0;
+				for (MonitoredEventTimer monitoredEventTimer : this.monitoredSchedulerEvents) {
+					if (monitoredEventTimer != null) {
+						outstanding++;
+					}
+				}
+				return outstanding;
+			}
+		}, "component", this.name);
+		metricsRegistry.counter("scheduler_hall_calls_coalesced_total", "Hall calls served by a hall call already waiting at the same floor, in the same direction.", () -> {
+			synchronized (this) {
+				return this.coalescedHallCalls;
+			}
+		}, "component", this.name);
+		metricsRegistry.counter("scheduler_passengers_left_behind_total", "Passengers who could not board a full elevator and waited for another.", () -> {
+			synchronized (this) {
+				return this.leftBehindPassengers;
+			}
+		}, "component", this.name);
+		metricsRegistry.gauge("scheduler_monitored_event_timer_backlog", "Monitored event timers started which have not elapsed yet, including cancelled timers.", 
+				() -> this.monitoredEventTimerService.getBacklog(), "component", this.name);
+		
+		for (ElevatorMonitor elevatorMonitor : this.elevatorMonitors) {
+			int elevatorId = elevatorMonitor.getElevatorId();
+			metricsRegistry.counter("scheduler_elevator_busy_seconds_total", "Time the elevator has been busy (moving or with trips assigned).", 
+					() -> this.getElevatorBusyTime(elevatorId) / 1e9, "component", this.name, "elevator", elevatorMonitor.getElevatorName());
+			metricsRegistry.gauge("scheduler_elevator_utilisation", "Fraction of the time since the Scheduler started that the elevator has been busy.", 
+					() -> (double) this.getElevatorBusyTime(elevatorId) / Math.max(System.nanoTime() - this.metricsStartTime, 1), "component", this.name, "elevator", elevatorMonitor.getElevatorName());
+			metricsRegistry.gauge("scheduler_elevator_load", "Passengers on board the elevator.", () -> {
+				synchronized (this) {
+					return elevatorMonitor.getLoad();
+				}
+			}, "component", this.name, "elevator", elevatorMonitor.getElevatorName());
+		}
+	}
+	
+	/**
+	 * Update the time each elevator has been busy, this is called after anything which can change an elevator's state.
+	 */
+	private void updateElevatorUtilisation() {
+		if (this.elevatorBusyTimes == null) {
+			return;
+		}
+		long time = System.nanoTime();
+		for (ElevatorMonitor elevatorMonitor : this.elevatorMonitors) {
+			int elevatorId = elevatorMonitor.getElevatorId();
+			boolean busy = (elevatorMonitor.getElevatorStatus() == ElevatorStatus.MOVING) || 
+					((elevatorMonitor.getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) && !elevatorMonitor.isTripQueueEmpty());
+			if (busy && (this.elevatorBusySince[elevatorId] < 0)) {
+				this.elevatorBusySince[elevatorId] = time;
+			} else if (!busy && (this.elevatorBusySince[elevatorId] >= 0)) {
+				this.elevatorBusyTimes[elevatorId] += time - this.elevatorBusySince[elevatorId];
+				this.elevatorBusySince[elevatorId] = -1;
+			}
+		}
+	}
+	
+	/**
+	 * Get the time (nanoseconds) an elevator has been busy, including the time since it last became busy.
+	 * @param elevatorId
+	 * @return
+	 */
+	private synchronized long getElevatorBusyTime(int elevatorId) {
+		long busyTime = this.elevatorBusyTimes[elevatorId];
+		if (this.elevatorBusySince[elevatorId] >= 0) {
+			busyTime += System.nanoTime() - this.elevatorBusySince[elevatorId];
+		}
+		return busyTime;
+	}
+	
+	/**
+	 * Start checking the elevators' heartbeats (if configured). An elevator is suspected to have failed once the PhiAccrualFailureDetector's phi 
+	 * for it exceeds phiThreshold, this is checked four times per heartbeat interval.
+	 * 
+	 * @param schedulerConfiguration
+	 */
+	private void startElevatorHealthMonitor(HashMap<String, String> schedulerConfiguration) {
+		if (schedulerConfiguration.get("elevatorHeartbeatInterval") == null) {
+			return;
+		}
+		int heartbeatInterval = Integer.parseInt(schedulerConfiguration.get("elevatorHeartbeatInterval"));
+		this.failureDetector = new PhiAccrualFailureDetector(this.elevatorMonitors.length, Double.parseDouble(schedulerConfiguration.get("phiThreshold")), Long.parseLong(schedulerConfiguration.get("acceptableHeartbeatPause")), heartbeatInterval);
+		
+		Thread healthMonitorThread = new Thread(() -> {
+			while (true) {
+				try {
+					Thread.sleep(Math.max(heartbeatInterval / 4, 1));
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+				
+				long time = System.nanoTime() / 1000000;
+				for (int elevatorId = 0; elevatorId < this.elevatorMonitors.length; elevatorId++) {
+					if (this.failureDetector.isSuspected(elevatorId, time)) {
+						this.elevatorHeartbeatTimeout(elevatorId);
+					}
+				}
+			}
+		}, this.name + "_health");
+		healthMonitorThread.setDaemon(true);
+		healthMonitorThread.start();
+	}
+	
+	/**
+	 * Record a heartbeat from an elevator.
+	 * @param request
+	 * @return false if the elevator is OUT_OF_SERVICE, the heartbeat is not recorded and should be handled as an event
+	 */
+	private boolean elevatorHeartbeatReceived(ElevatorHeartbeatRequest request) {
+		int elevatorId = this.registry.getElevatorId(request.getElevatorName());
+		if (elevatorId < 0) {
+			return true;
+		}
+		
+		//An elevator which is OUT_OF_SERVICE is no longer monitored
+		if (this.elevatorMonitors[elevatorId].getElevatorStatus() == ElevatorStatus.OUT_OF_SERVICE) {
+			return false;
+		}
+		if (this.failureDetector != null) {
+			this.failureDetector.heartbeat(elevatorId, System.nanoTime() / 1000000);
+		}
+		return true;
+	}
+	
+	/**
+	 * This method is called when an elevator's heartbeats have stopped (the PhiAccrualFailureDetector suspects it has failed).
+	 * 
+	 * @param elevatorId
+	 */
+	private synchronized void elevatorHeartbeatTimeout(int elevatorId) {
+		//Check the elevator has not already been set OUT_OF_SERVICE, ie. by a monitored event timeout
+		if (this.elevatorMonitors[elevatorId].getElevatorStatus() == ElevatorStatus.OUT_OF_SERVICE) {
+			this.failureDetector.reset(elevatorId);
+			return;
+		}
+		
+		//Journal the timeout before acting on it
+		this.journalRecord(SchedulerJournal.HEARTBEAT_TIMEOUT, ByteBuffer.allocate(4).putInt(elevatorId).array());
+		this.handleHeartbeatTimeout(elevatorId);
+		this.updateElevatorUtilisation();
+		this.tripEventBus.publish();
+	}
+	
+	/**
+	 * Set an elevator which has stopped sending heartbeats as OUT_OF_SERVICE. Any outstanding monitored event for the elevator is cancelled, 
+	 * the elevator is not expected to respond.
+	 * 
+	 * @param elevatorId
+	 */
+	private void handleHeartbeatTimeout(int elevatorId) {
+		ElevatorMonitor elevatorMonitor = this.elevatorMonitors[elevatorId];
+		if (this.failureDetector != null) {
+			this.failureDetector.reset(elevatorId);
+		}
+		this.removeMonitoredEvent(elevatorId);
+		
+		this.consoleOutput("[NO HEARTBEAT FROM " + elevatorMonitor.getElevatorName() + "] Elevator has stopped responding. " + elevatorMonitor.getElevatorName() + " is OUT OF SERVICE");
+		this.takeElevatorOutOfService(elevatorMonitor);
+	}
+	
 	/**
 	 * Add a MonitoredEventTimer for a MonitoredEvent. 
 	 * 
-	 * @param subsystemName
+	 * @param elevatorId
 	 * @param eventTimer
 	 */
-	private synchronized void addMonitoredEvent(String subsystemName, MonitoredEventTimer eventTimer) {
-		this.monitoredSchedulerEvents.put(subsystemName, eventTimer);
+	private synchronized void addMonitoredEvent(int elevatorId, MonitoredEventTimer eventTimer) {
+		this.monitoredSchedulerEvents[elevatorId] = eventTimer;
+	}
+	
+	/**
+	 * Create a MonitoredEventTimer for a MonitoredEvent on an elevator, and start it.
+	 * While the Scheduler is recovering the timer is created but not started, timers still outstanding once recovery is complete are started then.
+	 * 
+	 * @param elevatorMonitor
+	 * @param monitoredSchedulerEvent
+	 * @param expectedDuration	- expected time (milliseconds) for the elevator to respond, the deadline is extended by the monitoredSchedulerDelayFactor
+	 */
+	private void startMonitoredEvent(ElevatorMonitor elevatorMonitor, MonitoredSchedulerEvent monitoredSchedulerEvent, int expectedDuration) {
+		MonitoredEventTimer monitoredEventTimer = new MonitoredEventTimer(this, elevatorMonitor.getElevatorId(), monitoredSchedulerEvent, (int) (expectedDuration * this.monitoredSchedulerDelayFactor));
+		this.addMonitoredEvent(elevatorMonitor.getElevatorId(), monitoredEventTimer);
+		
+		//Start the monitored event timer
+		if (!this.recovering) {
+			this.monitoredEventTimerService.start(monitoredEventTimer);
+		}
 	}
 	
 	/**
@@ -188,14 +643,15 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 	 * This will cancel a MonitoredEventTimer, then remove it from the MonitoredSchedulerEvents.
 	 * This is to be called when an expected response for a monitored event from a subsystem has been received.
 	 * 
-	 * @param subsystemName
+	 * @param elevatorId
 	 */
-	private synchronized void removeMonitoredEvent(String subsystemName) {
-		MonitoredEventTimer monitoredEventTimer = this.monitoredSchedulerEvents.get(subsystemName);
+	private synchronized void removeMonitoredEvent(int elevatorId) {
+		MonitoredEventTimer monitoredEventTimer = this.monitoredSchedulerEvents[elevatorId];
 		if (monitoredEventTimer != null) {
 			monitoredEventTimer.cancel();
+			this.commitMonitoredEventTimerEvent(new MonitoredEventTimerEvent(), monitoredEventTimer, MonitoredEventTimerEvent.CANCELLED);
 		}
-		this.monitoredSchedulerEvents.remove(subsystemName);
+		this.monitoredSchedulerEvents[elevatorId] = null;
 	}
 	
 	@Override
@@ -215,149 +671,428 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 	}
 	
 	/**
-	 * This method will determine the type of Request and call the appropriate event handler method for this request.
+	 * Register the event handler for each type of Request received by the Scheduler.
+	 * Events are routed to these handlers by request type code (see handleEvent()).
+	 */
+	private void registerEventHandlers() {
+		this.eventDispatcher = new RequestDispatcher();
+		this.eventDispatcher.register(FloorButtonRequest.getRequestType(), this::handleFloorButtonRequest);
+		this.eventDispatcher.register(ElevatorArrivalRequest.getRequestType(), this::handleElevatorArrivalRequest);
+		this.eventDispatcher.register(ElevatorDoorRequest.getRequestType(), this::handleElevatorDoorRequest);
+		this.eventDispatcher.register(ElevatorMotorRequest.getRequestType(), this::handleElevatorMotorRequest);
+		this.eventDispatcher.register(ElevatorDestinationRequest.getRequestType(), this::handleElevatorDestinationRequest);
+		this.eventDispatcher.register(ElevatorWaitRequest.getRequestType(), this::handleElevatorWaitRequest);
+		this.eventDispatcher.register(ElevatorHeartbeatRequest.getRequestType(), this::handleElevatorHeartbeatRequest);
+		this.eventDispatcher.register(ElevatorAnnounceRequest.getRequestType(), this::handleElevatorAnnounceRequest);
+	}
+	
+	/**
+	 * This method will pass the Request to the event handler registered for this type of request.
 	 * @param event
 	 */
-	private void handleEvent(Request event) {
-		//switch statement corresponding to different "event handlers"
-		if (event instanceof FloorButtonRequest) {
-			FloorButtonRequest request = (FloorButtonRequest) event;
-			
-			this.consoleOutput(RequestEvent.RECEIVED, "Floor " + request.getFloorName(), "Trip request from floor " + request.getFloorName() + " in direction " + request.getDirection() + ".");
-			this.eventTripRequestReceived(Integer.parseInt(request.getFloorName()), request.getDirection());
-		} else if (event instanceof ElevatorArrivalRequest) {
-			ElevatorArrivalRequest request = (ElevatorArrivalRequest) event;
-			
-			//Only handle this event if the elevatorStatus is not OUT OF SERVICE
-			if (this.elevatorMonitorByElevatorName.get(request.getElevatorName()).getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) {
-				this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "Elevator arrival notice at floor " + request.getFloorName() + ".");
-				this.eventElevatorArrivalNotice(request.getElevatorName(), Integer.parseInt(request.getFloorName()));
-			} else {
-				this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "[OUT OF SERVICE - Ignored] Elevator arrival notice at floor " + request.getFloorName() + ".");
-			}
-		} else if (event instanceof ElevatorDoorRequest) {
-			ElevatorDoorRequest request = (ElevatorDoorRequest) event;
-			
-			//Only handle this event if the elevatorStatus is not OUT OF SERVICE
-			if (this.elevatorMonitorByElevatorName.get(request.getElevatorName()).getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) {
-				this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "Elevator door is " + request.getRequestAction() + ".");
-				if (request.getRequestAction() == ElevatorDoorStatus.OPENED) {
-					this.eventElevatorDoorOpened(request.getElevatorName());
-				} else if (request.getRequestAction() == ElevatorDoorStatus.CLOSED) {
-					this.eventElevatorDoorClosed(request.getElevatorName());
-				}
-			} else {
-				this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "[OUT OF SERVICE - Ignored] Elevator door is " + request.getRequestAction() + ".");
-			}
-		} else if (event instanceof ElevatorMotorRequest) {
-			ElevatorMotorRequest request = (ElevatorMotorRequest) event;
-
-			//Only handle this event if the elevatorStatus is not OUT OF SERVICE
-			if (this.elevatorMonitorByElevatorName.get(request.getElevatorName()).getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) {
-				if (request.getRequestAction() == Direction.IDLE) {
-					this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "Elevator has stopped.");
-					this.eventElevatorStopped(request.getElevatorName());
-				} else {
-					this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "Elevator is moving " + request.getRequestAction() + ".");
-				}
-			} else {
-				this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "[OUT OF SERVICE - Ignored] Elevator is " + request.getRequestAction() + ".");
-			}
-		} else if (event instanceof ElevatorDestinationRequest) {
-			ElevatorDestinationRequest request = (ElevatorDestinationRequest) event;
-			
-			//Only handle this event if the elevatorStatus is not OUT OF SERVICE
-			if (this.elevatorMonitorByElevatorName.get(request.getElevatorName()).getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) {
-				this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "Destination request from pickup floor: " + request.getPickupFloor() + " to destination floor: " + request.getDestinationFloor());
-				this.eventElevatorDestinationRequest(request.getElevatorName(), Integer.parseInt(request.getPickupFloor()), Integer.parseInt(request.getDestinationFloor()));
-			} else {
-				this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "[OUT OF SERVICE - Ignored] Destination request from pickup floor: " + request.getPickupFloor() + " to destination floor: " + request.getDestinationFloor());
-			}
-		} else if (event instanceof ElevatorWaitRequest) {
-			ElevatorWaitRequest request = (ElevatorWaitRequest) event;
-			
-			//Only handle this event if the elevatorStatus is not OUT OF SERVICE
-			if (this.elevatorMonitorByElevatorName.get(request.getElevatorName()).getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) {
-				this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "Elevator has completed its wait.");
-				this.eventElevatorWaitComplete(request.getElevatorName());
-			} else {
-				this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "[OUT OF SERVICE - Ignored] Elevator has completed its wait.");
-			}
+	synchronized void handleEvent(Request event) {
+		if (this.steppedDown) {
+			return;
 		}
+		long dispatchStartTime = System.nanoTime();
+		EventDispatchEvent dispatchEvent = new EventDispatchEvent();
+		dispatchEvent.begin();
+		
+		//Journal the request before it changes any state
+		this.journalRequest(event);
+		
+		this.currentEvent = event;
+		this.eventDispatcher.dispatch(event);
+		this.currentEvent = null;
+		this.updateElevatorUtilisation();
+		this.tripEventBus.publish();
 		
 		//Set the end time for the request, and add it the event history.
 		event.setEndTime();
 		this.addCompletedEvent(event);
+		
+		if (dispatchEvent.shouldCommit()) {
+			dispatchEvent.scheduler = this.name;
+			dispatchEvent.requestType = event.getClass().getSimpleName();
+			dispatchEvent.queueTime = (event.getStartTime() != 0) ? dispatchStartTime - event.getStartTime() : 0;
+			dispatchEvent.commit();
+		}
+		
+		//Periodically take a snapshot so the journal tail to replay on recovery stays short
+		if ((this.journal != null) && (this.journal.getRecordCount() >= this.snapshotInterval)) {
+			this.takeSnapshot();
+		}
 	}
 	
 	/**
+	 * Get the ElevatorMonitor for an elevator name received in a request.
+	 * This should be called once per event, the ElevatorMonitor is then passed to the event methods.
 	 * 
-	 * @param event
+	 * @param elevatorName
+	 * @return
 	 */
-	private void addCompletedEvent(Request event) {
-		ArrayList<Double> elapsedTimes = this.eventElapsedTimes.get(event.getClass());
-		if (elapsedTimes == null) {
-			elapsedTimes = new ArrayList<Double>();
-			this.eventElapsedTimes.put(event.getClass(), elapsedTimes);
+	private ElevatorMonitor getElevatorMonitor(String elevatorName) {
+		return this.elevatorMonitors[this.registry.getElevatorId(elevatorName)];
+	}
+	
+	private void handleFloorButtonRequest(FloorButtonRequest request) {
+		this.consoleOutput(RequestEvent.RECEIVED, "Floor " + request.getFloorName(), "Trip request from floor " + request.getFloorName() + " in direction " + request.getDirection() + ".");
+		int pickupFloorNumber = Integer.parseInt(request.getFloorName());
+		this.trafficPatternDetector.hallCallReceived(pickupFloorNumber, request.getDirection(), this.clock.currentTimeMillis());
+		this.updateTrafficMode();
+		
+		//In destination dispatch mode the destination entered at the floor terminal is used to plan the trip, otherwise it is only known once the passenger boards
+		Integer destinationFloorNumber = null;
+		if (this.planningStrategy.usesHallCallDestinations()) {
+			destinationFloorNumber = this.getHallCallDestination(pickupFloorNumber, request);
 		}
-		elapsedTimes.add(event.getElapsedTime());
-		this.eventElapsedTimes.put(event.getClass(), elapsedTimes);
+		this.eventTripRequestReceived(pickupFloorNumber, destinationFloorNumber, request.getDirection());
 	}
 	
 	/**
-	 * Calculates the Scheduler's response mean and variance for every each request type. Displays this information to console. 
-	 * All time values are in milliseconds.
-	 * 
+	 * Classify the recent hall calls, and when the traffic mode changes, move the idle elevators to the parking floors of the new mode.
 	 */
-	public void displaySchedulerResponseTimes() {
-		System.out.println("\n\n-----------------------------------------");
-		System.out.println("Displaying Scheduler Response Data");
-		System.out.printf("%-30s %-22s %n", "Event Type", "Response(ms)");
-		for (Class<?> eventType: this.eventElapsedTimes.keySet()) {
-			ArrayList<Double> elapsedTimes = this.eventElapsedTimes.get(eventType);
-			System.out.printf("%-30s %-22s %n", eventType.getSimpleName(), "");
-			for (Double elapsedTime : elapsedTimes) {
-				System.out.printf("%-30s %-22s %n", "", elapsedTime);
-			}
-		}
-		
-		System.out.println("\n\n-----------------------------------------");
-		System.out.println("Displaying Scheduler Response Summary");
-		System.out.printf("%-30s %-10s %-22s %-18s %n", "Event Type", "# of Events", "Mean Response(ms)", "Variance(ms^2)");
-		for (Class<?> eventType: this.eventElapsedTimes.keySet()) {
-			ArrayList<Double> elapsedTimes = this.eventElapsedTimes.get(eventType);
-			Double mean = this.calculateMean(elapsedTimes);
-			Double variance = this.calculateVariance(elapsedTimes, mean);
-			System.out.printf("%-30s %10d %22.5f %18.5f %n", eventType.getSimpleName(), elapsedTimes.size(), mean, variance);
+	private void updateTrafficMode() {
+		TrafficMode trafficMode = this.trafficPatternDetector.getTrafficMode(this.clock.currentTimeMillis());
+		if (trafficMode == this.trafficMode) {
+			return;
 		}
+		this.consoleOutput("Traffic mode changed from " + this.trafficMode + " to " + trafficMode + ".");
+		this.trafficMode = trafficMode;
+		this.updateParkingFloors();
 	}
 	
 	/**
-	 * Calculates and returns mean average value of a list containing elapsedTimes
-	 * 
-	 * @param elapsedTimes
-	 * @return mean in nanoseconds
+	 * Select a new parking floor for each idle in service elevator (one with no trips) for the current traffic mode, one elevator at a time.
+	 * An elevator with trips selects its parking floor once it has none left.
 	 */
-	private Double calculateMean(ArrayList<Double> elapsedTimes) {
-		Double responseTotals = 0.0;
-		
-		if (elapsedTimes.size() > 0) {
-			for (Double elapsedTime : elapsedTimes) {
-				responseTotals += elapsedTime;
+	private void updateParkingFloors() {
+		for (ElevatorMonitor elevatorMonitor : this.elevatorMonitors) {
+			if ((elevatorMonitor.getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) && elevatorMonitor.isTripQueueEmpty()) {
+				this.parkElevator(elevatorMonitor, this.selectParkingFloor(elevatorMonitor));
 			}
-			return responseTotals/elapsedTimes.size();
 		}
-		return 0.0;
 	}
 	
 	/**
-	 * Calculates and returns the variance of a list containing elapsedTimes
+	 * Select the floor an idle elevator parks at:
+	 * 	- UP_PEAK: the lobby, where the next passengers arrive.
+	 * 	- Otherwise: the floor which, together with the other idle elevators, is nearest the recent hall calls (see ParkingOptimizer).
+	 * 	  Elevators park at their starting floor when there has been no recent demand.
 	 * 
-	 * @param elapsedTimes
-	 * @param mean
+	 * @param elevatorMonitor
 	 * @return
 	 */
-	private Double calculateVariance(ArrayList<Double> elapsedTimes, Double mean) {
+	private int selectParkingFloor(ElevatorMonitor elevatorMonitor) {
+		if (this.trafficMode == TrafficMode.UP_PEAK) {
+			return this.trafficPatternDetector.getLobbyFloor();
+		}
+		
+		ArrayList<Integer> parkedFloors = new ArrayList<Integer>();
+		for (ElevatorMonitor otherElevatorMonitor : this.elevatorMonitors) {
+			if ((otherElevatorMonitor != elevatorMonitor) && (otherElevatorMonitor.getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) && otherElevatorMonitor.isTripQueueEmpty()) {
+				parkedFloors.add(otherElevatorMonitor.getElevatorParkingFloorLocation());
+			}
+		}
+		this.trafficPatternDetector.getArrivalRates(this.clock.currentTimeMillis(), this.demand);
+		return this.parkingOptimizer.selectParkingFloor(this.demand, parkedFloors, elevatorMonitor.getElevatorFloorLocation(), elevatorMonitor.getElevatorStartingFloorLocation());
+	}
+	
+	/**
+	 * Change an elevator's parking floor. If the elevator is idle and parked (stopped with no trips) at another floor, it is sent to the new parking floor.
+	 * 
+	 * @param elevatorMonitor
+	 * @param parkingFloor
+	 */
+	private void parkElevator(ElevatorMonitor elevatorMonitor, int parkingFloor) {
+		if (elevatorMonitor.getElevatorParkingFloorLocation() == parkingFloor) {
+			return;
+		}
+		elevatorMonitor.updateElevatorParkingFloor(parkingFloor);
+		
+		String elevatorName = elevatorMonitor.getElevatorName();
+		if (elevatorMonitor.isTripQueueEmpty() && (elevatorMonitor.getElevatorStatus() == ElevatorStatus.STOPPED) && (elevatorMonitor.getElevatorDirection() == Direction.IDLE)
+				&& (elevatorMonitor.getElevatorFloorLocation() != parkingFloor)) {
+			this.consoleOutput(elevatorName + " is idle, moving it to its parking floor [" + parkingFloor + "].");
+			
+			//The elevator is no longer waiting, so it does not close its door a second time if a trip request is assigned to it before the door has closed
+			elevatorMonitor.updateElevatorDirection(elevatorMonitor.getNextElevatorDirection());
+			if (elevatorMonitor.getElevatorState().getDoorStatus() == ElevatorDoorStatus.OPENED) {
+				this.consoleOutput(RequestEvent.SENT, elevatorName, "Close elevator door.");
+				this.sendToElevator(new ElevatorDoorRequest(elevatorName, ElevatorDoorStatus.CLOSED), elevatorMonitor);
+				
+				//Monitor the Elevator Close Door request
+				this.startMonitoredEvent(elevatorMonitor, MonitoredSchedulerEvent.ELEVATOR_CLOSE_DOOR, elevatorMonitor.getExpectedDoorOperationTime());
+			} else {
+				this.eventElevatorDoorClosed(elevatorMonitor);
+			}
+		}
+	}
+	
+	/**
+	 * Get the destination a passenger entered at the floor terminal, if it is a floor in the direction of the trip request.
+	 * @param pickupFloorNumber
+	 * @param request
+	 * @return the destination floor, or null if it is missing or invalid (the trip request is then handled as a conventional hall call)
+	 */
+	private Integer getHallCallDestination(int pickupFloorNumber, FloorButtonRequest request) {
+		int destinationFloorNumber;
+		try {
+			destinationFloorNumber = Integer.parseInt(request.getDestinationFloor());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		if ((destinationFloorNumber < 1) || (destinationFloorNumber > this.registry.getNumberOfFloors())) {
+			return null;
+		}
+		if ((request.getDirection() == Direction.UP) ? (destinationFloorNumber <= pickupFloorNumber) : (destinationFloorNumber >= pickupFloorNumber)) {
+			return null;
+		}
+		return destinationFloorNumber;
+	}
+	
+	private void handleElevatorArrivalRequest(ElevatorArrivalRequest request) {
+		ElevatorMonitor elevatorMonitor = this.getElevatorMonitor(request.getElevatorName());
+		
+		//Only handle this event if the elevatorStatus is not OUT OF SERVICE
+		if (elevatorMonitor.getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) {
+			this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "Elevator arrival notice at floor " + request.getFloorName() + ".");
+			this.observeResponseReceived(request, elevatorMonitor);
+			this.eventElevatorArrivalNotice(elevatorMonitor, Integer.parseInt(request.getFloorName()));
+		} else {
+			this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "[OUT OF SERVICE - Ignored] Elevator arrival notice at floor " + request.getFloorName() + ".");
+			this.requestElevatorAnnouncement(elevatorMonitor);
+		}
+	}
+	
+	private void handleElevatorDoorRequest(ElevatorDoorRequest request) {
+		ElevatorMonitor elevatorMonitor = this.getElevatorMonitor(request.getElevatorName());
+		
+		//Only handle this event if the elevatorStatus is not OUT OF SERVICE
+		if (elevatorMonitor.getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) {
+			this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "Elevator door is " + request.getRequestAction() + ".");
+			this.observeResponseReceived(request, elevatorMonitor);
+			if (request.getRequestAction() == ElevatorDoorStatus.OPENED) {
+				this.eventElevatorDoorOpened(elevatorMonitor);
+			} else if (request.getRequestAction() == ElevatorDoorStatus.CLOSED) {
+				this.eventElevatorDoorClosed(elevatorMonitor);
+			}
+		} else {
+			this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "[OUT OF SERVICE - Ignored] Elevator door is " + request.getRequestAction() + ".");
+			this.requestElevatorAnnouncement(elevatorMonitor);
+		}
+	}
+	
+	private void handleElevatorMotorRequest(ElevatorMotorRequest request) {
+		ElevatorMonitor elevatorMonitor = this.getElevatorMonitor(request.getElevatorName());
+		
+		//Only handle this event if the elevatorStatus is not OUT OF SERVICE
+		if (elevatorMonitor.getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) {
+			if (request.getRequestAction() == Direction.IDLE) {
+				this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "Elevator has stopped.");
+				this.eventElevatorStopped(elevatorMonitor);
+			} else {
+				this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "Elevator is moving " + request.getRequestAction() + ".");
+			}
+		} else {
+			this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "[OUT OF SERVICE - Ignored] Elevator is " + request.getRequestAction() + ".");
+			this.requestElevatorAnnouncement(elevatorMonitor);
+		}
+	}
+	
+	private void handleElevatorDestinationRequest(ElevatorDestinationRequest request) {
+		ElevatorMonitor elevatorMonitor = this.getElevatorMonitor(request.getElevatorName());
+		
+		//Only handle this event if the elevatorStatus is not OUT OF SERVICE
+		if (elevatorMonitor.getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) {
+			this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "Destination request from pickup floor: " + request.getPickupFloor() + " to destination floor: " + request.getDestinationFloor());
+			this.eventElevatorDestinationRequest(elevatorMonitor, Integer.parseInt(request.getPickupFloor()), Integer.parseInt(request.getDestinationFloor()));
+		} else {
+			this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "[OUT OF SERVICE - Ignored] Destination request from pickup floor: " + request.getPickupFloor() + " to destination floor: " + request.getDestinationFloor());
+			this.requestElevatorAnnouncement(elevatorMonitor);
+		}
+	}
+	
+	private void handleElevatorWaitRequest(ElevatorWaitRequest request) {
+		ElevatorMonitor elevatorMonitor = this.getElevatorMonitor(request.getElevatorName());
+		
+		//Only handle this event if the elevatorStatus is not OUT OF SERVICE
+		if (elevatorMonitor.getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) {
+			this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "Elevator has completed its wait.");
+			this.observeResponseReceived(request, elevatorMonitor);
+			this.eventElevatorWaitComplete(elevatorMonitor);
+		} else {
+			this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "[OUT OF SERVICE - Ignored] Elevator has completed its wait.");
+			this.requestElevatorAnnouncement(elevatorMonitor);
+		}
+	}
+	
+	private void handleElevatorHeartbeatRequest(ElevatorHeartbeatRequest request) {
+		ElevatorMonitor elevatorMonitor = this.getElevatorMonitor(request.getElevatorName());
+		
+		//Only heartbeats from an elevator which is OUT OF SERVICE are queued as events (see receiveEvent()), the elevator is alive again
+		if (elevatorMonitor.getElevatorStatus() == ElevatorStatus.OUT_OF_SERVICE) {
+			this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "[OUT OF SERVICE] Heartbeat received.");
+			this.requestElevatorAnnouncement(elevatorMonitor);
+		}
+	}
+	
+	private void handleElevatorAnnounceRequest(ElevatorAnnounceRequest request) {
+		ElevatorMonitor elevatorMonitor = this.getElevatorMonitor(request.getElevatorName());
+		if (!request.isAnnouncement()) {
+			return;
+		}
+		
+		//Only an elevator which is OUT OF SERVICE is returned to service. Any other announcement is dropped, ie. the one sent when the elevator starts,
+		//or a duplicate answering another announcement requested while the elevator was out of service (one is requested for each event ignored).
+		if (elevatorMonitor.getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) {
+			this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "[IN SERVICE - Ignored] Elevator announced it is at floor " + request.getFloorName() + " with door " + request.getDoorStatus() + ".");
+			return;
+		}
+		this.consoleOutput(RequestEvent.RECEIVED, request.getElevatorName(), "Elevator announced it is at floor " + request.getFloorName() + " with door " + request.getDoorStatus() + ".");
+		
+		//Re-validate the announced state before trusting it, an elevator announcing a floor which does not exist stays OUT OF SERVICE
+		int floorNumber;
+		try {
+			floorNumber = Integer.parseInt(request.getFloorName());
+		} catch (NumberFormatException e) {
+			this.consoleOutput("[ANNOUNCEMENT REJECTED] " + request.getElevatorName() + " announced an invalid floor " + request.getFloorName() + ".");
+			return;
+		}
+		if (this.registry.getFloorId(floorNumber) < 0) {
+			this.consoleOutput("[ANNOUNCEMENT REJECTED] " + request.getElevatorName() + " announced floor " + floorNumber + " which is not served by this system.");
+			return;
+		}
+		this.eventElevatorReturnedToService(elevatorMonitor, floorNumber, request.getDoorStatus());
+	}
+	
+	/**
+	 * Ask an elevator which is OUT_OF_SERVICE to announce its floor and door status, so it can be returned to service (see handleElevatorAnnounceRequest()).
+	 * @param elevatorMonitor
+	 */
+	private void requestElevatorAnnouncement(ElevatorMonitor elevatorMonitor) {
+		this.consoleOutput(RequestEvent.SENT, elevatorMonitor.getElevatorName(), "Announce floor and door status.");
+		this.sendToElevator(new ElevatorAnnounceRequest(elevatorMonitor.getElevatorName()), elevatorMonitor);
+	}
+	
+	/**
+	 * 
+	 * @param event
+	 */
+	private void addCompletedEvent(Request event) {
+		ArrayList<Double> elapsedTimes = this.eventElapsedTimes.get(event.getClass());
+		if (elapsedTimes == null) {
+			elapsedTimes = new ArrayList<Double>();
+			this.eventElapsedTimes.put(event.getClass(), elapsedTimes);
+		}
+		elapsedTimes.add(event.getElapsedTime());
+		this.eventElapsedTimes.put(event.getClass(), elapsedTimes);
+	}
+	
+	/**
+	 * Trace a trip request reaching a stage, correlated with the event being handled.
+	 * @param tripRequest
+	 * @param stage
+	 * @param elevatorMonitor	- elevator serving the trip, null if none
+	 */
+	private void traceTrip(TripRequest tripRequest, TripStage stage, ElevatorMonitor elevatorMonitor) {
+		this.traceTrip(tripRequest, stage, elevatorMonitor, null);
+	}
+	
+	/**
+	 * Trace a trip request reaching a stage, correlated with a request sent by the Scheduler (or the event being handled if sentRequest is null).
+	 * @param tripRequest
+	 * @param stage
+	 * @param elevatorMonitor	- elevator serving the trip, null if none
+	 * @param sentRequest
+	 */
+	private void traceTrip(TripRequest tripRequest, TripStage stage, ElevatorMonitor elevatorMonitor, Request sentRequest) {
+		//Stages were already traced the first time these events were handled
+		if (this.recovering) {
+			return;
+		}
+		String elevatorName = (elevatorMonitor == null) ? null : elevatorMonitor.getElevatorName();
+		Request message = (sentRequest == null) ? this.currentEvent : sentRequest;
+		TripTrace tripTrace = this.tripTracer.record(tripRequest, stage, elevatorName, message, sentRequest != null);
+		if (tripTrace != null) {
+			this.consoleOutput("Trip trace " + tripTrace);
+		}
+	}
+	
+	/**
+	 * Trace each trip request being picked up at the elevator's current floor (no destination yet) reaching a stage.
+	 * @param elevatorMonitor
+	 * @param stage
+	 */
+	private void traceTripsAtPickupFloor(ElevatorMonitor elevatorMonitor, TripStage stage) {
+		for (TripRequest tripRequest : elevatorMonitor.getQueue()) {
+			if ((tripRequest.getPickupFloor() == elevatorMonitor.getElevatorFloorLocation()) && !tripRequest.hasDestination()) {
+				this.traceTrip(tripRequest, stage, elevatorMonitor);
+			}
+		}
+	}
+	
+	/**
+	 * Calculates the Scheduler's response mean and variance for every each request type. Displays this information to console. 
+	 * All time values are in milliseconds.
+	 * 
+	 */
+	public void displaySchedulerResponseTimes() {
+		System.out.println("\n\n-----------------------------------------");
+		System.out.println("Displaying Scheduler Response Data");
+		System.out.printf("%-30s %-22s %n", "Event Type", "Response(ms)");
+		for (Class<?> eventType: this.eventElapsedTimes.keySet()) {
+			ArrayList<Double> elapsedTimes = this.eventElapsedTimes.get(eventType);
+			System.out.printf("%-30s %-22s %n", eventType.getSimpleName(), "");
+			for (Double elapsedTime : elapsedTimes) {
+				System.out.printf("%-30s %-22s %n", "", elapsedTime);
+			}
+		}
+		
+		System.out.println("\n\n-----------------------------------------");
+		System.out.println("Displaying Scheduler Response Summary");
+		System.out.printf("%-30s %-10s %-22s %-18s %n", "Event Type", "# of Events", "Mean Response(ms)", "Variance(ms^2)");
+		for (Class<?> eventType: this.eventElapsedTimes.keySet()) {
+			ArrayList<Double> elapsedTimes = this.eventElapsedTimes.get(eventType);
+			Double mean = this.calculateMean(elapsedTimes);
+			Double variance = this.calculateVariance(elapsedTimes, mean);
+			System.out.printf("%-30s %10d %22.5f %18.5f %n", eventType.getSimpleName(), elapsedTimes.size(), mean, variance);
+		}
+	}
+	
+	/**
+	 * Displays the latency of each stage of the trip requests' lifecycle (see TripTracer) to console.
+	 */
+	public void displayTripLatencies() {
+		this.tripTracer.displayTripLatencies();
+	}
+	
+	/**
+	 * Calculates and returns mean average value of a list containing elapsedTimes
+	 * 
+	 * @param elapsedTimes
+	 * @return mean in nanoseconds
+	 */
+	private Double calculateMean(ArrayList<Double> elapsedTimes) {
+		Double responseTotals = 0.0;
+		
+		if (elapsedTimes.size() > 0) {
+			for (Double elapsedTime : elapsedTimes) {
+				responseTotals += elapsedTime;
+			}
+			return responseTotals/elapsedTimes.size();
+		}
+		return 0.0;
+	}
+	
+	/**
+	 * Calculates and returns the variance of a list containing elapsedTimes
+	 * 
+	 * @param elapsedTimes
+	 * @param mean
+	 * @return
+	 */
+	private Double calculateVariance(ArrayList<Double> elapsedTimes, Double mean) {
 		Double sum = 0.0;
 		
 		if (elapsedTimes.size() > 0) {
@@ -371,12 +1106,71 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 	}
 	
 	/**
-	 * Send a request to port using this object's server.
+	 * Send a request to an elevator using this object's server.
 	 * @param request
-	 * @param elevatorName
+	 * @param elevatorMonitor
+	 */
+	private void sendToElevator(Request request, ElevatorMonitor elevatorMonitor) {
+		this.observeRequestSent(request, elevatorMonitor);
+		
+		//Requests were already sent the first time these events were handled
+		if (this.recovering || this.steppedDown) {
+			return;
+		}
+		request.setEpoch(this.epoch);
+		this.journalOutbound(SchedulerJournal.TARGET_ELEVATOR, elevatorMonitor.getElevatorId(), request);
+		this.transport.sendToElevator(request, elevatorMonitor.getElevatorId());
+	}
+	
+	/**
+	 * Start timing a command sent to an elevator, the elevator's response updates its TravelTimeModel (see observeResponseReceived()).
+	 * This is also done while recovering, so the replayed model learns the same times.
+	 * @param request
+	 * @param elevatorMonitor
+	 */
+	private void observeRequestSent(Request request, ElevatorMonitor elevatorMonitor) {
+		TravelTimeModel travelTimeModel = elevatorMonitor.getTravelTimeModel();
+		long time = this.clock.currentTimeMillis();
+		if ((request instanceof ElevatorMotorRequest) && (((ElevatorMotorRequest) request).getRequestAction() != Direction.IDLE)) {
+			travelTimeModel.moveStarted(time);
+		} else if (request instanceof ElevatorDoorRequest) {
+			travelTimeModel.doorRequested(time);
+		} else if (request instanceof ElevatorWaitRequest) {
+			travelTimeModel.waitRequested(time);
+		}
+	}
+	
+	/**
+	 * Update an elevator's TravelTimeModel with the time it took to respond to a command.
+	 * This must be called before the response changes the ElevatorMonitor's state (the direction of travel is needed for arrival notices).
+	 * @param request
+	 * @param elevatorMonitor
+	 */
+	private void observeResponseReceived(Request request, ElevatorMonitor elevatorMonitor) {
+		TravelTimeModel travelTimeModel = elevatorMonitor.getTravelTimeModel();
+		long time = this.clock.currentTimeMillis();
+		if (request instanceof ElevatorArrivalRequest) {
+			travelTimeModel.arrived(Integer.parseInt(((ElevatorArrivalRequest) request).getFloorName()), elevatorMonitor.getElevatorDirection(), time);
+		} else if (request instanceof ElevatorDoorRequest) {
+			travelTimeModel.doorOperated(time);
+		} else if (request instanceof ElevatorWaitRequest) {
+			travelTimeModel.waitCompleted(time);
+		}
+	}
+	
+	/**
+	 * Send a request to a floor using this object's server.
+	 * @param request
+	 * @param floorNumber
 	 */
-	private void sendToServer(Request request, String host, int port) {
-		this.server.send(request, host, port);
+	private void sendToFloor(Request request, int floorNumber) {
+		if (this.recovering || this.steppedDown) {
+			return;
+		}
+		request.setEpoch(this.epoch);
+		int floorId = this.registry.getFloorId(floorNumber);
+		this.journalOutbound(SchedulerJournal.TARGET_FLOOR, floorId, request);
+		this.transport.sendToFloor(request, floorId);
 	}
 	
 	/**
@@ -384,18 +1178,98 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 	 * The first preference is to assign the tripRequest to an in service elevator, if the trip is en route. 
 	 * If there are no en-route options, attempt to find an idle elevator to service the tripRequest. 
 	 * If this is not possible then the tripRequest will be put in a pending queue.
+	 * A hall call made while another at the same floor, in the same direction, is still waiting to be picked up is coalesced into it instead:
+	 * it is not planned, assigned or announced again, as the passengers all board the elevator which stops for the first.
 	 * 
 	 * @param pickupFloorNumber
-	 * @param destinationFloorNumber
+	 * @param destinationFloorNumber	- destination entered at the floor terminal (destination dispatch), null if it is not known until the passenger boards
 	 * @param direction
 	 */
-	private void eventTripRequestReceived(int pickupFloorNumber, Direction direction) {
+	private void eventTripRequestReceived(int pickupFloorNumber, Integer destinationFloorNumber, Direction direction) {
 		//Create a TripRequest object
-		TripRequest tripRequest = new TripRequest(pickupFloorNumber, direction);
+		TripRequest tripRequest = new TripRequest(pickupFloorNumber, direction, this.clock.currentTimeMillis());
+		if (destinationFloorNumber != null) {
+			tripRequest.setDestinationFloor(destinationFloorNumber);
+		}
+		
+		//In destination dispatch mode each passenger is planned and announced on their own
+		if (destinationFloorNumber == null) {
+			TripRequest hallCall = this.getUnstartedHallCall(tripRequest);
+			if (hallCall != null) {
+				hallCall.addPassenger();
+				this.coalescedHallCalls++;
+				this.consoleOutput("Trip request " + tripRequest + " was coalesced into waiting trip request " + hallCall + " (" + hallCall.getPassengerCount() + " passengers).");
+				return;
+			}
+		}
+		this.traceTrip(tripRequest, TripStage.HALL_CALL_RECEIVED, null);
 		this.eventTripRequestReceived(tripRequest);
 	}
+	
+	/**
+	 * Every passenger waiting at a floor in an elevator's direction boards it once it opens its door there, so the hall calls at the floor in that 
+	 * direction which are pending or assigned to other elevators have been answered by this elevator. They are moved to it, so no other elevator 
+	 * keeps waiting at (or travelling to) the floor for passengers who have already left.
+	 * 
+	 * @param elevatorMonitor	- elevator which has opened its door
+	 */
+	private void takeOverHallCalls(ElevatorMonitor elevatorMonitor) {
+		int floor = elevatorMonitor.getElevatorFloorLocation();
+		Direction direction = elevatorMonitor.getQueueDirection();
+		if (direction == Direction.IDLE) {
+			return;
+		}
+		
+		ArrayList<TripRequest> hallCalls = new ArrayList<TripRequest>();
+		Iterator<TripRequest> iterator = this.pendingTripRequests.iterator();
+		while (iterator.hasNext()) {
+			TripRequest pendingTripRequest = iterator.next();
+			if ((pendingTripRequest.getPickupFloor() == floor) && (pendingTripRequest.getDirection() == direction) && !pendingTripRequest.hasDestination()) {
+				hallCalls.add(pendingTripRequest);
+				iterator.remove();
+			}
+		}
+		for (ElevatorMonitor otherElevatorMonitor : this.elevatorMonitors) {
+			if (otherElevatorMonitor != elevatorMonitor) {
+				hallCalls.addAll(otherElevatorMonitor.removeHallCalls(floor, direction));
+			}
+		}
+		
+		for (TripRequest hallCall : hallCalls) {
+			elevatorMonitor.addBoardingHallCall(hallCall);
+			this.consoleOutput("Trip request " + hallCall + " was taken over by " + elevatorMonitor.getElevatorName() + ", its passengers board at floor " + floor + ".");
+			this.traceTrip(hallCall, TripStage.ASSIGNED, elevatorMonitor);
+		}
+	}
+	
+	/**
+	 * Get the pending or assigned hall call, not yet picked up, at the same floor and in the same direction as a trip request.
+	 * @param tripRequest
+	 * @return the hall call, or null if there is none
+	 */
+	private TripRequest getUnstartedHallCall(TripRequest tripRequest) {
+		for (TripRequest pendingTripRequest : this.pendingTripRequests) {
+			if (pendingTripRequest.isSameHallCall(tripRequest)) {
+				return pendingTripRequest;
+			}
+		}
+		for (ElevatorMonitor elevatorMonitor : this.elevatorMonitors) {
+			TripRequest hallCall = elevatorMonitor.getUnstartedHallCall(tripRequest);
+			if (hallCall != null) {
+				return hallCall;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Plan a trip request and assign it to the selected elevator, advising the elevator (and the floor, if the elevator is already there) of the next action.
+	 * If no elevator can be selected, the trip request is added to the pending trip requests.
+	 * @param tripRequest
+	 */
 	private void eventTripRequestReceived(TripRequest tripRequest) {
 		ElevatorMonitor elevatorMonitor = this.planningSystem(tripRequest);
+		this.journalTripAssignment(tripRequest, elevatorMonitor);
 		
 		//If an Elevator has been selected for this trip request, determine the next action required for the elevator.
 		//  1 - If the elevator is stopped and idle, then
@@ -404,6 +1278,8 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 		if (elevatorMonitor != null) {
 			elevatorMonitor.addTripRequest(tripRequest);
 			this.consoleOutput("Trip request " + tripRequest + " was assigned to " + elevatorMonitor.getElevatorName() + ".");
+			this.traceTrip(tripRequest, TripStage.ASSIGNED, elevatorMonitor);
+			this.announceTripAssignment(tripRequest, elevatorMonitor);
 			//If the elevator is currently stopped and IDLE, then a door close event must be sent
 			//within a short time (before the elevator door is closed).
 			if ((elevatorMonitor.getElevatorStatus() == ElevatorStatus.STOPPED) && (elevatorMonitor.getElevatorDirection() == Direction.IDLE)) {
@@ -413,14 +1289,19 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 				if (elevatorMonitor.getElevatorFloorLocation() == tripRequest.getPickupFloor()) {
 					//Send event to floor that elevator is ready to accept passengers - this will ensure the floor sends the corresponding destination request to the elevator - pushing things forward
 					this.consoleOutput(RequestEvent.SENT, "FLOOR " + tripRequest.getPickupFloor(), "Elevator " + elevatorMonitor.getElevatorName() + " has arrived for a pickup/dropoff.");
-					this.sendToServer(new ElevatorArrivalRequest(elevatorMonitor.getElevatorName(), String.valueOf(tripRequest.getPickupFloor()), elevatorMonitor.getQueueDirection()), this.hostByFloorName.get(tripRequest.getPickupFloor()),this.portsByFloorName.get(String.valueOf(tripRequest.getPickupFloor())));
+					ElevatorArrivalRequest arrivalRequest = new ElevatorArrivalRequest(elevatorMonitor.getElevatorName(), String.valueOf(tripRequest.getPickupFloor()), elevatorMonitor.getQueueDirection(), elevatorMonitor.getAvailableCapacity());
+					this.sendToFloor(arrivalRequest, tripRequest.getPickupFloor());
+					this.traceTrip(tripRequest, TripStage.ARRIVAL, elevatorMonitor, arrivalRequest);
+					if (elevatorMonitor.getElevatorState().getDoorStatus() == ElevatorDoorStatus.OPENED) {
+						this.traceTrip(tripRequest, TripStage.DOOR_OPENED, elevatorMonitor, arrivalRequest);
+					}
 				
 					//Only if this was the first trip added to the queue at this stop, send an elevator wait arrival command, this is to handle the case where an elevator is stopped and idle and receives
 					//two requests for trips before the elevator is done waiting from the first request (as the elevator state would still be STOPPED and IDLE until the wait is over). 
 					if (elevatorMonitor.getQueueLength() == 1) {
 						//Send a wait at floor command to the elevator - this is to simulate both passengers leaving and entering the elevator
 						this.consoleOutput(RequestEvent.SENT, elevatorMonitor.getElevatorName(), "Wait at floor for passengers to load.");
-						this.sendToServer(new ElevatorWaitRequest(elevatorMonitor.getElevatorName()), this.hostByElevatorName.get(elevatorMonitor.getElevatorName()),this.portsByElevatorName.get(elevatorMonitor.getElevatorName()));
+						this.sendToElevator(new ElevatorWaitRequest(elevatorMonitor.getElevatorName()), elevatorMonitor);
 						return;
 					}
 				}
@@ -430,8 +1311,16 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 				//two requests for trips before the elevator has closed its door from the previous request (as the elevator state would still be STOPPED and IDLE until the wait is over).
 				if (elevatorMonitor.getQueueLength() == 1) {
 					this.consoleOutput(RequestEvent.SENT, elevatorMonitor.getElevatorName(), "Close elevator door.");
-					this.sendToServer(new ElevatorDoorRequest(elevatorMonitor.getElevatorName(), ElevatorDoorStatus.CLOSED), this.hostByElevatorName.get(elevatorMonitor.getElevatorName()),this.portsByElevatorName.get(elevatorMonitor.getElevatorName()));
+					this.sendToElevator(new ElevatorDoorRequest(elevatorMonitor.getElevatorName(), ElevatorDoorStatus.CLOSED), elevatorMonitor);
 				}
+			
+			//If the elevator is stopped at the floor of the trip request with its door open (waiting for passengers on its way), advise the floor again so this passenger boards too
+			} else if ((elevatorMonitor.getElevatorStatus() == ElevatorStatus.STOPPED) && (elevatorMonitor.getElevatorFloorLocation() == tripRequest.getPickupFloor()) 
+					&& (elevatorMonitor.getElevatorState().getDoorStatus() == ElevatorDoorStatus.OPENED)) {
+				this.consoleOutput(RequestEvent.SENT, "FLOOR " + tripRequest.getPickupFloor(), "Elevator " + elevatorMonitor.getElevatorName() + " is at the floor for a pickup.");
+				ElevatorArrivalRequest arrivalRequest = new ElevatorArrivalRequest(elevatorMonitor.getElevatorName(), String.valueOf(tripRequest.getPickupFloor()), elevatorMonitor.getQueueDirection(), elevatorMonitor.getAvailableCapacity());
+				this.sendToFloor(arrivalRequest, tripRequest.getPickupFloor());
+				this.traceTrip(tripRequest, TripStage.ARRIVAL, elevatorMonitor, arrivalRequest);
 			}
 		} else {
 			//Add this tripRequest to the pendingTripRequests queue
@@ -441,88 +1330,73 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 	}
 
 	/**
+	 * In destination dispatch mode, advise the floor terminal at the pickup floor which elevator the passenger of a trip request should board.
+	 * This is sent each time the trip request is assigned to a different elevator (ie. it is reassigned from an elevator taken OUT_OF_SERVICE,
+	 * or rebalanced), the floor moves the passenger from the elevator previously announced to the new one.
 	 * 
 	 * @param tripRequest
+	 * @param elevatorMonitor
+	 */
+	private void announceTripAssignment(TripRequest tripRequest, ElevatorMonitor elevatorMonitor) {
+		if (!this.planningStrategy.usesHallCallDestinations() || !tripRequest.hasDestination()) {
+			return;
+		}
+		String elevatorName = elevatorMonitor.getElevatorName();
+		String previousElevatorName = tripRequest.getAnnouncedElevatorName();
+		if (elevatorName.equals(previousElevatorName)) {
+			return;
+		}
+		tripRequest.setAnnouncedElevatorName(elevatorName);
+		
+		this.consoleOutput(RequestEvent.SENT, "Floor " + tripRequest.getPickupFloor(), "Passenger to floor " + tripRequest.getDestinationFloor() + " please take elevator " + elevatorName + ".");
+		this.sendToFloor(new ElevatorAssignmentRequest(elevatorName, String.valueOf(tripRequest.getPickupFloor()), tripRequest.getDirection(), String.valueOf(tripRequest.getDestinationFloor()), previousElevatorName), tripRequest.getPickupFloor());
+	}
+	
+	/**
+	 * Select the elevator to assign a trip request to using this Scheduler's PlanningStrategy.
+	 * @param tripRequest
 	 * @return
 	 */
 	private ElevatorMonitor planningSystem(TripRequest tripRequest) {
-		ElevatorMonitor closestElevatorMonitor = null;
-		Integer closestElevatorTime = null;
-
-		//Iterate through all elevators to determine whether there is an eligible elevator to handle this trip request,
-		//and which would be most optimal. 
-		for (String elevatorName : elevatorMonitorByElevatorName.keySet()) {
-			boolean currentElevatorIsMoreFavourable = false;
-			
-			ElevatorMonitor elevatorMonitor = this.elevatorMonitorByElevatorName.get(elevatorName);
-			Integer estimatedElevatorPickupTime = elevatorMonitor.estimatePickupTime(tripRequest);
-			
-			//If the estimateElevatorPickupTime for this elevator is null, then this elevator cannot accommodate this tripRequest at this time
-			//skip to next iteration of foreach loop
-			if (estimatedElevatorPickupTime == null) {
-				continue;
-			}
-			
-			//If there is not yet a closest eligible elevator, set the current elevator being evaluated as closestElevator
-			if (closestElevatorTime == null) {
-				currentElevatorIsMoreFavourable = true;
-			} else {
-				//The comparison between the current elevator being evaluated and the closestElevator depends on whether the closestElevator is Idle or in-service
-				if (closestElevatorMonitor.getNextElevatorDirection() == Direction.IDLE) {
-					//The comparison between the current elevator and the closestElevator also depends on whether the current elevator being evaluated is Idle or in-service
-					//In the case where the current elevator being evaluated is in-service
-					if (elevatorMonitor.getNextElevatorDirection() == Direction.IDLE) {
-						//If the current elevator being evaluated is in-service and has a quicker estimated pickup time
-						//then this elevator is more favourable for this trip request than the current closestElevator
-						if (estimatedElevatorPickupTime < closestElevatorTime){
-							currentElevatorIsMoreFavourable = true;
-						}
-					} else {
-						//Always favour an in service elevator if possible. 
-						//if (Math.abs(closestElevatorTime - estimatedElevatorPickupTime) >= closestElevatorTime){
-							currentElevatorIsMoreFavourable = true;
-						//}
-					}
-				//In the case where the closestElevator is IDLE
-				} else {
-					//In the case where the current elevator being evaluated is in-service
-					if (elevatorMonitor.getNextElevatorDirection() == Direction.IDLE) {
-						//Always favour in service elevator
-						/*//If the current elevator being evaluated is in-service and has an estimated pickup time that is less than or equal to the current closest elevator's pickup time
-						//then this elevator is more favourable for this trip request than the current closestElevator
-						if ((estimatedElevatorPickupTime <= closestElevatorTime) && (Math.abs(closestElevatorTime - estimatedElevatorPickupTime) >= estimatedElevatorPickupTime)) {
-							currentElevatorIsMoreFavourable = true;
-						}*/
-					} else {
-						//If the current elevator being evaluated is IDLE and has a quicker estimated pickup time
-						//then this elevator is more favourable for this trip request than the current closestElevator
-						if (estimatedElevatorPickupTime < closestElevatorTime){
-							currentElevatorIsMoreFavourable = true;
-						} 
-					}
+		PlanningDecisionEvent decisionEvent = new PlanningDecisionEvent();
+		decisionEvent.begin();
+		ElevatorMonitor elevatorMonitor = this.planningStrategy.selectElevator(tripRequest, this.elevatorMonitors);
+		decisionEvent.end();
+		
+		//The candidates and cost are only worked out when the event is being recorded
+		if (decisionEvent.shouldCommit()) {
+			for (ElevatorMonitor candidate : this.elevatorMonitors) {
+				if (candidate.estimatePickupTime(tripRequest) != null) {
+					decisionEvent.candidateCount++;
 				}
 			}
-			
-			//Replace closest Elevator with current Elevator if any of the conditions above have been met.
-			if (currentElevatorIsMoreFavourable) {
-				closestElevatorMonitor = elevatorMonitor;
-				closestElevatorTime = estimatedElevatorPickupTime;
+			decisionEvent.scheduler = this.name;
+			decisionEvent.tripRequest = tripRequest.toString();
+			if (elevatorMonitor != null) {
+				decisionEvent.chosenElevator = elevatorMonitor.getElevatorName();
+				decisionEvent.estimatedPickupTime = elevatorMonitor.estimatePickupTime(tripRequest);
 			}
+			decisionEvent.commit();
 		}
-		
-		return closestElevatorMonitor;
+		return elevatorMonitor;
 	}
+	
 	/**
 	 * 
-	 * @param elevatorName
+	 * @param elevatorMonitor
 	 * @param pickupFloor
 	 * @param destinationFloor
 	 */
-	private void eventElevatorDestinationRequest(String elevatorName, Integer pickupFloor, Integer destinationFloor) {
-		ElevatorMonitor elevatorMonitor = this.elevatorMonitorByElevatorName.get(elevatorName);
+	private void eventElevatorDestinationRequest(ElevatorMonitor elevatorMonitor, Integer pickupFloor, Integer destinationFloor) {
+		String elevatorName = elevatorMonitor.getElevatorName();
 		
 		if (elevatorMonitor.addDestination(pickupFloor, destinationFloor)) {
 			this.consoleOutput("Destination [" + destinationFloor + "] was successfully added to " + elevatorName + "'s queue." );
+			for (TripRequest tripRequest : elevatorMonitor.getQueue()) {
+				if ((tripRequest.getPickupFloor() == pickupFloor) && tripRequest.hasDestination() && (tripRequest.getDestinationFloor() == destinationFloor)) {
+					this.traceTrip(tripRequest, TripStage.DESTINATION_REGISTERED, elevatorMonitor);
+				}
+			}
 		} else {
 			this.consoleOutput("Destination [" + destinationFloor + "] was not successfully added to " + elevatorName + "'s queue. Abandoning destination request." );
 		}
@@ -533,16 +1407,14 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 	 * If the elevator needs to stop, send a stop request to the elevator.
 	 * If the elevator needs to stop because this floor is a pickup, then a request needs to be sent to the floor to turn off the floor direction lamp.
 	 * If not stop is needed, check the elevatorMonitor to determine the next direction for the elevator and send a motor request in that direction.
-	 * @param elevatorName
+	 * @param elevatorMonitor
 	 * @param floorNumber
 	 */
-	private void eventElevatorArrivalNotice(String elevatorName, int floorNumber) {
+	private void eventElevatorArrivalNotice(ElevatorMonitor elevatorMonitor, int floorNumber) {
 		//Remove the Move request from monitorElevatorEvents for this elevator 'elevatorName'
 		//Presumably this is occurring before the monitoredEventTimer has completed.
-		this.removeMonitoredEvent(elevatorName);
-		
-		//Get the elevatorMonitor for this elevator
-		ElevatorMonitor elevatorMonitor = this.elevatorMonitorByElevatorName.get(elevatorName);
+		String elevatorName = elevatorMonitor.getElevatorName();
+		this.removeMonitoredEvent(elevatorMonitor.getElevatorId());
 		
 		//Update the elevatorMonitor with the new floor of the elevator
 		elevatorMonitor.updateElevatorFloorLocation(floorNumber);
@@ -551,13 +1423,13 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 		if(elevatorMonitor.isStopRequired(floorNumber)) {
 			this.consoleOutput("Stop is required for " + elevatorName + " at floor " + floorNumber);
 			this.consoleOutput(RequestEvent.SENT, elevatorName, "Stop elevator.");
-			this.sendToServer(new ElevatorMotorRequest(elevatorName, Direction.IDLE), this.hostByElevatorName.get(elevatorName), this.portsByElevatorName.get(elevatorName));
+			this.sendToElevator(new ElevatorMotorRequest(elevatorName, Direction.IDLE), elevatorMonitor);
 		} else {
 			this.consoleOutput("Stop is not required for " + elevatorName + " at floor " + floorNumber);
 			//The reason we evaluate this direction again, is because in certain circumstances, the direction may change 
 			//Example, if the elevator is going down to it's starting floor, but a trip request had been assigned to it before it reached its destination, the elevator needs to change directions
 			Direction nextDirection = elevatorMonitor.getNextElevatorDirection();
-			this.sendElevatorMoveEvent(elevatorName, nextDirection);
+			this.sendElevatorMoveEvent(elevatorMonitor, nextDirection);
 		}
 	}
 	
@@ -567,11 +1439,10 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 	 * If this stop is a pickup for a tripRequest, the tripRequest needs to remove this pickup from it's queue of pickups. but the tripRequest still is in service in the elevatorMonitor.
 	 * 
 	 * When this is completed, send an elevator open door event.
-	 * @param elevatorName
+	 * @param elevatorMonitor
 	 */
-	private void eventElevatorStopped(String elevatorName) {
-		//Get elevatorMonitor for the elevator.
-		ElevatorMonitor elevatorMonitor = this.elevatorMonitorByElevatorName.get(elevatorName);
+	private void eventElevatorStopped(ElevatorMonitor elevatorMonitor) {
+		String elevatorName = elevatorMonitor.getElevatorName();
 		
 		//Update elevator status to Stopped
 		elevatorMonitor.updateElevatorStatus(ElevatorStatus.STOPPED);
@@ -582,64 +1453,68 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 			this.consoleOutput("The following trips have been completed at this stop by " + elevatorName + ":" + completedTrips);
 			for (TripRequest completedTrip : completedTrips) {
 				this.consoleOutput(completedTrip + " was completed in " + completedTrip.getTripTime() + " (mm:ss)");
-				
+				this.traceTrip(completedTrip, TripStage.DROP_OFF, elevatorMonitor);
 			}
 		}
+		this.traceTripsAtPickupFloor(elevatorMonitor, TripStage.ARRIVAL);
 		
 		//Send an open door event to the elevator
 		this.consoleOutput(RequestEvent.SENT, elevatorName, "Open elevator door.");
-		this.sendToServer(new ElevatorDoorRequest(elevatorName, ElevatorDoorStatus.OPENED), this.hostByElevatorName.get(elevatorName), this.portsByElevatorName.get(elevatorName));
+		this.sendToElevator(new ElevatorDoorRequest(elevatorName, ElevatorDoorStatus.OPENED), elevatorMonitor);
 		
 		//Monitor the Elevator Move request
-		MonitoredEventTimer monitoredEventTimer = new MonitoredEventTimer(this, elevatorName, MonitoredSchedulerEvent.ELEVATOR_OPEN_DOOR, (int) (elevatorMonitor.getDoorOperationTime() * this.monitoredSchedulerDelayFactor));
-		this.addMonitoredEvent(elevatorName, monitoredEventTimer);
-		
-		//Start the monitored event timer
-		Thread t = new Thread(monitoredEventTimer);
-		t.start();
+		this.startMonitoredEvent(elevatorMonitor, MonitoredSchedulerEvent.ELEVATOR_OPEN_DOOR, elevatorMonitor.getExpectedDoorOperationTime());
 	}
 	
 	/**
 	 * When confirmation has been received that the elevator has opened its doors, determine whether this elevator has more trips.
 	 * If the elevatorMonitor is not empty, then 
-	 * @param elevatorName
+	 * @param elevatorMonitor
 	 */
-	private void eventElevatorDoorOpened(String elevatorName) {	
+	private void eventElevatorDoorOpened(ElevatorMonitor elevatorMonitor) {	
 		//Remove the Door request from monitorElevatorEvents for this elevator 'elevatorName'
 		//Presumably this is occurring before the monitoredEventTimer has completed.
-		this.removeMonitoredEvent(elevatorName);
-		
-		//Get elevatorMonitor for the elevator.
-		ElevatorMonitor elevatorMonitor = this.elevatorMonitorByElevatorName.get(elevatorName);
+		String elevatorName = elevatorMonitor.getElevatorName();
+		this.removeMonitoredEvent(elevatorMonitor.getElevatorId());
 
 		//Update current elevator door status
 		elevatorMonitor.updateElevatorDoorStatus(ElevatorDoorStatus.OPENED);
+		this.traceTripsAtPickupFloor(elevatorMonitor, TripStage.DOOR_OPENED);
 		
 		//Checking pending requests now that the elevator has stopped and its doors are open.
 		//It's possible trips can now be assigned to this elevator (case where the elevator reaches its destination)
 		if (!this.pendingTripRequests.isEmpty()) {
-			HashSet<TripRequest> assignedPendingRequests = this.assignPendingRequestsToElevator(elevatorName);
+			HashSet<TripRequest> assignedPendingRequests = this.assignPendingRequestsToElevator(elevatorMonitor);
 			if (!assignedPendingRequests.isEmpty()) {
 				this.consoleOutput("The following pending trip requests have been assigned to " + elevatorName + "  : " + assignedPendingRequests);
 			}
 		}
+		this.takeOverHallCalls(elevatorMonitor);
+		ArrayList<TripRequest> leftBehindTripRequests = elevatorMonitor.limitBoardingPassengers();
 		
-		//Send notice to floor that elevator has stopped and doors are open
+		//Send notice to floor that elevator has stopped and doors are open, with the number of passengers who can board
 		this.consoleOutput(RequestEvent.SENT, "Floor " + String.valueOf(elevatorMonitor.getElevatorFloorLocation()), "Elevator " + elevatorName + " has arrived and doors are opened.");
-		this.sendToServer(new ElevatorArrivalRequest(elevatorName, String.valueOf(elevatorMonitor.getElevatorFloorLocation()), elevatorMonitor.getQueueDirection()), this.hostByFloorName.get(String.valueOf(elevatorMonitor.getElevatorFloorLocation())) ,this.portsByFloorName.get(String.valueOf(elevatorMonitor.getElevatorFloorLocation())));
+		this.sendToFloor(new ElevatorArrivalRequest(elevatorName, String.valueOf(elevatorMonitor.getElevatorFloorLocation()), elevatorMonitor.getQueueDirection(), elevatorMonitor.getAvailableCapacity()), elevatorMonitor.getElevatorFloorLocation());
+		
+		//The passengers who do not fit in the elevator keep waiting at the floor, their hall calls are planned again (for another elevator)
+		for (TripRequest leftBehindTripRequest : leftBehindTripRequests) {
+			this.leftBehindPassengers += leftBehindTripRequest.getPassengerCount();
+			this.consoleOutput(leftBehindTripRequest.getPassengerCount() + " passengers of trip request " + leftBehindTripRequest + " could not board the full elevator " + elevatorName + ".");
+			this.traceTrip(leftBehindTripRequest, TripStage.HALL_CALL_RECEIVED, null);
+			this.eventTripRequestReceived(leftBehindTripRequest);
+		}
 	
 		//Send a wait at floor command to the elevator - this is to simulate both passengers leaving and entering the elevator
 		this.consoleOutput(RequestEvent.SENT, elevatorName, "Wait at floor.");
-		this.sendToServer(new ElevatorWaitRequest(elevatorName), this.hostByElevatorName.get(elevatorName), this.portsByElevatorName.get(elevatorName));
+		this.sendToElevator(new ElevatorWaitRequest(elevatorName), elevatorMonitor);
 	}
 	
 	/**
 	 * 
-	 * @param elevatorName
+	 * @param elevatorMonitor
 	 */
-	private void eventElevatorWaitComplete(String elevatorName) {
-		//Get elevatorMonitor for the elevator.
-		ElevatorMonitor elevatorMonitor = this.elevatorMonitorByElevatorName.get(elevatorName);
+	private void eventElevatorWaitComplete(ElevatorMonitor elevatorMonitor) {
+		String elevatorName = elevatorMonitor.getElevatorName();
 		
 		//If the elevatorMonitor is waiting for a destination request (Elevator is at a pickup floor and is awaiting for the destination request
 		//Continue to wait until the destination request has been received. Send another ElevatorWaitRequest to the elevator.
@@ -649,70 +1524,60 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 			
 			//Send a wait at floor command to the elevator
 			this.consoleOutput(RequestEvent.SENT, elevatorName, "Continue to wait at floor...");
-			this.sendToServer(new ElevatorWaitRequest(elevatorName), this.hostByElevatorName.get(elevatorName),this.portsByElevatorName.get(elevatorName));
+			this.sendToElevator(new ElevatorWaitRequest(elevatorName), elevatorMonitor);
 		
 		//Are there still more floors to visit? If so then send an ElevatorDoorRequest to close it's doors.
 		} else if (!elevatorMonitor.isTripQueueEmpty()) {
 			this.consoleOutput("There are more floors to visit for this elevator " + elevatorName);
 			
 			this.consoleOutput(RequestEvent.SENT, elevatorName, "Close elevator door.");
-			this.sendToServer(new ElevatorDoorRequest(elevatorName, ElevatorDoorStatus.CLOSED), this.hostByElevatorName.get(elevatorName), this.portsByElevatorName.get(elevatorName));
+			this.sendToElevator(new ElevatorDoorRequest(elevatorName, ElevatorDoorStatus.CLOSED), elevatorMonitor);
 		
 			//Monitor the Elevator Move request
-			MonitoredEventTimer monitoredEventTimer = new MonitoredEventTimer(this, elevatorName, MonitoredSchedulerEvent.ELEVATOR_CLOSE_DOOR, (int) (elevatorMonitor.getDoorOperationTime() * this.monitoredSchedulerDelayFactor));
-			this.addMonitoredEvent(elevatorName, monitoredEventTimer);
-			
-			//Start the monitored event timer
-			Thread t = new Thread(monitoredEventTimer);
-			t.start();
+			this.startMonitoredEvent(elevatorMonitor, MonitoredSchedulerEvent.ELEVATOR_CLOSE_DOOR, elevatorMonitor.getExpectedDoorOperationTime());
 			
-		//If there are no more floors to visit then need ot determine whether the elevator is on its start floor or not.
-		//If on the start floor, wait for the next trip request
-		//If not on the start floor, start return trip to the start floor.
+		//If there are no more floors to visit then need ot determine whether the elevator is on its parking floor or not.
+		//If on the parking floor, wait for the next trip request
+		//If not on the parking floor, start trip to the parking floor.
 		} else {
+			//The elevator has become idle, choose where it parks
+			elevatorMonitor.updateElevatorParkingFloor(this.selectParkingFloor(elevatorMonitor));
 			Integer currentFloor = elevatorMonitor.getElevatorFloorLocation();
-			Integer startFloor = elevatorMonitor.getElevatorStartingFloorLocation();
-			boolean isElevatorOnStartFloor;
+			int parkingFloor = elevatorMonitor.getElevatorParkingFloorLocation();
+			boolean isElevatorOnParkingFloor;
 			
-			if (currentFloor == startFloor) {
-				isElevatorOnStartFloor = true;
+			if (currentFloor == parkingFloor) {
+				isElevatorOnParkingFloor = true;
 			} else {
-				isElevatorOnStartFloor = false;
+				isElevatorOnParkingFloor = false;
 			}
 			
-			if (isElevatorOnStartFloor) {
+			if (isElevatorOnParkingFloor) {
 				//Update direction of elevator to IDLE
 				elevatorMonitor.updateElevatorDirection(Direction.IDLE);
 				
-				this.consoleOutput("There are no available trip requests for " + elevatorName + ", and elevator is already on it's starting floor [" + startFloor + "]. Waiting for next trip request...");
+				this.consoleOutput("There are no available trip requests for " + elevatorName + ", and elevator is already on it's parking floor [" + parkingFloor + "]. Waiting for next trip request...");
 			} else {
-				this.consoleOutput("There are no available trip requests for " + elevatorName + ", elevator should return to it's starting floor [" + startFloor + "]");
+				this.consoleOutput("There are no available trip requests for " + elevatorName + ", elevator should go to it's parking floor [" + parkingFloor + "]");
 
 				this.consoleOutput(RequestEvent.SENT, elevatorName, "Close elevator door.");
-				this.sendToServer(new ElevatorDoorRequest(elevatorName, ElevatorDoorStatus.CLOSED), this.hostByElevatorName.get(elevatorName), this.portsByElevatorName.get(elevatorName));
+				this.sendToElevator(new ElevatorDoorRequest(elevatorName, ElevatorDoorStatus.CLOSED), elevatorMonitor);
 				
 				//Monitor the Elevator Move request
-				MonitoredEventTimer monitoredEventTimer = new MonitoredEventTimer(this, elevatorName, MonitoredSchedulerEvent.ELEVATOR_CLOSE_DOOR, (int) (elevatorMonitor.getDoorOperationTime() * this.monitoredSchedulerDelayFactor));
-				this.addMonitoredEvent(elevatorName, monitoredEventTimer);
-				
-				//Start the monitored event timer
-				Thread t = new Thread(monitoredEventTimer);
-				t.start();
+				this.startMonitoredEvent(elevatorMonitor, MonitoredSchedulerEvent.ELEVATOR_CLOSE_DOOR, elevatorMonitor.getExpectedDoorOperationTime());
 			}
 		}
 	}
 	
 	/**
 	 * When the elevator has confirmed that it's door has closed, then determine the next direction the elevator should go from the ElevatorMonitor and send a motor request to the elevator.
-	 * @param elevatorName
+	 * @param elevatorMonitor
 	 */
-	private void eventElevatorDoorClosed(String elevatorName) {
+	private void eventElevatorDoorClosed(ElevatorMonitor elevatorMonitor) {
 		//Remove the Door request from monitorElevatorEvents for this elevator 'elevatorName'
 		//Presumably this is occurring before the monitoredEventTimer has completed.
-		this.removeMonitoredEvent(elevatorName);
-		
-		//Get the elevatorMonitor for this elevator
-		ElevatorMonitor elevatorMonitor = this.elevatorMonitorByElevatorName.get(elevatorName);
+		String elevatorName = elevatorMonitor.getElevatorName();
+		this.removeMonitoredEvent(elevatorMonitor.getElevatorId());
 
 		//Update current elevator door status
 		elevatorMonitor.updateElevatorDoorStatus(ElevatorDoorStatus.CLOSED);
@@ -724,16 +1589,16 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 		elevatorMonitor.updateElevatorDirection(nextDirection);
 		
 		//send an elevator move event in the next direction it needs to go
-		this.sendElevatorMoveEvent(elevatorName, nextDirection);
+		this.sendElevatorMoveEvent(elevatorMonitor, nextDirection);
 	}
 	
 	/**
 	 * Send a motor request to an elevator to go either UP, DOWN, or IDLE. If IDLE is specified, this means stop the motor.
-	 * @param elevatorName
+	 * @param elevatorMonitor
 	 * @param direction
 	 */
-	private void sendElevatorMoveEvent(String elevatorName, Direction direction) {
-		ElevatorMonitor elevatorMonitor = this.elevatorMonitorByElevatorName.get(elevatorName);
+	private void sendElevatorMoveEvent(ElevatorMonitor elevatorMonitor, Direction direction) {
+		String elevatorName = elevatorMonitor.getElevatorName();
 		
 		//Update elevator status to Moving
 		elevatorMonitor.updateElevatorStatus(ElevatorStatus.MOVING);
@@ -741,25 +1606,26 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 		elevatorMonitor.updateElevatorDirection(direction);
 		
 		this.consoleOutput(RequestEvent.SENT, elevatorName, "Move elevator " + direction + ".");
-		this.sendToServer(new ElevatorMotorRequest(elevatorName, direction), this.hostByElevatorName.get(elevatorName) ,this.portsByElevatorName.get(elevatorName));
+		ElevatorMotorRequest motorRequest = new ElevatorMotorRequest(elevatorName, direction);
+		this.sendToElevator(motorRequest, elevatorMonitor);
+		if (direction != Direction.IDLE) {
+			for (TripRequest tripRequest : elevatorMonitor.getUnstartedTripRequests()) {
+				this.traceTrip(tripRequest, TripStage.CAR_DISPATCHED, elevatorMonitor, motorRequest);
+			}
+		}
 		
 		//Monitor the Elevator Move request
-		MonitoredEventTimer monitoredEventTimer = new MonitoredEventTimer(this, elevatorName, MonitoredSchedulerEvent.ELEVATOR_MOVE, (int) (elevatorMonitor.getTimeBetweenFloors() * this.monitoredSchedulerDelayFactor));
-		this.addMonitoredEvent(elevatorName, monitoredEventTimer);
-		
-		//Start the monitored event timer
-		Thread t = new Thread(monitoredEventTimer);
-		t.start();
+		this.startMonitoredEvent(elevatorMonitor, MonitoredSchedulerEvent.ELEVATOR_MOVE, 
+				(direction == Direction.IDLE) ? elevatorMonitor.getTimeBetweenFloors() : elevatorMonitor.getExpectedTravelTime(direction));
 	}
 	
 	/**
 	 * Attempt to assign any pending requests to an elevator. If the elevator queue is empty, assigns it automatically as a first trip request.
 	 * Then attempt to see if any subsequent pending trips can be assigned (as an enroute trip to this elevator).
-	 * @param elevatorName
+	 * @param elevatorMonitor
 	 * @return
 	 */
-	private HashSet<TripRequest> assignPendingRequestsToElevator(String elevatorName) {
-		ElevatorMonitor elevatorMonitor = this.elevatorMonitorByElevatorName.get(elevatorName);
+	private HashSet<TripRequest> assignPendingRequestsToElevator(ElevatorMonitor elevatorMonitor) {
 		HashSet<TripRequest> assignedPendingRequests = new HashSet<TripRequest>();
 		
 		//If the elevator has no trips in its queue's, then it should take the first pending request
@@ -767,6 +1633,8 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 			TripRequest firstPriorityPendingRequest = this.pendingTripRequests.get(0);
 			if (elevatorMonitor.addTripRequest(firstPriorityPendingRequest)) {
 				assignedPendingRequests.add(firstPriorityPendingRequest);
+				this.traceTrip(firstPriorityPendingRequest, TripStage.ASSIGNED, elevatorMonitor);
+				this.announceTripAssignment(firstPriorityPendingRequest, elevatorMonitor);
 				this.pendingTripRequests.remove(0);
 			}
 		}
@@ -777,17 +1645,703 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 			TripRequest pendingTripRequest = iterator.next();
 			if (elevatorMonitor.addTripRequest(pendingTripRequest)) {
 				assignedPendingRequests.add(pendingTripRequest);
+				this.traceTrip(pendingTripRequest, TripStage.ASSIGNED, elevatorMonitor);
+				this.announceTripAssignment(pendingTripRequest, elevatorMonitor);
 				iterator.remove();
 			}
 		}
 		return assignedPendingRequests;
 	}
 	
+	/**
+	 * Return an elevator which was OUT_OF_SERVICE (or whose state the scheduler has lost track of) to service, at the floor and door status it announced.
+	 * Trips already started on the elevator are kept. Pending trip requests, and trips not yet started by other elevators which this elevator can now 
+	 * pick up sooner, are rebalanced onto it before it is sent on its way.
+	 * 
+	 * @param elevatorMonitor
+	 * @param floorNumber
+	 * @param doorStatus
+	 */
+	private void eventElevatorReturnedToService(ElevatorMonitor elevatorMonitor, int floorNumber, ElevatorDoorStatus doorStatus) {
+		String elevatorName = elevatorMonitor.getElevatorName();
+		this.removeMonitoredEvent(elevatorMonitor.getElevatorId());
+		if (this.failureDetector != null) {
+			this.failureDetector.reset(elevatorMonitor.getElevatorId());
+		}
+		
+		elevatorMonitor.returnToService(floorNumber, doorStatus);
+		this.consoleOutput("[RETURNED TO SERVICE] " + elevatorName + " is back in service at floor " + floorNumber + " with door " + doorStatus + ".");
+		
+		//If the door is open the elevator is stopped at this floor, any trips ending here are completed
+		if (doorStatus == ElevatorDoorStatus.OPENED) {
+			HashSet<TripRequest> completedTrips = elevatorMonitor.stopOccurred();
+			if (!completedTrips.isEmpty()) {
+				this.consoleOutput("The following trips have been completed at this stop by " + elevatorName + ":" + completedTrips);
+			}
+		}
+		
+		this.rebalanceTripRequests(elevatorMonitor);
+		
+		//An idle elevator chooses where it parks
+		if (elevatorMonitor.isTripQueueEmpty()) {
+			elevatorMonitor.updateElevatorParkingFloor(this.selectParkingFloor(elevatorMonitor));
+		}
+		
+		//Send the elevator on its way, an elevator with its door open waits for passengers as it would after any stop.
+		//An elevator with its door closed, no trips and already on its parking floor waits for the next trip request.
+		//Otherwise it opens its door for a trip picked up at this floor, stops here if a trip needs this floor (as it would on arriving), or moves towards its next floor.
+		if (doorStatus == ElevatorDoorStatus.OPENED) {
+			this.eventElevatorDoorOpened(elevatorMonitor);
+		} else if (elevatorMonitor.isTripQueueEmpty() && (floorNumber == elevatorMonitor.getElevatorParkingFloorLocation())) {
+			this.consoleOutput("There are no available trip requests for " + elevatorName + ", and elevator is already on it's parking floor [" + floorNumber + "]. Waiting for next trip request...");
+		} else if (elevatorMonitor.isWaitingForDestinationRequest()) {
+			this.consoleOutput(RequestEvent.SENT, elevatorName, "Open elevator door.");
+			this.sendToElevator(new ElevatorDoorRequest(elevatorName, ElevatorDoorStatus.OPENED), elevatorMonitor);
+			
+			//Monitor the Elevator Door request
+			this.startMonitoredEvent(elevatorMonitor, MonitoredSchedulerEvent.ELEVATOR_OPEN_DOOR, elevatorMonitor.getExpectedDoorOperationTime());
+		} else if (elevatorMonitor.isStopRequired(floorNumber)) {
+			this.consoleOutput(RequestEvent.SENT, elevatorName, "Stop elevator.");
+			this.sendToElevator(new ElevatorMotorRequest(elevatorName, Direction.IDLE), elevatorMonitor);
+		} else {
+			this.eventElevatorDoorClosed(elevatorMonitor);
+		}
+	}
+	
+	/**
+	 * Move trip requests onto an elevator which has just returned to service. Pending trip requests are assigned first, then each trip request 
+	 * not yet started by another elevator (the pickup has not occurred) is moved if this elevator's estimated pickup time is shorter.
+	 * 
+	 * @param elevatorMonitor
+	 */
+	private void rebalanceTripRequests(ElevatorMonitor elevatorMonitor) {
+		String elevatorName = elevatorMonitor.getElevatorName();
+		if (!this.pendingTripRequests.isEmpty()) {
+			HashSet<TripRequest> assignedPendingRequests = this.assignPendingRequestsToElevator(elevatorMonitor);
+			if (!assignedPendingRequests.isEmpty()) {
+				this.consoleOutput("The following pending trip requests have been assigned to " + elevatorName + "  : " + assignedPendingRequests);
+			}
+		}
+		
+		for (ElevatorMonitor otherElevatorMonitor : this.elevatorMonitors) {
+			if ((otherElevatorMonitor == elevatorMonitor) || (otherElevatorMonitor.getElevatorStatus() == ElevatorStatus.OUT_OF_SERVICE)) {
+				continue;
+			}
+			
+			for (TripRequest tripRequest : otherElevatorMonitor.getUnstartedTripRequests()) {
+				Integer estimatedPickupTime = elevatorMonitor.estimatePickupTime(tripRequest);
+				if (estimatedPickupTime == null) {
+					continue;
+				}
+				Integer currentEstimatedPickupTime = otherElevatorMonitor.estimatePickupTime(tripRequest);
+				if ((currentEstimatedPickupTime == null) || (estimatedPickupTime < currentEstimatedPickupTime)) {
+					if (elevatorMonitor.addTripRequest(tripRequest)) {
+						otherElevatorMonitor.unassignTripRequest(tripRequest);
+						this.consoleOutput("Trip request " + tripRequest + " was rebalanced from " + otherElevatorMonitor.getElevatorName() + " to " + elevatorName + ".");
+						this.traceTrip(tripRequest, TripStage.ASSIGNED, elevatorMonitor);
+						this.announceTripAssignment(tripRequest, elevatorMonitor);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Configure how many completed trips each ElevatorMonitor keeps in memory and for how long, and where older trips are archived.
+	 * Each setting is optional: completedTripCapacity, completedTripRetention (milliseconds) and tripArchiveDirectory (evicted trips are discarded if not set).
+	 * 
+	 * @param schedulerConfiguration
+	 */
+	private void configureCompletedTripHistory(HashMap<String, String> schedulerConfiguration) {
+		int capacity = (schedulerConfiguration.get("completedTripCapacity") == null) ? ElevatorMonitor.DEFAULT_COMPLETED_TRIP_CAPACITY : Integer.parseInt(schedulerConfiguration.get("completedTripCapacity"));
+		long retention = (schedulerConfiguration.get("completedTripRetention") == null) ? ElevatorMonitor.DEFAULT_COMPLETED_TRIP_RETENTION : Long.parseLong(schedulerConfiguration.get("completedTripRetention"));
+		TripArchive tripArchive = null;
+		if (schedulerConfiguration.get("tripArchiveDirectory") != null) {
+			try {
+				tripArchive = new TripArchive(new File(schedulerConfiguration.get("tripArchiveDirectory")));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		this.setCompletedTripHistory(capacity, retention, tripArchive);
+	}
+	
+	/**
+	 * Give each ElevatorMonitor a new CompletedTripHistory. Each elevator's trips are archived under its key in the archive, which is assigned
+	 * by the elevator's name, so the archive does not depend on the order of the elevators in config.xml or on the bank they are in.
+	 * 
+	 * @param capacity
+	 * @param retention		- time (milliseconds)
+	 * @param tripArchive	- null to discard evicted trips
+	 */
+	void setCompletedTripHistory(int capacity, long retention, TripArchive tripArchive) {
+		this.tripArchive = tripArchive;
+		for (ElevatorMonitor elevatorMonitor : this.elevatorMonitors) {
+			int elevatorKey = (tripArchive == null) ? elevatorMonitor.getElevatorId() : tripArchive.getElevatorKey(elevatorMonitor.getElevatorName());
+			elevatorMonitor.setCompletedTripHistory(new CompletedTripHistory(elevatorKey, capacity, retention, tripArchive));
+		}
+	}
+	
+	/**
+	 * Get the bus changes to trip requests (destination set, started, completed) are published on.
+	 * @return
+	 */
+	public TripEventBus getTripEventBus() {
+		return this.tripEventBus;
+	}
+	
+	/**
+	 * Get the clock this Scheduler's state is timed by.
+	 * @return
+	 */
+	SchedulerClock getClock() {
+		return this.clock;
+	}
+	
+	/**
+	 * Get the archive of completed trips evicted from the ElevatorMonitors, for reports.
+	 * @return the archive, or null if evicted trips are discarded
+	 */
+	public TripArchive getTripArchive() {
+		return this.tripArchive;
+	}
+	
+	/**
+	 * Open the journal in the configured journal directory.
+	 * 
+	 * @param schedulerConfiguration
+	 */
+	private void openJournal(HashMap<String, String> schedulerConfiguration) {
+		this.journalDirectory = new File(schedulerConfiguration.get("journalDirectory"));
+		this.journalDirectory.mkdirs();
+		this.snapshotInterval = Integer.parseInt(schedulerConfiguration.get("snapshotInterval"));
+		try {
+			this.journal = new SchedulerJournal(new File(this.journalDirectory, JOURNAL_FILE), Integer.parseInt(schedulerConfiguration.get("journalSize")), Integer.parseInt(schedulerConfiguration.get("journalCommitInterval")));
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		
+		//Start the group commit thread
+		Thread journalThread = new Thread(this.journal, this.name + "_journal");
+		journalThread.setDaemon(true);
+		journalThread.start();
+	}
+	
+	/**
+	 * Append a record to the journal. If the journal is full when an event (request, monitored event or heartbeat timeout) is journaled, a snapshot is taken (which resets the journal) 
+	 * and the record is appended to the new journal. Events are journaled before they are handled, so the snapshot never contains a partially handled event.
+	 * Records written while an event is being handled (outbound requests, trip assignments) are not needed for recovery, if the journal is full they are dropped.
+	 * Events are also replicated to the standby Scheduler (if one is connected) before they are handled.
+	 * No records are appended while the Scheduler is recovering.
+	 * 
+	 * @param recordType
+	 * @param payload
+	 * @param payloadLength
+	 */
+	private void journalRecord(byte recordType, byte[] payload, int payloadLength) {
+		if (this.recovering) {
+			return;
+		}
+		
+		long time = this.clock.currentTimeMillis();
+		boolean isEvent = (recordType == SchedulerJournal.REQUEST) || (recordType == SchedulerJournal.MONITORED_EVENT_TIMEOUT) || (recordType == SchedulerJournal.HEARTBEAT_TIMEOUT);
+		if ((this.replicator != null) && isEvent) {
+			this.replicator.replicate(recordType, time, payload, payloadLength);
+		}
+		
+		if (this.journal == null) {
+			return;
+		}
+		if (!this.journal.append(recordType, time, payload, payloadLength)) {
+			if (!isEvent) {
+				return;
+			}
+			this.takeSnapshot();
+			if (!this.journal.append(recordType, time, payload, payloadLength)) {
+				this.consoleOutput("Journal record of " + payloadLength + " bytes does not fit in the journal. Record was not journaled.");
+			}
+		}
+	}
+	
+	/**
+	 * Journal a record whose payload is the whole array.
+	 * @param recordType
+	 * @param payload
+	 */
+	private void journalRecord(byte recordType, byte[] payload) {
+		this.journalRecord(recordType, payload, payload.length);
+	}
+	
+	/**
+	 * Journal a received request in its wire format.
+	 * @param request
+	 */
+	private void journalRequest(Request request) {
+		if (((this.journal == null) && (this.replicator == null)) || this.recovering) {
+			return;
+		}
+		
+		try {
+			DatagramPacket packet = Helper.CreateRequest(request);
+			this.journalRecord(SchedulerJournal.REQUEST, packet.getData(), packet.getLength());
+		} catch (InvalidRequestException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Journal a request sent by the Scheduler, in its wire format. These records are not replayed, they are the recorded
+	 * command stream that SchedulerReplay compares a replay against.
+	 * 
+	 * @param targetType	- SchedulerJournal.TARGET_ELEVATOR or SchedulerJournal.TARGET_FLOOR
+	 * @param targetId		- elevator id or floor id
+	 * @param request
+	 */
+	private void journalOutbound(byte targetType, int targetId, Request request) {
+		if ((this.journal == null) || this.recovering) {
+			return;
+		}
+		
+		try {
+			DatagramPacket packet = Helper.CreateRequest(request);
+			ByteBuffer payload = ByteBuffer.allocate(5 + packet.getLength());
+			payload.put(targetType);
+			payload.putInt(targetId);
+			payload.put(packet.getData(), 0, packet.getLength());
+			this.journalRecord(SchedulerJournal.OUTBOUND, payload.array());
+		} catch (InvalidRequestException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Journal the decision made by the planningSystem for a trip request.
+	 * These records are not replayed (replaying the requests makes the same decisions again, as each PlanningStrategy decides from the state alone
+	 * and the LookAheadPlanningStrategy's budget is counted in simulated steps rather than time), they record why the state is what it is.
+	 * 
+	 * @param tripRequest
+	 * @param elevatorMonitor	- elevator the trip was assigned to, null if the trip was added to the pending requests
+	 */
+	private void journalTripAssignment(TripRequest tripRequest, ElevatorMonitor elevatorMonitor) {
+		if ((this.journal == null) || this.recovering) {
+			return;
+		}
+		
+		ByteBuffer payload = ByteBuffer.allocate(9);
+		payload.putInt(tripRequest.getPickupFloor());
+		payload.put((byte) tripRequest.getDirection().ordinal());
+		payload.putInt(elevatorMonitor == null ? -1 : elevatorMonitor.getElevatorId());
+		this.journalRecord(SchedulerJournal.TRIP_ASSIGNMENT, payload.array());
+	}
+	
+	/**
+	 * Write a snapshot of the state of all ElevatorMonitors, the pending trip requests and the outstanding monitored events, then reset the journal.
+	 * The snapshot is written to a temporary file and then renamed, so there is always one complete snapshot on disk. The snapshot is tagged with the
+	 * generation the journal is reset to, so that on recovery the journal is only replayed on top of the snapshot it follows.
+	 */
+	private synchronized void takeSnapshot() {
+		long generation = this.journal.getGeneration() + 1;
+		File snapshotFile = new File(this.journalDirectory, SNAPSHOT_FILE);
+		File temporaryFile = new File(this.journalDirectory, SNAPSHOT_FILE + ".tmp");
+		
+		try {
+			FileOutputStream fileOutputStream = new FileOutputStream(temporaryFile);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOutputStream));
+			out.writeInt(SNAPSHOT_MAGIC);
+			out.writeLong(generation);
+			this.writeState(out);
+			
+			//Number of trips archived, the completed trips held in memory follow them
+			if (this.tripArchive != null) {
+				this.tripArchive.flush();
+			}
+			out.writeLong((this.tripArchive == null) ? 0 : this.tripArchive.getTripCount());
+			
+			out.flush();
+			fileOutputStream.getFD().sync();
+			out.close();
+			Files.move(temporaryFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			//Keep appending to the current journal, it still holds everything since the last snapshot
+			e.printStackTrace();
+			return;
+		}
+		
+		this.journal.reset(generation);
+	}
+	
+	/**
+	 * Write the epoch, and the state of all ElevatorMonitors, the outstanding monitored events and the pending trip requests.
+	 * This is the body of a snapshot, and the state sent to a standby Scheduler when it connects (see SchedulerReplicator).
+	 * 
+	 * @param out
+	 * @throws IOException
+	 */
+	private void writeState(DataOutputStream out) throws IOException {
+		out.writeInt(this.elevatorMonitors.length);
+		out.writeLong(this.epoch);
+		for (ElevatorMonitor elevatorMonitor : this.elevatorMonitors) {
+			elevatorMonitor.writeSnapshot(out);
+			
+			//Outstanding monitored event for this elevator
+			MonitoredEventTimer monitoredEventTimer = this.monitoredSchedulerEvents[elevatorMonitor.getElevatorId()];
+			if (monitoredEventTimer == null) {
+				out.writeByte(-1);
+			} else {
+				out.writeByte(monitoredEventTimer.getMonitoredSchedulerEvent().ordinal());
+				out.writeInt(monitoredEventTimer.getDuration());
+			}
+		}
+		
+		out.writeInt(this.pendingTripRequests.size());
+		for (TripRequest tripRequest : this.pendingTripRequests) {
+			tripRequest.writeSnapshot(out);
+		}
+	}
+	
+	/**
+	 * Read the state written by writeState() into the ElevatorMonitors, monitored events and pending trip requests.
+	 * 
+	 * @param in
+	 * @return false if the state does not match the configured elevators (nothing is read)
+	 * @throws IOException
+	 */
+	private boolean readState(DataInputStream in) throws IOException {
+		if (in.readInt() != this.elevatorMonitors.length) {
+			return false;
+		}
+		this.epoch = in.readLong();
+		for (ElevatorMonitor elevatorMonitor : this.elevatorMonitors) {
+			elevatorMonitor.readSnapshot(in);
+			
+			byte monitoredSchedulerEvent = in.readByte();
+			if (monitoredSchedulerEvent >= 0) {
+				this.addMonitoredEvent(elevatorMonitor.getElevatorId(), new MonitoredEventTimer(this, elevatorMonitor.getElevatorId(), MonitoredSchedulerEvent.values()[monitoredSchedulerEvent], in.readInt()));
+			} else {
+				this.addMonitoredEvent(elevatorMonitor.getElevatorId(), null);
+			}
+		}
+		
+		//A standby which is sent a new snapshot (after it fell behind the primary) replaces its pending trip requests
+		this.pendingTripRequests.clear();
+		int numberOfPendingTripRequests = in.readInt();
+		for (int i = 0; i < numberOfPendingTripRequests; i++) {
+			this.pendingTripRequests.add(TripRequest.readSnapshot(in));
+		}
+		return true;
+	}
+	
+	/**
+	 * Load the snapshot into the ElevatorMonitors, pending trip requests and monitored events.
+	 * 
+	 * @param snapshotFile
+	 * @return the generation of the journal which follows this snapshot, or -1 if the snapshot could not be loaded
+	 */
+	long loadSnapshot(File snapshotFile) {
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+			try {
+				if (in.readInt() != SNAPSHOT_MAGIC) {
+					this.consoleOutput("Snapshot " + snapshotFile + " is not a Scheduler snapshot. Ignoring snapshot.");
+					return -1;
+				}
+				long generation = in.readLong();
+				if (!this.readState(in)) {
+					this.consoleOutput("Snapshot " + snapshotFile + " does not match the configured elevators. Ignoring snapshot.");
+					return -1;
+				}
+				
+				//Discard the trips archived after the snapshot, they are archived again as the journal is replayed
+				long archivedTripCount = in.readLong();
+				if (this.tripArchive != null) {
+					this.tripArchive.truncate(archivedTripCount);
+				}
+				return generation;
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return -1;
+	}
+	
+	/**
+	 * Rebuild the Scheduler's state from the last snapshot and the journal records written after it.
+	 * While replaying, the handlers run exactly as they did originally except no requests are sent and no timers are started.
+	 * Once the state is rebuilt, the monitored events still outstanding are started again.
+	 */
+	private synchronized void recover() {
+		if (this.journal == null) {
+			return;
+		}
+		long startTime = System.nanoTime();
+		this.recovering = true;
+		
+		File snapshotFile = new File(this.journalDirectory, SNAPSHOT_FILE);
+		long snapshotGeneration = snapshotFile.exists() ? this.loadSnapshot(snapshotFile) : 0;
+		long journalGeneration = this.journal.getGeneration();
+		ArrayList<SchedulerJournalRecord> records = this.journal.getRecoveredRecords();
+		int replayedRecords = 0;
+		
+		if (snapshotGeneration == journalGeneration) {
+			//The journal follows the snapshot, replay it
+			for (SchedulerJournalRecord record : records) {
+				if (this.replayRecord(record)) {
+					replayedRecords++;
+				}
+			}
+			this.clock.clearReplayTime();
+		} else if (snapshotGeneration == journalGeneration + 1) {
+			//The Scheduler stopped after writing the snapshot but before resetting the journal, the snapshot already contains every journal record
+			this.journal.reset(snapshotGeneration);
+		} else {
+			this.recovering = false;
+			this.consoleOutput("Journal (generation " + journalGeneration + ") does not follow the snapshot (generation " + snapshotGeneration + "). Journal was not replayed.");
+			this.journal.reset(Math.max(snapshotGeneration, journalGeneration) + 1);
+		}
+		this.journal.clearRecoveredRecords();
+		this.recovering = false;
+		
+		//Restart the monitored events that were outstanding when the Scheduler stopped
+		for (MonitoredEventTimer monitoredEventTimer : this.monitoredSchedulerEvents) {
+			if (monitoredEventTimer != null) {
+				this.monitoredEventTimerService.start(monitoredEventTimer);
+			}
+		}
+		
+		if (snapshotFile.exists() || !records.isEmpty()) {
+			this.consoleOutput("Recovered state from snapshot (generation " + snapshotGeneration + ") and " + replayedRecords + " journal records in " + ((System.nanoTime() - startTime) / 1000000.0) + "ms.");
+			for (ElevatorMonitor elevatorMonitor : this.elevatorMonitors) {
+				this.consoleOutput(elevatorMonitor.toString());
+			}
+			this.consoleOutput("Pending trip requests: " + this.pendingTripRequests);
+		}
+	}
+	
+	/**
+	 * Replay a single journal record.
+	 * 
+	 * @param record
+	 * @return true if the record changed the Scheduler's state
+	 */
+	boolean replayRecord(SchedulerJournalRecord record) {
+		this.clock.setReplayTime(record.getTime());
+		switch (record.getRecordType()) {
+			case SchedulerJournal.REQUEST:
+				try {
+					Request request = Helper.ParseRequest(new DatagramPacket(record.getPayload(), record.getPayload().length));
+					this.eventDispatcher.dispatch(request);
+					return true;
+				} catch (InvalidRequestException e) {
+					e.printStackTrace();
+				}
+				break;
+			case SchedulerJournal.MONITORED_EVENT_TIMEOUT:
+				MonitoredEventTimer monitoredEventTimer = this.monitoredSchedulerEvents[ByteBuffer.wrap(record.getPayload()).getInt()];
+				if (monitoredEventTimer != null) {
+					this.handleMonitoredEventTimeout(monitoredEventTimer);
+					return true;
+				}
+				break;
+			case SchedulerJournal.HEARTBEAT_TIMEOUT:
+				int elevatorId = ByteBuffer.wrap(record.getPayload()).getInt();
+				if (this.elevatorMonitors[elevatorId].getElevatorStatus() != ElevatorStatus.OUT_OF_SERVICE) {
+					this.handleHeartbeatTimeout(elevatorId);
+					return true;
+				}
+				break;
+		}
+		return false;
+	}
+	
+	/**
+	 * Write the Scheduler's state to a standby Scheduler which has just connected (see SchedulerReplicator).
+	 * @param out
+	 * @throws IOException
+	 */
+	synchronized void writeReplicationSnapshot(DataOutputStream out) throws IOException {
+		this.writeState(out);
+	}
+	
+	/**
+	 * Load the primary Scheduler's state into this standby Scheduler (see SchedulerStandby).
+	 * @param in
+	 * @return false if the primary's state does not match the configured elevators
+	 * @throws IOException
+	 */
+	synchronized boolean loadReplicationSnapshot(DataInputStream in) throws IOException {
+		return this.readState(in);
+	}
+	
+	/**
+	 * Apply an event replicated from the primary Scheduler to this standby Scheduler.
+	 * The event is handled as the journal is replayed on recovery, no requests are sent and no timers are started.
+	 * 
+	 * @param record
+	 */
+	synchronized void applyReplicatedRecord(SchedulerJournalRecord record) {
+		this.recovering = true;
+		this.replayRecord(record);
+		this.clock.clearReplayTime();
+		this.recovering = false;
+	}
+	
+	/**
+	 * Promote this standby Scheduler to primary, once the primary Scheduler has failed.
+	 * The standby takes over the primary's port if the primary ran on this host and the port is free. Otherwise the standby listens on its own port.
+	 * The standby sends with the next epoch, and every elevator and floor is redirected to it, so they ignore the primary from then on if it 
+	 * has not failed after all (ie. it was hung). The standby of a bank redirects the bank's elevators and the BankRouter instead, as the floors
+	 * send their hall calls to the router. If the primary still holds its port it is redirected too, so it steps down (see stepDown()).
+	 * Outstanding monitored events are started again, as the primary's timers were lost with it.
+	 * 
+	 * @param primaryConfiguration
+	 * @param standbyConfiguration
+	 * @return false if the standby could not listen for requests (it has not taken over)
+	 */
+	synchronized boolean takeOver(HashMap<String, String> primaryConfiguration, HashMap<String, String> standbyConfiguration) {
+		long startTime = System.nanoTime();
+		String primaryHost = primaryConfiguration.get("host");
+		int primaryPort = Integer.parseInt(primaryConfiguration.get("port"));
+		
+		//Take over the primary's endpoint if possible
+		String host = primaryHost;
+		int port = primaryPort;
+		DatagramSocket receiveSocket = null;
+		try {
+			if (this.isLocalHost(host)) {
+				receiveSocket = new DatagramSocket(port);
+			}
+		} catch (SocketException e) {
+			//The primary's port is still held (the primary is hung rather than stopped), fall back to the standby's own port
+		}
+		boolean redirect = (receiveSocket == null);
+		if (redirect) {
+			host = standbyConfiguration.get("host");
+			port = Integer.parseInt(standbyConfiguration.get("port"));
+			try {
+				receiveSocket = new DatagramSocket(port);
+			} catch (SocketException e) {
+				e.printStackTrace();
+				return false;
+			}
+		}
+		this.epoch++;
+		
+		this.server = new Server(this, receiveSocket, this.debug);
+		this.transport = new ServerSchedulerTransport(this.server, this.registry);
+		this.serverThread = new Thread(this.server, this.name);
+		this.serverThread.start();
+		
+		//Journal from the taken over state onwards (if configured)
+		if (standbyConfiguration.get("journalDirectory") != null) {
+			this.openJournal(standbyConfiguration);
+			if (this.journal != null) {
+				this.journal.clearRecoveredRecords();
+				this.takeSnapshot();
+			}
+		}
+		
+		//Redirect all elevators to this Scheduler, and the floors (or the BankRouter forwarding their hall calls to this bank), and the primary
+		//if it still holds its port
+		SchedulerRedirectRequest request = new SchedulerRedirectRequest((this.bank == null) ? this.name : this.bank.getName(), host, String.valueOf(port));
+		request.setEpoch(this.epoch);
+		for (ElevatorMonitor elevatorMonitor : this.elevatorMonitors) {
+			this.sendToElevator(request, elevatorMonitor);
+		}
+		if (this.bank == null) {
+			for (int floorId = 0; floorId < this.registry.getNumberOfFloors(); floorId++) {
+				this.sendToFloor(request, this.registry.getFloorNumber(floorId));
+			}
+		} else {
+			HashMap<String, String> banksConfiguration = ElevatorSystemConfiguration.getBanksConfiguration();
+			this.server.send(request, banksConfiguration.get("routerHost"), Integer.parseInt(banksConfiguration.get("routerPort")));
+		}
+		if (redirect) {
+			this.server.send(request, primaryHost, primaryPort);
+		}
+		
+		//Restart the monitored events that were outstanding when the primary failed
+		for (MonitoredEventTimer monitoredEventTimer : this.monitoredSchedulerEvents) {
+			if (monitoredEventTimer != null) {
+				this.monitoredEventTimerService.start(monitoredEventTimer);
+			}
+		}
+		
+		this.consoleOutput("[STANDBY] Took over from primary in " + ((System.nanoTime() - startTime) / 1000000.0) + "ms. Listening at " + host + ":" + port + " with epoch " + this.epoch + (redirect ? " (elevators and " + ((this.bank == null) ? "floors" : "BankRouter") + " redirected)." : "."));
+		for (ElevatorMonitor elevatorMonitor : this.elevatorMonitors) {
+			this.consoleOutput(elevatorMonitor.toString());
+		}
+		this.consoleOutput("Pending trip requests: " + this.pendingTripRequests);
+		return true;
+	}
+	
+	/**
+	 * Stop scheduling, once another Scheduler (a standby) has taken over from this one. No further events are handled and no further
+	 * requests are sent, the elevators and floors would ignore them anyway as they carry this Scheduler's older epoch.
+	 * 
+	 * @param reason
+	 */
+	synchronized void stepDown(String reason) {
+		if (this.steppedDown) {
+			return;
+		}
+		this.steppedDown = true;
+		this.eventsQueue.clear();
+		for (int elevatorId = 0; elevatorId < this.monitoredSchedulerEvents.length; elevatorId++) {
+			if (this.monitoredSchedulerEvents[elevatorId] != null) {
+				this.monitoredSchedulerEvents[elevatorId].cancel();
+			}
+		}
+		if (this.replicator != null) {
+			this.replicator.close();
+		}
+		this.consoleOutput("[STEPPED DOWN] " + reason + " This Scheduler no longer handles events.");
+	}
+	
+	/**
+	 * Check if a host name refers to this machine.
+	 * @param host
+	 * @return
+	 */
+	private boolean isLocalHost(String host) {
+		try {
+			InetAddress address = InetAddress.getByName(host);
+			return address.isLoopbackAddress() || address.isAnyLocalAddress() || (NetworkInterface.getByInetAddress(address) != null);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Enable or disable this Scheduler's console output.
+	 * @param consoleOutputEnabled
+	 */
+	void setConsoleOutputEnabled(boolean consoleOutputEnabled) {
+		this.consoleOutputEnabled = consoleOutputEnabled;
+	}
+	
+	ElevatorSystemRegistry getRegistry() {
+		return this.registry;
+	}
+	
+	ElevatorMonitor[] getElevatorMonitors() {
+		return this.elevatorMonitors;
+	}
+	
+	ArrayList<TripRequest> getPendingTripRequests() {
+		return this.pendingTripRequests;
+	}
+	
 	/**
 	 * Print to console in a specific format.
 	 * @param output
 	 */
-	private void consoleOutput(String output) {
+	void consoleOutput(String output) {
+		if (this.recovering || !this.consoleOutputEnabled) {
+			return;
+		}
 		System.out.println("[" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("hh:mm:ss.S")) + "] " + this.name + " : " + output);
 	}
 	
@@ -798,6 +2352,9 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 	 * @param output
 	 */
 	private void consoleOutput(RequestEvent event, String target, String output) {
+		if (this.recovering || !this.consoleOutputEnabled) {
+			return;
+		}
 		if (event.equals(RequestEvent.SENT)) {
 			System.out.println("[" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("hh:mm:ss.S")) + "] " + this.name + " : [EVENT SENT TO " + target + "] " + output);
 		} else if (event.equals(RequestEvent.RECEIVED)) {
@@ -815,15 +2372,72 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 		//This will return a Map of all attributes for the Scheduler (as per config.xml)
 		HashMap<String, String> schedulerConfiguration = ElevatorSystemConfiguration.getSchedulerConfiguration();
 		
-		//Instantiate the scheduler
-		Scheduler scheduler = new Scheduler(schedulerConfiguration.get("name"), Integer.parseInt(schedulerConfiguration.get("port")), elevatorConfigurations, floorConfigurations);
+		//This will return a Map of the port each process serves its metrics on (as per config.xml)
+		HashMap<String, String> metricsConfiguration = ElevatorSystemConfiguration.getMetricsConfiguration();
 		
-		//Spawn and start a new thread for this Scheduler
-		Thread schedulerThread = new Thread(scheduler, schedulerConfiguration.get("name"));
-		ElevatorFrame frame = new ElevatorFrame(scheduler.elevatorMonitorByElevatorName);
+		//Instantiate the scheduler, the standby scheduler if started with the argument "standby", or the scheduler of each elevator bank
+		//named after the argument "bank" (every bank if none are named), so the banks can be scheduled in the same or in different processes.
+		//The standby schedulers of the banks are started with the arguments "standby bank", followed by the names of the banks
+		ArrayList<Scheduler> schedulers = new ArrayList<Scheduler>();
+		String metricsPort = null;
+		if ((args.length > 1) && args[0].equalsIgnoreCase("standby") && args[1].equalsIgnoreCase("bank")) {
+			List<String> bankNames = Arrays.asList(args).subList(2, args.length);
+			for (ElevatorBank bank : ElevatorBank.getConfiguredBanks()) {
+				if (!bankNames.isEmpty() && !bankNames.contains(bank.getName())) {
+					continue;
+				}
+				HashMap<String, String> standbyConfiguration = bank.getStandbySchedulerConfiguration();
+				if ((bank.getSchedulerConfiguration().get("replicationPort") == null) || (standbyConfiguration.get("port") == null)) {
+					System.out.println("Replication is not configured for bank " + bank.getName() + " in config.xml (replicationPort and standbyPort), the bank has no standby.");
+					continue;
+				}
+				schedulers.add(new Scheduler(bank, elevatorConfigurations, floorConfigurations, standbyConfiguration));
+				
+				//Each process serves the metrics of its standbys on the port of the first bank which sets one
+				if (metricsPort == null) {
+					metricsPort = standbyConfiguration.get("metricsPort");
+				}
+			}
+		} else if ((args.length > 0) && args[0].equalsIgnoreCase("standby")) {
+			if (schedulerConfiguration.get("replicationPort") == null) {
+				System.out.println("Replication is not configured in config.xml, the Scheduler has no standby.");
+				return;
+			}
+			
+			//This will return a Map of all attributes for the standby Scheduler (as per config.xml)
+			HashMap<String, String> standbyConfiguration = ElevatorSystemConfiguration.getStandbySchedulerConfiguration();
+			schedulers.add(new Scheduler(standbyConfiguration.get("name"), elevatorConfigurations, floorConfigurations, schedulerConfiguration, standbyConfiguration));
+			metricsPort = metricsConfiguration.get("standbySchedulerPort");
+		} else if ((args.length > 0) && args[0].equalsIgnoreCase("bank")) {
+			List<String> bankNames = Arrays.asList(args).subList(1, args.length);
+			for (ElevatorBank bank : ElevatorBank.getConfiguredBanks()) {
+				if (bankNames.isEmpty() || bankNames.contains(bank.getName())) {
+					schedulers.add(new Scheduler(bank, elevatorConfigurations, floorConfigurations));
+					
+					//Each process serves the metrics of its banks on the port of the first bank which sets one
+					if (metricsPort == null) {
+						metricsPort = bank.getSchedulerConfiguration().get("metricsPort");
+					}
+				}
+			}
+		} else {
+			schedulers.add(new Scheduler(schedulerConfiguration.get("name"), Integer.parseInt(schedulerConfiguration.get("port")), elevatorConfigurations, floorConfigurations, schedulerConfiguration));
+			metricsPort = metricsConfiguration.get("schedulerPort");
+		}
+		
+		//Serve the metrics for scraping (if configured)
+		if (metricsPort != null) {
+			MetricsServer.start(MetricsRegistry.getDefault(), Integer.parseInt(metricsPort));
+		}
+		
+		//Spawn and start a new thread for each Scheduler
 		ConsoleDisplay console = new ConsoleDisplay();
 		console.init();
-		schedulerThread.start();
+		for (Scheduler scheduler : schedulers) {
+			Thread schedulerThread = new Thread(scheduler, scheduler.getName());
+			ElevatorFrame frame = new ElevatorFrame(scheduler.elevatorMonitors);
+			schedulerThread.start();
+		}
 		
 		//Sleep for 2.5 minutes to allow for simulation to complete. Then computer Scheduler's average response times
 		try {
@@ -831,7 +2445,10 @@ public class Scheduler implements Runnable, ElevatorSystemComponent {
 		} catch (InterruptedException e) {
 			e.printStackTrace();
 		}
-		scheduler.displaySchedulerResponseTimes();
+		for (Scheduler scheduler : schedulers) {
+			scheduler.displaySchedulerResponseTimes();
+			scheduler.displayTripLatencies();
+		}
 
 	}
 }
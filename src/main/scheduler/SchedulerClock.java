@@ -0,0 +1,41 @@
+package main.scheduler;
+
+/**
+ * The SchedulerClock is the source of wall clock time for the Scheduler's state (ie. TripRequest creation, pickup and completion times).
+ * While the Scheduler is replaying its journal during recovery, the clock returns the time the journal record being replayed was originally
+ * written at, so that the rebuilt state carries the same times as the state that was lost.
+ *
+ * Each Scheduler has its own clock, so Schedulers in the same process (ie. the Schedulers of several elevator banks, or a SchedulerSimulation)
+ * do not see each other's replay time.
+ *
+ */
+public class SchedulerClock {
+	private volatile long replayTime = 0;		//Time of the journal record currently being replayed, 0 when not replaying
+
+	/**
+	 * Get the current time in milliseconds.
+	 * @return
+	 */
+	public long currentTimeMillis() {
+		long time = this.replayTime;
+		if (time != 0) {
+			return time;
+		}
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * Set the time of the journal record being replayed.
+	 * @param time
+	 */
+	void setReplayTime(long time) {
+		this.replayTime = time;
+	}
+
+	/**
+	 * Return to live time once replay is complete.
+	 */
+	void clearReplayTime() {
+		this.replayTime = 0;
+	}
+}
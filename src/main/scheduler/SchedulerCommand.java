@@ -0,0 +1,98 @@
+package main.scheduler;
+
+import java.net.DatagramPacket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import main.global.ElevatorSystemRegistry;
+import main.requests.*;
+
+/**
+ * A request sent by the Scheduler to an elevator or a floor, kept in wire format so that a recorded command stream and a replayed
+ * command stream can be compared exactly (see SchedulerReplay).
+ *
+ */
+public class SchedulerCommand {
+	private byte targetType;			//SchedulerJournal.TARGET_ELEVATOR or SchedulerJournal.TARGET_FLOOR
+	private int targetId;				//elevator id or floor id
+	private byte[] request;				//Request in wire format
+
+	public SchedulerCommand(byte targetType, int targetId, Request request) {
+		this.targetType = targetType;
+		this.targetId = targetId;
+		try {
+			DatagramPacket packet = Helper.CreateRequest(request);
+			this.request = Arrays.copyOf(packet.getData(), packet.getLength());
+		} catch (InvalidRequestException e) {
+			e.printStackTrace();
+			this.request = new byte[0];
+		}
+	}
+
+	private SchedulerCommand(byte targetType, int targetId, byte[] request) {
+		this.targetType = targetType;
+		this.targetId = targetId;
+		this.request = request;
+	}
+
+	/**
+	 * Read a SchedulerCommand from the payload of a SchedulerJournal.OUTBOUND record.
+	 * @param record
+	 * @return
+	 */
+	public static SchedulerCommand fromJournalRecord(SchedulerJournalRecord record) {
+		ByteBuffer payload = ByteBuffer.wrap(record.getPayload());
+		byte targetType = payload.get();
+		int targetId = payload.getInt();
+		byte[] request = new byte[payload.remaining()];
+		payload.get(request);
+		return new SchedulerCommand(targetType, targetId, request);
+	}
+
+	/**
+	 * Two commands are the same if they were sent to the same target and are identical on the wire.
+	 * @param command
+	 * @return
+	 */
+	public boolean sameAs(SchedulerCommand command) {
+		return (this.targetType == command.targetType) && (this.targetId == command.targetId) && Arrays.equals(this.request, command.request);
+	}
+
+	/**
+	 * Describe this command, ie. "E1 <- Door CLOSED"
+	 * @param registry
+	 * @return
+	 */
+	public String describe(ElevatorSystemRegistry registry) {
+		StringBuilder sb = new StringBuilder();
+		if (this.targetType == SchedulerJournal.TARGET_ELEVATOR) {
+			sb.append(registry.getElevatorName(this.targetId));
+		} else {
+			sb.append("Floor ");
+			sb.append(registry.getFloorName(this.targetId));
+		}
+		sb.append(" <- ");
+
+		Request request = null;
+		try {
+			request = Helper.ParseRequest(new DatagramPacket(this.request, this.request.length));
+		} catch (InvalidRequestException e) {
+			sb.append("[unreadable request]");
+			return sb.toString();
+		}
+
+		if (request instanceof ElevatorDoorRequest) {
+			sb.append("Door " + ((ElevatorDoorRequest) request).getRequestAction());
+		} else if (request instanceof ElevatorMotorRequest) {
+			sb.append("Motor " + ((ElevatorMotorRequest) request).getRequestAction());
+		} else if (request instanceof ElevatorWaitRequest) {
+			sb.append("Wait");
+		} else if (request instanceof ElevatorArrivalRequest) {
+			ElevatorArrivalRequest arrivalRequest = (ElevatorArrivalRequest) request;
+			sb.append("Arrival of " + arrivalRequest.getElevatorName() + " at floor " + arrivalRequest.getFloorName() + " going " + arrivalRequest.getDirection());
+		} else {
+			sb.append(request.getClass().getSimpleName());
+		}
+		return sb.toString();
+	}
+}
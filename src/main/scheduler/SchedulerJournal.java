@@ -0,0 +1,230 @@
+package main.scheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+/**
+ * The SchedulerJournal is an append only, memory mapped write-ahead log of everything the Scheduler needs to rebuild its state after a crash:
+ * every Request it handles (in wire format), every monitored event and heartbeat timeout it acts on, and every trip assignment decision it makes.
+ * The requests the Scheduler sends are journaled as well, so a journal is a complete recording which can be replayed (see SchedulerReplay).
+ *
+ * Records are written directly into the mapped file, so a record survives a crash of the Scheduler process as soon as append() returns.
+ * Flushing to disk (to survive a crash of the machine) is done by a group commit thread which forces all records appended in the last
+ * commit interval to disk at once, rather than once per record.
+ *
+ * File layout:
+ * 	- header: magic (int), generation (long)
+ * 	- records: length (int), checksum (int), record type (byte), time (long), payload (length - 9 bytes)
+ * The length of a record is written last, and the length slot following the last record is always zero, so a partially written record
+ * is never read back. The generation is incremented every time the journal is reset after a snapshot (see Scheduler.takeSnapshot()).
+ * The magic changes whenever the format of the journal or of a journaled Request changes, and a journal with any other magic is not opened,
+ * rather than being misread or overwritten.
+ *
+ */
+public class SchedulerJournal implements Runnable {
+	public static final byte REQUEST = 1;					//payload -> Request in wire format (as created by Helper)
+	public static final byte MONITORED_EVENT_TIMEOUT = 2;	//payload -> elevator id (int)
+	public static final byte TRIP_ASSIGNMENT = 3;			//payload -> pickup floor (int), direction (byte), elevator id (int), -1 if added to pending requests
+	public static final byte OUTBOUND = 4;					//payload -> target type (byte), target id (int), Request in wire format
+	public static final byte HEARTBEAT_TIMEOUT = 5;			//payload -> elevator id (int)
+	public static final byte TARGET_ELEVATOR = 0;
+	public static final byte TARGET_FLOOR = 1;
+
+	private static final int MAGIC = 0x534A524F;			//Requests carry the Scheduler's epoch
+	private static final int HEADER_SIZE = 12;
+	private static final int RECORD_HEADER_SIZE = 8;		//length, checksum
+	private static final int RECORD_BODY_HEADER_SIZE = 9;	//record type, time
+
+	private RandomAccessFile file;
+	private MappedByteBuffer buffer;
+	private long generation;
+	private int position;									//Offset at which the next record will be written
+	private int recordCount;								//Number of records appended since the last reset
+	private boolean dirty;									//Whether records have been appended since the last commit
+	private int commitInterval;								//Time between group commits (milliseconds)
+	private ArrayList<SchedulerJournalRecord> recoveredRecords;
+	private CRC32 checksum;
+
+	public SchedulerJournal(File journalFile, int journalSize, int commitInterval) throws IOException {
+		this.commitInterval = commitInterval;
+		this.checksum = new CRC32();
+		this.file = new RandomAccessFile(journalFile, "rw");
+		if (this.file.length() < journalSize) {
+			this.file.setLength(journalSize);
+		}
+		this.buffer = this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, this.file.length());
+
+		int magic = this.buffer.getInt(0);
+		if ((magic != MAGIC) && (magic != 0)) {
+			this.file.close();
+			throw new IOException("Journal " + journalFile + " has an unknown format (magic 0x" + Integer.toHexString(magic) + "), it was not opened");
+		}
+		if (magic == MAGIC) {
+			//Existing journal, read back the records written before the Scheduler was last stopped
+			this.generation = this.buffer.getLong(4);
+			this.recoveredRecords = this.readRecords();
+		} else {
+			//New journal
+			this.recoveredRecords = new ArrayList<SchedulerJournalRecord>();
+			this.buffer.putInt(0, MAGIC);
+			this.reset(0);
+		}
+	}
+
+	/**
+	 * Read all complete records from the start of the journal. The append position is set to the end of the last complete record.
+	 * @return
+	 */
+	private ArrayList<SchedulerJournalRecord> readRecords() {
+		ArrayList<SchedulerJournalRecord> records = new ArrayList<SchedulerJournalRecord>();
+		int offset = HEADER_SIZE;
+		while (offset + RECORD_HEADER_SIZE <= this.buffer.capacity()) {
+			int length = this.buffer.getInt(offset);
+			if ((length < RECORD_BODY_HEADER_SIZE) || (offset + RECORD_HEADER_SIZE + length > this.buffer.capacity())) {
+				break;
+			}
+
+			//Stop at the first record that fails its checksum (record was torn by a crash of the machine)
+			if (this.buffer.getInt(offset + 4) != this.calculateChecksum(offset + RECORD_HEADER_SIZE, length)) {
+				break;
+			}
+
+			int bodyOffset = offset + RECORD_HEADER_SIZE;
+			byte[] payload = new byte[length - RECORD_BODY_HEADER_SIZE];
+			ByteBuffer body = this.buffer.duplicate();
+			body.position(bodyOffset + RECORD_BODY_HEADER_SIZE);
+			body.get(payload);
+			records.add(new SchedulerJournalRecord(this.buffer.get(bodyOffset), this.buffer.getLong(bodyOffset + 1), payload));
+			offset = bodyOffset + length;
+		}
+
+		this.position = offset;
+		this.recordCount = records.size();
+		return records;
+	}
+
+	/**
+	 * Calculate the checksum of a record body.
+	 * @param offset
+	 * @param length
+	 * @return
+	 */
+	private int calculateChecksum(int offset, int length) {
+		ByteBuffer body = this.buffer.duplicate();
+		body.position(offset);
+		body.limit(offset + length);
+		this.checksum.reset();
+		this.checksum.update(body);
+		return (int) this.checksum.getValue();
+	}
+
+	/**
+	 * Append a record to the journal.
+	 *
+	 * @param recordType
+	 * @param time
+	 * @param payload
+	 * @param payloadLength
+	 * @return false if there is not enough space left in the journal for this record (the Scheduler must take a snapshot to reset the journal)
+	 */
+	public synchronized boolean append(byte recordType, long time, byte[] payload, int payloadLength) {
+		int length = RECORD_BODY_HEADER_SIZE + payloadLength;
+		int next = this.position + RECORD_HEADER_SIZE + length;
+
+		//Leave room to zero the length slot following this record
+		if (next + 4 > this.buffer.capacity()) {
+			return false;
+		}
+
+		int bodyOffset = this.position + RECORD_HEADER_SIZE;
+		this.buffer.put(bodyOffset, recordType);
+		this.buffer.putLong(bodyOffset + 1, time);
+		ByteBuffer body = this.buffer.duplicate();
+		body.position(bodyOffset + RECORD_BODY_HEADER_SIZE);
+		body.put(payload, 0, payloadLength);
+
+		this.buffer.putInt(next, 0);
+		this.buffer.putInt(this.position + 4, this.calculateChecksum(bodyOffset, length));
+		this.buffer.putInt(this.position, length);
+
+		this.position = next;
+		this.recordCount++;
+		this.dirty = true;
+		return true;
+	}
+
+	/**
+	 * Discard all records and start a new generation of the journal.
+	 * This is to be called once a snapshot containing the state produced by all of the records has been written.
+	 *
+	 * @param generation
+	 */
+	public synchronized void reset(long generation) {
+		this.buffer.putInt(HEADER_SIZE, 0);
+		this.buffer.putLong(4, generation);
+		this.buffer.force();
+		this.generation = generation;
+		this.position = HEADER_SIZE;
+		this.recordCount = 0;
+		this.dirty = false;
+	}
+
+	/**
+	 * Get the records that were in the journal when it was opened.
+	 * @return
+	 */
+	public ArrayList<SchedulerJournalRecord> getRecoveredRecords() {
+		return this.recoveredRecords;
+	}
+
+	/**
+	 * Release the recovered records once they have been replayed.
+	 */
+	public void clearRecoveredRecords() {
+		this.recoveredRecords = new ArrayList<SchedulerJournalRecord>();
+	}
+
+	public synchronized long getGeneration() {
+		return this.generation;
+	}
+
+	/**
+	 * Get the number of records appended since the journal was last reset.
+	 * @return
+	 */
+	public synchronized int getRecordCount() {
+		return this.recordCount;
+	}
+
+	/**
+	 * Check if records have been appended since the last commit, and clear the flag.
+	 * @return
+	 */
+	private synchronized boolean takeDirty() {
+		boolean wasDirty = this.dirty;
+		this.dirty = false;
+		return wasDirty;
+	}
+
+	@Override
+	public void run() {
+		//Group commit, force all records appended during the last commitInterval to disk at once
+		while (true) {
+			try {
+				Thread.sleep(this.commitInterval);
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+
+			if (this.takeDirty()) {
+				this.buffer.force();
+			}
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package main.scheduler;
+
+/**
+ * A single record read back from the SchedulerJournal.
+ *
+ */
+public class SchedulerJournalRecord {
+	private byte recordType;
+	private long time;
+	private byte[] payload;
+
+	SchedulerJournalRecord(byte recordType, long time, byte[] payload) {
+		this.recordType = recordType;
+		this.time = time;
+		this.payload = payload;
+	}
+
+	/**
+	 * Get the type of this record (ie. SchedulerJournal.REQUEST).
+	 * @return
+	 */
+	public byte getRecordType() {
+		return this.recordType;
+	}
+
+	/**
+	 * Get the time (in milliseconds) this record was written.
+	 * @return
+	 */
+	public long getTime() {
+		return this.time;
+	}
+
+	public byte[] getPayload() {
+		return this.payload;
+	}
+}
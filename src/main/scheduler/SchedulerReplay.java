@@ -0,0 +1,253 @@
+package main.scheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import main.global.ElevatorSystemConfiguration;
+import main.global.ElevatorSystemRegistry;
+import main.requests.*;
+
+/**
+ * The SchedulerReplay tool reproduces the Scheduler's decisions from a recorded journal (see SchedulerJournal), without sockets and on a virtual clock.
+ * The elevator and floor configuration in config.xml must be the one the journal was recorded with.
+ *
+ * Usage:
+ * 	SchedulerReplay exact <journalDirectory> [planningStrategy]
+ * 		Feeds every recorded request and monitored event timeout into the Scheduler logic at its original time, and compares the requests the Scheduler
+ * 		sends against the recorded requests. With the strategy the journal was recorded with, any difference is a non-deterministic decision.
+ *
+ * 	SchedulerReplay compare <journalDirectory> <planningStrategy> [planningStrategy ...]
+ * 		Serves the recorded trip requests (at their original times) with each planning strategy, against simulated elevators and floors
+ * 		(see SchedulerSimulation), and compares the passenger wait time distributions. Every simulation starts from the configured start floors.
+ *
+ */
+public class SchedulerReplay {
+	private static final int MAXIMUM_DIFFERENCES_DISPLAYED = 20;
+
+	/**
+	 * Replay the journal exactly and compare the requests sent by the Scheduler with the recorded requests.
+	 *
+	 * @param journalDirectory
+	 * @param planningStrategy
+	 * @param elevatorConfigurations
+	 * @param floorConfigurations
+	 * @throws IOException
+	 */
+	public static void replayExact(File journalDirectory, PlanningStrategy planningStrategy, HashMap<String, HashMap<String, String>> elevatorConfigurations, HashMap<String, HashMap<String, String>> floorConfigurations) throws IOException {
+		SchedulerJournal journal = openJournal(journalDirectory);
+		ArrayList<SchedulerCommand> replayedCommands = new ArrayList<SchedulerCommand>();
+
+		//Record the requests sent, monitored event timers are never started as the recorded timeouts are replayed instead
+		SchedulerTransport transport = new SchedulerTransport() {
+			@Override
+			public void sendToElevator(Request request, int elevatorId) {
+				replayedCommands.add(new SchedulerCommand(SchedulerJournal.TARGET_ELEVATOR, elevatorId, request));
+			}
+
+			@Override
+			public void sendToFloor(Request request, int floorId) {
+				replayedCommands.add(new SchedulerCommand(SchedulerJournal.TARGET_FLOOR, floorId, request));
+			}
+		};
+		Scheduler scheduler = new Scheduler("Replay", elevatorConfigurations, floorConfigurations, planningStrategy, transport, monitoredEventTimer -> {});
+		scheduler.setConsoleOutputEnabled(false);
+
+		//A journal after the first generation follows a snapshot
+		if (journal.getGeneration() > 0) {
+			long snapshotGeneration = scheduler.loadSnapshot(new File(journalDirectory, Scheduler.SNAPSHOT_FILE));
+			if (snapshotGeneration != journal.getGeneration()) {
+				System.out.println("Journal (generation " + journal.getGeneration() + ") does not follow the snapshot (generation " + snapshotGeneration + "). The replay will not match the recording.");
+			}
+		}
+
+		long startTime = System.nanoTime();
+		ArrayList<SchedulerCommand> recordedCommands = new ArrayList<SchedulerCommand>();
+		int replayedRecords = 0;
+		for (SchedulerJournalRecord record : journal.getRecoveredRecords()) {
+			if (record.getRecordType() == SchedulerJournal.OUTBOUND) {
+				recordedCommands.add(SchedulerCommand.fromJournalRecord(record));
+			} else if (scheduler.replayRecord(record)) {
+				replayedRecords++;
+			}
+		}
+		scheduler.getClock().clearReplayTime();
+		double elapsedTime = (System.nanoTime() - startTime) / 1000000.0;
+
+		System.out.println("Replayed " + replayedRecords + " events in " + elapsedTime + "ms.");
+		displayDifferences(recordedCommands, replayedCommands, scheduler.getRegistry());
+	}
+
+	/**
+	 * Display where the replayed requests differ from the recorded requests.
+	 *
+	 * @param recordedCommands
+	 * @param replayedCommands
+	 * @param registry
+	 */
+	private static void displayDifferences(ArrayList<SchedulerCommand> recordedCommands, ArrayList<SchedulerCommand> replayedCommands, ElevatorSystemRegistry registry) {
+		int commonLength = Math.min(recordedCommands.size(), replayedCommands.size());
+		int differences = 0;
+		int firstDifference = -1;
+		for (int i = 0; i < commonLength; i++) {
+			if (!recordedCommands.get(i).sameAs(replayedCommands.get(i))) {
+				if (firstDifference < 0) {
+					firstDifference = i;
+				}
+				differences++;
+			}
+		}
+		differences += Math.abs(recordedCommands.size() - replayedCommands.size());
+
+		System.out.println("Recorded requests sent: " + recordedCommands.size() + ", replayed requests sent: " + replayedCommands.size());
+		if (differences == 0) {
+			System.out.println("Replay matches the recording.");
+			return;
+		}
+		if (firstDifference < 0) {
+			firstDifference = commonLength;
+		}
+		System.out.println(differences + " requests differ. First difference at request #" + firstDifference + ":");
+
+		System.out.printf("%-8s %-50s %-50s %n", "#", "Recorded", "Replayed");
+		int end = Math.min(Math.max(recordedCommands.size(), replayedCommands.size()), firstDifference + MAXIMUM_DIFFERENCES_DISPLAYED);
+		for (int i = Math.max(0, firstDifference - 2); i < end; i++) {
+			String recorded = (i < recordedCommands.size()) ? recordedCommands.get(i).describe(registry) : "--";
+			String replayed = (i < replayedCommands.size()) ? replayedCommands.get(i).describe(registry) : "--";
+			boolean same = (i < commonLength) && recordedCommands.get(i).sameAs(replayedCommands.get(i));
+			System.out.printf("%-8s %-50s %-50s %n", (same ? "" : "* ") + i, recorded, replayed);
+		}
+	}
+
+	/**
+	 * Serve the recorded trip requests with each planning strategy and display the passenger wait time distribution for each.
+	 *
+	 * @param journalDirectory
+	 * @param planningStrategyNames
+	 * @param elevatorConfigurations
+	 * @param floorConfigurations
+	 * @throws IOException
+	 */
+	public static void compareStrategies(File journalDirectory, ArrayList<String> planningStrategyNames, HashMap<String, HashMap<String, String>> elevatorConfigurations, HashMap<String, HashMap<String, String>> floorConfigurations) throws IOException {
+		SchedulerJournal journal = openJournal(journalDirectory);
+
+		//The trip requests made by passengers and the time each was made
+		ArrayList<FloorButtonRequest> tripRequests = new ArrayList<FloorButtonRequest>();
+		ArrayList<Long> requestTimes = new ArrayList<Long>();
+		for (SchedulerJournalRecord record : journal.getRecoveredRecords()) {
+			if (record.getRecordType() != SchedulerJournal.REQUEST) {
+				continue;
+			}
+			try {
+				Request request = Helper.ParseRequest(new DatagramPacket(record.getPayload(), record.getPayload().length));
+				if (request instanceof FloorButtonRequest) {
+					tripRequests.add((FloorButtonRequest) request);
+					requestTimes.add(record.getTime());
+				}
+			} catch (InvalidRequestException e) {
+				e.printStackTrace();
+			}
+		}
+		System.out.println("Serving " + tripRequests.size() + " recorded trip requests.");
+
+		System.out.printf("%-12s %-10s %-12s %-12s %-12s %-12s %-12s %-12s %-16s %n", "Strategy", "Picked up", "Not picked", "Mean wait", "p50 wait", "p90 wait", "p99 wait", "Max wait", "Mean trip time");
+		for (String planningStrategyName : planningStrategyNames) {
+			long startTime = System.nanoTime();
+			SchedulerSimulation simulation = new SchedulerSimulation(elevatorConfigurations, floorConfigurations, PlanningStrategy.forName(planningStrategyName));
+			simulation.run(tripRequests, requestTimes);
+			double elapsedTime = (System.nanoTime() - startTime) / 1000000.0;
+
+			ArrayList<Long> waitTimes = simulation.getWaitTimes();
+			System.out.printf("%-12s %-10d %-12d %-12.1f %-12.1f %-12.1f %-12.1f %-12.1f %-16.1f (simulated in %.1fms) %n",
+					planningStrategyName,
+					waitTimes.size(),
+					simulation.getPassengersNotPickedUp(),
+					calculateMean(waitTimes) / 1000.0,
+					percentile(waitTimes, 50) / 1000.0,
+					percentile(waitTimes, 90) / 1000.0,
+					percentile(waitTimes, 99) / 1000.0,
+					percentile(waitTimes, 100) / 1000.0,
+					calculateMean(simulation.getTripTimes()) / 1000.0,
+					elapsedTime);
+		}
+		System.out.println("(all times in seconds)");
+	}
+
+	/**
+	 * Open the journal in journalDirectory for reading.
+	 * @param journalDirectory
+	 * @return
+	 * @throws IOException
+	 */
+	private static SchedulerJournal openJournal(File journalDirectory) throws IOException {
+		File journalFile = new File(journalDirectory, Scheduler.JOURNAL_FILE);
+		if (!journalFile.exists()) {
+			throw new IOException("No journal found at " + journalFile);
+		}
+		return new SchedulerJournal(journalFile, 0, 0);
+	}
+
+	/**
+	 * Calculate the mean of a list of times.
+	 * @param times
+	 * @return
+	 */
+	private static double calculateMean(ArrayList<Long> times) {
+		if (times.isEmpty()) {
+			return 0;
+		}
+		double total = 0;
+		for (Long time : times) {
+			total += time;
+		}
+		return total / times.size();
+	}
+
+	/**
+	 * Get a percentile (nearest rank) of a sorted list of times.
+	 * @param sortedTimes
+	 * @param percentile
+	 * @return
+	 */
+	private static double percentile(ArrayList<Long> sortedTimes, int percentile) {
+		if (sortedTimes.isEmpty()) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(percentile / 100.0 * sortedTimes.size());
+		return sortedTimes.get(Math.max(rank, 1) - 1);
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.out.println("Usage: SchedulerReplay exact <journalDirectory> [planningStrategy]");
+			System.out.println("       SchedulerReplay compare <journalDirectory> <planningStrategy> [planningStrategy ...]");
+			return;
+		}
+
+		//This will return a Map of Maps. First key -> elevator Name, Value -> map of all attributes for that elevator (as per config.xml)
+		HashMap<String, HashMap<String, String>> elevatorConfigurations = ElevatorSystemConfiguration.getAllElevatorSubsystemConfigurations();
+
+		//This will return a Map of Maps. First key -> floor Name, Value -> map of all attributes for that elevator (as per config.xml)
+		HashMap<String, HashMap<String, String>> floorConfigurations = ElevatorSystemConfiguration.getAllFloorSubsytemConfigurations();
+
+		File journalDirectory = new File(args[1]);
+		try {
+			if (args[0].equalsIgnoreCase("exact")) {
+				PlanningStrategy planningStrategy = PlanningStrategy.forName((args.length > 2) ? args[2] : null);
+				replayExact(journalDirectory, planningStrategy, elevatorConfigurations, floorConfigurations);
+			} else if (args[0].equalsIgnoreCase("compare")) {
+				ArrayList<String> planningStrategyNames = new ArrayList<String>();
+				for (int i = 2; i < args.length; i++) {
+					planningStrategyNames.add(args[i]);
+				}
+				compareStrategies(journalDirectory, planningStrategyNames, elevatorConfigurations, floorConfigurations);
+			} else {
+				System.out.println("Unknown mode: " + args[0]);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
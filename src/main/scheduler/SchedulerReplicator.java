@@ -0,0 +1,242 @@
+package main.scheduler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The SchedulerReplicator streams the primary Scheduler's state to a standby Scheduler (see SchedulerStandby) over TCP.
+ * When a standby connects it is sent a snapshot of the Scheduler's state, followed by every event the Scheduler handles (requests, monitored
+ * event and heartbeat timeouts, as they are journaled) before the event is handled. A heartbeat is sent whenever no event has been sent for
+ * heartbeatInterval, so the standby can detect that the primary has stopped, even when no events are being handled.
+ *
+ * The Scheduler never writes to the standby's socket itself: each message is added to a bounded queue, and a sender thread writes the queue to
+ * the socket. If the queue is full, or a write has not completed within writeTimeout, the standby has fallen behind and it is disconnected. The
+ * primary carries on without it, and the standby connects again and is sent a new snapshot.
+ *
+ * Stream format (one message after another):
+ * 	- SNAPSHOT: Scheduler state (see Scheduler.writeState())
+ * 	- RECORD: record type (byte), time (long), payload length (int), payload
+ * 	- HEARTBEAT
+ * The standby sends TAKEN_OVER when it has taken over from the primary, the primary then steps down (see Scheduler.stepDown()).
+ *
+ */
+public class SchedulerReplicator implements Runnable {
+	static final byte SNAPSHOT = 1;
+	static final byte RECORD = 2;
+	static final byte HEARTBEAT = 3;
+	static final byte TAKEN_OVER = 4;
+	private static final int QUEUE_CAPACITY = 4096;			//Messages waiting to be sent to the standby before it is disconnected
+
+	private Scheduler scheduler;
+	private ServerSocket serverSocket;
+	private int heartbeatInterval;							//Time between heartbeats (milliseconds)
+	private int writeTimeout;								//Time a write to the standby may take before the standby is disconnected (milliseconds)
+	private StandbyConnection standby;						//Connection to the standby, null if no standby is connected
+
+	public SchedulerReplicator(Scheduler scheduler, int replicationPort, int heartbeatInterval, int writeTimeout) throws IOException {
+		this.scheduler = scheduler;
+		this.heartbeatInterval = heartbeatInterval;
+		this.writeTimeout = writeTimeout;
+		this.serverSocket = new ServerSocket(replicationPort);
+	}
+
+	/**
+	 * Queue an event to be sent to the standby. This is called before the event is handled, so the standby never falls behind the state the
+	 * primary has acted on by more than the queued events. If the queue is full the standby is disconnected, the primary carries on without it.
+	 *
+	 * @param recordType
+	 * @param time
+	 * @param payload
+	 * @param payloadLength
+	 */
+	public synchronized void replicate(byte recordType, long time, byte[] payload, int payloadLength) {
+		if (this.standby == null) {
+			return;
+		}
+
+		ByteArrayOutputStream message = new ByteArrayOutputStream(payloadLength + 14);
+		DataOutputStream out = new DataOutputStream(message);
+		try {
+			out.writeByte(RECORD);
+			out.writeByte(recordType);
+			out.writeLong(time);
+			out.writeInt(payloadLength);
+			out.write(payload, 0, payloadLength);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		if (!this.standby.queue.offer(message.toByteArray())) {
+			this.disconnect(this.standby, "Standby fell " + QUEUE_CAPACITY + " events behind.");
+		}
+	}
+
+	/**
+	 * Start replicating to a newly connected standby, replacing any standby connected before it.
+	 * @param standby
+	 */
+	private synchronized void connect(StandbyConnection standby) {
+		if (this.standby != null) {
+			this.disconnect(this.standby, "Replaced by standby at " + standby.socket.getRemoteSocketAddress() + ".");
+		}
+		this.standby = standby;
+	}
+
+	/**
+	 * Stop replicating to a standby, closing its socket also ends a write which is blocked.
+	 * @param standby
+	 * @param reason
+	 */
+	private synchronized void disconnect(StandbyConnection standby, String reason) {
+		if (standby.closed) {
+			return;
+		}
+		standby.closed = true;
+		this.scheduler.consoleOutput("[REPLICATION] Standby at " + standby.socket.getRemoteSocketAddress() + " disconnected. " + reason);
+		try {
+			standby.socket.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		if (this.standby == standby) {
+			this.standby = null;
+		}
+	}
+
+	/**
+	 * Stop replicating and accepting standbys, once the Scheduler has stepped down.
+	 */
+	synchronized void close() {
+		if (this.standby != null) {
+			this.disconnect(this.standby, "The Scheduler has stepped down.");
+		}
+		try {
+			this.serverSocket.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	public void run() {
+		this.scheduler.consoleOutput("[REPLICATION] Waiting for a standby on port " + this.serverSocket.getLocalPort() + "...");
+		while (!this.serverSocket.isClosed()) {
+			Socket socket = null;
+			try {
+				socket = this.serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				socket.setSoTimeout(this.heartbeatInterval);
+				StandbyConnection standby = new StandbyConnection(socket);
+
+				//No event is handled while the snapshot is queued and the standby is connected, so the standby receives
+				//every event after the snapshot exactly once
+				ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+				DataOutputStream out = new DataOutputStream(snapshot);
+				synchronized (this.scheduler) {
+					out.writeByte(SNAPSHOT);
+					this.scheduler.writeReplicationSnapshot(out);
+					standby.queue.add(snapshot.toByteArray());
+					this.connect(standby);
+				}
+				standby.start();
+				this.scheduler.consoleOutput("[REPLICATION] Standby connected from " + socket.getRemoteSocketAddress() + ".");
+			} catch (IOException e) {
+				if (this.serverSocket.isClosed()) {
+					return;
+				}
+				e.printStackTrace();
+				if (socket != null) {
+					try {
+						socket.close();
+					} catch (IOException e1) {
+						e1.printStackTrace();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * A connected standby. The sender thread writes the queued messages to the standby, and a heartbeat whenever the queue has been empty for
+	 * heartbeatInterval. The receiver thread reads the standby's messages, and every heartbeatInterval checks that no write has been blocked
+	 * for longer than writeTimeout.
+	 *
+	 */
+	private class StandbyConnection {
+		private Socket socket;
+		private ArrayBlockingQueue<byte[]> queue;
+		private volatile long writeStartTime;				//System.nanoTime() the write in progress started at, 0 if the sender is not writing
+		private volatile boolean closed;
+
+		StandbyConnection(Socket socket) {
+			this.socket = socket;
+			this.queue = new ArrayBlockingQueue<byte[]>(QUEUE_CAPACITY);
+		}
+
+		void start() {
+			Thread senderThread = new Thread(this::send, scheduler.getName() + "_replication_sender");
+			senderThread.setDaemon(true);
+			senderThread.start();
+			Thread receiverThread = new Thread(this::receive, scheduler.getName() + "_replication_receiver");
+			receiverThread.setDaemon(true);
+			receiverThread.start();
+		}
+
+		private void send() {
+			try {
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(this.socket.getOutputStream()));
+				while (!this.closed) {
+					byte[] message = this.queue.poll(heartbeatInterval, TimeUnit.MILLISECONDS);
+					this.writeStartTime = System.nanoTime();
+					if (message == null) {
+						out.writeByte(HEARTBEAT);
+					} else {
+						out.write(message);
+					}
+
+					//Send every message already queued in the same flush
+					while ((message = this.queue.poll()) != null) {
+						out.write(message);
+					}
+					out.flush();
+					this.writeStartTime = 0;
+				}
+			} catch (IOException e) {
+				disconnect(this, "Lost connection to standby while replicating. " + e.getMessage());
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		}
+
+		private void receive() {
+			try {
+				DataInputStream in = new DataInputStream(new BufferedInputStream(this.socket.getInputStream()));
+				while (!this.closed) {
+					try {
+						if (in.readByte() == TAKEN_OVER) {
+							disconnect(this, "Standby has taken over.");
+							scheduler.stepDown("The standby Scheduler has taken over.");
+							return;
+						}
+					} catch (SocketTimeoutException e) {
+						long writeStartTime = this.writeStartTime;
+						if ((writeStartTime != 0) && (System.nanoTime() - writeStartTime > TimeUnit.MILLISECONDS.toNanos(writeTimeout))) {
+							disconnect(this, "Write to standby did not complete within " + writeTimeout + "ms.");
+						}
+					}
+				}
+			} catch (IOException e) {
+				disconnect(this, "Lost connection to standby. " + e.getMessage());
+			}
+		}
+	}
+}
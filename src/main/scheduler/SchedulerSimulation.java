@@ -0,0 +1,275 @@
+package main.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.PriorityQueue;
+
+import main.global.Direction;
+import main.global.ElevatorSystemRegistry;
+import main.requests.*;
+
+/**
+ * The SchedulerSimulation runs the Scheduler logic against simulated elevators and floors on a virtual clock, with no sockets and no sleeping,
+ * so a recorded stream of trip requests can be served as fast as possible with any PlanningStrategy.
+ *
+ * The simulated elevators respond to the Scheduler's commands after the times configured for them in config.xml (timeBetweenFloors,
+ * doorOperationTime, passengerWaitTime). The simulated floors behave as FloorSubsystem does: when an elevator arrives, the floor hands it the
+ * destination of every waiting passenger going in the elevator's direction (in destination dispatch, a passenger assigned an elevator at the
+ * floor terminal only boards that elevator). The time each passenger waited for an elevator is recorded.
+ *
+ */
+public class SchedulerSimulation implements SchedulerTransport, MonitoredEventTimerService {
+	private static final long SIMULATION_HORIZON = 3600000;			//Time (milliseconds) the simulation runs for after the last trip request
+
+	private Scheduler scheduler;
+	private ElevatorSystemRegistry registry;
+	private PriorityQueue<SimulationEvent> events;					//Events ordered by virtual time, then by the order they were scheduled
+	private long sequence;
+	private long currentTime;										//Virtual time (milliseconds)
+	private int[] elevatorFloors;									//index -> elevator id, value -> floor the simulated elevator is at
+	private HashMap<Integer, LinkedList<FloorButtonRequest>> upQueues;		//key -> floor number, value -> passengers waiting to go up
+	private HashMap<Integer, LinkedList<FloorButtonRequest>> downQueues;	//key -> floor number, value -> passengers waiting to go down
+	private HashMap<FloorButtonRequest, Long> requestTimes;			//key -> trip request, value -> virtual time the passenger pressed the button
+	private HashMap<FloorButtonRequest, String> assignedElevatorNames;	//key -> trip request, value -> elevator the passenger was assigned at the floor terminal
+	private ArrayList<Long> waitTimes;								//Time each passenger waited for an elevator (milliseconds)
+	private ArrayList<Long> tripTimes;								//Time of each completed trip, from the trip request to arrival at the destination (milliseconds)
+	private int timerBacklog;										//Number of monitored event timers started which have not expired yet
+
+	public SchedulerSimulation(HashMap<String, HashMap<String, String>> elevatorConfiguration, HashMap<String, HashMap<String, String>> floorConfigurations, PlanningStrategy planningStrategy) {
+		this.events = new PriorityQueue<SimulationEvent>();
+		this.upQueues = new HashMap<Integer, LinkedList<FloorButtonRequest>>();
+		this.downQueues = new HashMap<Integer, LinkedList<FloorButtonRequest>>();
+		this.requestTimes = new HashMap<FloorButtonRequest, Long>();
+		this.assignedElevatorNames = new HashMap<FloorButtonRequest, String>();
+		this.waitTimes = new ArrayList<Long>();
+		this.tripTimes = new ArrayList<Long>();
+
+		this.scheduler = new Scheduler("Simulation", elevatorConfiguration, floorConfigurations, planningStrategy, this, this);
+		//Trip times are collected as trips complete, so completed trips are not archived
+		this.scheduler.setCompletedTripHistory(ElevatorMonitor.DEFAULT_COMPLETED_TRIP_CAPACITY, ElevatorMonitor.DEFAULT_COMPLETED_TRIP_RETENTION, null);
+		this.scheduler.getTripEventBus().addListener((tripRequest, type, time) -> {
+			if (type == TripEventType.COMPLETED) {
+				this.tripTimes.add(tripRequest.getCompletionTimeLong() - tripRequest.getCreationTimeLong());
+			}
+		});
+		this.scheduler.setConsoleOutputEnabled(false);
+		this.registry = this.scheduler.getRegistry();
+		this.elevatorFloors = new int[this.registry.getNumberOfElevators()];
+		for (ElevatorMonitor elevatorMonitor : this.scheduler.getElevatorMonitors()) {
+			this.elevatorFloors[elevatorMonitor.getElevatorId()] = elevatorMonitor.getElevatorFloorLocation();
+		}
+	}
+
+	/**
+	 * Serve the trip requests, each is made by a passenger at the time it is paired with.
+	 *
+	 * @param tripRequests	- trip requests in the order they were made
+	 * @param requestTimes	- time (milliseconds) each trip request was made
+	 */
+	public void run(ArrayList<FloorButtonRequest> tripRequests, ArrayList<Long> requestTimes) {
+		if (tripRequests.isEmpty()) {
+			return;
+		}
+
+		for (int i = 0; i < tripRequests.size(); i++) {
+			FloorButtonRequest tripRequest = tripRequests.get(i);
+			this.schedule(requestTimes.get(i), () -> this.passengerArrived(tripRequest));
+		}
+
+		long endTime = requestTimes.get(requestTimes.size() - 1) + SIMULATION_HORIZON;
+		while (!this.events.isEmpty() && (this.events.peek().time <= endTime)) {
+			SimulationEvent event = this.events.poll();
+			this.currentTime = event.time;
+			this.scheduler.getClock().setReplayTime(this.currentTime);
+			event.action.run();
+		}
+		this.scheduler.getClock().clearReplayTime();
+	}
+
+	/**
+	 * A passenger presses the button on their floor.
+	 * @param tripRequest
+	 */
+	private void passengerArrived(FloorButtonRequest tripRequest) {
+		int floorNumber = Integer.parseInt(tripRequest.getFloorName());
+		HashMap<Integer, LinkedList<FloorButtonRequest>> queues = (tripRequest.getDirection() == Direction.UP) ? this.upQueues : this.downQueues;
+		LinkedList<FloorButtonRequest> queue = queues.get(floorNumber);
+		if (queue == null) {
+			queue = new LinkedList<FloorButtonRequest>();
+			queues.put(floorNumber, queue);
+		}
+		queue.add(tripRequest);
+		this.requestTimes.put(tripRequest, this.currentTime);
+		this.scheduler.handleEvent(tripRequest);
+	}
+
+	/**
+	 * Schedule an action at a virtual time.
+	 * @param time
+	 * @param action
+	 */
+	private void schedule(long time, Runnable action) {
+		this.events.add(new SimulationEvent(time, this.sequence++, action));
+	}
+
+	/**
+	 * Deliver a request to the Scheduler after a delay.
+	 * @param delay
+	 * @param request
+	 */
+	private void deliver(long delay, Request request) {
+		this.schedule(this.currentTime + delay, () -> this.scheduler.handleEvent(request));
+	}
+
+	@Override
+	public void sendToElevator(Request request, int elevatorId) {
+		String elevatorName = this.registry.getElevatorName(elevatorId);
+		if (request instanceof ElevatorMotorRequest) {
+			Direction direction = ((ElevatorMotorRequest) request).getRequestAction();
+			if (direction == Direction.IDLE) {
+				this.deliver(0, new ElevatorMotorRequest(elevatorName, Direction.IDLE));
+			} else {
+				//Travel to the next floor
+				int timeBetweenFloors = Integer.parseInt(this.registry.getElevatorAttribute(elevatorId, "timeBetweenFloors"));
+				this.schedule(this.currentTime + timeBetweenFloors, () -> {
+					this.elevatorFloors[elevatorId] += (direction == Direction.UP) ? 1 : -1;
+					this.scheduler.handleEvent(new ElevatorArrivalRequest(elevatorName, String.valueOf(this.elevatorFloors[elevatorId]), direction));
+				});
+			}
+		} else if (request instanceof ElevatorDoorRequest) {
+			int doorOperationTime = Integer.parseInt(this.registry.getElevatorAttribute(elevatorId, "doorOperationTime"));
+			this.deliver(doorOperationTime, new ElevatorDoorRequest(elevatorName, ((ElevatorDoorRequest) request).getRequestAction()));
+		} else if (request instanceof ElevatorWaitRequest) {
+			int passengerWaitTime = Integer.parseInt(this.registry.getElevatorAttribute(elevatorId, "passengerWaitTime"));
+			this.deliver(passengerWaitTime, new ElevatorWaitRequest(elevatorName));
+		}
+	}
+
+	@Override
+	public void sendToFloor(Request request, int floorId) {
+		if (request instanceof ElevatorAssignmentRequest) {
+			this.passengerAssigned((ElevatorAssignmentRequest) request, floorId);
+			return;
+		}
+		if (!(request instanceof ElevatorArrivalRequest)) {
+			return;
+		}
+
+		//The elevator has arrived, the passengers waiting to go in its direction board until it is full and enter their destination
+		ElevatorArrivalRequest arrivalRequest = (ElevatorArrivalRequest) request;
+		int floorNumber = this.registry.getFloorNumber(floorId);
+		LinkedList<FloorButtonRequest> queue = null;
+		if (arrivalRequest.getDirection() == Direction.UP) {
+			queue = this.upQueues.get(floorNumber);
+		} else if (arrivalRequest.getDirection() == Direction.DOWN) {
+			queue = this.downQueues.get(floorNumber);
+		}
+		if (queue == null) {
+			return;
+		}
+
+		int availableCapacity = arrivalRequest.getAvailableCapacity();
+		Iterator<FloorButtonRequest> iterator = queue.iterator();
+		while (iterator.hasNext() && (availableCapacity > 0)) {
+			FloorButtonRequest tripRequest = iterator.next();
+			String assignedElevatorName = this.assignedElevatorNames.get(tripRequest);
+			if ((assignedElevatorName != null) && !assignedElevatorName.equals(arrivalRequest.getElevatorName())) {
+				continue;
+			}
+			availableCapacity--;
+			this.waitTimes.add(this.currentTime - this.requestTimes.remove(tripRequest));
+			this.deliver(0, new ElevatorDestinationRequest(this.registry.getFloorName(floorId), tripRequest.getDestinationFloor(), arrivalRequest.getElevatorName()));
+			this.assignedElevatorNames.remove(tripRequest);
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * The floor terminal shows a waiting passenger which elevator to board, as FloorSubsystem does.
+	 * @param assignmentRequest
+	 * @param floorId
+	 */
+	private void passengerAssigned(ElevatorAssignmentRequest assignmentRequest, int floorId) {
+		int floorNumber = this.registry.getFloorNumber(floorId);
+		LinkedList<FloorButtonRequest> queue = ((assignmentRequest.getDirection() == Direction.UP) ? this.upQueues : this.downQueues).get(floorNumber);
+		if (queue == null) {
+			return;
+		}
+		for (FloorButtonRequest tripRequest : queue) {
+			String assignedElevatorName = this.assignedElevatorNames.get(tripRequest);
+			boolean previouslyAssigned = (assignmentRequest.getPreviousElevatorName() == null) ? (assignedElevatorName == null) : assignmentRequest.getPreviousElevatorName().equals(assignedElevatorName);
+			if (tripRequest.getDestinationFloor().trim().equals(assignmentRequest.getDestinationFloor()) && previouslyAssigned) {
+				this.assignedElevatorNames.put(tripRequest, assignmentRequest.getElevatorName());
+				return;
+			}
+		}
+	}
+
+	@Override
+	public void start(MonitoredEventTimer monitoredEventTimer) {
+		this.timerBacklog++;
+		this.schedule(this.currentTime + monitoredEventTimer.getDuration(), () -> {
+			this.timerBacklog--;
+			monitoredEventTimer.expire();
+		});
+	}
+
+	@Override
+	public int getBacklog() {
+		return this.timerBacklog;
+	}
+
+	/**
+	 * Get the time each passenger who was picked up waited for an elevator (milliseconds), in ascending order.
+	 * @return
+	 */
+	public ArrayList<Long> getWaitTimes() {
+		ArrayList<Long> sortedWaitTimes = new ArrayList<Long>(this.waitTimes);
+		Collections.sort(sortedWaitTimes);
+		return sortedWaitTimes;
+	}
+
+	/**
+	 * Get the number of passengers who were never picked up.
+	 * @return
+	 */
+	public int getPassengersNotPickedUp() {
+		return this.requestTimes.size();
+	}
+
+	/**
+	 * Get the total time (milliseconds) of each completed trip, from the trip request to arrival at the destination.
+	 * @return
+	 */
+	public ArrayList<Long> getTripTimes() {
+		ArrayList<Long> tripTimes = new ArrayList<Long>(this.tripTimes);
+		Collections.sort(tripTimes);
+		return tripTimes;
+	}
+
+	/**
+	 * An action to be run at a virtual time.
+	 */
+	private static class SimulationEvent implements Comparable<SimulationEvent> {
+		private long time;
+		private long sequence;
+		private Runnable action;
+
+		SimulationEvent(long time, long sequence, Runnable action) {
+			this.time = time;
+			this.sequence = sequence;
+			this.action = action;
+		}
+
+		@Override
+		public int compareTo(SimulationEvent event) {
+			if (this.time != event.time) {
+				return Long.compare(this.time, event.time);
+			}
+			return Long.compare(this.sequence, event.sequence);
+		}
+	}
+}
@@ -0,0 +1,192 @@
+package main.scheduler;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+
+/**
+ * The SchedulerStandby keeps a standby Scheduler's state in step with the primary Scheduler, from the stream sent by the primary's
+ * SchedulerReplicator. Replicated events are applied exactly as the journal is replayed on recovery: the handlers run, but no requests
+ * are sent and no timers are started.
+ *
+ * When the connection is closed, or no heartbeat has been received for failoverTimeout, the standby connects to the primary once more: a primary
+ * which disconnected the standby because it fell behind sends it a new snapshot. The primary is considered to have failed when it cannot be
+ * connected to (the primary process stopped), or sends no snapshot within failoverTimeout (the primary is hung or unreachable). The standby
+ * Scheduler then takes over (see Scheduler.takeOver()), and tells a primary it is still connected to, so the primary steps down.
+ *
+ */
+public class SchedulerStandby implements Runnable {
+	private Scheduler scheduler;
+	private HashMap<String, String> primaryConfiguration;
+	private HashMap<String, String> standbyConfiguration;
+	private int heartbeatInterval;				//Time between heartbeats sent by the primary (milliseconds)
+	private int failoverTimeout;				//Time without a heartbeat after which the primary is considered to have failed (milliseconds)
+
+	public SchedulerStandby(Scheduler scheduler, HashMap<String, String> primaryConfiguration, HashMap<String, String> standbyConfiguration) {
+		this.scheduler = scheduler;
+		this.primaryConfiguration = primaryConfiguration;
+		this.standbyConfiguration = standbyConfiguration;
+		this.heartbeatInterval = Integer.parseInt(primaryConfiguration.get("heartbeatInterval"));
+		this.failoverTimeout = Integer.parseInt(primaryConfiguration.get("failoverTimeout"));
+	}
+
+	/**
+	 * Connect to the primary, retrying until it is available.
+	 * @return
+	 */
+	private Socket connect() {
+		String host = this.primaryConfiguration.get("host");
+		int replicationPort = Integer.parseInt(this.primaryConfiguration.get("replicationPort"));
+		this.scheduler.consoleOutput("[STANDBY] Connecting to primary at " + host + ":" + replicationPort + "...");
+		while (true) {
+			try {
+				Socket socket = new Socket(host, replicationPort);
+				socket.setSoTimeout(this.failoverTimeout);
+				return socket;
+			} catch (IOException e) {
+				try {
+					Thread.sleep(this.heartbeatInterval);
+				} catch (InterruptedException e1) {
+					e1.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Connect to the primary once, after the replication stream was lost.
+	 * @return null if the primary cannot be connected to
+	 */
+	private Socket reconnect() {
+		String host = this.primaryConfiguration.get("host");
+		int replicationPort = Integer.parseInt(this.primaryConfiguration.get("replicationPort"));
+		this.scheduler.consoleOutput("[STANDBY] Reconnecting to primary at " + host + ":" + replicationPort + "...");
+		Socket socket = new Socket();
+		try {
+			socket.connect(new InetSocketAddress(host, replicationPort), this.failoverTimeout);
+			socket.setSoTimeout(this.failoverTimeout);
+			return socket;
+		} catch (IOException e) {
+			this.scheduler.consoleOutput("[STANDBY] Primary cannot be reached. " + e.getMessage());
+			try {
+				socket.close();
+			} catch (IOException e1) {
+				e1.printStackTrace();
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Tell the primary this standby has taken over, so it steps down if it is still running.
+	 * @param socket
+	 */
+	private void notifyTakenOver(Socket socket) {
+		try {
+			socket.getOutputStream().write(SchedulerReplicator.TAKEN_OVER);
+			socket.getOutputStream().flush();
+		} catch (IOException e) {
+			//The primary has closed the connection, it has stopped
+		}
+	}
+
+	/**
+	 * Apply the replication stream until the connection is lost, or no heartbeat is received for failoverTimeout.
+	 * @param in
+	 * @return true if the primary's state was received on this connection
+	 */
+	private boolean replicate(DataInputStream in) {
+		boolean stateReceived = false;
+		int appliedRecords = 0;
+		try {
+			while (true) {
+				byte messageType = in.readByte();
+				switch (messageType) {
+					case SchedulerReplicator.SNAPSHOT:
+						stateReceived = this.scheduler.loadReplicationSnapshot(in);
+						if (!stateReceived) {
+							this.scheduler.consoleOutput("[STANDBY] Primary's state does not match the configured elevators. Disconnecting.");
+							return false;
+						}
+						this.scheduler.consoleOutput("[STANDBY] Received primary's state. Replicating...");
+						break;
+					case SchedulerReplicator.RECORD:
+						byte recordType = in.readByte();
+						long time = in.readLong();
+						byte[] payload = new byte[in.readInt()];
+						in.readFully(payload);
+						this.scheduler.applyReplicatedRecord(new SchedulerJournalRecord(recordType, time, payload));
+						appliedRecords++;
+						break;
+					case SchedulerReplicator.HEARTBEAT:
+						break;
+					default:
+						this.scheduler.consoleOutput("[STANDBY] Unknown replication message " + messageType + ". Disconnecting.");
+						return false;
+				}
+			}
+		} catch (SocketTimeoutException e) {
+			this.scheduler.consoleOutput("[STANDBY] No heartbeat from primary for " + this.failoverTimeout + "ms.");
+		} catch (EOFException e) {
+			this.scheduler.consoleOutput("[STANDBY] Primary closed the replication stream.");
+		} catch (IOException e) {
+			this.scheduler.consoleOutput("[STANDBY] Lost connection to primary. " + e.getMessage());
+		}
+		this.scheduler.consoleOutput("[STANDBY] Applied " + appliedRecords + " replicated events.");
+		return stateReceived;
+	}
+
+	private void close(Socket socket) {
+		try {
+			socket.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	public void run() {
+		boolean stateReceived = false;
+		Socket socket = this.connect();
+		while (true) {
+			boolean snapshotReceived = false;
+			try {
+				snapshotReceived = this.replicate(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+
+			//A standby which never received the primary's state has nothing to take over with, connect again
+			if (!stateReceived && !snapshotReceived) {
+				this.close(socket);
+				socket = this.connect();
+				continue;
+			}
+
+			//The primary was reached but sent no state, it has failed
+			if (!snapshotReceived) {
+				break;
+			}
+			stateReceived = true;
+
+			//The primary may have disconnected this standby because it fell behind, rather than failed
+			this.close(socket);
+			socket = this.reconnect();
+			if (socket == null) {
+				break;
+			}
+		}
+
+		if (this.scheduler.takeOver(this.primaryConfiguration, this.standbyConfiguration) && (socket != null)) {
+			this.notifyTakenOver(socket);
+		}
+		if (socket != null) {
+			this.close(socket);
+		}
+	}
+}
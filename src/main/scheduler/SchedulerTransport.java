@@ -0,0 +1,25 @@
+package main.scheduler;
+
+import main.requests.Request;
+
+/**
+ * The SchedulerTransport delivers the requests sent by the Scheduler to elevators and floors.
+ * The Scheduler normally sends over UDP (see ServerSchedulerTransport), the replay tool substitutes a transport which records the requests instead.
+ *
+ */
+public interface SchedulerTransport {
+
+	/**
+	 * Send a request to an elevator.
+	 * @param request
+	 * @param elevatorId
+	 */
+	public void sendToElevator(Request request, int elevatorId);
+
+	/**
+	 * Send a request to a floor.
+	 * @param request
+	 * @param floorId
+	 */
+	public void sendToFloor(Request request, int floorId);
+}
@@ -0,0 +1,29 @@
+package main.scheduler;
+
+import main.global.ElevatorSystemRegistry;
+import main.requests.Request;
+import main.server.Server;
+
+/**
+ * Sends the Scheduler's requests over UDP using the Scheduler's Server, to the endpoints in the ElevatorSystemRegistry.
+ *
+ */
+public class ServerSchedulerTransport implements SchedulerTransport {
+	private Server server;
+	private ElevatorSystemRegistry registry;
+
+	public ServerSchedulerTransport(Server server, ElevatorSystemRegistry registry) {
+		this.server = server;
+		this.registry = registry;
+	}
+
+	@Override
+	public void sendToElevator(Request request, int elevatorId) {
+		this.server.send(request, this.registry.getElevatorAddress(elevatorId), this.registry.getElevatorPort(elevatorId));
+	}
+
+	@Override
+	public void sendToFloor(Request request, int floorId) {
+		this.server.send(request, this.registry.getFloorAddress(floorId), this.registry.getFloorPort(floorId));
+	}
+}
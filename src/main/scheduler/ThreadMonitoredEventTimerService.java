@@ -0,0 +1,29 @@
+package main.scheduler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs each MonitoredEventTimer on its own thread.
+ *
+ */
+public class ThreadMonitoredEventTimerService implements MonitoredEventTimerService {
+	private AtomicInteger backlog = new AtomicInteger();			//Number of timer threads still running
+
+	@Override
+	public void start(MonitoredEventTimer monitoredEventTimer) {
+		this.backlog.incrementAndGet();
+		Thread t = new Thread(() -> {
+			try {
+				monitoredEventTimer.run();
+			} finally {
+				this.backlog.decrementAndGet();
+			}
+		});
+		t.start();
+	}
+
+	@Override
+	public int getBacklog() {
+		return this.backlog.get();
+	}
+}
@@ -0,0 +1,12 @@
+package main.scheduler;
+
+/**
+ * The traffic patterns recognized by the TrafficPatternDetector, the Scheduler parks idle elevators differently in each (see Scheduler.selectParkingFloor()).
+ */
+public enum TrafficMode {
+	LIGHT,			//Few hall calls, ie. at night
+	UP_PEAK,		//Most hall calls are going up from the lobby, ie. in the morning
+	DOWN_PEAK,		//Most hall calls are going down from the upper floors, ie. in the evening
+	TWO_WAY,		//Heavy traffic both up from the lobby and down from the upper floors, ie. at lunch
+	INTERFLOOR		//Traffic between the upper floors
+}
@@ -0,0 +1,190 @@
+package main.scheduler;
+
+import main.global.Direction;
+
+/**
+ * The TrafficPatternDetector classifies the stream of hall calls (trip requests) into a TrafficMode.
+ *
+ * The arrival rate of hall calls at each floor, in each direction, is kept as an exponentially decaying count: every count decays with a time
+ * constant of WINDOW, so a hall call's weight halves about every 0.7 * WINDOW and the count over the time constant is the recent arrival rate.
+ * Running totals (all hall calls, up from the lobby, down from the upper floors) are kept the same way, so each hall call and each classification
+ * takes constant time, and the detector uses constant memory however many hall calls it has seen.
+ *
+ * The mode is decided from the share of the recent hall calls going up from the lobby and going down from the upper floors. To avoid switching back and
+ * forth when traffic is near a threshold, a mode is only left once its share falls below the threshold by HYSTERESIS.
+ *
+ */
+public class TrafficPatternDetector {
+	private static final double WINDOW = 300000;					//Time constant (milliseconds) of the decaying counts
+	private static final double LIGHT_TRAFFIC_RATE = 1.0 / 60000;	//Below this many hall calls per millisecond (1 per minute) traffic is light
+	private static final double PEAK_SHARE = 0.6;					//Share of hall calls in one direction to/from the lobby for up/down peak
+	private static final double TWO_WAY_SHARE = 0.3;				//Share of hall calls in each direction for two way traffic
+	private static final double HYSTERESIS = 0.1;
+
+	private int numberOfFloors;
+	private int lobbyFloor;
+	private double[] upCounts;										//index -> floor, value -> decaying count of hall calls going UP from the floor
+	private double[] downCounts;									//index -> floor, value -> decaying count of hall calls going DOWN from the floor
+	private long[] upCountTimes;									//index -> floor, value -> time the up count was last decayed
+	private long[] downCountTimes;									//index -> floor, value -> time the down count was last decayed
+	private double totalCount;										//Decaying count of all hall calls
+	private double lobbyUpCount;									//Decaying count of hall calls going UP from the lobby
+	private double upperDownCount;									//Decaying count of hall calls going DOWN from above the lobby
+	private long totalCountTime;									//Time the running totals were last decayed
+	private TrafficMode trafficMode;
+
+	public TrafficPatternDetector(int numberOfFloors, int lobbyFloor) {
+		this.numberOfFloors = numberOfFloors;
+		this.lobbyFloor = lobbyFloor;
+		this.upCounts = new double[numberOfFloors + 1];
+		this.downCounts = new double[numberOfFloors + 1];
+		this.upCountTimes = new long[numberOfFloors + 1];
+		this.downCountTimes = new long[numberOfFloors + 1];
+		this.trafficMode = TrafficMode.LIGHT;
+	}
+
+	/**
+	 * Record a hall call.
+	 * @param floor
+	 * @param direction
+	 * @param time
+	 */
+	public void hallCallReceived(int floor, Direction direction, long time) {
+		if ((floor < 1) || (floor > this.numberOfFloors) || (direction == Direction.IDLE)) {
+			return;
+		}
+		if (direction == Direction.UP) {
+			this.upCounts[floor] = decay(this.upCounts[floor], this.upCountTimes[floor], time) + 1;
+			this.upCountTimes[floor] = time;
+		} else {
+			this.downCounts[floor] = decay(this.downCounts[floor], this.downCountTimes[floor], time) + 1;
+			this.downCountTimes[floor] = time;
+		}
+
+		this.decayTotals(time);
+		this.totalCount++;
+		if ((direction == Direction.UP) && (floor == this.lobbyFloor)) {
+			this.lobbyUpCount++;
+		} else if ((direction == Direction.DOWN) && (floor > this.lobbyFloor)) {
+			this.upperDownCount++;
+		}
+	}
+
+	/**
+	 * Get the recent arrival rate of hall calls at a floor in a direction.
+	 * @param floor
+	 * @param direction
+	 * @param time
+	 * @return hall calls per millisecond
+	 */
+	public double getArrivalRate(int floor, Direction direction, long time) {
+		if ((floor < 1) || (floor > this.numberOfFloors)) {
+			return 0;
+		}
+		if (direction == Direction.UP) {
+			return decay(this.upCounts[floor], this.upCountTimes[floor], time) / WINDOW;
+		} else if (direction == Direction.DOWN) {
+			return decay(this.downCounts[floor], this.downCountTimes[floor], time) / WINDOW;
+		}
+		return 0;
+	}
+
+	/**
+	 * Get the recent arrival rate of hall calls at a floor in either direction.
+	 * @param floor
+	 * @param time
+	 * @return hall calls per millisecond
+	 */
+	public double getArrivalRate(int floor, long time) {
+		return this.getArrivalRate(floor, Direction.UP, time) + this.getArrivalRate(floor, Direction.DOWN, time);
+	}
+
+	/**
+	 * Get the recent arrival rate of hall calls at every floor, in either direction.
+	 * @param time
+	 * @param rates		- index -> floor, value -> hall calls per millisecond, filled in by this method (length must be at least numberOfFloors + 1)
+	 */
+	public void getArrivalRates(long time, double[] rates) {
+		for (int floor = 1; floor <= this.numberOfFloors; floor++) {
+			rates[floor] = this.getArrivalRate(floor, time);
+		}
+	}
+
+	/**
+	 * Classify the recent hall calls.
+	 * @param time
+	 * @return the current traffic mode
+	 */
+	public TrafficMode getTrafficMode(long time) {
+		this.decayTotals(time);
+		double totalRate = this.totalCount / WINDOW;
+		double lobbyUpShare = (this.totalCount > 0) ? this.lobbyUpCount / this.totalCount : 0;
+		double upperDownShare = (this.totalCount > 0) ? this.upperDownCount / this.totalCount : 0;
+
+		//The current mode is kept while it is within the hysteresis band
+		switch (this.trafficMode) {
+			case LIGHT:
+				if (totalRate < LIGHT_TRAFFIC_RATE * (1 + HYSTERESIS)) {
+					return this.trafficMode;
+				}
+				break;
+			case UP_PEAK:
+				if ((totalRate >= LIGHT_TRAFFIC_RATE) && (lobbyUpShare >= PEAK_SHARE - HYSTERESIS)) {
+					return this.trafficMode;
+				}
+				break;
+			case DOWN_PEAK:
+				if ((totalRate >= LIGHT_TRAFFIC_RATE) && (upperDownShare >= PEAK_SHARE - HYSTERESIS)) {
+					return this.trafficMode;
+				}
+				break;
+			case TWO_WAY:
+				if ((totalRate >= LIGHT_TRAFFIC_RATE) && (lobbyUpShare >= TWO_WAY_SHARE - HYSTERESIS) && (upperDownShare >= TWO_WAY_SHARE - HYSTERESIS)
+						&& (lobbyUpShare < PEAK_SHARE) && (upperDownShare < PEAK_SHARE)) {
+					return this.trafficMode;
+				}
+				break;
+			default:
+				break;
+		}
+
+		if (totalRate < LIGHT_TRAFFIC_RATE) {
+			this.trafficMode = TrafficMode.LIGHT;
+		} else if (lobbyUpShare >= PEAK_SHARE) {
+			this.trafficMode = TrafficMode.UP_PEAK;
+		} else if (upperDownShare >= PEAK_SHARE) {
+			this.trafficMode = TrafficMode.DOWN_PEAK;
+		} else if ((lobbyUpShare >= TWO_WAY_SHARE) && (upperDownShare >= TWO_WAY_SHARE)) {
+			this.trafficMode = TrafficMode.TWO_WAY;
+		} else {
+			this.trafficMode = TrafficMode.INTERFLOOR;
+		}
+		return this.trafficMode;
+	}
+
+	/**
+	 * Get the lobby floor, where up peak traffic starts and down peak traffic ends.
+	 * @return
+	 */
+	public int getLobbyFloor() {
+		return this.lobbyFloor;
+	}
+
+	private void decayTotals(long time) {
+		double factor = decay(1, this.totalCountTime, time);
+		this.totalCount *= factor;
+		this.lobbyUpCount *= factor;
+		this.upperDownCount *= factor;
+		this.totalCountTime = Math.max(this.totalCountTime, time);
+	}
+
+	/**
+	 * Decay a count from the time it was last decayed to a later time.
+	 */
+	private static double decay(double count, long countTime, long time) {
+		if ((count == 0) || (time <= countTime)) {
+			return count;
+		}
+		return count * Math.exp(-(time - countTime) / WINDOW);
+	}
+}
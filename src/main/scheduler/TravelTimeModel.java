@@ -0,0 +1,215 @@
+package main.scheduler;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import main.global.Direction;
+
+/**
+ * The TravelTimeModel learns how long an elevator actually takes to travel between each pair of adjacent floors (in each direction), to
+ * open or close its door, and to wait at a stop for passengers. It starts from the elevator's configured timeBetweenFloors, doorOperationTime
+ * and passengerWaitTime, and is updated from the time between the Scheduler's commands and the elevator's responses:
+ * 	- travel: a motor request (UP/DOWN) is sent -> the elevator's arrival notice at the next floor
+ * 	- door operation: a door request is sent -> the elevator's door confirmation
+ * 	- dwell: a wait request is sent -> the elevator's wait complete notice
+ *
+ * Each time is an exponentially weighted moving average, so the model has a fixed size and follows changes in the elevator's behaviour.
+ * Observations much longer than the current estimate (ie. a response which only arrived after a monitored event timed out and the request
+ * was resent) are capped, so a fault does not teach the model that the elevator is slow.
+ *
+ */
+public class TravelTimeModel {
+	private static final double SMOOTHING_FACTOR = 0.2;				//Weight of each new observation
+	private static final double MAXIMUM_OBSERVATION_FACTOR = 3.0;	//Observations are capped at this multiple of the current estimate
+
+	private int numberOfFloors;
+	private double[] upTravelTimes;									//index -> floor, value -> time (milliseconds) to travel UP from the floor below to this floor
+	private double[] downTravelTimes;								//index -> floor, value -> time (milliseconds) to travel DOWN from the floor above to this floor
+	private double doorOperationTime;
+	private double dwellTime;
+	private long moveStartTime;										//Time the last motor request (UP/DOWN) was sent, -1 if the elevator is not moving
+	private long doorRequestTime;									//Time the last door request was sent, -1 if none is outstanding
+	private long waitRequestTime;									//Time the last wait request was sent, -1 if none is outstanding
+	private int observationCount;									//Number of observations the times have been updated with
+
+	public TravelTimeModel(int numberOfFloors, int timeBetweenFloors, int passengerWaitTime, int doorOperationTime) {
+		this.numberOfFloors = numberOfFloors;
+		this.upTravelTimes = new double[numberOfFloors + 1];
+		this.downTravelTimes = new double[numberOfFloors + 1];
+		for (int floor = 0; floor <= numberOfFloors; floor++) {
+			this.upTravelTimes[floor] = timeBetweenFloors;
+			this.downTravelTimes[floor] = timeBetweenFloors;
+		}
+		this.doorOperationTime = doorOperationTime;
+		this.dwellTime = passengerWaitTime;
+		this.moveStartTime = -1;
+		this.doorRequestTime = -1;
+		this.waitRequestTime = -1;
+	}
+
+	public int getNumberOfFloors() {
+		return this.numberOfFloors;
+	}
+
+	/**
+	 * Get the estimated time to travel to a floor from the adjacent floor, in a direction.
+	 * @param floor	- floor arrived at
+	 * @param direction
+	 * @return time (milliseconds)
+	 */
+	public int getTravelTime(int floor, Direction direction) {
+		int index = Math.max(0, Math.min(floor, this.numberOfFloors));
+		return (int) Math.round((direction == Direction.DOWN) ? this.downTravelTimes[index] : this.upTravelTimes[index]);
+	}
+
+	/**
+	 * Get the estimated time to open or close the door.
+	 * @return time (milliseconds)
+	 */
+	public int getDoorOperationTime() {
+		return (int) Math.round(this.doorOperationTime);
+	}
+
+	/**
+	 * Get the estimated time the elevator waits at a stop for passengers.
+	 * @return time (milliseconds)
+	 */
+	public int getDwellTime() {
+		return (int) Math.round(this.dwellTime);
+	}
+
+	/**
+	 * Get the estimated time the elevator spends at a stop (door opens, passengers get on/off, door closes).
+	 * @return time (milliseconds)
+	 */
+	public int getStopTime() {
+		return (2 * this.getDoorOperationTime()) + this.getDwellTime();
+	}
+
+	/**
+	 * Get the number of observations the times have been updated with, this changes whenever any time changes.
+	 * @return
+	 */
+	public int getObservationCount() {
+		return this.observationCount;
+	}
+
+	/**
+	 * A motor request (UP/DOWN) was sent to the elevator.
+	 * @param time
+	 */
+	public void moveStarted(long time) {
+		this.moveStartTime = time;
+	}
+
+	/**
+	 * The elevator's arrival notice at a floor was received.
+	 * @param floor
+	 * @param direction	- direction the elevator was travelling
+	 * @param time
+	 */
+	public void arrived(int floor, Direction direction, long time) {
+		if ((this.moveStartTime >= 0) && (floor >= 1) && (floor <= this.numberOfFloors) && (direction != Direction.IDLE)) {
+			double[] travelTimes = (direction == Direction.DOWN) ? this.downTravelTimes : this.upTravelTimes;
+			travelTimes[floor] = this.observe(travelTimes[floor], time - this.moveStartTime);
+		}
+		this.moveStartTime = -1;
+	}
+
+	/**
+	 * A door request was sent to the elevator.
+	 * @param time
+	 */
+	public void doorRequested(long time) {
+		this.doorRequestTime = time;
+	}
+
+	/**
+	 * The elevator's door confirmation was received.
+	 * @param time
+	 */
+	public void doorOperated(long time) {
+		if (this.doorRequestTime >= 0) {
+			this.doorOperationTime = this.observe(this.doorOperationTime, time - this.doorRequestTime);
+		}
+		this.doorRequestTime = -1;
+	}
+
+	/**
+	 * A wait request was sent to the elevator.
+	 * @param time
+	 */
+	public void waitRequested(long time) {
+		this.waitRequestTime = time;
+	}
+
+	/**
+	 * The elevator's wait complete notice was received.
+	 * @param time
+	 */
+	public void waitCompleted(long time) {
+		if (this.waitRequestTime >= 0) {
+			this.dwellTime = this.observe(this.dwellTime, time - this.waitRequestTime);
+		}
+		this.waitRequestTime = -1;
+	}
+
+	/**
+	 * Forget any outstanding request, ie. when the elevator is taken OUT_OF_SERVICE the responses it owes are not observations.
+	 */
+	public void cancelObservations() {
+		this.moveStartTime = -1;
+		this.doorRequestTime = -1;
+		this.waitRequestTime = -1;
+	}
+
+	/**
+	 * Update an estimate with an observation.
+	 * @param estimate
+	 * @param observation
+	 * @return the new estimate
+	 */
+	private double observe(double estimate, long observation) {
+		if (observation < 0) {
+			return estimate;
+		}
+		double cappedObservation = Math.min(observation, estimate * MAXIMUM_OBSERVATION_FACTOR);
+		this.observationCount++;
+		return (SMOOTHING_FACTOR * cappedObservation) + ((1 - SMOOTHING_FACTOR) * estimate);
+	}
+
+	/**
+	 * Write the learned times to a Scheduler snapshot.
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeSnapshot(DataOutputStream out) throws IOException {
+		for (int floor = 0; floor <= this.numberOfFloors; floor++) {
+			out.writeDouble(this.upTravelTimes[floor]);
+			out.writeDouble(this.downTravelTimes[floor]);
+		}
+		out.writeDouble(this.doorOperationTime);
+		out.writeDouble(this.dwellTime);
+		out.writeLong(this.moveStartTime);
+		out.writeLong(this.doorRequestTime);
+		out.writeLong(this.waitRequestTime);
+	}
+
+	/**
+	 * Restore the learned times from a Scheduler snapshot (as written by writeSnapshot()).
+	 * @param in
+	 * @throws IOException
+	 */
+	public void readSnapshot(DataInputStream in) throws IOException {
+		for (int floor = 0; floor <= this.numberOfFloors; floor++) {
+			this.upTravelTimes[floor] = in.readDouble();
+			this.downTravelTimes[floor] = in.readDouble();
+		}
+		this.doorOperationTime = in.readDouble();
+		this.dwellTime = in.readDouble();
+		this.moveStartTime = in.readLong();
+		this.doorRequestTime = in.readLong();
+		this.waitRequestTime = in.readLong();
+	}
+}
@@ -0,0 +1,399 @@
+package main.scheduler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+import main.global.Direction;
+
+/**
+ * The TripArchive is an append only, columnar store of the trips evicted from each elevator's CompletedTripHistory. Each column is a file of
+ * primitives in its own right, one value per trip, so a report only reads the columns it needs (ie. getMeanTripTime() reads the creation and
+ * completion times only) and streams them rather than loading the archive into the heap.
+ *
+ * Directory layout (one value per trip, in the order the trips were archived):
+ * 	- elevator.col: elevator key (int), the line of the elevator's name in elevators.txt counting from 0
+ * 	- pickup.col: pickup floor (int)
+ * 	- destination.col: destination floor (int), -1 if the trip had no destination
+ * 	- direction.col: direction ordinal (byte)
+ * 	- creation.col, start.col, completion.col: times (long, milliseconds)
+ * and elevators.txt: the name of each elevator in the archive, one per line (UTF-8), in the order they were added.
+ * Elevators are keyed by name rather than by the Scheduler's elevator id, which depends on config.xml and on the elevator's bank, so the
+ * archive stays readable when the elevators are reconfigured.
+ * Values are buffered until flush(), an elevator's name is written before any of its trips. When the archive is opened, every column is cut
+ * back to the number of trips all of the columns hold, so a trip which was only partly written before a crash is dropped.
+ *
+ */
+public class TripArchive {
+	private static final int ELEVATOR = 0;
+	private static final int PICKUP = 1;
+	private static final int DESTINATION = 2;
+	private static final int DIRECTION = 3;
+	private static final int CREATION = 4;
+	private static final int START = 5;
+	private static final int COMPLETION = 6;
+	private static final String[] COLUMN_FILES = {"elevator.col", "pickup.col", "destination.col", "direction.col", "creation.col", "start.col", "completion.col"};
+	private static final int[] COLUMN_WIDTHS = {4, 4, 4, 1, 8, 8, 8};
+	private static final String ELEVATOR_NAMES_FILE = "elevators.txt";
+
+	/**
+	 * Receives each trip read from the archive (see scan()).
+	 */
+	public interface TripVisitor {
+		public void visit(int elevatorKey, int pickupFloor, int destinationFloor, Direction direction, long creationTime, long startTime, long completionTime);
+	}
+
+	/**
+	 * A block of consecutive archived trips, one array per column (see scanBlocks()). Trip i of the block is index i of every array.
+	 */
+	public static class TripBlock {
+		public final int size;
+		public final int[] elevatorKeys;						//See getElevatorName()
+		public final int[] pickupFloors;
+		public final int[] destinationFloors;
+		public final byte[] directions;							//Direction ordinals
+		public final long[] creationTimes;
+		public final long[] startTimes;
+		public final long[] completionTimes;
+
+		TripBlock(int size) {
+			this.size = size;
+			this.elevatorKeys = new int[size];
+			this.pickupFloors = new int[size];
+			this.destinationFloors = new int[size];
+			this.directions = new byte[size];
+			this.creationTimes = new long[size];
+			this.startTimes = new long[size];
+			this.completionTimes = new long[size];
+		}
+	}
+
+	private File directory;
+	private DataOutputStream[] columns;						//null if the archive was opened for reading only
+	private long tripCount;
+	private ArrayList<String> elevatorNames;				//index -> elevator key, value -> elevator name
+	private HashMap<String, Integer> elevatorKeys;			//key -> elevator name, value -> elevator key
+
+	public TripArchive(File directory) throws IOException {
+		this(directory, false);
+	}
+
+	private TripArchive(File directory, boolean readOnly) throws IOException {
+		this.directory = directory;
+		this.directory.mkdirs();
+
+		this.tripCount = Long.MAX_VALUE;
+		for (int column = 0; column < COLUMN_FILES.length; column++) {
+			this.tripCount = Math.min(this.tripCount, new File(this.directory, COLUMN_FILES[column]).length() / COLUMN_WIDTHS[column]);
+		}
+		if (!readOnly) {
+			this.truncateColumns(this.tripCount);
+			this.openColumns();
+		}
+		this.readElevatorNames(readOnly);
+	}
+
+	/**
+	 * Open an archive for reports only, the column files are not modified. The archive can be open for reading while a Scheduler appends to it,
+	 * the trips appended afterwards are not read.
+	 * @param directory
+	 * @return
+	 * @throws IOException
+	 */
+	public static TripArchive openForReading(File directory) throws IOException {
+		return new TripArchive(directory, true);
+	}
+
+	/**
+	 * Get the key an elevator's trips are archived under, the elevator is added to the archive the first time.
+	 * @param elevatorName
+	 * @return
+	 */
+	public synchronized int getElevatorKey(String elevatorName) {
+		Integer elevatorKey = this.elevatorKeys.get(elevatorName);
+		if (elevatorKey != null) {
+			return elevatorKey;
+		}
+		if (this.columns == null) {
+			throw new IllegalStateException("Trip archive " + this.directory + " is open for reading only");
+		}
+		try {
+			Files.write(new File(this.directory, ELEVATOR_NAMES_FILE).toPath(), (elevatorName + "\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		this.elevatorKeys.put(elevatorName, this.elevatorNames.size());
+		this.elevatorNames.add(elevatorName);
+		return this.elevatorNames.size() - 1;
+	}
+
+	/**
+	 * Get the name of the elevator whose trips are archived under a key.
+	 * @param elevatorKey
+	 * @return null if no elevator has the key
+	 */
+	public synchronized String getElevatorName(int elevatorKey) {
+		return ((elevatorKey >= 0) && (elevatorKey < this.elevatorNames.size())) ? this.elevatorNames.get(elevatorKey) : null;
+	}
+
+	/**
+	 * Append a completed trip.
+	 * @param elevatorKey	- see getElevatorKey()
+	 * @param tripRequest
+	 */
+	public synchronized void append(int elevatorKey, TripRequest tripRequest) {
+		if (this.columns == null) {
+			throw new IllegalStateException("Trip archive " + this.directory + " is open for reading only");
+		}
+		try {
+			this.columns[ELEVATOR].writeInt(elevatorKey);
+			this.columns[PICKUP].writeInt(tripRequest.getPickupFloor());
+			this.columns[DESTINATION].writeInt(tripRequest.hasDestination() ? tripRequest.getDestinationFloor() : -1);
+			this.columns[DIRECTION].writeByte(tripRequest.getDirection().ordinal());
+			this.columns[CREATION].writeLong(tripRequest.getCreationTimeLong());
+			this.columns[START].writeLong(tripRequest.getStartTimeLong());
+			this.columns[COMPLETION].writeLong(tripRequest.getCompletionTimeLong());
+			this.tripCount++;
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Write every buffered trip to the column files.
+	 */
+	public synchronized void flush() {
+		if (this.columns == null) {
+			return;
+		}
+		try {
+			for (DataOutputStream column : this.columns) {
+				column.flush();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Discard every trip after the first tripCount trips, used to return the archive to the state recorded in a Scheduler snapshot.
+	 * @param tripCount
+	 */
+	public synchronized void truncate(long tripCount) {
+		if ((this.columns == null) || (tripCount >= this.tripCount)) {
+			return;
+		}
+		try {
+			this.closeColumns();
+			this.truncateColumns(tripCount);
+			this.tripCount = tripCount;
+			this.openColumns();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * @return the number of trips archived
+	 */
+	public synchronized long getTripCount() {
+		return this.tripCount;
+	}
+
+	/**
+	 * Read every archived trip, in the order they were archived.
+	 * @param visitor
+	 * @throws IOException
+	 */
+	public synchronized void scan(TripVisitor visitor) throws IOException {
+		this.flush();
+		DataInputStream[] in = new DataInputStream[COLUMN_FILES.length];
+		try {
+			for (int column = 0; column < COLUMN_FILES.length; column++) {
+				in[column] = this.openColumn(column);
+			}
+			for (long trip = 0; trip < this.tripCount; trip++) {
+				visitor.visit(in[ELEVATOR].readInt(), in[PICKUP].readInt(), in[DESTINATION].readInt(), Direction.values()[in[DIRECTION].readByte()],
+						in[CREATION].readLong(), in[START].readLong(), in[COMPLETION].readLong());
+			}
+		} finally {
+			for (DataInputStream column : in) {
+				if (column != null) {
+					column.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Read the archived trips in blocks of primitive arrays, in the order they were archived. Each column is read in bulk, and every block is newly
+	 * allocated, so the visitor may hand blocks to other threads. Only the trips archived when the scan starts are read, and the archive is not
+	 * locked while they are read, so trips can still be appended.
+	 * @param blockSize	- trips per block, the last block may be smaller
+	 * @param visitor
+	 * @throws IOException
+	 */
+	public void scanBlocks(int blockSize, Consumer<TripBlock> visitor) throws IOException {
+		long tripCount;
+		synchronized (this) {
+			this.flush();
+			tripCount = this.tripCount;
+		}
+
+		FileChannel[] in = new FileChannel[COLUMN_FILES.length];
+		ByteBuffer[] buffers = new ByteBuffer[COLUMN_FILES.length];
+		try {
+			for (int column = 0; column < COLUMN_FILES.length; column++) {
+				in[column] = new FileInputStream(new File(this.directory, COLUMN_FILES[column])).getChannel();
+				buffers[column] = ByteBuffer.allocateDirect(blockSize * COLUMN_WIDTHS[column]);
+			}
+			for (long firstTrip = 0; firstTrip < tripCount; firstTrip += blockSize) {
+				TripBlock block = new TripBlock((int) Math.min(blockSize, tripCount - firstTrip));
+				for (int column = 0; column < COLUMN_FILES.length; column++) {
+					ByteBuffer buffer = buffers[column];
+					buffer.clear();
+					buffer.limit(block.size * COLUMN_WIDTHS[column]);
+					while (buffer.hasRemaining()) {
+						if (in[column].read(buffer) < 0) {
+							throw new IOException("Trip archive column " + COLUMN_FILES[column] + " ends before trip " + (firstTrip + block.size));
+						}
+					}
+					buffer.flip();
+				}
+				buffers[ELEVATOR].asIntBuffer().get(block.elevatorKeys);
+				buffers[PICKUP].asIntBuffer().get(block.pickupFloors);
+				buffers[DESTINATION].asIntBuffer().get(block.destinationFloors);
+				buffers[DIRECTION].get(block.directions);
+				buffers[CREATION].asLongBuffer().get(block.creationTimes);
+				buffers[START].asLongBuffer().get(block.startTimes);
+				buffers[COMPLETION].asLongBuffer().get(block.completionTimes);
+				visitor.accept(block);
+			}
+		} finally {
+			for (FileChannel column : in) {
+				if (column != null) {
+					column.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the mean time from request to arrival of the trips completed in a period. Only the creation and completion columns are read.
+	 * @param from	- time (milliseconds), inclusive
+	 * @param to	- time (milliseconds), exclusive
+	 * @return time (milliseconds), or 0 if no trip was completed in the period
+	 * @throws IOException
+	 */
+	public synchronized double getMeanTripTime(long from, long to) throws IOException {
+		this.flush();
+		DataInputStream creationTimes = this.openColumn(CREATION);
+		DataInputStream completionTimes = this.openColumn(COMPLETION);
+		try {
+			long totalTripTime = 0;
+			long trips = 0;
+			for (long trip = 0; trip < this.tripCount; trip++) {
+				long creationTime = creationTimes.readLong();
+				long completionTime = completionTimes.readLong();
+				if ((completionTime >= from) && (completionTime < to)) {
+					totalTripTime += completionTime - creationTime;
+					trips++;
+				}
+			}
+			return (trips == 0) ? 0 : (double) totalTripTime / trips;
+		} finally {
+			creationTimes.close();
+			completionTimes.close();
+		}
+	}
+
+	/**
+	 * Flush and close the column files.
+	 */
+	public synchronized void close() {
+		if (this.columns == null) {
+			return;
+		}
+		try {
+			this.closeColumns();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private DataInputStream openColumn(int column) throws IOException {
+		return new DataInputStream(new BufferedInputStream(new FileInputStream(new File(this.directory, COLUMN_FILES[column]))));
+	}
+
+	private void openColumns() throws IOException {
+		this.columns = new DataOutputStream[COLUMN_FILES.length];
+		for (int column = 0; column < COLUMN_FILES.length; column++) {
+			this.columns[column] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(this.directory, COLUMN_FILES[column]), true)));
+		}
+	}
+
+	private void closeColumns() throws IOException {
+		for (DataOutputStream column : this.columns) {
+			column.close();
+		}
+	}
+
+	/**
+	 * Read the name of each elevator in the archive. A name which was only partly written before a crash is dropped.
+	 * @param readOnly	- true to leave a partly written name in the file
+	 * @throws IOException
+	 */
+	private void readElevatorNames(boolean readOnly) throws IOException {
+		this.elevatorNames = new ArrayList<String>();
+		this.elevatorKeys = new HashMap<String, Integer>();
+		File file = new File(this.directory, ELEVATOR_NAMES_FILE);
+		if (!file.exists()) {
+			return;
+		}
+
+		byte[] names = Files.readAllBytes(file.toPath());
+		int length = names.length;
+		while ((length > 0) && (names[length - 1] != '\n')) {
+			length--;
+		}
+		for (String elevatorName : new String(names, 0, length, StandardCharsets.UTF_8).split("\n")) {
+			if (!elevatorName.isEmpty()) {
+				this.elevatorKeys.put(elevatorName, this.elevatorNames.size());
+				this.elevatorNames.add(elevatorName);
+			}
+		}
+		if (!readOnly && (length < names.length)) {
+			RandomAccessFile namesFile = new RandomAccessFile(file, "rw");
+			try {
+				namesFile.setLength(length);
+			} finally {
+				namesFile.close();
+			}
+		}
+	}
+
+	private void truncateColumns(long tripCount) throws IOException {
+		for (int column = 0; column < COLUMN_FILES.length; column++) {
+			RandomAccessFile file = new RandomAccessFile(new File(this.directory, COLUMN_FILES[column]), "rw");
+			try {
+				file.setLength(tripCount * COLUMN_WIDTHS[column]);
+			} finally {
+				file.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package main.scheduler;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The TripEventBus collects the changes made to TripRequests while the Scheduler handles an event, and delivers them to every TripEventListener
+ * in one batch once the event has been handled (see publish()). Posting a change only appends it to parallel arrays, so the ElevatorMonitors
+ * which change TripRequests do no callback work, and a TripRequest holds no listeners of its own.
+ *
+ * Changes are posted and published on the Scheduler's thread. Listeners can be added from any thread.
+ *
+ */
+public class TripEventBus {
+	private static final int INITIAL_SIZE = 16;
+
+	private CopyOnWriteArrayList<TripEventListener> listeners;
+	private TripRequest[] tripRequests;					//index -> posted change, value -> trip request changed
+	private TripEventType[] types;						//index -> posted change, value -> type of change
+	private long[] times;								//index -> posted change, value -> time of the change (milliseconds)
+	private int size;
+	private SchedulerClock clock;						//Clock of the Scheduler whose changes are posted
+
+	public TripEventBus(SchedulerClock clock) {
+		this.clock = clock;
+		this.listeners = new CopyOnWriteArrayList<TripEventListener>();
+		this.tripRequests = new TripRequest[INITIAL_SIZE];
+		this.types = new TripEventType[INITIAL_SIZE];
+		this.times = new long[INITIAL_SIZE];
+	}
+
+	public void addListener(TripEventListener listener) {
+		this.listeners.add(listener);
+	}
+
+	public void removeListener(TripEventListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	/**
+	 * Post a change to a TripRequest, it is delivered on the next publish().
+	 * @param tripRequest
+	 * @param type
+	 */
+	public void post(TripRequest tripRequest, TripEventType type) {
+		if (this.listeners.isEmpty()) {
+			return;
+		}
+		if (this.size == this.tripRequests.length) {
+			int length = this.size * 2;
+			TripRequest[] tripRequests = new TripRequest[length];
+			TripEventType[] types = new TripEventType[length];
+			long[] times = new long[length];
+			System.arraycopy(this.tripRequests, 0, tripRequests, 0, this.size);
+			System.arraycopy(this.types, 0, types, 0, this.size);
+			System.arraycopy(this.times, 0, times, 0, this.size);
+			this.tripRequests = tripRequests;
+			this.types = types;
+			this.times = times;
+		}
+		this.tripRequests[this.size] = tripRequest;
+		this.types[this.size] = type;
+		this.times[this.size] = this.clock.currentTimeMillis();
+		this.size++;
+	}
+
+	/**
+	 * Deliver every change posted since the last publish to every listener, in the order they were posted.
+	 */
+	public void publish() {
+		if (this.size == 0) {
+			return;
+		}
+		for (TripEventListener listener : this.listeners) {
+			for (int i = 0; i < this.size; i++) {
+				listener.tripEvent(this.tripRequests[i], this.types[i], this.times[i]);
+			}
+		}
+		for (int i = 0; i < this.size; i++) {
+			this.tripRequests[i] = null;
+		}
+		this.size = 0;
+	}
+}
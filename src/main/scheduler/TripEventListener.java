@@ -0,0 +1,16 @@
+package main.scheduler;
+
+/**
+ * Receives the changes to TripRequests published on a TripEventBus.
+ *
+ */
+public interface TripEventListener {
+
+	/**
+	 * A TripRequest changed. Called on the Scheduler's thread, once the event which caused the change has been handled.
+	 * @param tripRequest
+	 * @param type
+	 * @param time			- time of the change (milliseconds, see SchedulerClock)
+	 */
+	public void tripEvent(TripRequest tripRequest, TripEventType type, long time);
+}
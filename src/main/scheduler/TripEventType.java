@@ -0,0 +1,11 @@
+package main.scheduler;
+
+/**
+ * The changes to a TripRequest published on the TripEventBus.
+ *
+ */
+public enum TripEventType {
+	DESTINATION_SET,		//The passenger's destination was registered
+	STARTED,				//The passenger was picked up
+	COMPLETED				//The passenger arrived at their destination
+}
@@ -1,31 +1,108 @@
 package main.scheduler;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Observable;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import main.global.Direction;
 
 /**
  * The TripRequest will model a trip request. It includes a pickup floor, destination floor and a direction.
+ * A TripRequest is a plain record of primitives, changes to it are published on the Scheduler's TripEventBus by whoever makes them.
  *
  */
-public class TripRequest extends Observable{
+public class TripRequest {
+	private static final AtomicLong nextId = new AtomicLong(1);
+	
+	private final long id;						//Unique, assigned in the order trip requests are made, identifies the trip in hashed collections
 	private int pickupFloor;
+	private boolean started;
 	private boolean completed;
 	private int destinationFloor;
 	private Direction direction;
 	private boolean hasDestination;
+	private int passengerCount;					//Passengers waiting on this hall call, more than one once concurrent hall calls are coalesced (see addPassenger())
 	private long creationTime, startTime, completedTime;
+	private String announcedElevatorName;		//Elevator the passenger was told to board at the floor terminal (destination dispatch), null if none
 	//private Date creationTime, startTime, completedTime;
 	
-	public TripRequest(int pickupFloor, Direction direction) {
+	/**
+	 * @param pickupFloor
+	 * @param direction
+	 * @param creationTime	- time the trip request was made (milliseconds, see SchedulerClock)
+	 */
+	public TripRequest(int pickupFloor, Direction direction, long creationTime) {
+		this(nextId.getAndIncrement(), pickupFloor, direction, creationTime);
+	}
+	
+	private TripRequest(long id, int pickupFloor, Direction direction, long creationTime) {
+		this.id = id;
 		this.pickupFloor = pickupFloor;
 		this.hasDestination = false;
 		this.direction = direction;
-		this.creationTime = System.currentTimeMillis();
+		this.creationTime = creationTime;
 		this.completed = false;
+		this.passengerCount = 1;
+	}
+	
+	/**
+	 * Write the state of this TripRequest to a Scheduler snapshot.
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeSnapshot(DataOutputStream out) throws IOException {
+		out.writeLong(this.id);
+		out.writeInt(this.pickupFloor);
+		out.writeByte(this.direction.ordinal());
+		out.writeBoolean(this.hasDestination);
+		out.writeInt(this.destinationFloor);
+		out.writeBoolean(this.started);
+		out.writeBoolean(this.completed);
+		out.writeLong(this.creationTime);
+		out.writeLong(this.startTime);
+		out.writeLong(this.completedTime);
+		out.writeInt(this.passengerCount);
+		out.writeBoolean(this.announcedElevatorName != null);
+		if (this.announcedElevatorName != null) {
+			out.writeUTF(this.announcedElevatorName);
+		}
+	}
+	
+	/**
+	 * Read a TripRequest from a Scheduler snapshot (as written by writeSnapshot()). The trip keeps its id, and trip requests made afterwards 
+	 * are given higher ids.
+	 * @param in
+	 * @return
+	 * @throws IOException
+	 */
+	public static TripRequest readSnapshot(DataInputStream in) throws IOException {
+		long id = in.readLong();
+		nextId.accumulateAndGet(id + 1, Math::max);
+		TripRequest tripRequest = new TripRequest(id, in.readInt(), Direction.values()[in.readByte()], 0);
+		tripRequest.hasDestination = in.readBoolean();
+		tripRequest.destinationFloor = in.readInt();
+		tripRequest.started = in.readBoolean();
+		tripRequest.completed = in.readBoolean();
+		tripRequest.creationTime = in.readLong();
+		tripRequest.startTime = in.readLong();
+		tripRequest.completedTime = in.readLong();
+		tripRequest.passengerCount = in.readInt();
+		if (in.readBoolean()) {
+			tripRequest.announcedElevatorName = in.readUTF();
+		}
+		return tripRequest;
+	}
+	
+	/**
+	 * Get the id of this trip request, unique among the trip requests made.
+	 * @return
+	 */
+	public long getId() {
+		return this.id;
 	}
 	
 	public boolean hasDestination() {
@@ -54,8 +131,74 @@ public class TripRequest extends Observable{
 	public void setDestinationFloor(int destinationFloor) {
 		this.destinationFloor = destinationFloor;
 		this.hasDestination = true;
-		this.setChanged();
-		notifyObservers();
+	}
+	
+	/**
+	 * Get the number of passengers waiting on this hall call.
+	 * @return
+	 */
+	public int getPassengerCount() {
+		return this.passengerCount;
+	}
+	
+	/**
+	 * Coalesce another passenger's hall call at the same floor, in the same direction, into this one (see isSameHallCall()), so one pickup 
+	 * serves both.
+	 */
+	public void addPassenger() {
+		this.passengerCount++;
+	}
+	
+	/**
+	 * Split one passenger off this coalesced hall call once they have boarded and entered their destination, so each passenger's trip is 
+	 * tracked to its own destination. The passenger's trip keeps the pickup floor, direction, creation and start time of this hall call.
+	 * @param destinationFloor
+	 * @return the passenger's trip request
+	 */
+	TripRequest splitPassenger(int destinationFloor) {
+		TripRequest passengerTripRequest = new TripRequest(this.pickupFloor, this.direction, this.creationTime);
+		passengerTripRequest.started = this.started;
+		passengerTripRequest.startTime = this.startTime;
+		passengerTripRequest.setDestinationFloor(destinationFloor);
+		this.passengerCount--;
+		return passengerTripRequest;
+	}
+	
+	/**
+	 * Undo the pickup of a hall call whose passengers could not board a full elevator, they wait to be picked up again.
+	 */
+	void clearStarted() {
+		this.started = false;
+		this.startTime = 0;
+	}
+	
+	/**
+	 * Split the passengers who could not board a full elevator off this coalesced hall call, so they can wait for another elevator.
+	 * Their hall call keeps the pickup floor, direction and creation time of this one, and has not been started.
+	 * @param passengerCount	- passengers left behind, fewer than this hall call's passengers
+	 * @return the hall call of the passengers left behind
+	 */
+	TripRequest splitPassengers(int passengerCount) {
+		TripRequest leftBehindTripRequest = new TripRequest(this.pickupFloor, this.direction, this.creationTime);
+		leftBehindTripRequest.passengerCount = passengerCount;
+		this.passengerCount -= passengerCount;
+		return leftBehindTripRequest;
+	}
+	
+	/**
+	 * Get the elevator the passenger was told to board at the floor terminal (destination dispatch).
+	 * @return the elevator name, or null if no elevator has been announced
+	 */
+	public String getAnnouncedElevatorName() {
+		return this.announcedElevatorName;
+	}
+	
+	/**
+	 * Set the elevator the passenger was told to board at the floor terminal (destination dispatch).
+	 * @param announcedElevatorName
+	 */
+	public void setAnnouncedElevatorName(String announcedElevatorName) {
+		this.announcedElevatorName = announcedElevatorName;
 	}
 	
 	/**
@@ -67,34 +210,56 @@ public class TripRequest extends Observable{
 	}
 	
 	/**
-	 * A way to compare trip request objects. This is used to prevent duplicate trip requests in any set collection.
-	 * @param tripRequest
-	 * @return
+	 * Two TripRequests are equal if they are the same trip (they have the same id), so each trip is held once in any set collection 
+	 * however many passengers make the same hall call. See isSameHallCall() to find duplicate hall calls.
 	 */
-	public boolean equals(TripRequest tripRequest) {
-		if ((this.pickupFloor == tripRequest.getPickupFloor()) && (this.destinationFloor == tripRequest.getDestinationFloor()) && (this.direction == tripRequest.getDirection()) ) {
+	public boolean equals(Object o) {
+		if (this == o) {
 			return true;
 		}
-		return false;
+		if (!(o instanceof TripRequest)) {
+			return false;
+		}
+		return this.id == ((TripRequest) o).id;
+	}
+	
+	public int hashCode() {
+		return Long.hashCode(this.id);
+	}
+	
+	/**
+	 * Check whether another trip request is a hall call at the same floor, in the same direction, as this one. Neither may have been picked 
+	 * up yet (they have no destination), so one elevator stop serves both.
+	 * @param tripRequest
+	 * @return
+	 */
+	public boolean isSameHallCall(TripRequest tripRequest) {
+		return (this.pickupFloor == tripRequest.getPickupFloor()) && (this.direction == tripRequest.getDirection()) && !this.hasDestination && !tripRequest.hasDestination();
 	}
 	
 	/**
 	 * Set the start time for this TripRequest. This should be the time the pickup floor is reached.
+	 * @param startTime	- milliseconds, see SchedulerClock
 	 */
-	public void setStarted() {
-		this.startTime = System.currentTimeMillis();
-		this.setChanged();
-		notifyObservers();
+	public void setStarted(long startTime) {
+		this.startTime = startTime;
+		this.started = true;
+	}
+	
+	/**
+	 * Check whether the pickup floor has been reached.
+	 */
+	public boolean isStarted() {
+		return this.started;
 	}
 	
 	/**
 	 * Set the end time for this TripRequest. This should be the time the destination floor is reached.
+	 * @param completedTime	- milliseconds, see SchedulerClock
 	 */
-	public void setCompleted() {
-		this.completedTime = System.currentTimeMillis();
+	public void setCompleted(long completedTime) {
+		this.completedTime = completedTime;
 		this.completed = true;
-		this.setChanged();
-		notifyObservers();
 	}
 	
 	/**
@@ -102,7 +267,15 @@ public class TripRequest extends Observable{
 	 * @return
 	 */
 	public String getCreationTime() {
-		return this.getTime(this.creationTime);
+		return getTime(this.creationTime);
+	}
+	
+	/**
+	 * Return the time at which the TripRequest was created
+	 * @return
+	 */
+	public long getCreationTimeLong() {
+		return this.creationTime;
 	}
 	
 	/**
@@ -110,7 +283,7 @@ public class TripRequest extends Observable{
 	 * @return
 	 */
 	public String getStartTime() {
-		return this.getTime(this.startTime);
+		return getTime(this.startTime);
 	}
 	
 	/**
@@ -126,7 +299,7 @@ public class TripRequest extends Observable{
 	 * @return
 	 */
 	public String getCompletionTime() {
-		return this.getTime(this.completedTime);
+		return getTime(this.completedTime);
 	}
 	
 	/**
@@ -171,7 +344,7 @@ public class TripRequest extends Observable{
 	 * @param startTime
 	 * @return
 	 */
-	private String getElapsedTime(long endTime, long startTime) {
+	static String getElapsedTime(long endTime, long startTime) {
 		long elapsedTime = endTime - startTime;
 		if (elapsedTime > 0) {
 	        long hr = TimeUnit.MILLISECONDS.toHours(elapsedTime);
@@ -187,7 +360,7 @@ public class TripRequest extends Observable{
 	 * @param time - millisecond representation of time.
 	 * @return
 	 */
-	private String getTime(long time) {
+	static String getTime(long time) {
 		if (time >0) {
 			SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss");
 			return format.format(new Date(time));
@@ -196,19 +369,34 @@ public class TripRequest extends Observable{
 	}
 	
 	
+	/**
+	 * Get an immutable copy of this TripRequest, to be read outside the Scheduler's thread.
+	 * @return
+	 */
+	public TripRequestSnapshot getSnapshot() {
+		return new TripRequestSnapshot(this.id, this.pickupFloor, this.direction, this.hasDestination, this.destinationFloor, this.completed, this.creationTime, this.startTime, this.completedTime);
+	}
+	
 	/**
 	 * Coordinate notation to depict a trip request ex -> (pickup, destination)
 	 */
 	public String toString() {
+		return toString(this.pickupFloor, this.direction, this.hasDestination, this.destinationFloor);
+	}
+	
+	/**
+	 * Coordinate notation to depict a trip request ex -> (pickup, destination)
+	 */
+	static String toString(int pickupFloor, Direction direction, boolean hasDestination, int destinationFloor) {
 		StringBuilder sb = new StringBuilder();
 		
 		sb.append("(");
-		sb.append(this.pickupFloor);
+		sb.append(pickupFloor);
 		sb.append(",");
-		sb.append(this.direction);
+		sb.append(direction);
 		sb.append(",");
-		if (this.hasDestination) {
-			sb.append(this.destinationFloor);
+		if (hasDestination) {
+			sb.append(destinationFloor);
 		} else {
 			sb.append("?");
 		}
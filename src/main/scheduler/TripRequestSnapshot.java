@@ -0,0 +1,90 @@
+package main.scheduler;
+
+import main.global.Direction;
+
+/**
+ * A TripRequestSnapshot is an immutable copy of a TripRequest, taken when its ElevatorMonitor publishes a new ElevatorMonitorSnapshot. It keeps the
+ * id of the TripRequest it was copied from, so a reader can tell which snapshots are of the same trip.
+ *
+ */
+public final class TripRequestSnapshot {
+	private final long id;
+	private final int pickupFloor;
+	private final Direction direction;
+	private final boolean hasDestination;
+	private final int destinationFloor;
+	private final boolean completed;
+	private final long creationTime;
+	private final long startTime;
+	private final long completedTime;
+
+	TripRequestSnapshot(long id, int pickupFloor, Direction direction, boolean hasDestination, int destinationFloor, boolean completed,
+			long creationTime, long startTime, long completedTime) {
+		this.id = id;
+		this.pickupFloor = pickupFloor;
+		this.direction = direction;
+		this.hasDestination = hasDestination;
+		this.destinationFloor = destinationFloor;
+		this.completed = completed;
+		this.creationTime = creationTime;
+		this.startTime = startTime;
+		this.completedTime = completedTime;
+	}
+
+	/**
+	 * @return the id of the TripRequest this snapshot was copied from
+	 */
+	public long getId() {
+		return this.id;
+	}
+
+	public int getPickupFloor() {
+		return this.pickupFloor;
+	}
+
+	public Direction getDirection() {
+		return this.direction;
+	}
+
+	public boolean hasDestination() {
+		return this.hasDestination;
+	}
+
+	public int getDestinationFloor() {
+		return this.destinationFloor;
+	}
+
+	public boolean isCompleted() {
+		return this.completed;
+	}
+
+	public long getCreationTimeLong() {
+		return this.creationTime;
+	}
+
+	public long getStartTimeLong() {
+		return this.startTime;
+	}
+
+	public long getCompletionTimeLong() {
+		return this.completedTime;
+	}
+
+	/**
+	 * @return the time the pickup floor was reached, in the format HH:mm:ss
+	 */
+	public String getStartTime() {
+		return TripRequest.getTime(this.startTime);
+	}
+
+	/**
+	 * @return the elapsed time between the trip request's creation and the destination floor being reached, in the format mm:ss
+	 */
+	public String getTripTime() {
+		return TripRequest.getElapsedTime(this.completedTime, this.creationTime);
+	}
+
+	public String toString() {
+		return TripRequest.toString(this.pickupFloor, this.direction, this.hasDestination, this.destinationFloor);
+	}
+}
@@ -0,0 +1,15 @@
+package main.scheduler;
+
+/**
+ * The stages of a TripRequest's lifecycle, in the order they normally occur (see TripTrace).
+ */
+public enum TripStage {
+	HALL_CALL_RECEIVED,
+	ASSIGNED,
+	REASSIGNED,
+	CAR_DISPATCHED,
+	ARRIVAL,
+	DOOR_OPENED,
+	DESTINATION_REGISTERED,
+	DROP_OFF
+}
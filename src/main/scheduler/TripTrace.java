@@ -0,0 +1,120 @@
+package main.scheduler;
+
+import java.util.ArrayList;
+
+/**
+ * The TripTrace records when a TripRequest reached each stage of its lifecycle (see TripStage), with nanosecond timestamps, and the 
+ * network message involved at each stage (the request received from, or sent to, an elevator or floor).
+ * 
+ * A stage is recorded once per assignment, when a trip is reassigned to another elevator, the stages that follow the assignment 
+ * (ie. CAR_DISPATCHED) are recorded again for the new elevator.
+ *
+ */
+public class TripTrace {
+	private int traceId;
+	private TripRequest tripRequest;
+	private ArrayList<TripTraceEvent> events;
+	private int lastAssignmentIndex;				//Index of the last ASSIGNED or REASSIGNED event, -1 if the trip has not been assigned
+
+	public TripTrace(int traceId, TripRequest tripRequest) {
+		this.traceId = traceId;
+		this.tripRequest = tripRequest;
+		this.events = new ArrayList<TripTraceEvent>();
+		this.lastAssignmentIndex = -1;
+	}
+
+	/**
+	 * Record that the trip has reached a stage.
+	 * @param event
+	 * @return false if the stage has already been recorded for the trip's current assignment, the event is not recorded
+	 */
+	public boolean record(TripTraceEvent event) {
+		TripStage stage = event.getStage();
+		if ((stage != TripStage.REASSIGNED) && this.hasReached(stage)) {
+			return false;
+		}
+		this.events.add(event);
+		if ((stage == TripStage.ASSIGNED) || (stage == TripStage.REASSIGNED)) {
+			this.lastAssignmentIndex = this.events.size() - 1;
+		}
+		return true;
+	}
+
+	/**
+	 * @return true if the trip has been assigned to an elevator at least once
+	 */
+	public boolean isAssigned() {
+		return this.lastAssignmentIndex >= 0;
+	}
+
+	/**
+	 * Check whether the trip has reached a stage, since it was last assigned (or ever, for HALL_CALL_RECEIVED).
+	 * @param stage
+	 * @return
+	 */
+	public boolean hasReached(TripStage stage) {
+		int start = (stage == TripStage.HALL_CALL_RECEIVED) ? 0 : Math.max(this.lastAssignmentIndex, 0);
+		for (int i = start; i < this.events.size(); i++) {
+			if (this.events.get(i).getStage() == stage) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the time (nanoseconds) the trip spent getting to each event from the event before it. The first event has a latency of 0.
+	 * @param index
+	 * @return
+	 */
+	public long getLatency(int index) {
+		if (index == 0) {
+			return 0;
+		}
+		return this.events.get(index).getTime() - this.events.get(index - 1).getTime();
+	}
+
+	/**
+	 * Get the time (nanoseconds) from the first event to the first time a stage was reached, -1 if the stage has not been reached.
+	 * @param stage
+	 * @return
+	 */
+	public long getTimeTo(TripStage stage) {
+		for (TripTraceEvent event : this.events) {
+			if (event.getStage() == stage) {
+				return event.getTime() - this.events.get(0).getTime();
+			}
+		}
+		return -1;
+	}
+
+	public int getTraceId() {
+		return this.traceId;
+	}
+
+	public TripRequest getTripRequest() {
+		return this.tripRequest;
+	}
+
+	public ArrayList<TripTraceEvent> getEvents() {
+		return this.events;
+	}
+
+	/**
+	 * Each stage with the time spent getting to it, ex -> #3 (2,UP,5): HALL_CALL_RECEIVED[FloorButtonRequest], ASSIGNED +0.2ms, ...
+	 */
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("#" + this.traceId + " " + this.tripRequest + ":");
+		for (int i = 0; i < this.events.size(); i++) {
+			TripTraceEvent event = this.events.get(i);
+			sb.append((i == 0) ? " " : ", ");
+			sb.append(event.getStage());
+			if (i > 0) {
+				sb.append(String.format(" +%.1fms", this.getLatency(i) / 1000000.0));
+			}
+			sb.append(event);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,87 @@
+package main.scheduler;
+
+/**
+ * A stage reached by a TripRequest (see TripTrace), correlated with the network message involved.
+ *
+ */
+public class TripTraceEvent {
+	private TripStage stage;
+	private long time;							//Time the stage was reached (System.nanoTime())
+	private String elevatorName;				//Elevator serving the trip at this stage, null if none
+	private String messageType;					//Type of the request received or sent at this stage, null if none
+	private boolean messageSent;				//true if the request was sent by the Scheduler, false if it was received
+	private long messageReceivedTime;			//Time the request was received from the network (System.nanoTime()), 0 if the request was sent or its receive time is unknown
+
+	public TripTraceEvent(TripStage stage, long time, String elevatorName, String messageType, boolean messageSent, long messageReceivedTime) {
+		this.stage = stage;
+		this.time = time;
+		this.elevatorName = elevatorName;
+		this.messageType = messageType;
+		this.messageSent = messageSent;
+		this.messageReceivedTime = messageReceivedTime;
+	}
+
+	public TripStage getStage() {
+		return this.stage;
+	}
+
+	public long getTime() {
+		return this.time;
+	}
+
+	public String getElevatorName() {
+		return this.elevatorName;
+	}
+
+	public String getMessageType() {
+		return this.messageType;
+	}
+
+	public boolean isMessageSent() {
+		return this.messageSent;
+	}
+
+	public long getMessageReceivedTime() {
+		return this.messageReceivedTime;
+	}
+
+	/**
+	 * Get the time (nanoseconds) the request waited between being received from the network and this stage being reached, ie. in the Scheduler's event queue.
+	 * @return -1 if the request was sent, or its receive time is unknown
+	 */
+	public long getMessageDelay() {
+		if (this.messageSent || (this.messageReceivedTime == 0)) {
+			return -1;
+		}
+		return this.time - this.messageReceivedTime;
+	}
+
+	/**
+	 * Elevator and message involved, ex -> [E1, ElevatorArrivalRequest received 0.3ms earlier]
+	 */
+	public String toString() {
+		if ((this.elevatorName == null) && (this.messageType == null)) {
+			return "";
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append("[");
+		if (this.elevatorName != null) {
+			sb.append(this.elevatorName);
+			if (this.messageType != null) {
+				sb.append(", ");
+			}
+		}
+		if (this.messageType != null) {
+			sb.append(this.messageType);
+			if (this.messageSent) {
+				sb.append(" sent");
+			} else if (this.getMessageDelay() >= 0) {
+				sb.append(String.format(" received %.1fms earlier", this.getMessageDelay() / 1000000.0));
+			} else {
+				sb.append(" received");
+			}
+		}
+		sb.append("]");
+		return sb.toString();
+	}
+}
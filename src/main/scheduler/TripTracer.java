@@ -0,0 +1,125 @@
+package main.scheduler;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+
+import main.requests.Request;
+
+/**
+ * The TripTracer traces each TripRequest through its lifecycle (see TripTrace), from the hall call to the drop-off, and aggregates the
+ * time spent getting to each stage into a histogram per stage, so it can be seen where passenger wait time actually goes. 
+ * For the stages reached on a received request, the time the request spent in the Scheduler between being received from the network 
+ * and being handled is aggregated as well.
+ *
+ */
+public class TripTracer {
+	private int nextTraceId;
+	private HashMap<Long, TripTrace> activeTraces;								//key -> id of a trip request not yet dropped off, value -> its trace
+	private EnumMap<TripStage, LatencyHistogram> stageLatencies;				//key -> stage, value -> time spent getting to the stage from the stage before it
+	private EnumMap<TripStage, LatencyHistogram> messageDelays;					//key -> stage, value -> time the request received at the stage waited to be handled
+	private LatencyHistogram waitTimes;											//Hall call to the door opening at the pickup floor
+	private LatencyHistogram tripTimes;											//Hall call to drop-off
+
+	public TripTracer() {
+		this.nextTraceId = 1;
+		this.activeTraces = new HashMap<Long, TripTrace>();
+		this.stageLatencies = new EnumMap<TripStage, LatencyHistogram>(TripStage.class);
+		this.messageDelays = new EnumMap<TripStage, LatencyHistogram>(TripStage.class);
+		for (TripStage stage : TripStage.values()) {
+			this.stageLatencies.put(stage, new LatencyHistogram());
+			this.messageDelays.put(stage, new LatencyHistogram());
+		}
+		this.waitTimes = new LatencyHistogram();
+		this.tripTimes = new LatencyHistogram();
+	}
+
+	/**
+	 * Record that a trip request has reached a stage. HALL_CALL_RECEIVED starts the trip's trace, stages reached by a trip request 
+	 * without a trace (ie. one recovered from a snapshot) are not recorded. A trip request assigned a second time is recorded as REASSIGNED.
+	 * 
+	 * @param tripRequest
+	 * @param stage
+	 * @param elevatorName	- elevator serving the trip, null if none
+	 * @param message		- request received or sent at this stage, null if none
+	 * @param messageSent	- true if the message was sent by the Scheduler
+	 * @return the trip's completed trace once it reaches DROP_OFF, otherwise null
+	 */
+	public synchronized TripTrace record(TripRequest tripRequest, TripStage stage, String elevatorName, Request message, boolean messageSent) {
+		long time = System.nanoTime();
+		TripTrace tripTrace = this.activeTraces.get(tripRequest.getId());
+		if (stage == TripStage.HALL_CALL_RECEIVED) {
+			tripTrace = new TripTrace(this.nextTraceId++, tripRequest);
+			this.activeTraces.put(tripRequest.getId(), tripTrace);
+		} else if (tripTrace == null) {
+			return null;
+		} else if ((stage == TripStage.ASSIGNED) && tripTrace.isAssigned()) {
+			stage = TripStage.REASSIGNED;
+		}
+		
+		String messageType = (message == null) ? null : message.getClass().getSimpleName();
+		long messageReceivedTime = (message == null || messageSent) ? 0 : message.getStartTime();
+		TripTraceEvent event = new TripTraceEvent(stage, time, elevatorName, messageType, messageSent, messageReceivedTime);
+		if (!tripTrace.record(event)) {
+			return null;
+		}
+		this.stageLatencies.get(stage).record(tripTrace.getLatency(tripTrace.getEvents().size() - 1));
+		if (event.getMessageDelay() >= 0) {
+			this.messageDelays.get(stage).record(event.getMessageDelay());
+		}
+		
+		if (stage == TripStage.DROP_OFF) {
+			this.activeTraces.remove(tripRequest.getId());
+			if (tripTrace.getTimeTo(TripStage.DOOR_OPENED) >= 0) {
+				this.waitTimes.record(tripTrace.getTimeTo(TripStage.DOOR_OPENED));
+			}
+			this.tripTimes.record(tripTrace.getTimeTo(TripStage.DROP_OFF));
+			return tripTrace;
+		}
+		return null;
+	}
+
+	/**
+	 * Get the histogram of the time spent getting to a stage from the stage before it.
+	 * @param stage
+	 * @return
+	 */
+	public LatencyHistogram getStageLatency(TripStage stage) {
+		return this.stageLatencies.get(stage);
+	}
+
+	/**
+	 * Get the histogram of the time requests received at a stage waited in the Scheduler before being handled.
+	 * @param stage
+	 * @return
+	 */
+	public LatencyHistogram getMessageDelay(TripStage stage) {
+		return this.messageDelays.get(stage);
+	}
+
+	public LatencyHistogram getWaitTimes() {
+		return this.waitTimes;
+	}
+
+	public LatencyHistogram getTripTimes() {
+		return this.tripTimes;
+	}
+
+	/**
+	 * Display the latency of each stage, and the overall passenger wait and trip times, to console. All time values are in milliseconds.
+	 */
+	public void displayTripLatencies() {
+		System.out.println("\n\n-----------------------------------------");
+		System.out.println("Displaying Trip Stage Latencies (time spent getting to each stage from the stage before it)");
+		System.out.printf("%-24s %8s %12s %12s %12s %12s %12s %16s %n", "Stage", "Count", "Mean(ms)", "p50(ms)", "p90(ms)", "p99(ms)", "Max(ms)", "Msg Delay(ms)");
+		for (TripStage stage : TripStage.values()) {
+			this.displayLatency(stage.toString(), this.stageLatencies.get(stage), this.messageDelays.get(stage));
+		}
+		this.displayLatency("Wait (to DOOR_OPENED)", this.waitTimes, null);
+		this.displayLatency("Trip (to DROP_OFF)", this.tripTimes, null);
+	}
+
+	private void displayLatency(String name, LatencyHistogram latency, LatencyHistogram messageDelay) {
+		String meanMessageDelay = ((messageDelay == null) || (messageDelay.getCount() == 0)) ? "--" : String.format("%.3f", messageDelay.getMean());
+		System.out.printf("%-24s %8d %12.1f %12.1f %12.1f %12.1f %12.1f %16s %n", name, latency.getCount(), latency.getMean(), latency.getPercentile(50), latency.getPercentile(90), latency.getPercentile(99), latency.getMax(), meanMessageDelay);
+	}
+}
@@ -7,6 +7,8 @@ import java.net.SocketException;
 
 import main.ElevatorSystemComponent;
 import main.global.ElevatorSystemConfiguration;
+import main.metrics.Counter;
+import main.metrics.MetricsRegistry;
 import main.requests.*;
 
 public class Server implements Runnable{
@@ -16,11 +18,15 @@ public class Server implements Runnable{
 	private String role;
 	private ElevatorSystemComponent elevatorSystemComponent;
 	private boolean debug;
+	private Counter packetsReceived;
+	private Counter packetsSent;
+	private Counter decodeErrors;
 	
 	public Server(ElevatorSystemComponent elevatorSystemComponent, int port, boolean debug) {
 		this.elevatorSystemComponent = elevatorSystemComponent;
 		this.role = elevatorSystemComponent.getName() + "_server";
 		this.debug = debug;
+		this.registerMetrics();
 		try {
 			//Instantiate a socket to be used for receiving packets on specific port.
 			this.receiveSocket = new DatagramSocket(port);
@@ -31,6 +37,39 @@ public class Server implements Runnable{
 		}
 	}
 	
+	/**
+	 * Create a server which receives on an already bound socket.
+	 * This is used when the caller needs to know whether the port could be bound (ie. a standby Scheduler taking over the primary's port).
+	 * 
+	 * @param elevatorSystemComponent
+	 * @param receiveSocket
+	 * @param debug
+	 */
+	public Server(ElevatorSystemComponent elevatorSystemComponent, DatagramSocket receiveSocket, boolean debug) {
+		this.elevatorSystemComponent = elevatorSystemComponent;
+		this.role = elevatorSystemComponent.getName() + "_server";
+		this.debug = debug;
+		this.registerMetrics();
+		this.receiveSocket = receiveSocket;
+		try {
+			//Instantiate a socket to be used for sending and receiving packets
+			this.sendSocket = new DatagramSocket();
+		} catch (SocketException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Register this server's packet counters, labelled with the name of the component it receives for.
+	 */
+	private void registerMetrics() {
+		MetricsRegistry metricsRegistry = MetricsRegistry.getDefault();
+		String componentName = this.elevatorSystemComponent.getName();
+		this.packetsReceived = metricsRegistry.counter("elevator_packets_received_total", "UDP packets received.", "component", componentName);
+		this.packetsSent = metricsRegistry.counter("elevator_packets_sent_total", "UDP packets sent.", "component", componentName);
+		this.decodeErrors = metricsRegistry.counter("elevator_packet_decode_errors_total", "UDP packets received which could not be parsed into a request.", "component", componentName);
+	}
+	
 	/**
 	 * Send a request packet.
 	 * Accepts a Request object, uses the Helper to translate this into a packet and sends it using the 'sendSocket'.
@@ -42,6 +81,24 @@ public class Server implements Runnable{
 	 * @param port
 	 */
 	public void send(Request request, String host, Integer port) {
+		InetAddress hostAddress = null;
+		try {
+			hostAddress = InetAddress.getByName(host);
+		} catch (Exception E) {
+			
+		}
+		
+		this.send(request, hostAddress, port);
+	}
+	
+	/**
+	 * Send a request packet to an already resolved host address.
+	 * 
+	 * @param request
+	 * @param hostAddress
+	 * @param port
+	 */
+	public void send(Request request, InetAddress hostAddress, int port) {
 		
 		DatagramPacket packet = null;
 		try {
@@ -50,13 +107,6 @@ public class Server implements Runnable{
 			e1.printStackTrace();
 		}
 		
-		InetAddress hostAddress = null;
-		try {
-			hostAddress = InetAddress.getByName(host);
-		} catch (Exception E) {
-			
-		}
-		
 		//Set destination of packet
 		packet.setAddress(hostAddress);
 		packet.setPort(port);
@@ -68,6 +118,7 @@ public class Server implements Runnable{
 		//Send packet using sendSocket
 		try {
 			this.sendSocket.send(packet);
+			this.packetsSent.increment();
 		} catch (IOException e) {
 			e.printStackTrace();
 			System.exit(1);
@@ -206,11 +257,13 @@ public class Server implements Runnable{
 			}
 			
 			//turn the packet received into a Request and add it to the elevatorSystemComponent's queue.
+			this.packetsReceived.increment();
 			try {
 				Request request = Helper.ParseRequest(packet);
 				request.setStartTime();
 				elevatorSystemComponent.receiveEvent(request);
 			} catch (InvalidRequestException e) {
+				this.decodeErrors.increment();
 				e.printStackTrace();
 			}
 		}